@@ -0,0 +1,598 @@
+/******************************************************************************
+ * Compilation:  javac BatchBinarySearch.java
+ * Execution:
+ * Dependencies: BinarySearch.java
+ *
+ * Resolves many search keys against the same sorted array in one pass.
+ *
+ ******************************************************************************/
+
+import java.util.Comparator;
+
+/**
+ * The BatchBinarySearch class provides batch versions of the rank, floor
+ * and ceiling methods of the BinarySearch class: given a sorted array and an
+ * array of queries, it stores the result for queries[i] in out[i].
+ * 
+ * The queries are answered in ascending order: each search starts from the
+ * position found for the previous query and gallops (doubles its step)
+ * forward before bisecting, so a query that lands d positions after the
+ * previous one uses about 2 * lg(d) key comparisons, and consecutive searches
+ * touch the same region of the array while it is still in cache.
+ * For m queries against an array of size N, this takes
+ * O(m * log(N / m + 1)) key comparisons in total, instead of m * lg(N).
+ * 
+ * If the queries are already sorted, they are walked in place. Otherwise an
+ * index permutation that sorts them is computed with a merge sort, which
+ * takes O(m log m) time and allocates two int arrays of size m once per
+ * batch; the queries themselves are never copied or reordered. Results are
+ * written to the caller's int array and nothing is allocated per query.
+ * 
+ * @author Nate Liu
+ */
+public class BatchBinarySearch {
+    
+    private static final int RANK = 0;
+    private static final int FLOOR = 1;
+    private static final int CEILING = 2;
+    
+    /**
+     * This class should not be instantiated.
+     */
+    private BatchBinarySearch() { }
+    
+    
+    /**************************************************************************
+     * Key[]
+     *************************************************************************/
+    
+    /**
+     * Stores in out[i] the number of keys in a strictly less than queries[i],
+     * for every i. Same as calling BinarySearch.rank(a, queries[i]) for each
+     * query.
+     * The array must be sorted into ascending order according to the natural
+     * orderings of its entries prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static <Key extends Comparable<Key>> void rank(Key[] a, Key[] queries, int[] out) {
+        batch(a, queries, out, null, RANK);
+    }
+    
+    /**
+     * Stores in out[i] the number of keys in a strictly less than queries[i],
+     * for every i. Same as calling BinarySearch.rank(a, queries[i], comp) for
+     * each query.
+     * The array must be sorted into ascending order according to the ordering
+     * specified by the comparator prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @param comp the comparator which specifies the order of objects
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static <Key> void rank(Key[] a, Key[] queries, int[] out, Comparator<Key> comp) {
+        batch(a, queries, out, comp, RANK);
+    }
+    
+    /**
+     * Stores in out[i] the largest index of key less than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.floor(a, queries[i]) for each query.
+     * The array must be sorted into ascending order according to the natural
+     * orderings of its entries prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static <Key extends Comparable<Key>> void floor(Key[] a, Key[] queries, int[] out) {
+        batch(a, queries, out, null, FLOOR);
+    }
+    
+    /**
+     * Stores in out[i] the largest index of key less than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.floor(a, queries[i], comp) for each query.
+     * The array must be sorted into ascending order according to the ordering
+     * specified by the comparator prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @param comp the comparator which specifies the order of objects
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static <Key> void floor(Key[] a, Key[] queries, int[] out, Comparator<Key> comp) {
+        batch(a, queries, out, comp, FLOOR);
+    }
+    
+    /**
+     * Stores in out[i] the smallest index of key greater than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.ceiling(a, queries[i]) for each query.
+     * The array must be sorted into ascending order according to the natural
+     * orderings of its entries prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static <Key extends Comparable<Key>> void ceiling(Key[] a, Key[] queries, int[] out) {
+        batch(a, queries, out, null, CEILING);
+    }
+    
+    /**
+     * Stores in out[i] the smallest index of key greater than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.ceiling(a, queries[i], comp) for each query.
+     * The array must be sorted into ascending order according to the ordering
+     * specified by the comparator prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @param comp the comparator which specifies the order of objects
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static <Key> void ceiling(Key[] a, Key[] queries, int[] out, Comparator<Key> comp) {
+        batch(a, queries, out, comp, CEILING);
+    }
+    
+    /**
+     * Answers the queries in ascending order, each search starting where the
+     * previous one ended.
+     * pos is the number of keys in a below (strictly less than, or less than
+     * or equal to for floor) the current query, and never decreases.
+     */
+    private static <Key> void batch(Key[] a, Key[] queries, int[] out, 
+                                    Comparator<Key> comp, int op) {
+        if (out.length < queries.length)
+            throw new IllegalArgumentException("output array too short");
+        int[] order = sortedOrder(queries, comp);
+        boolean inclusive = op == FLOOR;
+        int pos = 0;
+        for (int i = 0; i < queries.length; i++) {
+            int q = i;
+            if (order != null) q = order[i];
+            pos = gallop(a, queries[q], comp, pos, inclusive);
+            out[q] = result(pos, a.length, op);
+        }
+    }
+    
+    /**
+     * Returns the number of keys in a below the specified key, given that
+     * there are at least from such keys.
+     * Probes from + 0, from + 1, from + 3, from + 7, ... until it passes the
+     * key, then bisects the last step.
+     */
+    private static <Key> int gallop(Key[] a, Key key, Comparator<Key> comp, 
+                                    int from, boolean inclusive) {
+        int lo = from - 1;
+        int hi = from;
+        int step = 1;
+        while (hi < a.length && below(a[hi], key, comp, inclusive)) {
+            lo = hi;
+            if (a.length - hi <= step) hi = a.length;
+            else hi += step;
+            step <<= 1;
+        }
+        // a[lo] is below the key (or lo == from - 1), a[hi] is not (or hi == N)
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (below(a[mid], key, comp, inclusive)) lo = mid;
+            else hi = mid;
+        }
+        return hi;
+    }
+    
+    private static <Key> boolean below(Key x, Key key, Comparator<Key> comp, 
+                                       boolean inclusive) {
+        if (inclusive) return BinarySearch.cmp(x, key, comp) <= 0;
+        else return BinarySearch.cmp(x, key, comp) < 0;
+    }
+    
+    /**
+     * Returns the permutation of the indices of q that sorts q (stably), or
+     * null if q is already sorted.
+     */
+    private static <Key> int[] sortedOrder(Key[] q, Comparator<Key> comp) {
+        boolean sorted = true;
+        for (int i = 1; i < q.length && sorted; i++)
+            if (BinarySearch.cmp(q[i], q[i - 1], comp) < 0) sorted = false;
+        if (sorted) return null;
+        
+        int[] perm = new int[q.length];
+        for (int i = 0; i < perm.length; i++) perm[i] = i;
+        sort(q, comp, perm, new int[q.length], 0, q.length - 1);
+        return perm;
+    }
+    
+    // Top down merge sort of perm[lo..hi] by the keys they point to in q
+    private static <Key> void sort(Key[] q, Comparator<Key> comp, int[] perm, 
+                                   int[] aux, int lo, int hi) {
+        if (hi <= lo) return;
+        int mid = lo + (hi - lo) / 2;
+        sort(q, comp, perm, aux, lo, mid);
+        sort(q, comp, perm, aux, mid + 1, hi);
+        if (BinarySearch.cmp(q[perm[mid + 1]], q[perm[mid]], comp) >= 0) return;
+        
+        System.arraycopy(perm, lo, aux, lo, hi - lo + 1);
+        int i = lo;
+        int j = mid + 1;
+        for (int k = lo; k <= hi; k++) {
+            if (i > mid) perm[k] = aux[j++];
+            else if (j > hi) perm[k] = aux[i++];
+            else if (BinarySearch.cmp(q[aux[j]], q[aux[i]], comp) < 0) perm[k] = aux[j++];
+            else perm[k] = aux[i++];
+        }
+    }
+    
+    // Converts the number of keys below the query into the requested result
+    private static int result(int pos, int n, int op) {
+        if (op == RANK) return pos;
+        else if (op == FLOOR) return pos - 1;
+        else if (pos == n) return -1;
+        else return pos;
+    }
+    
+    
+    /**************************************************************************
+     * int[]
+     *************************************************************************/
+    
+    /**
+     * Stores in out[i] the number of keys in a strictly less than queries[i],
+     * for every i. Same as calling BinarySearch.rank(a, queries[i]) for each
+     * query.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static void rank(int[] a, int[] queries, int[] out) {
+        batch(a, queries, out, RANK);
+    }
+    
+    /**
+     * Stores in out[i] the largest index of key less than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.floor(a, queries[i]) for each query.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static void floor(int[] a, int[] queries, int[] out) {
+        batch(a, queries, out, FLOOR);
+    }
+    
+    /**
+     * Stores in out[i] the smallest index of key greater than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.ceiling(a, queries[i]) for each query.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static void ceiling(int[] a, int[] queries, int[] out) {
+        batch(a, queries, out, CEILING);
+    }
+    
+    // see batch(Key[], Key[], int[], Comparator, int)
+    private static void batch(int[] a, int[] queries, int[] out, int op) {
+        if (out.length < queries.length)
+            throw new IllegalArgumentException("output array too short");
+        int[] order = sortedOrder(queries);
+        boolean inclusive = op == FLOOR;
+        int pos = 0;
+        for (int i = 0; i < queries.length; i++) {
+            int q = i;
+            if (order != null) q = order[i];
+            pos = gallop(a, queries[q], pos, inclusive);
+            out[q] = result(pos, a.length, op);
+        }
+    }
+    
+    // see gallop(Key[], Key, Comparator, int, boolean)
+    private static int gallop(int[] a, int key, int from, boolean inclusive) {
+        int lo = from - 1;
+        int hi = from;
+        int step = 1;
+        while (hi < a.length && below(a[hi], key, inclusive)) {
+            lo = hi;
+            if (a.length - hi <= step) hi = a.length;
+            else hi += step;
+            step <<= 1;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (below(a[mid], key, inclusive)) lo = mid;
+            else hi = mid;
+        }
+        return hi;
+    }
+    
+    private static boolean below(int x, int key, boolean inclusive) {
+        if (inclusive) return x <= key;
+        else return x < key;
+    }
+    
+    // see sortedOrder(Key[], Comparator)
+    private static int[] sortedOrder(int[] q) {
+        boolean sorted = true;
+        for (int i = 1; i < q.length && sorted; i++)
+            if (q[i] < q[i - 1]) sorted = false;
+        if (sorted) return null;
+        
+        int[] perm = new int[q.length];
+        for (int i = 0; i < perm.length; i++) perm[i] = i;
+        sort(q, perm, new int[q.length], 0, q.length - 1);
+        return perm;
+    }
+    
+    // see sort(Key[], Comparator, int[], int[], int, int)
+    private static void sort(int[] q, int[] perm, int[] aux, int lo, int hi) {
+        if (hi <= lo) return;
+        int mid = lo + (hi - lo) / 2;
+        sort(q, perm, aux, lo, mid);
+        sort(q, perm, aux, mid + 1, hi);
+        if (q[perm[mid + 1]] >= q[perm[mid]]) return;
+        
+        System.arraycopy(perm, lo, aux, lo, hi - lo + 1);
+        int i = lo;
+        int j = mid + 1;
+        for (int k = lo; k <= hi; k++) {
+            if (i > mid) perm[k] = aux[j++];
+            else if (j > hi) perm[k] = aux[i++];
+            else if (q[aux[j]] < q[aux[i]]) perm[k] = aux[j++];
+            else perm[k] = aux[i++];
+        }
+    }
+    
+    
+    /**************************************************************************
+     * long[]
+     *************************************************************************/
+    
+    /**
+     * Stores in out[i] the number of keys in a strictly less than queries[i],
+     * for every i. Same as calling BinarySearch.rank(a, queries[i]) for each
+     * query.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static void rank(long[] a, long[] queries, int[] out) {
+        batch(a, queries, out, RANK);
+    }
+    
+    /**
+     * Stores in out[i] the largest index of key less than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.floor(a, queries[i]) for each query.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static void floor(long[] a, long[] queries, int[] out) {
+        batch(a, queries, out, FLOOR);
+    }
+    
+    /**
+     * Stores in out[i] the smallest index of key greater than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.ceiling(a, queries[i]) for each query.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static void ceiling(long[] a, long[] queries, int[] out) {
+        batch(a, queries, out, CEILING);
+    }
+    
+    // see batch(Key[], Key[], int[], Comparator, int)
+    private static void batch(long[] a, long[] queries, int[] out, int op) {
+        if (out.length < queries.length)
+            throw new IllegalArgumentException("output array too short");
+        int[] order = sortedOrder(queries);
+        boolean inclusive = op == FLOOR;
+        int pos = 0;
+        for (int i = 0; i < queries.length; i++) {
+            int q = i;
+            if (order != null) q = order[i];
+            pos = gallop(a, queries[q], pos, inclusive);
+            out[q] = result(pos, a.length, op);
+        }
+    }
+    
+    // see gallop(Key[], Key, Comparator, int, boolean)
+    private static int gallop(long[] a, long key, int from, boolean inclusive) {
+        int lo = from - 1;
+        int hi = from;
+        int step = 1;
+        while (hi < a.length && below(a[hi], key, inclusive)) {
+            lo = hi;
+            if (a.length - hi <= step) hi = a.length;
+            else hi += step;
+            step <<= 1;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (below(a[mid], key, inclusive)) lo = mid;
+            else hi = mid;
+        }
+        return hi;
+    }
+    
+    private static boolean below(long x, long key, boolean inclusive) {
+        if (inclusive) return x <= key;
+        else return x < key;
+    }
+    
+    // see sortedOrder(Key[], Comparator)
+    private static int[] sortedOrder(long[] q) {
+        boolean sorted = true;
+        for (int i = 1; i < q.length && sorted; i++)
+            if (q[i] < q[i - 1]) sorted = false;
+        if (sorted) return null;
+        
+        int[] perm = new int[q.length];
+        for (int i = 0; i < perm.length; i++) perm[i] = i;
+        sort(q, perm, new int[q.length], 0, q.length - 1);
+        return perm;
+    }
+    
+    // see sort(Key[], Comparator, int[], int[], int, int)
+    private static void sort(long[] q, int[] perm, int[] aux, int lo, int hi) {
+        if (hi <= lo) return;
+        int mid = lo + (hi - lo) / 2;
+        sort(q, perm, aux, lo, mid);
+        sort(q, perm, aux, mid + 1, hi);
+        if (q[perm[mid + 1]] >= q[perm[mid]]) return;
+        
+        System.arraycopy(perm, lo, aux, lo, hi - lo + 1);
+        int i = lo;
+        int j = mid + 1;
+        for (int k = lo; k <= hi; k++) {
+            if (i > mid) perm[k] = aux[j++];
+            else if (j > hi) perm[k] = aux[i++];
+            else if (q[aux[j]] < q[aux[i]]) perm[k] = aux[j++];
+            else perm[k] = aux[i++];
+        }
+    }
+    
+    
+    /**************************************************************************
+     * double[]
+     *************************************************************************/
+    
+    /**
+     * Stores in out[i] the number of keys in a strictly less than queries[i],
+     * for every i. Same as calling BinarySearch.rank(a, queries[i]) for each
+     * query.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static void rank(double[] a, double[] queries, int[] out) {
+        batch(a, queries, out, RANK);
+    }
+    
+    /**
+     * Stores in out[i] the largest index of key less than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.floor(a, queries[i]) for each query.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static void floor(double[] a, double[] queries, int[] out) {
+        batch(a, queries, out, FLOOR);
+    }
+    
+    /**
+     * Stores in out[i] the smallest index of key greater than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.ceiling(a, queries[i]) for each query.
+     * 
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public static void ceiling(double[] a, double[] queries, int[] out) {
+        batch(a, queries, out, CEILING);
+    }
+    
+    // see batch(Key[], Key[], int[], Comparator, int)
+    private static void batch(double[] a, double[] queries, int[] out, int op) {
+        if (out.length < queries.length)
+            throw new IllegalArgumentException("output array too short");
+        int[] order = sortedOrder(queries);
+        boolean inclusive = op == FLOOR;
+        int pos = 0;
+        for (int i = 0; i < queries.length; i++) {
+            int q = i;
+            if (order != null) q = order[i];
+            pos = gallop(a, queries[q], pos, inclusive);
+            out[q] = result(pos, a.length, op);
+        }
+    }
+    
+    // see gallop(Key[], Key, Comparator, int, boolean)
+    private static int gallop(double[] a, double key, int from, boolean inclusive) {
+        int lo = from - 1;
+        int hi = from;
+        int step = 1;
+        while (hi < a.length && below(a[hi], key, inclusive)) {
+            lo = hi;
+            if (a.length - hi <= step) hi = a.length;
+            else hi += step;
+            step <<= 1;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (below(a[mid], key, inclusive)) lo = mid;
+            else hi = mid;
+        }
+        return hi;
+    }
+    
+    private static boolean below(double x, double key, boolean inclusive) {
+        if (inclusive) return Double.compare(x, key) <= 0;
+        else return Double.compare(x, key) < 0;
+    }
+    
+    // see sortedOrder(Key[], Comparator)
+    private static int[] sortedOrder(double[] q) {
+        boolean sorted = true;
+        for (int i = 1; i < q.length && sorted; i++)
+            if (Double.compare(q[i], q[i - 1]) < 0) sorted = false;
+        if (sorted) return null;
+        
+        int[] perm = new int[q.length];
+        for (int i = 0; i < perm.length; i++) perm[i] = i;
+        sort(q, perm, new int[q.length], 0, q.length - 1);
+        return perm;
+    }
+    
+    // see sort(Key[], Comparator, int[], int[], int, int)
+    private static void sort(double[] q, int[] perm, int[] aux, int lo, int hi) {
+        if (hi <= lo) return;
+        int mid = lo + (hi - lo) / 2;
+        sort(q, perm, aux, lo, mid);
+        sort(q, perm, aux, mid + 1, hi);
+        if (Double.compare(q[perm[mid + 1]], q[perm[mid]]) >= 0) return;
+        
+        System.arraycopy(perm, lo, aux, lo, hi - lo + 1);
+        int i = lo;
+        int j = mid + 1;
+        for (int k = lo; k <= hi; k++) {
+            if (i > mid) perm[k] = aux[j++];
+            else if (j > hi) perm[k] = aux[i++];
+            else if (Double.compare(q[aux[j]], q[aux[i]]) < 0) perm[k] = aux[j++];
+            else perm[k] = aux[i++];
+        }
+    }
+}
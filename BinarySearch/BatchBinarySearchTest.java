@@ -0,0 +1,89 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+public class BatchBinarySearchTest extends TestCase {
+    
+    private Random random = new Random(11);
+    
+    public void testInts() {
+        for (int n = 0; n < 60; n += 3) {
+            int[] a = randomInts(n, 40);
+            Arrays.sort(a);
+            for (int m = 0; m < 50; m += 7) {
+                int[] q = randomInts(m, 44);
+                int[] sorted = Arrays.copyOf(q, m);
+                Arrays.sort(sorted);
+                for (int[] queries : new int[][] {q, sorted}) {
+                    int[] rank = new int[m];
+                    int[] floor = new int[m];
+                    int[] ceiling = new int[m];
+                    BatchBinarySearch.rank(a, queries, rank);
+                    BatchBinarySearch.floor(a, queries, floor);
+                    BatchBinarySearch.ceiling(a, queries, ceiling);
+                    for (int i = 0; i < m; i++) {
+                        assertEquals(rank[i], BinarySearch.rank(a, queries[i]));
+                        assertEquals(floor[i], BinarySearch.floor(a, queries[i]));
+                        assertEquals(ceiling[i], BinarySearch.ceiling(a, queries[i]));
+                    }
+                }
+            }
+        }
+    }
+    
+    public void testLongsAndDoubles() {
+        long[] a = new long[1000];
+        double[] d = new double[1000];
+        for (int i = 0; i < a.length; i++) a[i] = random.nextInt(5000);
+        Arrays.sort(a);
+        for (int i = 0; i < a.length; i++) d[i] = a[i] / 4.0;
+        long[] q = new long[3000];
+        double[] dq = new double[3000];
+        for (int i = 0; i < q.length; i++) {
+            q[i] = random.nextInt(5100) - 50;
+            dq[i] = q[i] / 4.0;
+        }
+        int[] out = new int[q.length];
+        int[] dout = new int[q.length];
+        BatchBinarySearch.floor(a, q, out);
+        BatchBinarySearch.floor(d, dq, dout);
+        for (int i = 0; i < q.length; i++) {
+            assertEquals(out[i], BinarySearch.floor(a, q[i]));
+            assertEquals(dout[i], BinarySearch.floor(d, dq[i]));
+        }
+    }
+    
+    public void testKeys() {
+        Comparator<Integer> reverse = Comparator.reverseOrder();
+        Integer[] a = new Integer[200];
+        Integer[] r = new Integer[200];
+        for (int i = 0; i < a.length; i++) a[i] = random.nextInt(100);
+        Arrays.sort(a);
+        for (int i = 0; i < a.length; i++) r[i] = a[a.length - 1 - i];
+        Integer[] q = new Integer[500];
+        for (int i = 0; i < q.length; i++) q[i] = random.nextInt(110) - 5;
+        int[] out = new int[q.length];
+        int[] rout = new int[q.length];
+        BatchBinarySearch.ceiling(a, q, out);
+        BatchBinarySearch.rank(r, q, rout, reverse);
+        for (int i = 0; i < q.length; i++) {
+            assertEquals(out[i], BinarySearch.ceiling(a, q[i]));
+            assertEquals(rout[i], BinarySearch.rank(r, q[i], reverse));
+        }
+    }
+    
+    public void testOutputTooShort() {
+        try {
+            BatchBinarySearch.rank(new int[] {1, 2}, new int[] {1, 2}, new int[1]);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+    }
+    
+    private int[] randomInts(int n, int range) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) a[i] = random.nextInt(range) - 2;
+        return a;
+    }
+}
@@ -9,6 +9,9 @@
  ******************************************************************************/
 
 import java.util.Comparator;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * The BinarySearch class provides a static method for binary
@@ -29,6 +32,29 @@ import java.util.Comparator;
  * contains:     uses at most floor(lg N) + 1 key comparisons
  * rangeCount:   uses 2 * floor(lg N) + 2 key comparisons
  * 
+ * Every method is also overloaded for arrays of ints, longs, floats, doubles,
+ * shorts and chars. The primitive overloads compare keys directly (floats and
+ * doubles in the order imposed by Float.compare() and Double.compare(), same
+ * as Arrays.sort()), so no boxing or comparator dispatch takes place and no
+ * memory is allocated.
+ * 
+ * firstIndexOf, lastIndexOf, floor and ceiling also take an optional hint
+ * index (for Key[], int[], long[] and double[] arrays), from which the search
+ * gallops outward before bisecting. When the answer is d positions away from
+ * the hint they use O(log d) key comparisons; see SearchCursor for a cursor
+ * that keeps the hint between calls.
+ * 
+ * range returns a view (a SortedRange, or an IntSortedRange, LongSortedRange
+ * or DoubleSortedRange for primitive keys) of the keys between two bounds,
+ * each inclusive or exclusive, which streams the keys straight from the array.
+ * 
+ * Arrays of objects sorted by an int, long or double field can be searched
+ * for a primitive key with firstIndexOfInt, floorLong, rankDouble and the
+ * like, which take a function that extracts the key of an entry.
+ * 
+ * bucketize and histogram map arrays of ints, longs or doubles to the
+ * buckets delimited by a sorted array of boundaries, and count them.
+ * 
  * @author Nate Liu
  * @author Kevin Wayne
  */
@@ -565,7 +591,7 @@ public class BinarySearch {
         else return -1;
     }
     
-    private static <Key> int cmp(Key key1, Key key2, Comparator<Key> comp) {
+    static <Key> int cmp(Key key1, Key key2, Comparator<Key> comp) {
         if (comp == null) return ((Comparable<Key>) key1).compareTo(key2);
         else return comp.compare(key1, key2);
     }
@@ -588,4 +614,2599 @@ public class BinarySearch {
         int hi = predecessor(a, key2, comp);
         return hi - lo;
     }
+    
+    
+    /**************************************************************************
+     * Primitive overloads for int[]
+     *************************************************************************/
+    
+    /**
+     * Returns the index of the specified key in the specified array of ints,
+     * or -1 if there is no such index.
+     * If the array contains multiple entries equal to the specified key, it
+     * returns the index of any such key.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return index of key in array a if present, -1 otherwise
+     */
+    public static int indexOf(int[] a, int key) {
+        return binSearch(a, key);
+    }
+    
+    /**
+     * Returns the first index of the specified key in the specified array of
+     * ints, or (-(insertion point) - 1) if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int firstIndexOf(int[] a, int key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, false);
+        if (a[idx] == key) return idx;
+        else if (idx == a.length - 1 && a[idx] < key) return -idx - 2;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Returns the last index of the specified key in the specified array of
+     * ints, or (-(insertion point) - 1) if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int lastIndexOf(int[] a, int key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, false);
+        if (a[idx] == key) return idx;
+        else if (idx == 0 && a[idx] > key) return -1;
+        else return -idx - 2;
+    }
+    
+    /**
+     * Returns the largest index of key less than or equal to specified key in 
+     * the specified array of ints, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int floor(int[] a, int key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, false);
+        if (a[idx] <= key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the smallest index of key greater than or equal to specified key
+     * in the specified array of ints, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int ceiling(int[] a, int key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, false);
+        if (a[idx] >= key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the largest index of key strictly less than specified key in 
+     * the specified array of ints, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key strictly less than specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int predecessor(int[] a, int key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, true);
+        if (a[idx] < key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the smallest index of key strictly greater than specified key
+     * in the specified array of ints, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key strictly greater than specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int successor(int[] a, int key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, true);
+        if (a[idx] > key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the number of keys equal to the specified key
+     * in the specified array of ints.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys equal to the specified key in the 
+     *         specified array.
+     */
+    public static int count(int[] a, int key) {
+        int first = firstIndexOf(a, key);
+        if (first < 0) return 0;
+        int last = lastIndexOf(a, key);
+        return last - first + 1;
+    }
+    
+    /**
+     * Returns the number of keys strictly less than the specified key
+     * in the specified array of ints.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key in the 
+     *         specified array.
+     */
+    public static int rank(int[] a, int key) {
+        return predecessor(a, key) + 1;
+    }
+    
+    /**
+     * Returns true if specified key is in the specified array of ints;
+     * false otherwise.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return true if specified key is in the specified array; false otherwise
+     */
+    public static boolean contains(int[] a, int key) {
+        return indexOf(a, key) != -1;
+    }
+    
+    /**
+     * Returns the number of keys between key1 (inclusive) and key2 (exclusive)
+     * in the specified array of ints.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throw IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     *         in the specified array
+     */
+    public static int rangeCount(int[] a, int key1, int key2) {
+        if (key1 >= key2) throw new IllegalArgumentException();
+        int lo = predecessor(a, key1);
+        int hi = predecessor(a, key2);
+        return hi - lo;
+    }
+    
+    // see binSearch(Key[], Key, Comparator)
+    private static int binSearch(int[] a, int key) {
+        int lo = 0;
+        int hi = a.length - 1;
+        while (hi >= lo) {
+            int mid = lo + (hi - lo) / 2;
+            if (a[mid] > key) hi = mid - 1;
+            else if (a[mid] < key) lo = mid + 1;
+            else return mid;
+        }
+        return -1;
+    }
+    
+    // see binSearchCeil(Key[], Key, Comparator, boolean)
+    private static int binSearchCeil(int[] a, int key, boolean findPred) {
+        int lo = -1;
+        int hi = a.length - 1;
+        if (findPred) {
+            lo = 0;
+            hi = a.length;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (a[mid] >= key) hi = mid;
+            else lo = mid;
+        }
+        if (findPred) return lo;
+        else return hi;
+    }
+    
+    // see binSearchFloor(Key[], Key, Comparator, boolean)
+    private static int binSearchFloor(int[] a, int key, boolean findSucc) {
+        int lo = 0;
+        int hi = a.length;
+        if (findSucc) {
+            lo = -1;
+            hi = a.length - 1;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (a[mid] <= key) lo = mid;
+            else hi = mid;
+        }
+        if (findSucc) return hi;
+        else return lo;
+    }
+    
+    
+    /**************************************************************************
+     * Primitive overloads for long[]
+     *************************************************************************/
+    
+    /**
+     * Returns the index of the specified key in the specified array of longs,
+     * or -1 if there is no such index.
+     * If the array contains multiple entries equal to the specified key, it
+     * returns the index of any such key.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return index of key in array a if present, -1 otherwise
+     */
+    public static int indexOf(long[] a, long key) {
+        return binSearch(a, key);
+    }
+    
+    /**
+     * Returns the first index of the specified key in the specified array of
+     * longs, or (-(insertion point) - 1) if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int firstIndexOf(long[] a, long key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, false);
+        if (a[idx] == key) return idx;
+        else if (idx == a.length - 1 && a[idx] < key) return -idx - 2;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Returns the last index of the specified key in the specified array of
+     * longs, or (-(insertion point) - 1) if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int lastIndexOf(long[] a, long key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, false);
+        if (a[idx] == key) return idx;
+        else if (idx == 0 && a[idx] > key) return -1;
+        else return -idx - 2;
+    }
+    
+    /**
+     * Returns the largest index of key less than or equal to specified key in 
+     * the specified array of longs, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int floor(long[] a, long key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, false);
+        if (a[idx] <= key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the smallest index of key greater than or equal to specified key
+     * in the specified array of longs, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int ceiling(long[] a, long key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, false);
+        if (a[idx] >= key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the largest index of key strictly less than specified key in 
+     * the specified array of longs, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key strictly less than specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int predecessor(long[] a, long key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, true);
+        if (a[idx] < key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the smallest index of key strictly greater than specified key
+     * in the specified array of longs, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key strictly greater than specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int successor(long[] a, long key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, true);
+        if (a[idx] > key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the number of keys equal to the specified key
+     * in the specified array of longs.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys equal to the specified key in the 
+     *         specified array.
+     */
+    public static int count(long[] a, long key) {
+        int first = firstIndexOf(a, key);
+        if (first < 0) return 0;
+        int last = lastIndexOf(a, key);
+        return last - first + 1;
+    }
+    
+    /**
+     * Returns the number of keys strictly less than the specified key
+     * in the specified array of longs.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key in the 
+     *         specified array.
+     */
+    public static int rank(long[] a, long key) {
+        return predecessor(a, key) + 1;
+    }
+    
+    /**
+     * Returns true if specified key is in the specified array of longs;
+     * false otherwise.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return true if specified key is in the specified array; false otherwise
+     */
+    public static boolean contains(long[] a, long key) {
+        return indexOf(a, key) != -1;
+    }
+    
+    /**
+     * Returns the number of keys between key1 (inclusive) and key2 (exclusive)
+     * in the specified array of longs.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throw IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     *         in the specified array
+     */
+    public static int rangeCount(long[] a, long key1, long key2) {
+        if (key1 >= key2) throw new IllegalArgumentException();
+        int lo = predecessor(a, key1);
+        int hi = predecessor(a, key2);
+        return hi - lo;
+    }
+    
+    // see binSearch(Key[], Key, Comparator)
+    private static int binSearch(long[] a, long key) {
+        int lo = 0;
+        int hi = a.length - 1;
+        while (hi >= lo) {
+            int mid = lo + (hi - lo) / 2;
+            if (a[mid] > key) hi = mid - 1;
+            else if (a[mid] < key) lo = mid + 1;
+            else return mid;
+        }
+        return -1;
+    }
+    
+    // see binSearchCeil(Key[], Key, Comparator, boolean)
+    private static int binSearchCeil(long[] a, long key, boolean findPred) {
+        int lo = -1;
+        int hi = a.length - 1;
+        if (findPred) {
+            lo = 0;
+            hi = a.length;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (a[mid] >= key) hi = mid;
+            else lo = mid;
+        }
+        if (findPred) return lo;
+        else return hi;
+    }
+    
+    // see binSearchFloor(Key[], Key, Comparator, boolean)
+    private static int binSearchFloor(long[] a, long key, boolean findSucc) {
+        int lo = 0;
+        int hi = a.length;
+        if (findSucc) {
+            lo = -1;
+            hi = a.length - 1;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (a[mid] <= key) lo = mid;
+            else hi = mid;
+        }
+        if (findSucc) return hi;
+        else return lo;
+    }
+    
+    
+    /**************************************************************************
+     * Primitive overloads for float[]
+     *************************************************************************/
+    
+    /**
+     * Returns the index of the specified key in the specified array of floats,
+     * or -1 if there is no such index.
+     * If the array contains multiple entries equal to the specified key, it
+     * returns the index of any such key.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Float.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return index of key in array a if present, -1 otherwise
+     */
+    public static int indexOf(float[] a, float key) {
+        return binSearch(a, key);
+    }
+    
+    /**
+     * Returns the first index of the specified key in the specified array of
+     * floats, or (-(insertion point) - 1) if there is no such index.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Float.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int firstIndexOf(float[] a, float key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, false);
+        if (Float.compare(a[idx], key) == 0) return idx;
+        else if (idx == a.length - 1 && Float.compare(a[idx], key) < 0) return -idx - 2;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Returns the last index of the specified key in the specified array of
+     * floats, or (-(insertion point) - 1) if there is no such index.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Float.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int lastIndexOf(float[] a, float key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, false);
+        if (Float.compare(a[idx], key) == 0) return idx;
+        else if (idx == 0 && Float.compare(a[idx], key) > 0) return -1;
+        else return -idx - 2;
+    }
+    
+    /**
+     * Returns the largest index of key less than or equal to specified key in 
+     * the specified array of floats, or - 1 if there is no such index.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Float.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int floor(float[] a, float key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, false);
+        if (Float.compare(a[idx], key) <= 0) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the smallest index of key greater than or equal to specified key
+     * in the specified array of floats, or - 1 if there is no such index.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Float.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int ceiling(float[] a, float key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, false);
+        if (Float.compare(a[idx], key) >= 0) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the largest index of key strictly less than specified key in 
+     * the specified array of floats, or - 1 if there is no such index.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Float.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key strictly less than specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int predecessor(float[] a, float key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, true);
+        if (Float.compare(a[idx], key) < 0) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the smallest index of key strictly greater than specified key
+     * in the specified array of floats, or - 1 if there is no such index.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Float.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key strictly greater than specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int successor(float[] a, float key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, true);
+        if (Float.compare(a[idx], key) > 0) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the number of keys equal to the specified key
+     * in the specified array of floats.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Float.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys equal to the specified key in the 
+     *         specified array.
+     */
+    public static int count(float[] a, float key) {
+        int first = firstIndexOf(a, key);
+        if (first < 0) return 0;
+        int last = lastIndexOf(a, key);
+        return last - first + 1;
+    }
+    
+    /**
+     * Returns the number of keys strictly less than the specified key
+     * in the specified array of floats.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Float.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key in the 
+     *         specified array.
+     */
+    public static int rank(float[] a, float key) {
+        return predecessor(a, key) + 1;
+    }
+    
+    /**
+     * Returns true if specified key is in the specified array of floats;
+     * false otherwise.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Float.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return true if specified key is in the specified array; false otherwise
+     */
+    public static boolean contains(float[] a, float key) {
+        return indexOf(a, key) != -1;
+    }
+    
+    /**
+     * Returns the number of keys between key1 (inclusive) and key2 (exclusive)
+     * in the specified array of floats.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Float.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throw IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     *         in the specified array
+     */
+    public static int rangeCount(float[] a, float key1, float key2) {
+        if (Float.compare(key1, key2) >= 0) throw new IllegalArgumentException();
+        int lo = predecessor(a, key1);
+        int hi = predecessor(a, key2);
+        return hi - lo;
+    }
+    
+    // see binSearch(Key[], Key, Comparator)
+    private static int binSearch(float[] a, float key) {
+        int lo = 0;
+        int hi = a.length - 1;
+        while (hi >= lo) {
+            int mid = lo + (hi - lo) / 2;
+            if (Float.compare(a[mid], key) > 0) hi = mid - 1;
+            else if (Float.compare(a[mid], key) < 0) lo = mid + 1;
+            else return mid;
+        }
+        return -1;
+    }
+    
+    // see binSearchCeil(Key[], Key, Comparator, boolean)
+    private static int binSearchCeil(float[] a, float key, boolean findPred) {
+        int lo = -1;
+        int hi = a.length - 1;
+        if (findPred) {
+            lo = 0;
+            hi = a.length;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (Float.compare(a[mid], key) >= 0) hi = mid;
+            else lo = mid;
+        }
+        if (findPred) return lo;
+        else return hi;
+    }
+    
+    // see binSearchFloor(Key[], Key, Comparator, boolean)
+    private static int binSearchFloor(float[] a, float key, boolean findSucc) {
+        int lo = 0;
+        int hi = a.length;
+        if (findSucc) {
+            lo = -1;
+            hi = a.length - 1;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (Float.compare(a[mid], key) <= 0) lo = mid;
+            else hi = mid;
+        }
+        if (findSucc) return hi;
+        else return lo;
+    }
+    
+    
+    /**************************************************************************
+     * Primitive overloads for double[]
+     *************************************************************************/
+    
+    /**
+     * Returns the index of the specified key in the specified array of doubles,
+     * or -1 if there is no such index.
+     * If the array contains multiple entries equal to the specified key, it
+     * returns the index of any such key.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return index of key in array a if present, -1 otherwise
+     */
+    public static int indexOf(double[] a, double key) {
+        return binSearch(a, key);
+    }
+    
+    /**
+     * Returns the first index of the specified key in the specified array of
+     * doubles, or (-(insertion point) - 1) if there is no such index.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int firstIndexOf(double[] a, double key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, false);
+        if (Double.compare(a[idx], key) == 0) return idx;
+        else if (idx == a.length - 1 && Double.compare(a[idx], key) < 0) return -idx - 2;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Returns the last index of the specified key in the specified array of
+     * doubles, or (-(insertion point) - 1) if there is no such index.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int lastIndexOf(double[] a, double key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, false);
+        if (Double.compare(a[idx], key) == 0) return idx;
+        else if (idx == 0 && Double.compare(a[idx], key) > 0) return -1;
+        else return -idx - 2;
+    }
+    
+    /**
+     * Returns the largest index of key less than or equal to specified key in 
+     * the specified array of doubles, or - 1 if there is no such index.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int floor(double[] a, double key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, false);
+        if (Double.compare(a[idx], key) <= 0) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the smallest index of key greater than or equal to specified key
+     * in the specified array of doubles, or - 1 if there is no such index.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int ceiling(double[] a, double key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, false);
+        if (Double.compare(a[idx], key) >= 0) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the largest index of key strictly less than specified key in 
+     * the specified array of doubles, or - 1 if there is no such index.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key strictly less than specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int predecessor(double[] a, double key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, true);
+        if (Double.compare(a[idx], key) < 0) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the smallest index of key strictly greater than specified key
+     * in the specified array of doubles, or - 1 if there is no such index.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key strictly greater than specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int successor(double[] a, double key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, true);
+        if (Double.compare(a[idx], key) > 0) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the number of keys equal to the specified key
+     * in the specified array of doubles.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys equal to the specified key in the 
+     *         specified array.
+     */
+    public static int count(double[] a, double key) {
+        int first = firstIndexOf(a, key);
+        if (first < 0) return 0;
+        int last = lastIndexOf(a, key);
+        return last - first + 1;
+    }
+    
+    /**
+     * Returns the number of keys strictly less than the specified key
+     * in the specified array of doubles.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key in the 
+     *         specified array.
+     */
+    public static int rank(double[] a, double key) {
+        return predecessor(a, key) + 1;
+    }
+    
+    /**
+     * Returns true if specified key is in the specified array of doubles;
+     * false otherwise.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return true if specified key is in the specified array; false otherwise
+     */
+    public static boolean contains(double[] a, double key) {
+        return indexOf(a, key) != -1;
+    }
+    
+    /**
+     * Returns the number of keys between key1 (inclusive) and key2 (exclusive)
+     * in the specified array of doubles.
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throw IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     *         in the specified array
+     */
+    public static int rangeCount(double[] a, double key1, double key2) {
+        if (Double.compare(key1, key2) >= 0) throw new IllegalArgumentException();
+        int lo = predecessor(a, key1);
+        int hi = predecessor(a, key2);
+        return hi - lo;
+    }
+    
+    // see binSearch(Key[], Key, Comparator)
+    private static int binSearch(double[] a, double key) {
+        int lo = 0;
+        int hi = a.length - 1;
+        while (hi >= lo) {
+            int mid = lo + (hi - lo) / 2;
+            if (Double.compare(a[mid], key) > 0) hi = mid - 1;
+            else if (Double.compare(a[mid], key) < 0) lo = mid + 1;
+            else return mid;
+        }
+        return -1;
+    }
+    
+    // see binSearchCeil(Key[], Key, Comparator, boolean)
+    private static int binSearchCeil(double[] a, double key, boolean findPred) {
+        int lo = -1;
+        int hi = a.length - 1;
+        if (findPred) {
+            lo = 0;
+            hi = a.length;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (Double.compare(a[mid], key) >= 0) hi = mid;
+            else lo = mid;
+        }
+        if (findPred) return lo;
+        else return hi;
+    }
+    
+    // see binSearchFloor(Key[], Key, Comparator, boolean)
+    private static int binSearchFloor(double[] a, double key, boolean findSucc) {
+        int lo = 0;
+        int hi = a.length;
+        if (findSucc) {
+            lo = -1;
+            hi = a.length - 1;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (Double.compare(a[mid], key) <= 0) lo = mid;
+            else hi = mid;
+        }
+        if (findSucc) return hi;
+        else return lo;
+    }
+    
+    
+    /**************************************************************************
+     * Primitive overloads for short[]
+     *************************************************************************/
+    
+    /**
+     * Returns the index of the specified key in the specified array of shorts,
+     * or -1 if there is no such index.
+     * If the array contains multiple entries equal to the specified key, it
+     * returns the index of any such key.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return index of key in array a if present, -1 otherwise
+     */
+    public static int indexOf(short[] a, short key) {
+        return binSearch(a, key);
+    }
+    
+    /**
+     * Returns the first index of the specified key in the specified array of
+     * shorts, or (-(insertion point) - 1) if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int firstIndexOf(short[] a, short key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, false);
+        if (a[idx] == key) return idx;
+        else if (idx == a.length - 1 && a[idx] < key) return -idx - 2;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Returns the last index of the specified key in the specified array of
+     * shorts, or (-(insertion point) - 1) if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int lastIndexOf(short[] a, short key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, false);
+        if (a[idx] == key) return idx;
+        else if (idx == 0 && a[idx] > key) return -1;
+        else return -idx - 2;
+    }
+    
+    /**
+     * Returns the largest index of key less than or equal to specified key in 
+     * the specified array of shorts, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int floor(short[] a, short key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, false);
+        if (a[idx] <= key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the smallest index of key greater than or equal to specified key
+     * in the specified array of shorts, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int ceiling(short[] a, short key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, false);
+        if (a[idx] >= key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the largest index of key strictly less than specified key in 
+     * the specified array of shorts, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key strictly less than specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int predecessor(short[] a, short key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, true);
+        if (a[idx] < key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the smallest index of key strictly greater than specified key
+     * in the specified array of shorts, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key strictly greater than specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int successor(short[] a, short key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, true);
+        if (a[idx] > key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the number of keys equal to the specified key
+     * in the specified array of shorts.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys equal to the specified key in the 
+     *         specified array.
+     */
+    public static int count(short[] a, short key) {
+        int first = firstIndexOf(a, key);
+        if (first < 0) return 0;
+        int last = lastIndexOf(a, key);
+        return last - first + 1;
+    }
+    
+    /**
+     * Returns the number of keys strictly less than the specified key
+     * in the specified array of shorts.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key in the 
+     *         specified array.
+     */
+    public static int rank(short[] a, short key) {
+        return predecessor(a, key) + 1;
+    }
+    
+    /**
+     * Returns true if specified key is in the specified array of shorts;
+     * false otherwise.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return true if specified key is in the specified array; false otherwise
+     */
+    public static boolean contains(short[] a, short key) {
+        return indexOf(a, key) != -1;
+    }
+    
+    /**
+     * Returns the number of keys between key1 (inclusive) and key2 (exclusive)
+     * in the specified array of shorts.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throw IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     *         in the specified array
+     */
+    public static int rangeCount(short[] a, short key1, short key2) {
+        if (key1 >= key2) throw new IllegalArgumentException();
+        int lo = predecessor(a, key1);
+        int hi = predecessor(a, key2);
+        return hi - lo;
+    }
+    
+    // see binSearch(Key[], Key, Comparator)
+    private static int binSearch(short[] a, short key) {
+        int lo = 0;
+        int hi = a.length - 1;
+        while (hi >= lo) {
+            int mid = lo + (hi - lo) / 2;
+            if (a[mid] > key) hi = mid - 1;
+            else if (a[mid] < key) lo = mid + 1;
+            else return mid;
+        }
+        return -1;
+    }
+    
+    // see binSearchCeil(Key[], Key, Comparator, boolean)
+    private static int binSearchCeil(short[] a, short key, boolean findPred) {
+        int lo = -1;
+        int hi = a.length - 1;
+        if (findPred) {
+            lo = 0;
+            hi = a.length;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (a[mid] >= key) hi = mid;
+            else lo = mid;
+        }
+        if (findPred) return lo;
+        else return hi;
+    }
+    
+    // see binSearchFloor(Key[], Key, Comparator, boolean)
+    private static int binSearchFloor(short[] a, short key, boolean findSucc) {
+        int lo = 0;
+        int hi = a.length;
+        if (findSucc) {
+            lo = -1;
+            hi = a.length - 1;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (a[mid] <= key) lo = mid;
+            else hi = mid;
+        }
+        if (findSucc) return hi;
+        else return lo;
+    }
+    
+    
+    /**************************************************************************
+     * Primitive overloads for char[]
+     *************************************************************************/
+    
+    /**
+     * Returns the index of the specified key in the specified array of chars,
+     * or -1 if there is no such index.
+     * If the array contains multiple entries equal to the specified key, it
+     * returns the index of any such key.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return index of key in array a if present, -1 otherwise
+     */
+    public static int indexOf(char[] a, char key) {
+        return binSearch(a, key);
+    }
+    
+    /**
+     * Returns the first index of the specified key in the specified array of
+     * chars, or (-(insertion point) - 1) if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int firstIndexOf(char[] a, char key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, false);
+        if (a[idx] == key) return idx;
+        else if (idx == a.length - 1 && a[idx] < key) return -idx - 2;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Returns the last index of the specified key in the specified array of
+     * chars, or (-(insertion point) - 1) if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int lastIndexOf(char[] a, char key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, false);
+        if (a[idx] == key) return idx;
+        else if (idx == 0 && a[idx] > key) return -1;
+        else return -idx - 2;
+    }
+    
+    /**
+     * Returns the largest index of key less than or equal to specified key in 
+     * the specified array of chars, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int floor(char[] a, char key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, false);
+        if (a[idx] <= key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the smallest index of key greater than or equal to specified key
+     * in the specified array of chars, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int ceiling(char[] a, char key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, false);
+        if (a[idx] >= key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the largest index of key strictly less than specified key in 
+     * the specified array of chars, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key strictly less than specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int predecessor(char[] a, char key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchCeil(a, key, true);
+        if (a[idx] < key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the smallest index of key strictly greater than specified key
+     * in the specified array of chars, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key strictly greater than specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int successor(char[] a, char key) {
+        if (a.length == 0) return -1;
+        int idx = binSearchFloor(a, key, true);
+        if (a[idx] > key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Returns the number of keys equal to the specified key
+     * in the specified array of chars.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys equal to the specified key in the 
+     *         specified array.
+     */
+    public static int count(char[] a, char key) {
+        int first = firstIndexOf(a, key);
+        if (first < 0) return 0;
+        int last = lastIndexOf(a, key);
+        return last - first + 1;
+    }
+    
+    /**
+     * Returns the number of keys strictly less than the specified key
+     * in the specified array of chars.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key in the 
+     *         specified array.
+     */
+    public static int rank(char[] a, char key) {
+        return predecessor(a, key) + 1;
+    }
+    
+    /**
+     * Returns true if specified key is in the specified array of chars;
+     * false otherwise.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return true if specified key is in the specified array; false otherwise
+     */
+    public static boolean contains(char[] a, char key) {
+        return indexOf(a, key) != -1;
+    }
+    
+    /**
+     * Returns the number of keys between key1 (inclusive) and key2 (exclusive)
+     * in the specified array of chars.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throw IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     *         in the specified array
+     */
+    public static int rangeCount(char[] a, char key1, char key2) {
+        if (key1 >= key2) throw new IllegalArgumentException();
+        int lo = predecessor(a, key1);
+        int hi = predecessor(a, key2);
+        return hi - lo;
+    }
+    
+    // see binSearch(Key[], Key, Comparator)
+    private static int binSearch(char[] a, char key) {
+        int lo = 0;
+        int hi = a.length - 1;
+        while (hi >= lo) {
+            int mid = lo + (hi - lo) / 2;
+            if (a[mid] > key) hi = mid - 1;
+            else if (a[mid] < key) lo = mid + 1;
+            else return mid;
+        }
+        return -1;
+    }
+    
+    // see binSearchCeil(Key[], Key, Comparator, boolean)
+    private static int binSearchCeil(char[] a, char key, boolean findPred) {
+        int lo = -1;
+        int hi = a.length - 1;
+        if (findPred) {
+            lo = 0;
+            hi = a.length;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (a[mid] >= key) hi = mid;
+            else lo = mid;
+        }
+        if (findPred) return lo;
+        else return hi;
+    }
+    
+    // see binSearchFloor(Key[], Key, Comparator, boolean)
+    private static int binSearchFloor(char[] a, char key, boolean findSucc) {
+        int lo = 0;
+        int hi = a.length;
+        if (findSucc) {
+            lo = -1;
+            hi = a.length - 1;
+        }
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (a[mid] <= key) lo = mid;
+            else hi = mid;
+        }
+        if (findSucc) return hi;
+        else return lo;
+    }
+    
+    
+    /**************************************************************************
+     * Searching from a hint
+     *************************************************************************/
+    
+    /**
+     * Same as firstIndexOf(a, key), but searches outward from the specified
+     * hint index. It probes hint, hint + 1, hint + 3, hint + 7, ... (or the
+     * same distances below the hint) until it passes the answer, and then
+     * bisects the last step, so if the answer is d positions away from the
+     * hint this uses about 2 * lg(d) + 2 key comparisons, instead of
+     * floor(lg N) + 1.
+     * The array must be sorted into ascending order according to the natural
+     * orderings of its entries prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static <Key extends Comparable<Key>> int firstIndexOf(Key[] a, Key key, int hint) {
+        int idx = gallopSearch(a, key, null, hint, false);
+        if (idx < a.length && cmp(a[idx], key, null) == 0) return idx;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Same as firstIndexOf(a, key, comp), but searches outward from the
+     * specified hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order according to the ordering
+     * specified by the comparator prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @param comp the comparator which specifies the order of objects
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static <Key> int firstIndexOf(Key[] a, Key key, int hint, Comparator<Key> comp) {
+        int idx = gallopSearch(a, key, comp, hint, false);
+        if (idx < a.length && cmp(a[idx], key, comp) == 0) return idx;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Same as lastIndexOf(a, key), but searches outward from the specified
+     * hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order according to the natural
+     * orderings of its entries prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static <Key extends Comparable<Key>> int lastIndexOf(Key[] a, Key key, int hint) {
+        int idx = gallopSearch(a, key, null, hint, true);
+        if (idx > 0 && cmp(a[idx - 1], key, null) == 0) return idx - 1;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Same as lastIndexOf(a, key, comp), but searches outward from the
+     * specified hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order according to the ordering
+     * specified by the comparator prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @param comp the comparator which specifies the order of objects
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static <Key> int lastIndexOf(Key[] a, Key key, int hint, Comparator<Key> comp) {
+        int idx = gallopSearch(a, key, comp, hint, true);
+        if (idx > 0 && cmp(a[idx - 1], key, comp) == 0) return idx - 1;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Same as floor(a, key), but searches outward from the specified hint
+     * index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order according to the natural
+     * orderings of its entries prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static <Key extends Comparable<Key>> int floor(Key[] a, Key key, int hint) {
+        return gallopSearch(a, key, null, hint, true) - 1;
+    }
+    
+    /**
+     * Same as floor(a, key, comp), but searches outward from the specified
+     * hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order according to the ordering
+     * specified by the comparator prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @param comp the comparator which specifies the order of objects
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static <Key> int floor(Key[] a, Key key, int hint, Comparator<Key> comp) {
+        return gallopSearch(a, key, comp, hint, true) - 1;
+    }
+    
+    /**
+     * Same as ceiling(a, key), but searches outward from the specified hint
+     * index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order according to the natural
+     * orderings of its entries prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the smallest index of key greater than or equal to specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static <Key extends Comparable<Key>> int ceiling(Key[] a, Key key, int hint) {
+        int idx = gallopSearch(a, key, null, hint, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    /**
+     * Same as ceiling(a, key, comp), but searches outward from the specified
+     * hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order according to the ordering
+     * specified by the comparator prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @param comp the comparator which specifies the order of objects
+     * @return the smallest index of key greater than or equal to specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static <Key> int ceiling(Key[] a, Key key, int hint, Comparator<Key> comp) {
+        int idx = gallopSearch(a, key, comp, hint, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    /**
+     * Returns the number of keys in a less than (or equal to, if inclusive is
+     * set) the specified key, galloping out from the hint index in the
+     * direction of the answer before bisecting.
+     */
+    private static <Key> int gallopSearch(Key[] a, Key key, Comparator<Key> comp,
+                                          int hint, boolean inclusive) {
+        int limit = inclusive ? 0 : -1;
+        int n = a.length;
+        if (hint < 0) hint = 0;
+        if (hint > n) hint = n;
+        
+        // gallop until a[lo] is below the key (or lo == -1) and a[hi] is not
+        // (or hi == n)
+        int lo;
+        int hi;
+        int step = 1;
+        if (hint < n && cmp(a[hint], key, comp) <= limit) {
+            lo = hint;
+            hi = hint + 1;
+            while (hi < n && cmp(a[hi], key, comp) <= limit) {
+                lo = hi;
+                if (n - hi <= step) hi = n;
+                else hi += step;
+                step <<= 1;
+            }
+        }
+        else {
+            hi = hint;
+            lo = hint - 1;
+            while (lo >= 0 && cmp(a[lo], key, comp) > limit) {
+                hi = lo;
+                if (lo < step) lo = -1;
+                else lo -= step;
+                step <<= 1;
+            }
+        }
+        
+        // bisect the last step
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (cmp(a[mid], key, comp) <= limit) lo = mid;
+            else hi = mid;
+        }
+        return hi;
+    }
+    
+    
+    /**
+     * Same as firstIndexOf(int[], int), but searches outward from the
+     * specified hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int firstIndexOf(int[] a, int key, int hint) {
+        int idx = gallopSearch(a, key, hint, false);
+        if (idx < a.length && a[idx] == key) return idx;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Same as lastIndexOf(int[], int), but searches outward from the specified
+     * hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int lastIndexOf(int[] a, int key, int hint) {
+        int idx = gallopSearch(a, key, hint, true);
+        if (idx > 0 && a[idx - 1] == key) return idx - 1;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Same as floor(int[], int), but searches outward from the specified hint
+     * index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int floor(int[] a, int key, int hint) {
+        return gallopSearch(a, key, hint, true) - 1;
+    }
+    
+    /**
+     * Same as ceiling(int[], int), but searches outward from the specified
+     * hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the smallest index of key greater than or equal to specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int ceiling(int[] a, int key, int hint) {
+        int idx = gallopSearch(a, key, hint, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    // see gallopSearch(Key[], Key, Comparator, int, boolean)
+    private static int gallopSearch(int[] a, int key, int hint, boolean inclusive) {
+        int n = a.length;
+        if (hint < 0) hint = 0;
+        if (hint > n) hint = n;
+        
+        int lo;
+        int hi;
+        int step = 1;
+        if (hint < n && (inclusive ? a[hint] <= key : a[hint] < key)) {
+            lo = hint;
+            hi = hint + 1;
+            while (hi < n && (inclusive ? a[hi] <= key : a[hi] < key)) {
+                lo = hi;
+                if (n - hi <= step) hi = n;
+                else hi += step;
+                step <<= 1;
+            }
+        }
+        else {
+            hi = hint;
+            lo = hint - 1;
+            while (lo >= 0 && (inclusive ? a[lo] > key : a[lo] >= key)) {
+                hi = lo;
+                if (lo < step) lo = -1;
+                else lo -= step;
+                step <<= 1;
+            }
+        }
+        
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (inclusive ? a[mid] <= key : a[mid] < key) lo = mid;
+            else hi = mid;
+        }
+        return hi;
+    }
+    
+    
+    /**
+     * Same as firstIndexOf(long[], long), but searches outward from the
+     * specified hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int firstIndexOf(long[] a, long key, int hint) {
+        int idx = gallopSearch(a, key, hint, false);
+        if (idx < a.length && a[idx] == key) return idx;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Same as lastIndexOf(long[], long), but searches outward from the
+     * specified hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int lastIndexOf(long[] a, long key, int hint) {
+        int idx = gallopSearch(a, key, hint, true);
+        if (idx > 0 && a[idx - 1] == key) return idx - 1;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Same as floor(long[], long), but searches outward from the specified
+     * hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int floor(long[] a, long key, int hint) {
+        return gallopSearch(a, key, hint, true) - 1;
+    }
+    
+    /**
+     * Same as ceiling(long[], long), but searches outward from the specified
+     * hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the smallest index of key greater than or equal to specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int ceiling(long[] a, long key, int hint) {
+        int idx = gallopSearch(a, key, hint, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    // see gallopSearch(Key[], Key, Comparator, int, boolean)
+    private static int gallopSearch(long[] a, long key, int hint, boolean inclusive) {
+        int n = a.length;
+        if (hint < 0) hint = 0;
+        if (hint > n) hint = n;
+        
+        int lo;
+        int hi;
+        int step = 1;
+        if (hint < n && (inclusive ? a[hint] <= key : a[hint] < key)) {
+            lo = hint;
+            hi = hint + 1;
+            while (hi < n && (inclusive ? a[hi] <= key : a[hi] < key)) {
+                lo = hi;
+                if (n - hi <= step) hi = n;
+                else hi += step;
+                step <<= 1;
+            }
+        }
+        else {
+            hi = hint;
+            lo = hint - 1;
+            while (lo >= 0 && (inclusive ? a[lo] > key : a[lo] >= key)) {
+                hi = lo;
+                if (lo < step) lo = -1;
+                else lo -= step;
+                step <<= 1;
+            }
+        }
+        
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (inclusive ? a[mid] <= key : a[mid] < key) lo = mid;
+            else hi = mid;
+        }
+        return hi;
+    }
+    
+    
+    /**
+     * Same as firstIndexOf(double[], double), but searches outward from the
+     * specified hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int firstIndexOf(double[] a, double key, int hint) {
+        int idx = gallopSearch(a, key, hint, false);
+        if (idx < a.length && Double.compare(a[idx], key) == 0) return idx;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Same as lastIndexOf(double[], double), but searches outward from the
+     * specified hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int lastIndexOf(double[] a, double key, int hint) {
+        int idx = gallopSearch(a, key, hint, true);
+        if (idx > 0 && Double.compare(a[idx - 1], key) == 0) return idx - 1;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Same as floor(double[], double), but searches outward from the specified
+     * hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int floor(double[] a, double key, int hint) {
+        return gallopSearch(a, key, hint, true) - 1;
+    }
+    
+    /**
+     * Same as ceiling(double[], double), but searches outward from the
+     * specified hint index. See firstIndexOf(Key[], Key, int).
+     * The array must be sorted into ascending order, in the order imposed
+     * by Double.compare(), prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param hint the index to start searching from (clamped to [0, a.length])
+     * @return the smallest index of key greater than or equal to specified key 
+     *         in the specified array;
+     *         - 1 if there is no such index
+     */
+    public static int ceiling(double[] a, double key, int hint) {
+        int idx = gallopSearch(a, key, hint, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    // see gallopSearch(Key[], Key, Comparator, int, boolean)
+    private static int gallopSearch(double[] a, double key, int hint, boolean inclusive) {
+        int limit = inclusive ? 0 : -1;
+        int n = a.length;
+        if (hint < 0) hint = 0;
+        if (hint > n) hint = n;
+        
+        int lo;
+        int hi;
+        int step = 1;
+        if (hint < n && Double.compare(a[hint], key) <= limit) {
+            lo = hint;
+            hi = hint + 1;
+            while (hi < n && Double.compare(a[hi], key) <= limit) {
+                lo = hi;
+                if (n - hi <= step) hi = n;
+                else hi += step;
+                step <<= 1;
+            }
+        }
+        else {
+            hi = hint;
+            lo = hint - 1;
+            while (lo >= 0 && Double.compare(a[lo], key) > limit) {
+                hi = lo;
+                if (lo < step) lo = -1;
+                else lo -= step;
+                step <<= 1;
+            }
+        }
+        
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (Double.compare(a[mid], key) <= limit) lo = mid;
+            else hi = mid;
+        }
+        return hi;
+    }
+    
+    
+    /**************************************************************************
+     * Range views
+     *************************************************************************/
+    
+    /**
+     * Returns a view of the keys of the specified array that lie between key1
+     * and key2, each bound being inclusive or exclusive as specified (like
+     * NavigableSet.subSet()). The view is backed by the array and nothing is
+     * copied; see SortedRange for the streams and spliterators it provides.
+     * Uses 2 * floor(lg N) + 2 key comparisons.
+     * The array must be sorted into ascending order according to the natural
+     * orderings of its entries prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound of the range
+     * @param key1Inclusive true if keys equal to key1 are in the range
+     * @param key2 the upper bound of the range
+     * @param key2Inclusive true if keys equal to key2 are in the range
+     * @throws IllegalArgumentException if key1 is greater than key2
+     * @return a view of the keys of a between key1 and key2
+     */
+    public static <Key extends Comparable<Key>> SortedRange<Key> range(Key[] a, 
+            Key key1, boolean key1Inclusive, Key key2, boolean key2Inclusive) {
+        if (cmp(key1, key2, null) > 0) throw new IllegalArgumentException();
+        int from = key1Inclusive ? rank(a, key1) : floor(a, key1) + 1;
+        int to = key2Inclusive ? floor(a, key2) + 1 : rank(a, key2);
+        return new SortedRange<Key>(a, from, Math.max(from, to), true);
+    }
+    
+    /**
+     * Returns a view of the keys of the specified array that lie between key1
+     * and key2, each bound being inclusive or exclusive as specified.
+     * See range(Key[], Key, boolean, Key, boolean).
+     * The array must be sorted into ascending order according to the ordering
+     * specified by the comparator prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound of the range
+     * @param key1Inclusive true if keys equal to key1 are in the range
+     * @param key2 the upper bound of the range
+     * @param key2Inclusive true if keys equal to key2 are in the range
+     * @param comp the comparator which specifies the order of objects
+     * @throws IllegalArgumentException if key1 is greater than key2
+     * @return a view of the keys of a between key1 and key2
+     */
+    public static <Key> SortedRange<Key> range(Key[] a, Key key1, boolean key1Inclusive, 
+            Key key2, boolean key2Inclusive, Comparator<Key> comp) {
+        if (cmp(key1, key2, comp) > 0) throw new IllegalArgumentException();
+        int from = key1Inclusive ? rank(a, key1, comp) : floor(a, key1, comp) + 1;
+        int to = key2Inclusive ? floor(a, key2, comp) + 1 : rank(a, key2, comp);
+        return new SortedRange<Key>(a, from, Math.max(from, to), false);
+    }
+    
+    /**
+     * Returns a view of the keys of the specified array that lie between key1
+     * and key2, each bound being inclusive or exclusive as specified.
+     * See range(Key[], Key, boolean, Key, boolean); the view is an
+     * IntSortedRange, which streams the keys without boxing them.
+     * 
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound of the range
+     * @param key1Inclusive true if keys equal to key1 are in the range
+     * @param key2 the upper bound of the range
+     * @param key2Inclusive true if keys equal to key2 are in the range
+     * @throws IllegalArgumentException if key1 is greater than key2
+     * @return a view of the keys of a between key1 and key2
+     */
+    public static IntSortedRange range(int[] a, int key1, boolean key1Inclusive, 
+                                       int key2, boolean key2Inclusive) {
+        if (key1 > key2) throw new IllegalArgumentException();
+        int from = key1Inclusive ? rank(a, key1) : floor(a, key1) + 1;
+        int to = key2Inclusive ? floor(a, key2) + 1 : rank(a, key2);
+        return new IntSortedRange(a, from, Math.max(from, to));
+    }
+    
+    /**
+     * Returns a view of the keys of the specified array that lie between key1
+     * and key2, each bound being inclusive or exclusive as specified.
+     * See range(Key[], Key, boolean, Key, boolean); the view is a
+     * LongSortedRange, which streams the keys without boxing them.
+     * 
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound of the range
+     * @param key1Inclusive true if keys equal to key1 are in the range
+     * @param key2 the upper bound of the range
+     * @param key2Inclusive true if keys equal to key2 are in the range
+     * @throws IllegalArgumentException if key1 is greater than key2
+     * @return a view of the keys of a between key1 and key2
+     */
+    public static LongSortedRange range(long[] a, long key1, boolean key1Inclusive, 
+                                        long key2, boolean key2Inclusive) {
+        if (key1 > key2) throw new IllegalArgumentException();
+        int from = key1Inclusive ? rank(a, key1) : floor(a, key1) + 1;
+        int to = key2Inclusive ? floor(a, key2) + 1 : rank(a, key2);
+        return new LongSortedRange(a, from, Math.max(from, to));
+    }
+    
+    /**
+     * Returns a view of the keys of the specified array that lie between key1
+     * and key2, each bound being inclusive or exclusive as specified, in the
+     * order imposed by Double.compare().
+     * See range(Key[], Key, boolean, Key, boolean); the view is a
+     * DoubleSortedRange, which streams the keys without boxing them.
+     * 
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound of the range
+     * @param key1Inclusive true if keys equal to key1 are in the range
+     * @param key2 the upper bound of the range
+     * @param key2Inclusive true if keys equal to key2 are in the range
+     * @throws IllegalArgumentException if key1 is greater than key2
+     * @return a view of the keys of a between key1 and key2
+     */
+    public static DoubleSortedRange range(double[] a, double key1, boolean key1Inclusive, 
+                                          double key2, boolean key2Inclusive) {
+        if (Double.compare(key1, key2) > 0) throw new IllegalArgumentException();
+        int from = key1Inclusive ? rank(a, key1) : floor(a, key1) + 1;
+        int to = key2Inclusive ? floor(a, key2) + 1 : rank(a, key2);
+        return new DoubleSortedRange(a, from, Math.max(from, to));
+    }
+    
+    
+    /**************************************************************************
+     * Searching by an extracted key
+     *************************************************************************/
+    
+    /**
+     * Returns the index of the first entry of the specified array whose key,
+     * as returned by the key extractor, is equal to the specified key.
+     * The extractor is applied to the entries probed by the search, and the
+     * keys are compared as ints, so no comparator or probe object is needed
+     * (a lambda whose return type is int, long or double matches all of the
+     * int, long and double versions of a method, so each has its own name,
+     * as in Comparator.comparingInt()).
+     * The array must be sorted into ascending order of the keys of its
+     * entries prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static <T> int firstIndexOfInt(T[] a, int key, ToIntFunction<? super T> keyOf) {
+        int idx = keySearchInt(a, key, keyOf, false);
+        if (idx < a.length && keyOf.applyAsInt(a[idx]) == key) return idx;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Returns the index of the last entry of the specified array whose key,
+     * as returned by the key extractor, is equal to the specified key.
+     * See firstIndexOfInt(T[], int, ToIntFunction).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static <T> int lastIndexOfInt(T[] a, int key, ToIntFunction<? super T> keyOf) {
+        int idx = keySearchInt(a, key, keyOf, true);
+        if (idx > 0 && keyOf.applyAsInt(a[idx - 1]) == key) return idx - 1;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Returns the largest index of an entry whose key is less than or equal
+     * to the specified key, or - 1 if there is no such index.
+     * See firstIndexOfInt(T[], int, ToIntFunction).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the largest index of an entry whose key is less than or equal
+     *         to specified key; - 1 if there is no such index
+     */
+    public static <T> int floorInt(T[] a, int key, ToIntFunction<? super T> keyOf) {
+        return keySearchInt(a, key, keyOf, true) - 1;
+    }
+    
+    /**
+     * Returns the smallest index of an entry whose key is greater than or
+     * equal to the specified key, or - 1 if there is no such index.
+     * See firstIndexOfInt(T[], int, ToIntFunction).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the smallest index of an entry whose key is greater than or
+     *         equal to specified key; - 1 if there is no such index
+     */
+    public static <T> int ceilingInt(T[] a, int key, ToIntFunction<? super T> keyOf) {
+        int idx = keySearchInt(a, key, keyOf, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    /**
+     * Returns the number of entries of the specified array whose keys are
+     * strictly less than the specified key.
+     * See firstIndexOfInt(T[], int, ToIntFunction).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the number of entries whose keys are strictly less than the
+     *         specified key
+     */
+    public static <T> int rankInt(T[] a, int key, ToIntFunction<? super T> keyOf) {
+        return keySearchInt(a, key, keyOf, false);
+    }
+    
+    /**
+     * Returns the index of the first entry of the specified array whose key,
+     * as returned by the key extractor, is equal to the specified key.
+     * See firstIndexOfInt(T[], int, ToIntFunction).
+     * The array must be sorted into ascending order of the keys of its
+     * entries prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static <T> int firstIndexOfLong(T[] a, long key, ToLongFunction<? super T> keyOf) {
+        int idx = keySearchLong(a, key, keyOf, false);
+        if (idx < a.length && keyOf.applyAsLong(a[idx]) == key) return idx;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Returns the index of the last entry of the specified array whose key,
+     * as returned by the key extractor, is equal to the specified key.
+     * See firstIndexOfLong(T[], long, ToLongFunction).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static <T> int lastIndexOfLong(T[] a, long key, ToLongFunction<? super T> keyOf) {
+        int idx = keySearchLong(a, key, keyOf, true);
+        if (idx > 0 && keyOf.applyAsLong(a[idx - 1]) == key) return idx - 1;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Returns the largest index of an entry whose key is less than or equal
+     * to the specified key, or - 1 if there is no such index.
+     * See firstIndexOfLong(T[], long, ToLongFunction).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the largest index of an entry whose key is less than or equal
+     *         to specified key; - 1 if there is no such index
+     */
+    public static <T> int floorLong(T[] a, long key, ToLongFunction<? super T> keyOf) {
+        return keySearchLong(a, key, keyOf, true) - 1;
+    }
+    
+    /**
+     * Returns the smallest index of an entry whose key is greater than or
+     * equal to the specified key, or - 1 if there is no such index.
+     * See firstIndexOfLong(T[], long, ToLongFunction).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the smallest index of an entry whose key is greater than or
+     *         equal to specified key; - 1 if there is no such index
+     */
+    public static <T> int ceilingLong(T[] a, long key, ToLongFunction<? super T> keyOf) {
+        int idx = keySearchLong(a, key, keyOf, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    /**
+     * Returns the number of entries of the specified array whose keys are
+     * strictly less than the specified key.
+     * See firstIndexOfLong(T[], long, ToLongFunction).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the number of entries whose keys are strictly less than the
+     *         specified key
+     */
+    public static <T> int rankLong(T[] a, long key, ToLongFunction<? super T> keyOf) {
+        return keySearchLong(a, key, keyOf, false);
+    }
+    
+    /**
+     * Returns the index of the first entry of the specified array whose key,
+     * as returned by the key extractor, is equal to the specified key.
+     * See firstIndexOfInt(T[], int, ToIntFunction).
+     * Keys are compared as by Double.compare().
+     * The array must be sorted into ascending order of the keys of its
+     * entries prior to calling this method.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static <T> int firstIndexOfDouble(T[] a, double key, ToDoubleFunction<? super T> keyOf) {
+        int idx = keySearchDouble(a, key, keyOf, false);
+        if (idx < a.length && Double.compare(keyOf.applyAsDouble(a[idx]), key) == 0) return idx;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Returns the index of the last entry of the specified array whose key,
+     * as returned by the key extractor, is equal to the specified key.
+     * See firstIndexOfDouble(T[], double, ToDoubleFunction).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static <T> int lastIndexOfDouble(T[] a, double key, ToDoubleFunction<? super T> keyOf) {
+        int idx = keySearchDouble(a, key, keyOf, true);
+        if (idx > 0 && Double.compare(keyOf.applyAsDouble(a[idx - 1]), key) == 0) return idx - 1;
+        else return -idx - 1;
+    }
+    
+    /**
+     * Returns the largest index of an entry whose key is less than or equal
+     * to the specified key, or - 1 if there is no such index.
+     * See firstIndexOfDouble(T[], double, ToDoubleFunction).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the largest index of an entry whose key is less than or equal
+     *         to specified key; - 1 if there is no such index
+     */
+    public static <T> int floorDouble(T[] a, double key, ToDoubleFunction<? super T> keyOf) {
+        return keySearchDouble(a, key, keyOf, true) - 1;
+    }
+    
+    /**
+     * Returns the smallest index of an entry whose key is greater than or
+     * equal to the specified key, or - 1 if there is no such index.
+     * See firstIndexOfDouble(T[], double, ToDoubleFunction).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the smallest index of an entry whose key is greater than or
+     *         equal to specified key; - 1 if there is no such index
+     */
+    public static <T> int ceilingDouble(T[] a, double key, ToDoubleFunction<? super T> keyOf) {
+        int idx = keySearchDouble(a, key, keyOf, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    /**
+     * Returns the number of entries of the specified array whose keys are
+     * strictly less than the specified key.
+     * See firstIndexOfDouble(T[], double, ToDoubleFunction).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param keyOf the function that extracts the key of an entry
+     * @return the number of entries whose keys are strictly less than the
+     *         specified key
+     */
+    public static <T> int rankDouble(T[] a, double key, ToDoubleFunction<? super T> keyOf) {
+        return keySearchDouble(a, key, keyOf, false);
+    }
+    
+    /**
+     * Returns the number of entries of a whose keys are less than (or equal
+     * to, if inclusive is set) the specified key.
+     */
+    private static <T> int keySearchInt(T[] a, int key, ToIntFunction<? super T> keyOf,
+                                        boolean inclusive) {
+        int lo = -1;
+        int hi = a.length;
+        if (inclusive) {
+            while (hi - lo > 1) {
+                int mid = lo + (hi - lo) / 2;
+                if (keyOf.applyAsInt(a[mid]) <= key) lo = mid;
+                else hi = mid;
+            }
+        }
+        else {
+            while (hi - lo > 1) {
+                int mid = lo + (hi - lo) / 2;
+                if (keyOf.applyAsInt(a[mid]) < key) lo = mid;
+                else hi = mid;
+            }
+        }
+        return hi;
+    }
+    
+    // see keySearchInt()
+    private static <T> int keySearchLong(T[] a, long key, ToLongFunction<? super T> keyOf,
+                                         boolean inclusive) {
+        int lo = -1;
+        int hi = a.length;
+        if (inclusive) {
+            while (hi - lo > 1) {
+                int mid = lo + (hi - lo) / 2;
+                if (keyOf.applyAsLong(a[mid]) <= key) lo = mid;
+                else hi = mid;
+            }
+        }
+        else {
+            while (hi - lo > 1) {
+                int mid = lo + (hi - lo) / 2;
+                if (keyOf.applyAsLong(a[mid]) < key) lo = mid;
+                else hi = mid;
+            }
+        }
+        return hi;
+    }
+    
+    // see keySearchInt()
+    private static <T> int keySearchDouble(T[] a, double key, ToDoubleFunction<? super T> keyOf,
+                                           boolean inclusive) {
+        int limit = inclusive ? 0 : -1;
+        int lo = -1;
+        int hi = a.length;
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            if (Double.compare(keyOf.applyAsDouble(a[mid]), key) <= limit) lo = mid;
+            else hi = mid;
+        }
+        return hi;
+    }
+    
+    
+    /**************************************************************************
+     * Bucketizing
+     *************************************************************************/
+    
+    /**
+     * Stores in bucketOut[i] the bucket of values[i], for every i: the number
+     * of boundaries less than or equal to values[i], same as
+     * floor(boundaries, values[i]) + 1. Bucket 0 holds the values below the
+     * first boundary, and bucket j the values from boundaries[j - 1]
+     * (inclusive) to boundaries[j] (exclusive).
+     * See Bucketizer for how the buckets are found, and ParallelSearcher for
+     * a parallel version.
+     * 
+     * @param boundaries the sorted boundaries of the buckets
+     * @param values the values to be bucketized
+     * @param bucketOut the array to store the buckets in
+     * @throws IllegalArgumentException if bucketOut is shorter than values,
+     *         or if boundaries is not sorted
+     */
+    public static void bucketize(int[] boundaries, int[] values, int[] bucketOut) {
+        if (bucketOut.length < values.length)
+            throw new IllegalArgumentException("output array too short");
+        new Bucketizer(boundaries).bucketize(values, 0, values.length, bucketOut);
+    }
+    
+    /**
+     * Adds to counts[j] the number of values in bucket j (as defined by
+     * bucketize(int[], int[], int[])), for every j from 0 to
+     * boundaries.length, so that the counts of several arrays of values can
+     * be accumulated.
+     * 
+     * @param boundaries the sorted boundaries of the buckets
+     * @param values the values to be counted
+     * @param counts the counts of the buckets
+     * @throws IllegalArgumentException if counts has fewer than
+     *         boundaries.length + 1 entries, or if boundaries is not sorted
+     */
+    public static void histogram(int[] boundaries, int[] values, long[] counts) {
+        if (counts.length <= boundaries.length)
+            throw new IllegalArgumentException("counts array too short");
+        new Bucketizer(boundaries).histogram(values, 0, values.length, counts);
+    }
+    
+    /**
+     * Stores in bucketOut[i] the bucket of values[i], for every i: the number
+     * of boundaries less than or equal to values[i], same as
+     * floor(boundaries, values[i]) + 1. Bucket 0 holds the values below the
+     * first boundary, and bucket j the values from boundaries[j - 1]
+     * (inclusive) to boundaries[j] (exclusive).
+     * See Bucketizer for how the buckets are found, and ParallelSearcher for
+     * a parallel version.
+     * 
+     * @param boundaries the sorted boundaries of the buckets
+     * @param values the values to be bucketized
+     * @param bucketOut the array to store the buckets in
+     * @throws IllegalArgumentException if bucketOut is shorter than values,
+     *         or if boundaries is not sorted
+     */
+    public static void bucketize(long[] boundaries, long[] values, int[] bucketOut) {
+        if (bucketOut.length < values.length)
+            throw new IllegalArgumentException("output array too short");
+        new Bucketizer(boundaries).bucketize(values, 0, values.length, bucketOut);
+    }
+    
+    /**
+     * Adds to counts[j] the number of values in bucket j (as defined by
+     * bucketize(long[], long[], int[])), for every j from 0 to
+     * boundaries.length, so that the counts of several arrays of values can
+     * be accumulated.
+     * 
+     * @param boundaries the sorted boundaries of the buckets
+     * @param values the values to be counted
+     * @param counts the counts of the buckets
+     * @throws IllegalArgumentException if counts has fewer than
+     *         boundaries.length + 1 entries, or if boundaries is not sorted
+     */
+    public static void histogram(long[] boundaries, long[] values, long[] counts) {
+        if (counts.length <= boundaries.length)
+            throw new IllegalArgumentException("counts array too short");
+        new Bucketizer(boundaries).histogram(values, 0, values.length, counts);
+    }
+    
+    /**
+     * Stores in bucketOut[i] the bucket of values[i], for every i: the number
+     * of boundaries less than or equal to values[i], same as
+     * floor(boundaries, values[i]) + 1. Bucket 0 holds the values below the
+     * first boundary, and bucket j the values from boundaries[j - 1]
+     * (inclusive) to boundaries[j] (exclusive).
+     * See Bucketizer for how the buckets are found, and ParallelSearcher for
+     * a parallel version.
+     * 
+     * @param boundaries the sorted boundaries of the buckets
+     * @param values the values to be bucketized
+     * @param bucketOut the array to store the buckets in
+     * @throws IllegalArgumentException if bucketOut is shorter than values,
+     *         or if boundaries is not sorted
+     */
+    public static void bucketize(double[] boundaries, double[] values, int[] bucketOut) {
+        if (bucketOut.length < values.length)
+            throw new IllegalArgumentException("output array too short");
+        new Bucketizer(boundaries).bucketize(values, 0, values.length, bucketOut);
+    }
+    
+    /**
+     * Adds to counts[j] the number of values in bucket j (as defined by
+     * bucketize(double[], double[], int[])), for every j from 0 to
+     * boundaries.length, so that the counts of several arrays of values can
+     * be accumulated.
+     * 
+     * @param boundaries the sorted boundaries of the buckets
+     * @param values the values to be counted
+     * @param counts the counts of the buckets
+     * @throws IllegalArgumentException if counts has fewer than
+     *         boundaries.length + 1 entries, or if boundaries is not sorted
+     */
+    public static void histogram(double[] boundaries, double[] values, long[] counts) {
+        if (counts.length <= boundaries.length)
+            throw new IllegalArgumentException("counts array too short");
+        new Bucketizer(boundaries).histogram(values, 0, values.length, counts);
+    }
 }
@@ -1,5 +1,7 @@
 import junit.framework.TestCase;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Random;
 
 public class BinarySearchTest extends TestCase {
     
@@ -284,4 +286,204 @@ public class BinarySearchTest extends TestCase {
         assertEquals(BinarySearch.rangeCount(A3, 70, 1000), 7);
         assertEquals(BinarySearch.rangeCount(A3, 25, 70), 4);
     }
+    
+    public void testHint() {
+        Random random = new Random(5);
+        Comparator<Integer> reverse = Comparator.reverseOrder();
+        for (int[] a : new int[][] {{}, a1, a2, a3}) {
+            Integer[] A = convert(a);
+            Integer[] R = new Integer[a.length];
+            long[] la = new long[a.length];
+            double[] da = new double[a.length];
+            for (int i = 0; i < a.length; i++) {
+                R[i] = A[a.length - 1 - i];
+                la[i] = a[i];
+                da[i] = a[i];
+            }
+            for (int key = 0; key <= 101; key++) {
+                for (int hint = -2; hint <= a.length + 2; hint++) {
+                    assertEquals(BinarySearch.firstIndexOf(A, key, hint),
+                                 BinarySearch.firstIndexOf(A, key));
+                    assertEquals(BinarySearch.lastIndexOf(A, key, hint),
+                                 BinarySearch.lastIndexOf(A, key));
+                    assertEquals(BinarySearch.floor(A, key, hint),
+                                 BinarySearch.floor(A, key));
+                    assertEquals(BinarySearch.ceiling(A, key, hint),
+                                 BinarySearch.ceiling(A, key));
+                    assertEquals(BinarySearch.floor(R, key, hint, reverse),
+                                 BinarySearch.floor(R, key, reverse));
+                    assertEquals(BinarySearch.lastIndexOf(R, key, hint, reverse),
+                                 BinarySearch.lastIndexOf(R, key, reverse));
+                    assertEquals(BinarySearch.firstIndexOf(a, key, hint),
+                                 BinarySearch.firstIndexOf(a, key));
+                    assertEquals(BinarySearch.lastIndexOf(a, key, hint),
+                                 BinarySearch.lastIndexOf(a, key));
+                    assertEquals(BinarySearch.ceiling(la, key, hint),
+                                 BinarySearch.ceiling(la, key));
+                    assertEquals(BinarySearch.floor(da, key, hint),
+                                 BinarySearch.floor(da, key));
+                }
+            }
+        }
+        
+        // larger array, with hints at random distances from the answer
+        int[] big = new int[5000];
+        for (int i = 0; i < big.length; i++) big[i] = random.nextInt(2000);
+        Arrays.sort(big);
+        for (int k = 0; k < 2000; k++) {
+            int key = random.nextInt(2100) - 50;
+            int hint = random.nextInt(big.length + 1);
+            assertEquals(BinarySearch.floor(big, key, hint), BinarySearch.floor(big, key));
+            assertEquals(BinarySearch.ceiling(big, key, hint), BinarySearch.ceiling(big, key));
+        }
+    }
+    
+    public void testKeyExtractor() {
+        for (int[] a : new int[][] {{}, a1, a2, a3}) {
+            // entries sorted by their first element
+            int[][] ints = new int[a.length][];
+            long[][] longs = new long[a.length][];
+            double[][] doubles = new double[a.length][];
+            double[] da = new double[a.length];
+            for (int i = 0; i < a.length; i++) {
+                ints[i] = new int[] {a[i], i};
+                longs[i] = new long[] {a[i] * 10000000000L};
+                doubles[i] = new double[] {a[i] / 4.0};
+                da[i] = a[i] / 4.0;
+            }
+            for (int key = -1; key <= 101; key++) {
+                assertEquals(BinarySearch.firstIndexOfInt(ints, key, e -> e[0]),
+                             BinarySearch.firstIndexOf(a, key));
+                assertEquals(BinarySearch.lastIndexOfInt(ints, key, e -> e[0]),
+                             BinarySearch.lastIndexOf(a, key));
+                assertEquals(BinarySearch.floorInt(ints, key, e -> e[0]),
+                             BinarySearch.floor(a, key));
+                assertEquals(BinarySearch.ceilingInt(ints, key, e -> e[0]),
+                             BinarySearch.ceiling(a, key));
+                assertEquals(BinarySearch.rankInt(ints, key, e -> e[0]),
+                             BinarySearch.rank(a, key));
+                long lkey = key * 10000000000L;
+                assertEquals(BinarySearch.firstIndexOfLong(longs, lkey, e -> e[0]),
+                             BinarySearch.firstIndexOf(a, key));
+                assertEquals(BinarySearch.lastIndexOfLong(longs, lkey, e -> e[0]),
+                             BinarySearch.lastIndexOf(a, key));
+                assertEquals(BinarySearch.floorLong(longs, lkey + 1, e -> e[0]),
+                             BinarySearch.floor(a, key));
+                assertEquals(BinarySearch.ceilingLong(longs, lkey - 1, e -> e[0]),
+                             BinarySearch.ceiling(a, key));
+                assertEquals(BinarySearch.rankLong(longs, lkey, e -> e[0]),
+                             BinarySearch.rank(a, key));
+                double dkey = key / 4.0;
+                assertEquals(BinarySearch.firstIndexOfDouble(doubles, dkey, e -> e[0]),
+                             BinarySearch.firstIndexOf(da, dkey));
+                assertEquals(BinarySearch.lastIndexOfDouble(doubles, dkey, e -> e[0]),
+                             BinarySearch.lastIndexOf(da, dkey));
+                assertEquals(BinarySearch.floorDouble(doubles, dkey + 0.1, e -> e[0]),
+                             BinarySearch.floor(da, dkey + 0.1));
+                assertEquals(BinarySearch.ceilingDouble(doubles, dkey, e -> e[0]),
+                             BinarySearch.ceiling(da, dkey));
+                assertEquals(BinarySearch.rankDouble(doubles, dkey, e -> e[0]),
+                             BinarySearch.rank(da, dkey));
+            }
+        }
+    }
+    
+    public void testPrimitiveOverloads() {
+        int[][] arrays = {{}, a1, a2, a3};
+        for (int[] a : arrays) {
+            Integer[] A = convert(a);
+            long[] la = new long[a.length];
+            float[] fa = new float[a.length];
+            double[] da = new double[a.length];
+            short[] sa = new short[a.length];
+            char[] ca = new char[a.length];
+            for (int i = 0; i < a.length; i++) {
+                la[i] = a[i];
+                fa[i] = a[i];
+                da[i] = a[i];
+                sa[i] = (short) a[i];
+                ca[i] = (char) a[i];
+            }
+            for (int key = 0; key <= 101; key++) {
+                int[] expected = results(A, key);
+                assertTrue(Arrays.equals(expected, results(a, key)));
+                assertTrue(Arrays.equals(expected, results(la, key)));
+                assertTrue(Arrays.equals(expected, results(fa, key)));
+                assertTrue(Arrays.equals(expected, results(da, key)));
+                assertTrue(Arrays.equals(expected, results(sa, key)));
+                assertTrue(Arrays.equals(expected, results(ca, key)));
+            }
+        }
+        
+        // floats and doubles follow the ordering of Arrays.sort()
+        double[] d = {Double.NEGATIVE_INFINITY, -0.0, 0.0, 1.5, Double.NaN};
+        assertEquals(BinarySearch.indexOf(d, Double.NaN), 4);
+        assertEquals(BinarySearch.rank(d, 0.0), 2);
+        assertEquals(BinarySearch.floor(d, -0.0), 1);
+        assertEquals(BinarySearch.ceiling(d, 2.0), 4);
+    }
+    
+    // results of all single-key queries, with indexOf collapsed to contains
+    private int[] results(Integer[] a, int key) {
+        return new int[] { BinarySearch.contains(a, key) ? 1 : 0,
+            BinarySearch.firstIndexOf(a, key), BinarySearch.lastIndexOf(a, key),
+            BinarySearch.floor(a, key), BinarySearch.ceiling(a, key),
+            BinarySearch.predecessor(a, key), BinarySearch.successor(a, key),
+            BinarySearch.count(a, key), BinarySearch.rank(a, key),
+            BinarySearch.rangeCount(a, key, key + 7) };
+    }
+    
+    private int[] results(int[] a, int key) {
+        return new int[] { BinarySearch.contains(a, key) ? 1 : 0,
+            BinarySearch.firstIndexOf(a, key), BinarySearch.lastIndexOf(a, key),
+            BinarySearch.floor(a, key), BinarySearch.ceiling(a, key),
+            BinarySearch.predecessor(a, key), BinarySearch.successor(a, key),
+            BinarySearch.count(a, key), BinarySearch.rank(a, key),
+            BinarySearch.rangeCount(a, key, (key + 7)) };
+    }
+    
+    private int[] results(long[] a, int key) {
+        return new int[] { BinarySearch.contains(a, key) ? 1 : 0,
+            BinarySearch.firstIndexOf(a, key), BinarySearch.lastIndexOf(a, key),
+            BinarySearch.floor(a, key), BinarySearch.ceiling(a, key),
+            BinarySearch.predecessor(a, key), BinarySearch.successor(a, key),
+            BinarySearch.count(a, key), BinarySearch.rank(a, key),
+            BinarySearch.rangeCount(a, key, (key + 7)) };
+    }
+    
+    private int[] results(float[] a, int key) {
+        return new int[] { BinarySearch.contains(a, key) ? 1 : 0,
+            BinarySearch.firstIndexOf(a, key), BinarySearch.lastIndexOf(a, key),
+            BinarySearch.floor(a, key), BinarySearch.ceiling(a, key),
+            BinarySearch.predecessor(a, key), BinarySearch.successor(a, key),
+            BinarySearch.count(a, key), BinarySearch.rank(a, key),
+            BinarySearch.rangeCount(a, key, (key + 7)) };
+    }
+    
+    private int[] results(double[] a, int key) {
+        return new int[] { BinarySearch.contains(a, key) ? 1 : 0,
+            BinarySearch.firstIndexOf(a, key), BinarySearch.lastIndexOf(a, key),
+            BinarySearch.floor(a, key), BinarySearch.ceiling(a, key),
+            BinarySearch.predecessor(a, key), BinarySearch.successor(a, key),
+            BinarySearch.count(a, key), BinarySearch.rank(a, key),
+            BinarySearch.rangeCount(a, key, (key + 7)) };
+    }
+    
+    private int[] results(short[] a, int key) {
+        return new int[] { BinarySearch.contains(a, (short) key) ? 1 : 0,
+            BinarySearch.firstIndexOf(a, (short) key), BinarySearch.lastIndexOf(a, (short) key),
+            BinarySearch.floor(a, (short) key), BinarySearch.ceiling(a, (short) key),
+            BinarySearch.predecessor(a, (short) key), BinarySearch.successor(a, (short) key),
+            BinarySearch.count(a, (short) key), BinarySearch.rank(a, (short) key),
+            BinarySearch.rangeCount(a, (short) key, (short) (key + 7)) };
+    }
+    
+    private int[] results(char[] a, int key) {
+        return new int[] { BinarySearch.contains(a, (char) key) ? 1 : 0,
+            BinarySearch.firstIndexOf(a, (char) key), BinarySearch.lastIndexOf(a, (char) key),
+            BinarySearch.floor(a, (char) key), BinarySearch.ceiling(a, (char) key),
+            BinarySearch.predecessor(a, (char) key), BinarySearch.successor(a, (char) key),
+            BinarySearch.count(a, (char) key), BinarySearch.rank(a, (char) key),
+            BinarySearch.rangeCount(a, (char) key, (char) (key + 7)) };
+    }
 }
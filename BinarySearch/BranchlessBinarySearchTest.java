@@ -0,0 +1,71 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.Random;
+
+public class BranchlessBinarySearchTest extends TestCase {
+    
+    private Random random = new Random(3);
+    
+    public void testInts() {
+        for (int n = 0; n < 100; n++) {
+            int[] a = new int[n];
+            for (int i = 0; i < n; i++) a[i] = random.nextInt(n / 2 + 1);
+            Arrays.sort(a);
+            for (int key = -1; key < n / 2 + 2; key++) {
+                assertEquals(BranchlessBinarySearch.firstIndexOf(a, key),
+                             BinarySearch.firstIndexOf(a, key));
+                assertEquals(BranchlessBinarySearch.lastIndexOf(a, key),
+                             BinarySearch.lastIndexOf(a, key));
+                assertEquals(BranchlessBinarySearch.floor(a, key),
+                             BinarySearch.floor(a, key));
+                assertEquals(BranchlessBinarySearch.ceiling(a, key),
+                             BinarySearch.ceiling(a, key));
+                assertEquals(BranchlessBinarySearch.predecessor(a, key),
+                             BinarySearch.predecessor(a, key));
+                assertEquals(BranchlessBinarySearch.successor(a, key),
+                             BinarySearch.successor(a, key));
+                assertEquals(BranchlessBinarySearch.count(a, key),
+                             BinarySearch.count(a, key));
+                assertEquals(BranchlessBinarySearch.rank(a, key),
+                             BinarySearch.rank(a, key));
+                assertEquals(BranchlessBinarySearch.contains(a, key),
+                             BinarySearch.contains(a, key));
+                assertEquals(BranchlessBinarySearch.rangeCount(a, key, key + 2),
+                             BinarySearch.rangeCount(a, key, key + 2));
+                int idx = BranchlessBinarySearch.indexOf(a, key);
+                if (BinarySearch.contains(a, key)) assertEquals(a[idx], key);
+                else assertEquals(idx, -1);
+            }
+        }
+    }
+    
+    public void testOtherTypes() {
+        for (int n = 0; n < 60; n++) {
+            long[] la = new long[n];
+            double[] da = new double[n];
+            float[] fa = new float[n];
+            short[] sa = new short[n];
+            char[] ca = new char[n];
+            for (int i = 0; i < n; i++) la[i] = random.nextInt(20);
+            Arrays.sort(la);
+            for (int i = 0; i < n; i++) {
+                da[i] = la[i] / 2.0;
+                fa[i] = la[i] / 2.0f;
+                sa[i] = (short) la[i];
+                ca[i] = (char) la[i];
+            }
+            for (int key = -1; key < 22; key++) {
+                assertEquals(BranchlessBinarySearch.floor(la, key),
+                             BinarySearch.floor(la, key));
+                assertEquals(BranchlessBinarySearch.ceiling(da, key / 2.0),
+                             BinarySearch.ceiling(da, key / 2.0));
+                assertEquals(BranchlessBinarySearch.lastIndexOf(fa, key / 2.0f),
+                             BinarySearch.lastIndexOf(fa, key / 2.0f));
+                assertEquals(BranchlessBinarySearch.successor(sa, (short) key),
+                             BinarySearch.successor(sa, (short) key));
+                assertEquals(BranchlessBinarySearch.rank(ca, (char) key),
+                             BinarySearch.rank(ca, (char) key));
+            }
+        }
+    }
+}
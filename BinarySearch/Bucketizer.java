@@ -0,0 +1,233 @@
+/******************************************************************************
+ * Compilation:  javac Bucketizer.java
+ * Execution:    java --add-modules jdk.incubator.vector Bucketizer
+ * Dependencies: BinarySearch.java SimdBinarySearch.java EytzingerIndex.java
+ *
+ * Maps values to the buckets delimited by a sorted array of boundaries.
+ * The main method benchmarks it against BinarySearch.floor().
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The Bucketizer class implements BinarySearch.bucketize() and
+ * BinarySearch.histogram(), and their parallel versions in
+ * ParallelSearcher. The bucket of a value is the number of boundaries less
+ * than or equal to it, BinarySearch.floor(boundaries, value) + 1: bucket 0
+ * holds the values below the first boundary, bucket i the values from
+ * boundaries[i - 1] (inclusive) to boundaries[i] (exclusive), and bucket N
+ * the values from the last boundary on.
+ *
+ * With a few boundaries (up to 256 bytes of them: 64 ints or 32 longs or
+ * doubles), the bucket is found by comparing the value with all of them at
+ * once, with the vector compares of SimdBinarySearch, and counting the ones
+ * that are less than or equal to it. This takes no branches, so it does not
+ * suffer from the mispredictions of a binary search over values in random
+ * order. With more boundaries, they are copied into an EytzingerIndex once
+ * per call, which each value is then searched in (doubles are mapped to
+ * longs in the same order as Double.compare()).
+ *
+ * @author Nate Liu
+ */
+class Bucketizer {
+
+    // boundaries that are scanned instead of searched
+    private static final int INT_SCAN = 64;
+    private static final int LONG_SCAN = 32;
+
+    // values bucketized at a time by histogram()
+    private static final int BLOCK = 1024;
+
+    private final int n;
+    private final int[] ints;             // the boundaries, if they are scanned
+    private final long[] longs;           // (only one of the three is used)
+    private final double[] doubles;
+    private final EytzingerIndex index;   // the boundaries, if they are searched
+
+    Bucketizer(int[] boundaries) {
+        for (int i = 1; i < boundaries.length; i++)
+            if (boundaries[i] < boundaries[i - 1])
+                throw new IllegalArgumentException("boundaries are not sorted");
+        n = boundaries.length;
+        boolean scan = n <= INT_SCAN;
+        ints = scan ? boundaries : null;
+        longs = null;
+        doubles = null;
+        index = scan ? null : new EytzingerIndex(boundaries);
+    }
+
+    Bucketizer(long[] boundaries) {
+        for (int i = 1; i < boundaries.length; i++)
+            if (boundaries[i] < boundaries[i - 1])
+                throw new IllegalArgumentException("boundaries are not sorted");
+        n = boundaries.length;
+        boolean scan = n <= LONG_SCAN;
+        ints = null;
+        longs = scan ? boundaries : null;
+        doubles = null;
+        index = scan ? null : new EytzingerIndex(boundaries);
+    }
+
+    Bucketizer(double[] boundaries) {
+        for (int i = 1; i < boundaries.length; i++)
+            if (Double.compare(boundaries[i], boundaries[i - 1]) < 0)
+                throw new IllegalArgumentException("boundaries are not sorted");
+        n = boundaries.length;
+        boolean scan = n <= LONG_SCAN;
+        ints = null;
+        longs = null;
+        doubles = scan ? boundaries : null;
+        if (scan) index = null;
+        else {
+            long[] keys = new long[n];
+            for (int i = 0; i < n; i++) keys[i] = sortable(boundaries[i]);
+            index = new EytzingerIndex(keys);
+        }
+    }
+
+    // Maps doubles to longs in the same order as Double.compare()
+    private static long sortable(double x) {
+        long bits = Double.doubleToLongBits(x);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the number of buckets.
+     */
+    int buckets() {
+        return n + 1;
+    }
+
+    /**
+     * Stores the buckets of values[lo .. hi - 1] in out[lo .. hi - 1].
+     */
+    void bucketize(int[] values, int lo, int hi, int[] out) {
+        bucketize(values, lo, hi, out, lo);
+    }
+
+    void bucketize(long[] values, int lo, int hi, int[] out) {
+        bucketize(values, lo, hi, out, lo);
+    }
+
+    void bucketize(double[] values, int lo, int hi, int[] out) {
+        bucketize(values, lo, hi, out, lo);
+    }
+
+    /**
+     * Adds the number of values of values[lo .. hi - 1] in bucket b to
+     * counts[b], for every bucket b.
+     */
+    void histogram(int[] values, int lo, int hi, long[] counts) {
+        int[] buffer = new int[Math.min(BLOCK, hi - lo)];
+        for (int from = lo; from < hi; from += BLOCK) {
+            int to = Math.min(hi, from + BLOCK);
+            bucketize(values, from, to, buffer, 0);
+            for (int i = 0; i < to - from; i++) counts[buffer[i]]++;
+        }
+    }
+
+    void histogram(long[] values, int lo, int hi, long[] counts) {
+        int[] buffer = new int[Math.min(BLOCK, hi - lo)];
+        for (int from = lo; from < hi; from += BLOCK) {
+            int to = Math.min(hi, from + BLOCK);
+            bucketize(values, from, to, buffer, 0);
+            for (int i = 0; i < to - from; i++) counts[buffer[i]]++;
+        }
+    }
+
+    void histogram(double[] values, int lo, int hi, long[] counts) {
+        int[] buffer = new int[Math.min(BLOCK, hi - lo)];
+        for (int from = lo; from < hi; from += BLOCK) {
+            int to = Math.min(hi, from + BLOCK);
+            bucketize(values, from, to, buffer, 0);
+            for (int i = 0; i < to - from; i++) counts[buffer[i]]++;
+        }
+    }
+
+    // Stores the buckets of values[lo .. hi - 1] in out[off ..]
+    private void bucketize(int[] values, int lo, int hi, int[] out, int off) {
+        if (ints != null) {
+            for (int i = lo; i < hi; i++)
+                out[off++] = SimdBinarySearch.SCAN.countBelow(ints, 0, n, values[i], true);
+        }
+        else {
+            for (int i = lo; i < hi; i++)
+                out[off++] = index.floor(values[i]) + 1;
+        }
+    }
+
+    private void bucketize(long[] values, int lo, int hi, int[] out, int off) {
+        if (longs != null) {
+            for (int i = lo; i < hi; i++)
+                out[off++] = SimdBinarySearch.SCAN.countBelow(longs, 0, n, values[i], true);
+        }
+        else {
+            for (int i = lo; i < hi; i++)
+                out[off++] = index.floor(values[i]) + 1;
+        }
+    }
+
+    private void bucketize(double[] values, int lo, int hi, int[] out, int off) {
+        if (doubles != null) {
+            for (int i = lo; i < hi; i++) {
+                // the comparison operators order NaN, 0.0 and -0.0 differently
+                double x = values[i];
+                if (x == 0 || x != x) out[off++] = BinarySearch.floor(doubles, x) + 1;
+                else out[off++] = SimdBinarySearch.SCAN.countBelow(doubles, 0, n, x, true);
+            }
+        }
+        else {
+            for (int i = lo; i < hi; i++)
+                out[off++] = index.floor(sortable(values[i])) + 1;
+        }
+    }
+
+
+    /**************************************************************************
+     * Benchmark
+     *************************************************************************/
+
+    /**
+     * Compares the time per value of bucketizing 2^22 random ints with
+     * BinarySearch.floor() and with BinarySearch.bucketize(), for
+     * increasing numbers of boundaries.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(0);
+        int[] values = new int[1 << 22];
+        for (int i = 0; i < values.length; i++) values[i] = random.nextInt();
+        int[] out = new int[values.length];
+
+        System.out.printf("vectorized: %b%n", SimdBinarySearch.isVectorized());
+        System.out.printf("%10s %12s %12s%n", "N", "floor (ns)", "bucketize (ns)");
+        for (int n = 4; n <= 1 << 20; n *= 4) {
+            int[] boundaries = new int[n];
+            for (int i = 0; i < n; i++) boundaries[i] = random.nextInt();
+            Arrays.sort(boundaries);
+
+            long[] best = {Long.MAX_VALUE, Long.MAX_VALUE};
+            for (int rep = 0; rep < 8; rep++) {
+                long t0 = System.nanoTime();
+                long sum = 0;
+                for (int x : values) sum += BinarySearch.floor(boundaries, x) + 1;
+                long t1 = System.nanoTime();
+                BinarySearch.bucketize(boundaries, values, out);
+                long t2 = System.nanoTime();
+                sink += sum + out[out.length - 1];
+
+                // the first three rounds warm up the JIT
+                if (rep < 3) continue;
+                best[0] = Math.min(best[0], t1 - t0);
+                best[1] = Math.min(best[1], t2 - t1);
+            }
+            System.out.printf("%10d %12.2f %12.2f%n", n,
+                              (double) best[0] / values.length,
+                              (double) best[1] / values.length);
+        }
+    }
+
+    // results of the queries are accumulated so that the JIT can't discard them
+    private static long sink;
+}
@@ -0,0 +1,93 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.Random;
+
+public class BucketizerTest extends TestCase {
+
+    private Random random = new Random(67);
+
+    public void testInts() {
+        // scanned and searched boundaries, with duplicates
+        for (int n : new int[] {0, 1, 7, 64, 65, 1000}) {
+            int[] boundaries = new int[n];
+            for (int i = 0; i < n; i++) boundaries[i] = random.nextInt(2 * n + 1);
+            Arrays.sort(boundaries);
+            int[] values = new int[3000];
+            for (int i = 0; i < values.length; i++) values[i] = random.nextInt(2 * n + 5) - 2;
+            values[0] = Integer.MIN_VALUE;
+            values[1] = Integer.MAX_VALUE;
+            int[] out = new int[values.length + 1];
+            long[] counts = new long[n + 1];
+            long[] expected = new long[n + 1];
+            BinarySearch.bucketize(boundaries, values, out);
+            BinarySearch.histogram(boundaries, values, counts);
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(out[i], BinarySearch.floor(boundaries, values[i]) + 1);
+                expected[out[i]]++;
+            }
+            assertTrue(Arrays.equals(counts, expected));
+
+            // counts are added to
+            BinarySearch.histogram(boundaries, values, counts);
+            for (int j = 0; j <= n; j++) assertEquals(counts[j], 2 * expected[j]);
+        }
+    }
+
+    public void testLongs() {
+        for (int n : new int[] {3, 32, 33, 500}) {
+            long[] boundaries = new long[n];
+            for (int i = 0; i < n; i++) boundaries[i] = (random.nextInt(2 * n) - n) * 10000000000L;
+            Arrays.sort(boundaries);
+            long[] values = new long[2000];
+            for (int i = 0; i < values.length; i++)
+                values[i] = (random.nextInt(2 * n + 4) - n - 2) * 10000000000L + random.nextInt(3) - 1;
+            int[] out = new int[values.length];
+            long[] counts = new long[n + 1];
+            BinarySearch.bucketize(boundaries, values, out);
+            BinarySearch.histogram(boundaries, values, counts);
+            long total = 0;
+            for (int i = 0; i < values.length; i++)
+                assertEquals(out[i], BinarySearch.floor(boundaries, values[i]) + 1);
+            for (long c : counts) total += c;
+            assertEquals(total, values.length);
+        }
+    }
+
+    public void testDoubles() {
+        double[] specials = {Double.NaN, 0.0, -0.0, Double.NEGATIVE_INFINITY,
+                             Double.POSITIVE_INFINITY, -1.5, 2.5};
+        for (int n : new int[] {4, 32, 40, 300}) {
+            double[] boundaries = new double[n];
+            for (int i = 0; i < n; i++) boundaries[i] = random.nextInt(2 * n) - n;
+            for (int i = 0; i < specials.length && i < n; i++) boundaries[i] = specials[i];
+            Arrays.sort(boundaries);
+            double[] values = new double[1000];
+            for (int i = 0; i < values.length; i++) values[i] = (random.nextInt(4 * n) - 2 * n) / 2.0;
+            for (int i = 0; i < specials.length; i++) values[i] = specials[i];
+            int[] out = new int[values.length];
+            BinarySearch.bucketize(boundaries, values, out);
+            for (int i = 0; i < values.length; i++)
+                assertEquals(out[i], BinarySearch.floor(boundaries, values[i]) + 1);
+        }
+    }
+
+    public void testArguments() {
+        int[] boundaries = {1, 5, 9};
+        int[] values = {0, 5, 10};
+        try {
+            BinarySearch.bucketize(boundaries, values, new int[2]);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        try {
+            BinarySearch.histogram(boundaries, values, new long[3]);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        try {
+            BinarySearch.bucketize(new int[] {3, 2}, values, new int[3]);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+    }
+}
@@ -0,0 +1,463 @@
+/******************************************************************************
+ * Compilation:  javac ColumnarSearch.java
+ * Execution:
+ * Dependencies:
+ *
+ * Binary search over rows stored as parallel arrays of ints or longs (one
+ * array per column), sorted lexicographically by their columns.
+ *
+ ******************************************************************************/
+
+/**
+ * The ColumnarSearch class provides the firstIndexOf, lastIndexOf, floor,
+ * ceiling, rank, count and range count methods of the BinarySearch class for
+ * rows of 2 to 4 columns that are stored column by column, in parallel int[]
+ * or long[] arrays (row i is made of the i-th entry of every column), and
+ * sorted by their first column, then by their second column, and so on.
+ *
+ * A search key is an array of up to as many values as there are columns,
+ * and is compared with the first key.length columns of the rows: a key
+ * with fewer values than columns is a prefix, to which all the rows that
+ * start with it are equal. For instance, with a tenant column and a
+ * timestamp column, count(tenant) is the number of rows of the tenant, and
+ * rank(tenant, t2) - rank(tenant, t1) (or rangeCount({tenant, t1},
+ * {tenant, t2})) the number of its rows with timestamps from t1 (inclusive)
+ * to t2 (exclusive).
+ *
+ * A search bisects the first column for the rows equal to the first value
+ * of the key, then bisects the second column within those rows only, and
+ * so on, comparing the values of one column at a time as primitives. It uses
+ * at most 2 * floor(lg N) + 2 comparisons per value of the key, and does not
+ * allocate memory. Keys of one or two values have methods of their own,
+ * such as count(tenant) and rank(tenant, t), which take the values as
+ * arguments; a call with more values passes them in an array, which may be
+ * reused between calls.
+ *
+ * @author Nate Liu
+ */
+public class ColumnarSearch {
+
+    private final int n;
+    private final int[][] ints;     // ints[c] is column c if it is an int[]
+    private final long[][] longs;   // longs[c] is column c if it is a long[]
+
+    /**
+     * Initializes a searcher over the rows made of the specified columns.
+     * The columns are not copied.
+     *
+     * @param columns the columns, each an int[] or a long[]
+     * @throws IllegalArgumentException if there are less than 2 or more than
+     *         4 columns, if a column is not an int[] or a long[], if the
+     *         columns do not have the same length, or if the rows are not
+     *         sorted
+     */
+    public ColumnarSearch(Object... columns) {
+        if (columns.length < 2 || columns.length > 4)
+            throw new IllegalArgumentException("2 to 4 columns expected: " + columns.length);
+        ints = new int[columns.length][];
+        longs = new long[columns.length][];
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c] instanceof int[]) ints[c] = (int[]) columns[c];
+            else if (columns[c] instanceof long[]) longs[c] = (long[]) columns[c];
+            else throw new IllegalArgumentException("column " + c + " is not an int[] or long[]");
+        }
+        n = length(0);
+        for (int c = 1; c < columns.length; c++)
+            if (length(c) != n)
+                throw new IllegalArgumentException("columns have different lengths");
+        for (int i = 1; i < n; i++)
+            if (compareRows(i - 1, i) > 0)
+                throw new IllegalArgumentException("rows are not sorted");
+    }
+
+    private int length(int c) {
+        if (ints[c] != null) return ints[c].length;
+        else return longs[c].length;
+    }
+
+    private long value(int c, int row) {
+        if (ints[c] != null) return ints[c][row];
+        else return longs[c][row];
+    }
+
+    private int compareRows(int i, int j) {
+        for (int c = 0; c < ints.length; c++) {
+            int cmp = Long.compare(value(c, i), value(c, j));
+            if (cmp != 0) return cmp;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the number of columns
+     */
+    public int columns() {
+        return ints.length;
+    }
+
+    /**
+     * Returns the index of the first row equal to the specified key.
+     *
+     * @param key the search key, with one value per leading column
+     * @return the first index of the specified key;
+     *         (-(insertion point) - 1) if there is no such index
+     * @throws IllegalArgumentException if the key is empty or longer than
+     *         the number of columns
+     */
+    public int firstIndexOf(long... key) {
+        int idx = search(key, false);
+        if (idx < n && matches(idx, key)) return idx;
+        else return -idx - 1;
+    }
+
+    /**
+     * Returns the index of the last row equal to the specified key.
+     *
+     * @param key the search key, with one value per leading column
+     * @return the last index of the specified key;
+     *         (-(insertion point) - 1) if there is no such index
+     * @throws IllegalArgumentException if the key is empty or longer than
+     *         the number of columns
+     */
+    public int lastIndexOf(long... key) {
+        int idx = search(key, true);
+        if (idx > 0 && matches(idx - 1, key)) return idx - 1;
+        else return -idx - 1;
+    }
+
+    /**
+     * Returns the largest index of a row less than or equal to specified key,
+     * or - 1 if there is no such index.
+     *
+     * @param key the search key, with one value per leading column
+     * @return the largest index of a row less than or equal to specified key;
+     *         - 1 if there is no such index
+     * @throws IllegalArgumentException if the key is empty or longer than
+     *         the number of columns
+     */
+    public int floor(long... key) {
+        return search(key, true) - 1;
+    }
+
+    /**
+     * Returns the smallest index of a row greater than or equal to specified
+     * key, or - 1 if there is no such index.
+     *
+     * @param key the search key, with one value per leading column
+     * @return the smallest index of a row greater than or equal to specified
+     *         key; - 1 if there is no such index
+     * @throws IllegalArgumentException if the key is empty or longer than
+     *         the number of columns
+     */
+    public int ceiling(long... key) {
+        int idx = search(key, false);
+        if (idx == n) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the number of rows strictly less than the specified key.
+     *
+     * @param key the search key, with one value per leading column
+     * @return the number of rows strictly less than the specified key
+     * @throws IllegalArgumentException if the key is empty or longer than
+     *         the number of columns
+     */
+    public int rank(long... key) {
+        return search(key, false);
+    }
+
+    /**
+     * Returns the number of rows equal to the specified key.
+     *
+     * @param key the search key, with one value per leading column
+     * @return the number of rows equal to the specified key
+     * @throws IllegalArgumentException if the key is empty or longer than
+     *         the number of columns
+     */
+    public int count(long... key) {
+        return search(key, true) - search(key, false);
+    }
+
+    /**
+     * Returns the number of rows between key1 (inclusive) and key2 (exclusive).
+     *
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @return the number of rows between key1 (inclusive) and key2 (exclusive)
+     * @throws IllegalArgumentException if key2 is not strictly greater than
+     *         key1 on the columns they both have values for, or if a key is
+     *         empty or longer than the number of columns
+     */
+    public int rangeCount(long[] key1, long[] key2) {
+        int common = Math.min(key1.length, key2.length);
+        int c = 0;
+        while (c < common && key1[c] == key2[c]) c++;
+        if (c == common || key1[c] > key2[c]) throw new IllegalArgumentException();
+        return search(key2, false) - search(key1, false);
+    }
+
+
+    /**************************************************************************
+     * Keys of one or two values
+     *************************************************************************/
+
+    /**
+     * Returns the index of the first row equal to the specified key, like
+     * firstIndexOf(long...), for a key made of the value of the first column.
+     *
+     * @param k0 the value of the first column
+     * @return the first index of the specified key;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public int firstIndexOf(long k0) {
+        int idx = search(k0, false);
+        if (idx < n && value(0, idx) == k0) return idx;
+        else return -idx - 1;
+    }
+
+    /**
+     * Returns the index of the first row equal to the specified key, like
+     * firstIndexOf(long...), for a key made of the values of the first two columns.
+     *
+     * @param k0 the value of the first column
+     * @param k1 the value of the second column
+     * @return the first index of the specified key;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public int firstIndexOf(long k0, long k1) {
+        int idx = search(k0, k1, false);
+        if (idx < n && value(0, idx) == k0 && value(1, idx) == k1) return idx;
+        else return -idx - 1;
+    }
+
+    /**
+     * Returns the index of the last row equal to the specified key, like
+     * lastIndexOf(long...), for a key made of the value of the first column.
+     *
+     * @param k0 the value of the first column
+     * @return the last index of the specified key;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public int lastIndexOf(long k0) {
+        int idx = search(k0, true);
+        if (idx > 0 && value(0, idx - 1) == k0) return idx - 1;
+        else return -idx - 1;
+    }
+
+    /**
+     * Returns the index of the last row equal to the specified key, like
+     * lastIndexOf(long...), for a key made of the values of the first two columns.
+     *
+     * @param k0 the value of the first column
+     * @param k1 the value of the second column
+     * @return the last index of the specified key;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public int lastIndexOf(long k0, long k1) {
+        int idx = search(k0, k1, true);
+        if (idx > 0 && value(0, idx - 1) == k0 && value(1, idx - 1) == k1) return idx - 1;
+        else return -idx - 1;
+    }
+
+    /**
+     * Returns the largest index of a row less than or equal to specified key,
+     * like floor(long...), for a key made of the value of the first column.
+     *
+     * @param k0 the value of the first column
+     * @return the largest index of a row less than or equal to specified key;
+     *         - 1 if there is no such index
+     */
+    public int floor(long k0) {
+        return search(k0, true) - 1;
+    }
+
+    /**
+     * Returns the largest index of a row less than or equal to specified key,
+     * like floor(long...), for a key made of the values of the first two columns.
+     *
+     * @param k0 the value of the first column
+     * @param k1 the value of the second column
+     * @return the largest index of a row less than or equal to specified key;
+     *         - 1 if there is no such index
+     */
+    public int floor(long k0, long k1) {
+        return search(k0, k1, true) - 1;
+    }
+
+    /**
+     * Returns the smallest index of a row greater than or equal to specified
+     * key, like ceiling(long...), for a key made of the value of the first column.
+     *
+     * @param k0 the value of the first column
+     * @return the smallest index of a row greater than or equal to specified
+     *         key; - 1 if there is no such index
+     */
+    public int ceiling(long k0) {
+        int idx = search(k0, false);
+        if (idx == n) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the smallest index of a row greater than or equal to specified
+     * key, like ceiling(long...), for a key made of the values of the first two columns.
+     *
+     * @param k0 the value of the first column
+     * @param k1 the value of the second column
+     * @return the smallest index of a row greater than or equal to specified
+     *         key; - 1 if there is no such index
+     */
+    public int ceiling(long k0, long k1) {
+        int idx = search(k0, k1, false);
+        if (idx == n) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the number of rows strictly less than the specified key, like
+     * rank(long...), for a key made of the value of the first column.
+     *
+     * @param k0 the value of the first column
+     * @return the number of rows strictly less than the specified key
+     */
+    public int rank(long k0) {
+        return search(k0, false);
+    }
+
+    /**
+     * Returns the number of rows strictly less than the specified key, like
+     * rank(long...), for a key made of the values of the first two columns.
+     *
+     * @param k0 the value of the first column
+     * @param k1 the value of the second column
+     * @return the number of rows strictly less than the specified key
+     */
+    public int rank(long k0, long k1) {
+        return search(k0, k1, false);
+    }
+
+    /**
+     * Returns the number of rows equal to the specified key, like
+     * count(long...), for a key made of the value of the first column.
+     *
+     * @param k0 the value of the first column
+     * @return the number of rows equal to the specified key
+     */
+    public int count(long k0) {
+        return search(k0, true) - search(k0, false);
+    }
+
+    /**
+     * Returns the number of rows equal to the specified key, like
+     * count(long...), for a key made of the values of the first two columns.
+     *
+     * @param k0 the value of the first column
+     * @param k1 the value of the second column
+     * @return the number of rows equal to the specified key
+     */
+    public int count(long k0, long k1) {
+        return search(k0, k1, true) - search(k0, k1, false);
+    }
+
+
+    /**************************************************************************
+     * Searching
+     *************************************************************************/
+
+    // Does the row start with the key?
+    private boolean matches(int row, long[] key) {
+        for (int c = 0; c < key.length; c++)
+            if (value(c, row) != key[c]) return false;
+        return true;
+    }
+
+    /**
+     * Returns the number of rows less than (or equal to, if inclusive is set)
+     * the specified key.
+     * lo .. hi - 1 are the rows equal to the key on the columns before c, so
+     * the rows before lo are less than the key, and the ones from hi on are
+     * greater.
+     */
+    private int search(long[] key, boolean inclusive) {
+        if (key.length == 0 || key.length > ints.length)
+            throw new IllegalArgumentException("key must have 1 to " + ints.length + " values");
+        int lo = 0;
+        int hi = n;
+        int last = key.length - 1;
+        for (int c = 0; c < last && lo < hi; c++) {
+            int from = bound(c, key[c], lo, hi, false);
+            hi = bound(c, key[c], from, hi, true);
+            lo = from;
+        }
+        if (lo == hi) return lo;
+        return bound(last, key[last], lo, hi, inclusive);
+    }
+
+    // see search(long[], boolean)
+    private int search(long k0, boolean inclusive) {
+        return bound(0, k0, 0, n, inclusive);
+    }
+
+    private int search(long k0, long k1, boolean inclusive) {
+        int lo = bound(0, k0, 0, n, false);
+        int hi = bound(0, k0, lo, n, true);
+        if (lo == hi) return lo;
+        return bound(1, k1, lo, hi, inclusive);
+    }
+
+    /**
+     * Returns the first index from lo to hi - 1 at which column c is not less
+     * than (or equal to, if inclusive is set) the specified value, or hi if
+     * there is no such index. Column c must be sorted from lo to hi - 1.
+     */
+    private int bound(int c, long value, int lo, int hi, boolean inclusive) {
+        lo--;
+        if (ints[c] != null) {
+            int[] a = ints[c];
+            if (inclusive) {
+                while (hi - lo > 1) {
+                    int mid = (lo + hi) >>> 1;
+                    if (a[mid] <= value) lo = mid;
+                    else hi = mid;
+                }
+            }
+            else {
+                while (hi - lo > 1) {
+                    int mid = (lo + hi) >>> 1;
+                    if (a[mid] < value) lo = mid;
+                    else hi = mid;
+                }
+            }
+        }
+        else {
+            long[] a = longs[c];
+            if (inclusive) {
+                while (hi - lo > 1) {
+                    int mid = (lo + hi) >>> 1;
+                    if (a[mid] <= value) lo = mid;
+                    else hi = mid;
+                }
+            }
+            else {
+                while (hi - lo > 1) {
+                    int mid = (lo + hi) >>> 1;
+                    if (a[mid] < value) lo = mid;
+                    else hi = mid;
+                }
+            }
+        }
+        return hi;
+    }
+}
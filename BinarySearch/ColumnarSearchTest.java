@@ -0,0 +1,129 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+public class ColumnarSearchTest extends TestCase {
+
+    private Random random = new Random(53);
+
+    // lexicographic order of rows, and of keys that are prefixes of rows
+    private static final Comparator<long[]> LEX = (x, y) -> {
+        for (int c = 0; c < Math.min(x.length, y.length); c++) {
+            int cmp = Long.compare(x[c], y[c]);
+            if (cmp != 0) return cmp;
+        }
+        return 0;
+    };
+
+    public void testAgainstBinarySearch() {
+        for (int columns = 2; columns <= 4; columns++) {
+            for (int n : new int[] {0, 1, 50, 400}) {
+                long[][] rows = new long[n][columns];
+                for (long[] row : rows)
+                    for (int c = 0; c < columns; c++) row[c] = random.nextInt(4) - 1;
+                Arrays.sort(rows, LEX);
+
+                // even columns as ints, odd columns as longs
+                Object[] cols = new Object[columns];
+                for (int c = 0; c < columns; c++) {
+                    if (c % 2 == 0) {
+                        int[] col = new int[n];
+                        for (int i = 0; i < n; i++) col[i] = (int) rows[i][c];
+                        cols[c] = col;
+                    }
+                    else {
+                        long[] col = new long[n];
+                        for (int i = 0; i < n; i++) col[i] = rows[i][c];
+                        cols[c] = col;
+                    }
+                }
+                ColumnarSearch search = new ColumnarSearch(cols);
+                assertEquals(search.size(), n);
+                assertEquals(search.columns(), columns);
+
+                for (int k = 0; k < 300; k++) {
+                    long[] key = new long[1 + random.nextInt(columns)];
+                    for (int c = 0; c < key.length; c++) key[c] = random.nextInt(6) - 2;
+                    assertEquals(search.firstIndexOf(key), BinarySearch.firstIndexOf(rows, key, LEX));
+                    assertEquals(search.lastIndexOf(key), BinarySearch.lastIndexOf(rows, key, LEX));
+                    assertEquals(search.floor(key), BinarySearch.floor(rows, key, LEX));
+                    assertEquals(search.ceiling(key), BinarySearch.ceiling(rows, key, LEX));
+                    assertEquals(search.rank(key), BinarySearch.rank(rows, key, LEX));
+                    assertEquals(search.count(key), BinarySearch.count(rows, key, LEX));
+                    checkShortKeys(search, key);
+                    long[] key2 = key.clone();
+                    key2[key2.length - 1]++;
+                    assertEquals(search.rangeCount(key, key2),
+                                 BinarySearch.rangeCount(rows, key, key2, LEX));
+                }
+            }
+        }
+    }
+
+    // the methods for keys of one or two values agree with the ones for arrays
+    private static void checkShortKeys(ColumnarSearch search, long[] key) {
+        if (key.length == 1) {
+            long k0 = key[0];
+            assertEquals(search.firstIndexOf(k0), search.firstIndexOf(key));
+            assertEquals(search.lastIndexOf(k0), search.lastIndexOf(key));
+            assertEquals(search.floor(k0), search.floor(key));
+            assertEquals(search.ceiling(k0), search.ceiling(key));
+            assertEquals(search.rank(k0), search.rank(key));
+            assertEquals(search.count(k0), search.count(key));
+        }
+        else if (key.length == 2) {
+            long k0 = key[0], k1 = key[1];
+            assertEquals(search.firstIndexOf(k0, k1), search.firstIndexOf(key));
+            assertEquals(search.lastIndexOf(k0, k1), search.lastIndexOf(key));
+            assertEquals(search.floor(k0, k1), search.floor(key));
+            assertEquals(search.ceiling(k0, k1), search.ceiling(key));
+            assertEquals(search.rank(k0, k1), search.rank(key));
+            assertEquals(search.count(k0, k1), search.count(key));
+        }
+    }
+
+    public void testTenantTimestamps() {
+        int[] tenant = {1, 1, 1, 2, 2, 3};
+        long[] ts = {10, 20, 30, 5, 50, 7};
+        ColumnarSearch search = new ColumnarSearch(tenant, ts);
+        assertEquals(search.count(2), 2);
+        assertEquals(search.firstIndexOf(2), 3);
+        assertEquals(search.lastIndexOf(1), 2);
+        assertEquals(search.rangeCount(new long[] {1, 15}, new long[] {1, 31}), 2);
+        assertEquals(search.rangeCount(new long[] {1}, new long[] {3}), 5);
+        assertEquals(search.floor(1, 25), 1);
+        assertEquals(search.ceiling(2, 6), 4);
+        assertEquals(search.firstIndexOf(1, 25), -3);
+        assertEquals(search.rank(1, 31) - search.rank(1, 15), 2);
+    }
+
+    public void testBadArguments() {
+        try {
+            new ColumnarSearch(new int[] {2, 1}, new long[] {0, 0});
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        try {
+            new ColumnarSearch(new int[] {1, 2}, new long[] {0});
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        try {
+            new ColumnarSearch(new int[] {1}, new double[] {0});
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        ColumnarSearch search = new ColumnarSearch(new int[] {1}, new int[] {1});
+        try {
+            search.rank(1, 2, 3);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        try {
+            search.rangeCount(new long[] {1, 2}, new long[] {1});
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+    }
+}
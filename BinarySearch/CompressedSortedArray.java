@@ -0,0 +1,305 @@
+/******************************************************************************
+ * Compilation:  javac CompressedSortedArray.java
+ * Execution:    java CompressedSortedArray
+ * Dependencies: BinarySearch.java
+ *
+ * An immutable sorted sequence of ints or longs, stored as blocks of bit
+ * packed differences, that answers search queries without decompressing it.
+ * The main method compares its size and speed with a long[] and BinarySearch.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The CompressedSortedArray class answers the contains, rank, floor, ceiling
+ * and range count queries of the BinarySearch class for a sorted sequence of
+ * ints or longs, which it stores in compressed form.
+ *
+ * The keys are split into blocks of 128 consecutive keys. The first key of
+ * each block (its head) is stored as is, in an array of heads; the other
+ * keys are stored as the differences between consecutive keys, all packed
+ * with the number of bits needed for the largest difference of the block
+ * (frame of reference coding of the deltas). Sorted keys that are close
+ * together have small differences, so for instance N distinct keys spread
+ * evenly over a range of R values take about lg(R / N) + 2 bits each.
+ * The heads, the bit widths and the bit offsets of the blocks add 17 bytes
+ * per block, or about 0.13 bytes per key.
+ *
+ * A query finds the block that holds the answer by binary search over the
+ * heads (which fit in cache for all but the largest sequences), then decodes
+ * the differences of that one block, from its head until it passes the key.
+ * This touches O(lg(N / 128)) heads and one block of at most 127 * 64 bits.
+ *
+ * All indices returned are identical to the ones returned by the
+ * corresponding methods of the BinarySearch class on the original array.
+ *
+ * @author Nate Liu
+ */
+public class CompressedSortedArray {
+
+    private static final int BLOCK = 128;   // keys per block
+
+    private final int n;
+    private final long[] heads;             // heads[b] = key b * BLOCK
+    private final byte[] widths;            // bits per difference in block b
+    private final long[] offsets;           // bit offset of block b in words
+    private final long[] words;             // packed differences
+
+    /**
+     * Compresses the specified array of ints.
+     *
+     * @param a the keys, sorted in ascending order
+     * @throws IllegalArgumentException if the array is not sorted
+     */
+    public CompressedSortedArray(int[] a) {
+        this(toLongs(a));
+    }
+
+    private static long[] toLongs(int[] a) {
+        long[] b = new long[a.length];
+        for (int i = 0; i < a.length; i++) b[i] = a[i];
+        return b;
+    }
+
+    /**
+     * Compresses the specified array of longs.
+     *
+     * @param a the keys, sorted in ascending order
+     * @throws IllegalArgumentException if the array is not sorted
+     */
+    public CompressedSortedArray(long[] a) {
+        for (int i = 1; i < a.length; i++)
+            if (a[i] < a[i - 1])
+                throw new IllegalArgumentException("array is not sorted");
+        n = a.length;
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        heads = new long[blocks];
+        widths = new byte[blocks];
+        offsets = new long[blocks];
+
+        // first pass: the width and the position of each block
+        long bits = 0;
+        for (int b = 0; b < blocks; b++) {
+            int start = b * BLOCK;
+            int end = Math.min(n, start + BLOCK);
+            long or = 0;
+            for (int i = start + 1; i < end; i++) or |= a[i] - a[i - 1];
+            heads[b] = a[start];
+            widths[b] = (byte) (64 - Long.numberOfLeadingZeros(or));
+            offsets[b] = bits;
+            bits += (long) widths[b] * (end - start - 1);
+        }
+
+        // second pass: pack the differences, which are exact modulo 2^64 even
+        // when they overflow a long, so they are stored and added as unsigned
+        words = new long[(int) ((bits + 63) >>> 6)];
+        for (int b = 0; b < blocks; b++) {
+            int start = b * BLOCK;
+            int end = Math.min(n, start + BLOCK);
+            long pos = offsets[b];
+            for (int i = start + 1; i < end; i++) {
+                write(pos, widths[b], a[i] - a[i - 1]);
+                pos += widths[b];
+            }
+        }
+    }
+
+    // Stores the w low bits of x at the specified bit position
+    private void write(long pos, int w, long x) {
+        if (w == 0) return;
+        int i = (int) (pos >>> 6);
+        int shift = (int) (pos & 63);
+        words[i] |= x << shift;
+        if (shift + w > 64) words[i + 1] |= x >>> (64 - shift);
+    }
+
+    // Returns the w bits at the specified bit position
+    private long read(long pos, int w) {
+        if (w == 0) return 0;
+        int i = (int) (pos >>> 6);
+        int shift = (int) (pos & 63);
+        long x = words[i] >>> shift;
+        if (shift + w > 64) x |= words[i + 1] << (64 - shift);
+        if (w == 64) return x;
+        else return x & ((1L << w) - 1);
+    }
+
+    /**
+     * Returns the number of keys in the sequence.
+     *
+     * @return the number of keys in the sequence
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the number of bytes used by the arrays of the sequence.
+     *
+     * @return the number of bytes used by the arrays of the sequence
+     */
+    public long memoryFootprintBytes() {
+        return 8L * heads.length + widths.length + 8L * offsets.length + 8L * words.length;
+    }
+
+    /**
+     * Returns the key at the specified index of the sequence.
+     *
+     * @param i the index
+     * @return the key at index i
+     * @throws IndexOutOfBoundsException unless 0 <= i < size()
+     */
+    public long get(int i) {
+        if (i < 0 || i >= n) throw new IndexOutOfBoundsException("index " + i);
+        int b = i / BLOCK;
+        int w = widths[b];
+        long key = heads[b];
+        long pos = offsets[b];
+        for (int j = b * BLOCK; j < i; j++) {
+            key += read(pos, w);
+            pos += w;
+        }
+        return key;
+    }
+
+    /**
+     * Returns true if the sequence contains the specified key.
+     *
+     * @param key the search key
+     * @return true if the sequence contains the specified key; false otherwise
+     */
+    public boolean contains(long key) {
+        return search(key, true) > search(key, false);
+    }
+
+    /**
+     * Returns the largest index of key less than or equal to specified key,
+     * or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key;
+     *         - 1 if there is no such index
+     */
+    public int floor(long key) {
+        return search(key, true) - 1;
+    }
+
+    /**
+     * Returns the smallest index of key greater than or equal to specified
+     * key, or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified
+     *         key; - 1 if there is no such index
+     */
+    public int ceiling(long key) {
+        int idx = search(key, false);
+        if (idx == n) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the number of keys strictly less than the specified key.
+     *
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key
+     */
+    public int rank(long key) {
+        return search(key, false);
+    }
+
+    /**
+     * Returns the number of keys between key1 (inclusive) and key2 (exclusive).
+     *
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throws IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     */
+    public int rangeCount(long key1, long key2) {
+        if (key1 >= key2) throw new IllegalArgumentException();
+        return search(key2, false) - search(key1, false);
+    }
+
+    /**
+     * Returns the number of keys less than (or equal to, if inclusive is set)
+     * the specified key.
+     * The answer lies in the last block whose head is below the key, since
+     * the heads of all later blocks are not; that block is decoded until a
+     * key that is not below is found.
+     */
+    private int search(long key, boolean inclusive) {
+        int b = inclusive ? BinarySearch.floor(heads, key) : BinarySearch.rank(heads, key) - 1;
+        if (b < 0) return 0;
+
+        int start = b * BLOCK;
+        int end = Math.min(n, start + BLOCK);
+        int w = widths[b];
+        long x = heads[b];
+        long pos = offsets[b];
+        int i = start + 1;
+        if (inclusive) {
+            for (; i < end; i++) {
+                x += read(pos, w);
+                if (x > key) break;
+                pos += w;
+            }
+        }
+        else {
+            for (; i < end; i++) {
+                x += read(pos, w);
+                if (x >= key) break;
+                pos += w;
+            }
+        }
+        return i;
+    }
+
+
+    /**************************************************************************
+     * Benchmark
+     *************************************************************************/
+
+    /**
+     * Compresses 2^24 sorted random IDs between 0 and 2^32 - 1, and compares
+     * the size and the time per rank() query with a long[] searched by
+     * BinarySearch.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(0);
+        long[] a = new long[1 << 24];
+        for (int i = 0; i < a.length; i++) a[i] = random.nextInt() & 0xffffffffL;
+        Arrays.sort(a);
+        CompressedSortedArray compressed = new CompressedSortedArray(a);
+
+        long[] queries = new long[1 << 20];
+        for (int i = 0; i < queries.length; i++) queries[i] = random.nextInt() & 0xffffffffL;
+
+        long[] best = {Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int rep = 0; rep < 8; rep++) {
+            long t0 = System.nanoTime();
+            long sum = 0;
+            for (long q : queries) sum += BinarySearch.rank(a, q);
+            long t1 = System.nanoTime();
+            for (long q : queries) sum += compressed.rank(q);
+            long t2 = System.nanoTime();
+            sink += sum;
+
+            // the first three rounds warm up the JIT
+            if (rep < 3) continue;
+            best[0] = Math.min(best[0], t1 - t0);
+            best[1] = Math.min(best[1], t2 - t1);
+        }
+        System.out.printf("N = %d%n", a.length);
+        System.out.printf("long[]:     %.2f bytes per key, %.2f ns per rank()%n", 8.0,
+                          (double) best[0] / queries.length);
+        System.out.printf("compressed: %.2f bytes per key, %.2f ns per rank()%n",
+                          (double) compressed.memoryFootprintBytes() / a.length,
+                          (double) best[1] / queries.length);
+    }
+
+    // results of the queries are accumulated so that the JIT can't discard them
+    private static long sink;
+}
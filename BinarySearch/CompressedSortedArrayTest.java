@@ -0,0 +1,64 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.Random;
+
+public class CompressedSortedArrayTest extends TestCase {
+
+    private Random random = new Random(47);
+
+    public void testIntKeys() {
+        for (int n : new int[] {0, 1, 2, 127, 128, 129, 300, 1000}) {
+            int[] a = new int[n];
+            for (int i = 0; i < n; i++) a[i] = random.nextInt(2 * n + 1) - n;
+            Arrays.sort(a);
+            CompressedSortedArray c = new CompressedSortedArray(a);
+            assertEquals(c.size(), n);
+            for (int i = 0; i < n; i++) assertEquals(c.get(i), a[i]);
+            for (int key = -n - 2; key < n + 2; key++) {
+                assertEquals(c.rank(key), BinarySearch.rank(a, key));
+                assertEquals(c.floor(key), BinarySearch.floor(a, key));
+                assertEquals(c.ceiling(key), BinarySearch.ceiling(a, key));
+                assertEquals(c.contains(key), BinarySearch.contains(a, key));
+                assertEquals(c.rangeCount(key, key + 4), BinarySearch.rangeCount(a, key, key + 4));
+            }
+        }
+    }
+
+    public void testLongKeys() {
+        // runs of equal keys, and differences that do not fit in a signed long
+        long[] a = new long[700];
+        for (int i = 0; i < a.length; i++) a[i] = random.nextInt(30) * 600000000000000000L;
+        a[0] = Long.MIN_VALUE;
+        a[1] = Long.MIN_VALUE;
+        a[a.length - 1] = Long.MAX_VALUE;
+        Arrays.sort(a);
+        CompressedSortedArray c = new CompressedSortedArray(a);
+        for (int i = 0; i < a.length; i++) assertEquals(c.get(i), a[i]);
+        long[] keys = {Long.MIN_VALUE, Long.MIN_VALUE + 1, -1, 0, 1, Long.MAX_VALUE - 1,
+            Long.MAX_VALUE, 600000000000000000L, 3000000000000000000L};
+        for (long key : keys) {
+            assertEquals(c.rank(key), BinarySearch.rank(a, key));
+            assertEquals(c.floor(key), BinarySearch.floor(a, key));
+            assertEquals(c.ceiling(key), BinarySearch.ceiling(a, key));
+            assertEquals(c.contains(key), BinarySearch.contains(a, key));
+        }
+    }
+
+    public void testCompression() {
+        // consecutive keys take 1 bit each, equal keys none
+        long[] a = new long[12800];
+        for (int i = 0; i < a.length; i++) a[i] = 1000000 + i;
+        CompressedSortedArray c = new CompressedSortedArray(a);
+        assertTrue(c.memoryFootprintBytes() < a.length / 2);
+        Arrays.fill(a, 7);
+        assertEquals(new CompressedSortedArray(a).memoryFootprintBytes(), 17 * 100);
+    }
+
+    public void testUnsorted() {
+        try {
+            new CompressedSortedArray(new int[] {1, 3, 2});
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+    }
+}
@@ -0,0 +1,220 @@
+/******************************************************************************
+ * Compilation:  javac EytzingerIndex.java
+ * Execution:
+ * Dependencies:
+ *
+ * An immutable search index over a sorted array of ints or longs that stores
+ * the keys in Eytzinger (breadth first) order.
+ *
+ ******************************************************************************/
+
+/**
+ * The EytzingerIndex class answers the floor, ceiling, rank, predecessor,
+ * successor and range count queries of the BinarySearch class for a sorted
+ * array of ints or longs that is known in advance.
+ *
+ * The keys are copied once into the order of a breadth first traversal of
+ * the implicit binary search tree over the sorted array (the layout used for
+ * binary heaps, see: https://arxiv.org/abs/1509.05053).
+ * The first few levels of the tree then sit next to each other in memory and
+ * stay in cache across queries, and each step of the search only computes
+ * the next position from the result of one comparison, instead of branching
+ * on it. On arrays that are larger than the cache this is considerably faster
+ * than searching the sorted array directly.
+ *
+ * All indices returned refer to positions in the original sorted array, and
+ * are identical to the ones returned by the corresponding methods of the
+ * BinarySearch class.
+ *
+ * The constructor takes linear time and space, and each query uses at most
+ * floor(lg N) + 1 key comparisons (range count uses twice that).
+ *
+ * @author Nate Liu
+ */
+public class EytzingerIndex {
+
+    private final int n;
+    private final int[] ints;     // keys in Eytzinger order, 1-indexed
+    private final long[] longs;   // (only one of the two is used)
+
+    /**
+     * Builds the index from the specified array of ints.
+     *
+     * @param a the array to build the index from, sorted in ascending order
+     * @throws IllegalArgumentException if the array is not sorted
+     */
+    public EytzingerIndex(int[] a) {
+        for (int i = 1; i < a.length; i++)
+            if (a[i] < a[i - 1])
+                throw new IllegalArgumentException("array is not sorted");
+        n = a.length;
+        ints = new int[n + 1];
+        longs = null;
+
+        // in order traversal of the implicit tree assigns the sorted keys
+        int i = 0;
+        for (int k = first(); k != 0; k = next(k))
+            ints[k] = a[i++];
+    }
+
+    /**
+     * Builds the index from the specified array of longs.
+     *
+     * @param a the array to build the index from, sorted in ascending order
+     * @throws IllegalArgumentException if the array is not sorted
+     */
+    public EytzingerIndex(long[] a) {
+        for (int i = 1; i < a.length; i++)
+            if (a[i] < a[i - 1])
+                throw new IllegalArgumentException("array is not sorted");
+        n = a.length;
+        ints = null;
+        longs = new long[n + 1];
+
+        int i = 0;
+        for (int k = first(); k != 0; k = next(k))
+            longs[k] = a[i++];
+    }
+
+    // Returns the node holding the smallest key, 0 if the tree is empty
+    private int first() {
+        if (n == 0) return 0;
+        int k = 1;
+        while (2 * k <= n) k = 2 * k;
+        return k;
+    }
+
+    // Returns the in order successor of node k, 0 if k is the last node
+    private int next(int k) {
+        if (2 * k + 1 <= n) {
+            k = 2 * k + 1;
+            while (2 * k <= n) k = 2 * k;
+            return k;
+        }
+        // climb while k is a right child; the parent is then the successor
+        k >>= Integer.numberOfTrailingZeros(~k) + 1;
+        return k;
+    }
+
+    // Returns the index in the sorted array of the key at node k: its index
+    // in order in the perfect tree whose last level holds node n, less the
+    // slots of that level before it that hold no node
+    private int indexOf(int k) {
+        int h = 31 - Integer.numberOfLeadingZeros(n);   // level of node n
+        int d = 31 - Integer.numberOfLeadingZeros(k);   // level of node k
+        long full = ((2L * (k - (1 << d)) + 1) << (h - d)) - 1;
+        long missing = (full + 1) / 2 - (n - (1 << h) + 1);
+        return (int) (full - Math.max(0, missing));
+    }
+
+    /**
+     * Returns the number of keys in the index.
+     *
+     * @return the number of keys in the index
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the largest index of key less than or equal to specified key,
+     * or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key;
+     *         - 1 if there is no such index
+     */
+    public int floor(long key) {
+        return search(key, true) - 1;
+    }
+
+    /**
+     * Returns the smallest index of key greater than or equal to specified
+     * key, or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified
+     *         key; - 1 if there is no such index
+     */
+    public int ceiling(long key) {
+        int idx = search(key, false);
+        if (idx == n) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the largest index of key strictly less than specified key,
+     * or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the largest index of key strictly less than specified key;
+     *         - 1 if there is no such index
+     */
+    public int predecessor(long key) {
+        return search(key, false) - 1;
+    }
+
+    /**
+     * Returns the smallest index of key strictly greater than specified key,
+     * or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the smallest index of key strictly greater than specified key;
+     *         - 1 if there is no such index
+     */
+    public int successor(long key) {
+        int idx = search(key, true);
+        if (idx == n) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the number of keys strictly less than the specified key.
+     *
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key
+     */
+    public int rank(long key) {
+        return search(key, false);
+    }
+
+    /**
+     * Returns the number of keys between key1 (inclusive) and key2 (exclusive).
+     *
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throws IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     */
+    public int rangeCount(long key1, long key2) {
+        if (key1 >= key2) throw new IllegalArgumentException();
+        return search(key2, false) - search(key1, false);
+    }
+
+    /**
+     * Returns the number of keys less than (or equal to, if inclusive is set)
+     * the specified key, which is also the index of the first key greater
+     * than or equal to (strictly greater than) the specified key.
+     *
+     * Descends from the root going right whenever the node's key is smaller,
+     * so that k ends up as the position just below a leaf. The path taken is
+     * encoded in the bits of k: the last left turn marks the answer, and is
+     * recovered by shifting out the trailing right turns (trailing 1 bits)
+     * together with that left turn. Its index in the sorted array follows
+     * from k and n alone, so the search reads nothing but the keys.
+     */
+    private int search(long key, boolean inclusive) {
+        int k = 1;
+        if (ints != null) {
+            if (inclusive) while (k <= n) k = 2 * k + (ints[k] <= key ? 1 : 0);
+            else           while (k <= n) k = 2 * k + (ints[k] <  key ? 1 : 0);
+        }
+        else {
+            if (inclusive) while (k <= n) k = 2 * k + (longs[k] <= key ? 1 : 0);
+            else           while (k <= n) k = 2 * k + (longs[k] <  key ? 1 : 0);
+        }
+        k >>= Integer.numberOfTrailingZeros(~k) + 1;
+        if (k == 0) return n;
+        else return indexOf(k);
+    }
+}
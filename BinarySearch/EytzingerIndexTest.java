@@ -0,0 +1,95 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+public class EytzingerIndexTest extends TestCase {
+
+    private Random random = new Random(17);
+
+    public void testIntIndex() {
+        for (int n = 0; n < 70; n++) {
+            int[] a = sortedArray(n, n / 2 + 1);
+            EytzingerIndex index = new EytzingerIndex(a);
+            assertEquals(index.size(), n);
+            for (int key = -2; key < n / 2 + 3; key++) {
+                assertEquals(index.floor(key), BinarySearch.floor(a, key));
+                assertEquals(index.ceiling(key), BinarySearch.ceiling(a, key));
+                assertEquals(index.predecessor(key), BinarySearch.predecessor(a, key));
+                assertEquals(index.successor(key), BinarySearch.successor(a, key));
+                assertEquals(index.rank(key), BinarySearch.rank(a, key));
+                assertEquals(index.rangeCount(key, key + 3),
+                             BinarySearch.rangeCount(a, key, key + 3));
+            }
+        }
+    }
+
+    public void testLongIndex() {
+        for (int n = 0; n < 70; n++) {
+            int[] ints = sortedArray(n, 5);
+            long[] a = new long[n];
+            for (int i = 0; i < n; i++) a[i] = ints[i] * 3000000000L;
+            EytzingerIndex index = new EytzingerIndex(a);
+            for (long key = -3000000001L; key < 20000000000L; key += 1500000000L) {
+                assertEquals(index.floor(key), BinarySearch.floor(a, key));
+                assertEquals(index.ceiling(key), BinarySearch.ceiling(a, key));
+                assertEquals(index.predecessor(key), BinarySearch.predecessor(a, key));
+                assertEquals(index.successor(key), BinarySearch.successor(a, key));
+                assertEquals(index.rank(key), BinarySearch.rank(a, key));
+            }
+        }
+    }
+
+    public void testLargeIndex() {
+        // sizes around full trees, where the last level is full or has one node
+        for (int n : new int[] {1023, 1024, 1025, 3000, 4095, 4096}) {
+            int[] a = sortedArray(n, 2 * n);
+            EytzingerIndex index = new EytzingerIndex(a);
+            for (int key = -1; key <= 2 * n; key++) {
+                assertEquals(index.rank(key), BinarySearch.rank(a, key));
+                assertEquals(index.floor(key), BinarySearch.floor(a, key));
+            }
+        }
+    }
+
+    public void testKeyIndex() {
+        Comparator<String> reverse = Comparator.reverseOrder();
+        for (int n = 0; n < 40; n++) {
+            int[] ints = sortedArray(n, 10);
+            String[] a = new String[n];
+            String[] r = new String[n];
+            for (int i = 0; i < n; i++) {
+                a[i] = "k" + ints[i];
+                r[n - 1 - i] = a[i];
+            }
+            EytzingerKeyIndex<String> index = EytzingerKeyIndex.of(a);
+            EytzingerKeyIndex<String> rIndex = new EytzingerKeyIndex<String>(r, reverse);
+            for (int k = -1; k < 11; k++) {
+                String key = "k" + k;
+                assertEquals(index.floor(key), BinarySearch.floor(a, key));
+                assertEquals(index.ceiling(key), BinarySearch.ceiling(a, key));
+                assertEquals(index.predecessor(key), BinarySearch.predecessor(a, key));
+                assertEquals(index.successor(key), BinarySearch.successor(a, key));
+                assertEquals(index.rank(key), BinarySearch.rank(a, key));
+                assertEquals(rIndex.floor(key), BinarySearch.floor(r, key, reverse));
+                assertEquals(rIndex.rank(key), BinarySearch.rank(r, key, reverse));
+            }
+        }
+    }
+
+    public void testUnsorted() {
+        try {
+            new EytzingerIndex(new int[] {1, 3, 2});
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+    }
+
+    // sorted array of n random keys from 0 to range - 1
+    private int[] sortedArray(int n, int range) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) a[i] = random.nextInt(range);
+        Arrays.sort(a);
+        return a;
+    }
+}
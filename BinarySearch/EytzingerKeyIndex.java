@@ -0,0 +1,193 @@
+/******************************************************************************
+ * Compilation:  javac EytzingerKeyIndex.java
+ * Execution:
+ * Dependencies:
+ *
+ * An immutable search index over a sorted array of objects that stores
+ * the keys in Eytzinger (breadth first) order.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The EytzingerKeyIndex class is the counterpart of the EytzingerIndex class
+ * for arrays of objects, ordered either by their natural ordering or by a
+ * comparator.
+ *
+ * All indices returned refer to positions in the original sorted array, and
+ * are identical to the ones returned by the corresponding methods of the
+ * BinarySearch class.
+ *
+ * The constructor takes linear time and space, and each query uses at most
+ * floor(lg N) + 1 key comparisons (range count uses twice that).
+ *
+ * @author Nate Liu
+ */
+public class EytzingerKeyIndex<Key> {
+
+    private final int n;
+    private final Key[] keys;            // keys in Eytzinger order, 1-indexed
+    private final Comparator<Key> comp;
+
+    /**
+     * Returns an index built from the specified array, sorted according to
+     * the natural ordering of its entries.
+     *
+     * @param a the array to build the index from, sorted in ascending order
+     * @return an index over the array
+     * @throws IllegalArgumentException if the array is not sorted
+     */
+    public static <Key extends Comparable<Key>> EytzingerKeyIndex<Key> of(Key[] a) {
+        return new EytzingerKeyIndex<Key>(a, Comparator.<Key>naturalOrder());
+    }
+
+    /**
+     * Builds the index from the specified array, sorted according to the
+     * ordering specified by the comparator.
+     *
+     * @param a the array to build the index from, sorted in ascending order
+     * @param comp the comparator which specifies the order of objects
+     * @throws IllegalArgumentException if the array is not sorted, or if
+     *         comp is null
+     */
+    public EytzingerKeyIndex(Key[] a, Comparator<Key> comp) {
+        if (comp == null) throw new IllegalArgumentException("comparator is null");
+        this.comp = comp;
+        for (int i = 1; i < a.length; i++)
+            if (comp.compare(a[i], a[i - 1]) < 0)
+                throw new IllegalArgumentException("array is not sorted");
+        n = a.length;
+        keys = Arrays.copyOf(a, n + 1);
+
+        // in order traversal of the implicit tree assigns the sorted keys
+        int i = 0;
+        for (int k = first(); k != 0; k = next(k))
+            keys[k] = a[i++];
+    }
+
+    // Returns the node holding the smallest key, 0 if the tree is empty
+    private int first() {
+        if (n == 0) return 0;
+        int k = 1;
+        while (2 * k <= n) k = 2 * k;
+        return k;
+    }
+
+    // Returns the in order successor of node k, 0 if k is the last node
+    private int next(int k) {
+        if (2 * k + 1 <= n) {
+            k = 2 * k + 1;
+            while (2 * k <= n) k = 2 * k;
+            return k;
+        }
+        k >>= Integer.numberOfTrailingZeros(~k) + 1;
+        return k;
+    }
+
+    // Returns the index in the sorted array of the key at node k: its index
+    // in order in the perfect tree whose last level holds node n, less the
+    // slots of that level before it that hold no node
+    private int indexOf(int k) {
+        int h = 31 - Integer.numberOfLeadingZeros(n);   // level of node n
+        int d = 31 - Integer.numberOfLeadingZeros(k);   // level of node k
+        long full = ((2L * (k - (1 << d)) + 1) << (h - d)) - 1;
+        long missing = (full + 1) / 2 - (n - (1 << h) + 1);
+        return (int) (full - Math.max(0, missing));
+    }
+
+    /**
+     * Returns the number of keys in the index.
+     *
+     * @return the number of keys in the index
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the largest index of key less than or equal to specified key,
+     * or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key;
+     *         - 1 if there is no such index
+     */
+    public int floor(Key key) {
+        return search(key, true) - 1;
+    }
+
+    /**
+     * Returns the smallest index of key greater than or equal to specified
+     * key, or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified
+     *         key; - 1 if there is no such index
+     */
+    public int ceiling(Key key) {
+        int idx = search(key, false);
+        if (idx == n) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the largest index of key strictly less than specified key,
+     * or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the largest index of key strictly less than specified key;
+     *         - 1 if there is no such index
+     */
+    public int predecessor(Key key) {
+        return search(key, false) - 1;
+    }
+
+    /**
+     * Returns the smallest index of key strictly greater than specified key,
+     * or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the smallest index of key strictly greater than specified key;
+     *         - 1 if there is no such index
+     */
+    public int successor(Key key) {
+        int idx = search(key, true);
+        if (idx == n) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the number of keys strictly less than the specified key.
+     *
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key
+     */
+    public int rank(Key key) {
+        return search(key, false);
+    }
+
+    /**
+     * Returns the number of keys between key1 (inclusive) and key2 (exclusive).
+     *
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throws IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     */
+    public int rangeCount(Key key1, Key key2) {
+        if (comp.compare(key1, key2) >= 0) throw new IllegalArgumentException();
+        return search(key2, false) - search(key1, false);
+    }
+
+    // see EytzingerIndex.search()
+    private int search(Key key, boolean inclusive) {
+        int k = 1;
+        int limit = inclusive ? 0 : -1;
+        while (k <= n) k = 2 * k + (comp.compare(keys[k], key) <= limit ? 1 : 0);
+        k >>= Integer.numberOfTrailingZeros(~k) + 1;
+        if (k == 0) return n;
+        else return indexOf(k);
+    }
+}
@@ -0,0 +1,293 @@
+/******************************************************************************
+ * Compilation:  javac FractionalCascading.java
+ * Execution:    java FractionalCascading
+ * Dependencies: BinarySearch.java
+ *
+ * Searches for a key in each of k sorted arrays of longs with one binary
+ * search, using fractional cascading.
+ * The main method benchmarks it against one BinarySearch per array.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+/**
+ * The FractionalCascading class answers the rank, floor and ceiling queries
+ * of the BinarySearch class for the same key in each of k sorted arrays of
+ * longs that are known in advance, in O(log N + k) time for arrays of N
+ * keys in total (instead of O(k log N) for k binary searches).
+ *
+ * The arrays are preprocessed into k levels. The last level holds the keys
+ * of the last array; each other level holds the keys of its array merged
+ * with every other key of the next level (the promoted keys), together with
+ * the number of keys of its own array before each position (the others are
+ * promoted keys). A query bisects the first level once. Knowing the number
+ * q of promoted keys below the search key in a level, the number of keys of
+ * the next level below it is 2q or 2q + 1, which one comparison decides; so
+ * every following level costs constant time.
+ * Each level is at most its array plus half of the next level, so the
+ * levels hold fewer than 2N keys in total, in 12 bytes per key.
+ *
+ * The results for all arrays are written to an array at once, or produced
+ * one array at a time, in order, by an iterator, which can be abandoned
+ * early.
+ * All indices returned are identical to the ones returned by the
+ * corresponding methods of the BinarySearch class for each array.
+ *
+ * @author Nate Liu
+ */
+public class FractionalCascading {
+
+    private static final int RANK = 0;
+    private static final int FLOOR = 1;
+    private static final int CEILING = 2;
+
+    private final int k;
+    private final int[] sizes;        // sizes[i] = length of array i
+    private final long[][] keys;      // keys[i] = level i, sorted
+    private final int[][] own;        // own[i][p] = keys of array i in keys[i][0 .. p-1]
+                                      // (the other p - own[i][p] are promoted)
+
+    /**
+     * Preprocesses the specified sorted arrays. The arrays are not kept.
+     *
+     * @param arrays the arrays to be searched, each sorted in ascending order
+     * @throws IllegalArgumentException if an array is not sorted
+     */
+    public FractionalCascading(long[]... arrays) {
+        k = arrays.length;
+        sizes = new int[k];
+        keys = new long[k][];
+        own = new int[k][];
+        for (int i = k - 1; i >= 0; i--) {
+            long[] a = arrays[i];
+            for (int j = 1; j < a.length; j++)
+                if (a[j] < a[j - 1])
+                    throw new IllegalArgumentException("array " + i + " is not sorted");
+            sizes[i] = a.length;
+
+            // merge a with keys[i + 1][1], keys[i + 1][3], ...
+            long[] next = i + 1 < k ? keys[i + 1] : new long[0];
+            int m = a.length + next.length / 2;
+            keys[i] = new long[m];
+            own[i] = new int[m + 1];
+            int x = 0, y = 1;
+            for (int p = 0; p < m; p++) {
+                boolean fromA = y >= next.length || (x < a.length && a[x] <= next[y]);
+                if (fromA) keys[i][p] = a[x++];
+                else {
+                    keys[i][p] = next[y];
+                    y += 2;
+                }
+                own[i][p + 1] = own[i][p] + (fromA ? 1 : 0);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of arrays.
+     *
+     * @return the number of arrays
+     */
+    public int arrays() {
+        return k;
+    }
+
+    /**
+     * Stores in out[i] the number of keys in array i strictly less than the
+     * specified key, for every i.
+     *
+     * @param key the search key
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than the number of
+     *         arrays
+     */
+    public void rank(long key, int[] out) {
+        search(key, out, RANK);
+    }
+
+    /**
+     * Stores in out[i] the largest index of key less than or equal to the
+     * specified key in array i, or - 1 if there is no such index, for every i.
+     *
+     * @param key the search key
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than the number of
+     *         arrays
+     */
+    public void floor(long key, int[] out) {
+        search(key, out, FLOOR);
+    }
+
+    /**
+     * Stores in out[i] the smallest index of key greater than or equal to the
+     * specified key in array i, or - 1 if there is no such index, for every i.
+     *
+     * @param key the search key
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than the number of
+     *         arrays
+     */
+    public void ceiling(long key, int[] out) {
+        search(key, out, CEILING);
+    }
+
+    /**
+     * Returns an iterator over the number of keys strictly less than the
+     * specified key in each array, in order. Each array is searched when its
+     * result is requested.
+     *
+     * @param key the search key
+     * @return an iterator over the ranks of key in the arrays
+     */
+    public PrimitiveIterator.OfInt ranks(long key) {
+        return new ResultIterator(key, RANK);
+    }
+
+    /**
+     * Returns an iterator over the largest index of key less than or equal to
+     * the specified key (or - 1 if there is no such index) in each array, in
+     * order. Each array is searched when its result is requested.
+     *
+     * @param key the search key
+     * @return an iterator over the floors of key in the arrays
+     */
+    public PrimitiveIterator.OfInt floors(long key) {
+        return new ResultIterator(key, FLOOR);
+    }
+
+    /**
+     * Returns an iterator over the smallest index of key greater than or
+     * equal to the specified key (or - 1 if there is no such index) in each
+     * array, in order. Each array is searched when its result is requested.
+     *
+     * @param key the search key
+     * @return an iterator over the ceilings of key in the arrays
+     */
+    public PrimitiveIterator.OfInt ceilings(long key) {
+        return new ResultIterator(key, CEILING);
+    }
+
+    private void search(long key, int[] out, int op) {
+        if (out.length < k) throw new IllegalArgumentException("output array too short");
+        if (k == 0) return;
+        boolean inclusive = op == FLOOR;
+        int pos = first(key, inclusive);
+        for (int i = 0; i < k; i++) {
+            out[i] = result(i, pos, op);
+            if (i + 1 < k) pos = descend(i, pos, key, inclusive);
+        }
+    }
+
+    // an iterator that walks down the levels as results are requested
+    private class ResultIterator implements PrimitiveIterator.OfInt {
+        private final long key;
+        private final int op;
+        private int i;       // the level of the next result
+        private int pos;     // the number of keys of level i below the key
+
+        ResultIterator(long key, int op) {
+            this.key = key;
+            this.op = op;
+            if (k > 0) pos = first(key, op == FLOOR);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return i < k;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int result = result(i, pos, op);
+            if (i + 1 < k) pos = descend(i, pos, key, op == FLOOR);
+            i++;
+            return result;
+        }
+    }
+
+    // Returns the number of keys of level 0 below the key
+    private int first(long key, boolean inclusive) {
+        if (inclusive) return BinarySearch.floor(keys[0], key) + 1;
+        else return BinarySearch.rank(keys[0], key);
+    }
+
+    /**
+     * Returns the number of keys of level i + 1 below the key, given the
+     * number pos of keys of level i below it. The q promoted keys below the
+     * key are keys[i + 1][1], [3], ..., [2q - 1], and keys[i + 1][2q + 1] is
+     * not below it, so only keys[i + 1][2q] remains to be compared.
+     */
+    private int descend(int i, int pos, long key, boolean inclusive) {
+        long[] level = keys[i + 1];
+        int p = 2 * (pos - own[i][pos]);
+        if (p < level.length && (inclusive ? level[p] <= key : level[p] < key)) p++;
+        return p;
+    }
+
+    // Returns the result for array i, given the number of keys of level i below the key
+    private int result(int i, int pos, int op) {
+        int below = own[i][pos];
+        if (op == RANK) return below;
+        else if (op == FLOOR) return below - 1;
+        else if (below == sizes[i]) return -1;
+        else return below;
+    }
+
+
+    /**************************************************************************
+     * Benchmark
+     *************************************************************************/
+
+    /**
+     * Compares the time per key of searching k sorted arrays of 2^14 random
+     * longs with one BinarySearch.rank() per array, and with
+     * FractionalCascading.rank(), for increasing k.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(0);
+        long[] queries = new long[1 << 16];
+        for (int i = 0; i < queries.length; i++) queries[i] = random.nextLong();
+
+        System.out.printf("%6s %16s %14s%n", "k", "binary (ns)", "cascading (ns)");
+        for (int k = 4; k <= 256; k *= 4) {
+            long[][] arrays = new long[k][1 << 14];
+            for (long[] a : arrays) {
+                for (int j = 0; j < a.length; j++) a[j] = random.nextLong();
+                Arrays.sort(a);
+            }
+            FractionalCascading cascading = new FractionalCascading(arrays);
+            int[] out = new int[k];
+
+            long[] best = {Long.MAX_VALUE, Long.MAX_VALUE};
+            for (int rep = 0; rep < 8; rep++) {
+                long t0 = System.nanoTime();
+                long sum = 0;
+                for (long q : queries)
+                    for (int i = 0; i < k; i++) sum += BinarySearch.rank(arrays[i], q);
+                long t1 = System.nanoTime();
+                for (long q : queries) {
+                    cascading.rank(q, out);
+                    for (int i = 0; i < k; i++) sum += out[i];
+                }
+                long t2 = System.nanoTime();
+                sink += sum;
+
+                // the first three rounds warm up the JIT
+                if (rep < 3) continue;
+                best[0] = Math.min(best[0], t1 - t0);
+                best[1] = Math.min(best[1], t2 - t1);
+            }
+            System.out.printf("%6d %16.2f %14.2f%n", k,
+                              (double) best[0] / queries.length,
+                              (double) best[1] / queries.length);
+        }
+    }
+
+    // results of the queries are accumulated so that the JIT can't discard them
+    private static long sink;
+}
@@ -0,0 +1,72 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+public class FractionalCascadingTest extends TestCase {
+
+    private Random random = new Random(59);
+
+    public void testAgainstBinarySearch() {
+        for (int k = 0; k < 9; k++) {
+            long[][] arrays = new long[k][];
+            for (int i = 0; i < k; i++) {
+                // include empty arrays and arrays with many duplicates
+                arrays[i] = new long[random.nextInt(40)];
+                for (int j = 0; j < arrays[i].length; j++) arrays[i][j] = random.nextInt(30);
+                Arrays.sort(arrays[i]);
+            }
+            FractionalCascading cascading = new FractionalCascading(arrays);
+            assertEquals(cascading.arrays(), k);
+            int[] ranks = new int[k];
+            int[] floors = new int[k];
+            int[] ceilings = new int[k + 2];
+            for (long key = -1; key <= 31; key++) {
+                cascading.rank(key, ranks);
+                cascading.floor(key, floors);
+                cascading.ceiling(key, ceilings);
+                PrimitiveIterator.OfInt it = cascading.floors(key);
+                for (int i = 0; i < k; i++) {
+                    assertEquals(ranks[i], BinarySearch.rank(arrays[i], key));
+                    assertEquals(floors[i], BinarySearch.floor(arrays[i], key));
+                    assertEquals(ceilings[i], BinarySearch.ceiling(arrays[i], key));
+                    assertTrue(it.hasNext());
+                    assertEquals(it.nextInt(), floors[i]);
+                }
+                assertFalse(it.hasNext());
+            }
+        }
+    }
+
+    public void testIterators() {
+        long[][] arrays = {{1, 5, 9}, {}, {2, 4, 6, 8}, {5, 5, 5}};
+        FractionalCascading cascading = new FractionalCascading(arrays);
+        PrimitiveIterator.OfInt ranks = cascading.ranks(5);
+        int[] expected = {1, 0, 2, 0};
+        for (int r : expected) assertEquals(ranks.nextInt(), r);
+        PrimitiveIterator.OfInt ceilings = cascading.ceilings(9);
+        assertEquals(ceilings.nextInt(), 2);
+        assertEquals(ceilings.nextInt(), -1);
+        assertEquals(ceilings.nextInt(), -1);
+        assertEquals(ceilings.nextInt(), -1);
+        try {
+            ceilings.nextInt();
+            fail();
+        }
+        catch (NoSuchElementException e) { }
+    }
+
+    public void testBadArguments() {
+        try {
+            new FractionalCascading(new long[] {1, 2}, new long[] {3, 1});
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        try {
+            new FractionalCascading(new long[] {1, 2}, new long[] {3}).rank(1, new int[1]);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+    }
+}
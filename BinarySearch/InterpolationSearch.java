@@ -0,0 +1,535 @@
+/******************************************************************************
+ * Compilation:  javac InterpolationSearch.java
+ * Execution:    java InterpolationSearch
+ * Dependencies: BinarySearch.java
+ *
+ * Interpolation search over sorted arrays of numeric keys, falling back to
+ * binary search after a fixed number of probes.
+ * The main method benchmarks it against BinarySearch on uniform and skewed
+ * keys.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The InterpolationSearch class provides the indexOf, floor, ceiling, rank
+ * and rangeCount methods of the BinarySearch class for sorted arrays of ints,
+ * longs and doubles, with the same results.
+ * 
+ * Instead of probing the middle of the remaining range, each probe is placed
+ * where the key would be if the keys between the two ends of the range were
+ * evenly spaced. On uniformly distributed keys this takes O(log log N) probes
+ * on average, against floor(lg N) + 1 for binary search.
+ * On skewed keys interpolation can degrade to O(N) probes, so the search
+ * switches to plain bisection of whatever range is left as soon as an
+ * interpolation step fails to halve the range, or after 2 * lg(lg N) + 4
+ * interpolation steps, which bounds the worst case to O(log N) probes.
+ * Ranges of at most 64 keys are always bisected.
+ * 
+ * Doubles are ordered by Double.compare(), same as in BinarySearch.
+ * 
+ * @author Nate Liu
+ */
+public class InterpolationSearch {
+    
+    // ranges at most this size are bisected: a few probes into the same
+    // cache lines cost less than the division that interpolation needs
+    private static final int MIN_INTERPOLATION = 64;
+    
+    /**
+     * This class should not be instantiated.
+     */
+    private InterpolationSearch() { }
+    
+    
+    /**************************************************************************
+     * int[]
+     *************************************************************************/
+    
+    /**
+     * Same as BinarySearch.indexOf(int[], int), but returns the first index
+     * of the key if the array contains multiple entries equal to it.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return index of key in array a if present, -1 otherwise
+     */
+    public static int indexOf(int[] a, int key) {
+        int idx = search(a, key, false);
+        if (idx < a.length && a[idx] == key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Same as BinarySearch.floor(int[], int).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array; - 1 if there is no such index
+     */
+    public static int floor(int[] a, int key) {
+        return search(a, key, true) - 1;
+    }
+    
+    /**
+     * Same as BinarySearch.ceiling(int[], int).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified 
+     *         key in the specified array; - 1 if there is no such index
+     */
+    public static int ceiling(int[] a, int key) {
+        int idx = search(a, key, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    /**
+     * Same as BinarySearch.rank(int[], int).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key in the 
+     *         specified array
+     */
+    public static int rank(int[] a, int key) {
+        return search(a, key, false);
+    }
+    
+    /**
+     * Same as BinarySearch.rangeCount(int[], int, int).
+     * 
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throws IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     *         in the specified array
+     */
+    public static int rangeCount(int[] a, int key1, int key2) {
+        if (key1 >= key2) throw new IllegalArgumentException();
+        return search(a, key2, false) - search(a, key1, false);
+    }
+    
+    /**
+     * Returns the number of keys below (less than, or equal to if inclusive
+     * is set) the specified key.
+     * Keys in a[0..lo) are below the key and keys in a[hi..N) are not.
+     * Each interpolation step probes the interpolated position mid, and then
+     * the position about sqrt(hi - lo) further towards the answer. On evenly
+     * spread keys the answer is almost always between the two probes, so the
+     * range shrinks to its square root on each step. If the probe budget is
+     * used up, the rest of the range is bisected. If a step does not even
+     * halve the range, the keys are not evenly spread and the whole array is
+     * bisected instead: the first probes of a bisection of the whole array
+     * are the same for every search and stay in cache, so on large arrays
+     * this is faster than bisecting the (arbitrarily placed) rest of the range.
+     */
+    private static int search(int[] a, int key, boolean inclusive) {
+        int lo = 0;
+        int hi = a.length;
+        int budget = probeBudget(a.length);
+        while (hi - lo > MIN_INTERPOLATION && budget-- > 0) {
+            int left = a[lo];
+            int right = a[hi - 1];
+            if (inclusive ? left > key : left >= key) return lo;
+            if (inclusive ? right <= key : right < key) return hi;
+            int range = hi - lo;
+            int mid = interpolate(left, right, key, lo, hi);
+            int gap = guardGap(range);
+            if (inclusive ? a[mid] <= key : a[mid] < key) {
+                lo = mid + 1;
+                int guard = Math.min(mid + gap, hi - 1);
+                if (guard >= lo) {
+                    if (inclusive ? a[guard] <= key : a[guard] < key) lo = guard + 1;
+                    else hi = guard;
+                }
+            }
+            else {
+                hi = mid;
+                int guard = Math.max(mid - gap, lo);
+                if (inclusive ? a[guard] <= key : a[guard] < key) lo = guard + 1;
+                else hi = guard;
+            }
+            if (hi - lo > range / 2) return bisect(a, key, inclusive, 0, a.length);
+        }
+        return bisect(a, key, inclusive, lo, hi);
+    }
+    
+    // Bisects a[lo..hi), in the form of BinarySearch.binSearchCeil() which
+    // the JIT turns into a loop without unpredictable branches; the two loops
+    // are kept apart for the same reason
+    private static int bisect(int[] a, int key, boolean inclusive, int lo, int hi) {
+        lo--;
+        if (inclusive) {
+            while (hi - lo > 1) {
+                int mid = lo + (hi - lo) / 2;
+                if (a[mid] <= key) lo = mid;
+                else hi = mid;
+            }
+        }
+        else {
+            while (hi - lo > 1) {
+                int mid = lo + (hi - lo) / 2;
+                if (a[mid] < key) lo = mid;
+                else hi = mid;
+            }
+        }
+        return hi;
+    }
+    
+    
+    /**************************************************************************
+     * long[]
+     *************************************************************************/
+    
+    /**
+     * Same as BinarySearch.indexOf(long[], long), but returns the first index
+     * of the key if the array contains multiple entries equal to it.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return index of key in array a if present, -1 otherwise
+     */
+    public static int indexOf(long[] a, long key) {
+        int idx = search(a, key, false);
+        if (idx < a.length && a[idx] == key) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Same as BinarySearch.floor(long[], long).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array; - 1 if there is no such index
+     */
+    public static int floor(long[] a, long key) {
+        return search(a, key, true) - 1;
+    }
+    
+    /**
+     * Same as BinarySearch.ceiling(long[], long).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified 
+     *         key in the specified array; - 1 if there is no such index
+     */
+    public static int ceiling(long[] a, long key) {
+        int idx = search(a, key, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    /**
+     * Same as BinarySearch.rank(long[], long).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key in the 
+     *         specified array
+     */
+    public static int rank(long[] a, long key) {
+        return search(a, key, false);
+    }
+    
+    /**
+     * Same as BinarySearch.rangeCount(long[], long, long).
+     * 
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throws IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     *         in the specified array
+     */
+    public static int rangeCount(long[] a, long key1, long key2) {
+        if (key1 >= key2) throw new IllegalArgumentException();
+        return search(a, key2, false) - search(a, key1, false);
+    }
+    
+    // see search(int[], int, boolean)
+    private static int search(long[] a, long key, boolean inclusive) {
+        int lo = 0;
+        int hi = a.length;
+        int budget = probeBudget(a.length);
+        while (hi - lo > MIN_INTERPOLATION && budget-- > 0) {
+            long left = a[lo];
+            long right = a[hi - 1];
+            if (inclusive ? left > key : left >= key) return lo;
+            if (inclusive ? right <= key : right < key) return hi;
+            int range = hi - lo;
+            int mid = interpolate(left, right, key, lo, hi);
+            int gap = guardGap(range);
+            if (inclusive ? a[mid] <= key : a[mid] < key) {
+                lo = mid + 1;
+                int guard = Math.min(mid + gap, hi - 1);
+                if (guard >= lo) {
+                    if (inclusive ? a[guard] <= key : a[guard] < key) lo = guard + 1;
+                    else hi = guard;
+                }
+            }
+            else {
+                hi = mid;
+                int guard = Math.max(mid - gap, lo);
+                if (inclusive ? a[guard] <= key : a[guard] < key) lo = guard + 1;
+                else hi = guard;
+            }
+            if (hi - lo > range / 2) return bisect(a, key, inclusive, 0, a.length);
+        }
+        return bisect(a, key, inclusive, lo, hi);
+    }
+    
+    // see bisect(int[], int, boolean, int, int)
+    private static int bisect(long[] a, long key, boolean inclusive, int lo, int hi) {
+        lo--;
+        if (inclusive) {
+            while (hi - lo > 1) {
+                int mid = lo + (hi - lo) / 2;
+                if (a[mid] <= key) lo = mid;
+                else hi = mid;
+            }
+        }
+        else {
+            while (hi - lo > 1) {
+                int mid = lo + (hi - lo) / 2;
+                if (a[mid] < key) lo = mid;
+                else hi = mid;
+            }
+        }
+        return hi;
+    }
+    
+    
+    /**************************************************************************
+     * double[]
+     *************************************************************************/
+    
+    /**
+     * Same as BinarySearch.indexOf(double[], double), but returns the first index
+     * of the key if the array contains multiple entries equal to it.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return index of key in array a if present, -1 otherwise
+     */
+    public static int indexOf(double[] a, double key) {
+        int idx = search(a, key, false);
+        if (idx < a.length && Double.compare(a[idx], key) == 0) return idx;
+        else return -1;
+    }
+    
+    /**
+     * Same as BinarySearch.floor(double[], double).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array; - 1 if there is no such index
+     */
+    public static int floor(double[] a, double key) {
+        return search(a, key, true) - 1;
+    }
+    
+    /**
+     * Same as BinarySearch.ceiling(double[], double).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified 
+     *         key in the specified array; - 1 if there is no such index
+     */
+    public static int ceiling(double[] a, double key) {
+        int idx = search(a, key, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    /**
+     * Same as BinarySearch.rank(double[], double).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key in the 
+     *         specified array
+     */
+    public static int rank(double[] a, double key) {
+        return search(a, key, false);
+    }
+    
+    /**
+     * Same as BinarySearch.rangeCount(double[], double, double).
+     * 
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throws IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     *         in the specified array
+     */
+    public static int rangeCount(double[] a, double key1, double key2) {
+        if (Double.compare(key1, key2) >= 0) throw new IllegalArgumentException();
+        return search(a, key2, false) - search(a, key1, false);
+    }
+    
+    // see search(int[], int, boolean)
+    private static int search(double[] a, double key, boolean inclusive) {
+        int limit = inclusive ? 0 : -1;
+        int lo = 0;
+        int hi = a.length;
+        int budget = probeBudget(a.length);
+        while (hi - lo > MIN_INTERPOLATION && budget-- > 0) {
+            double left = a[lo];
+            double right = a[hi - 1];
+            if (Double.compare(left, key) > limit) return lo;
+            if (Double.compare(right, key) <= limit) return hi;
+            int range = hi - lo;
+            int mid = interpolate(left, right, key, lo, hi);
+            int gap = guardGap(range);
+            if (Double.compare(a[mid], key) <= limit) {
+                lo = mid + 1;
+                int guard = Math.min(mid + gap, hi - 1);
+                if (guard >= lo) {
+                    if (Double.compare(a[guard], key) <= limit) lo = guard + 1;
+                    else hi = guard;
+                }
+            }
+            else {
+                hi = mid;
+                int guard = Math.max(mid - gap, lo);
+                if (Double.compare(a[guard], key) <= limit) lo = guard + 1;
+                else hi = guard;
+            }
+            if (hi - lo > range / 2) return bisect(a, key, inclusive, 0, a.length);
+        }
+        return bisect(a, key, inclusive, lo, hi);
+    }
+    
+    // see bisect(int[], int, boolean, int, int)
+    private static int bisect(double[] a, double key, boolean inclusive, int lo, int hi) {
+        lo--;
+        if (inclusive) {
+            while (hi - lo > 1) {
+                int mid = lo + (hi - lo) / 2;
+                if (Double.compare(a[mid], key) <= 0) lo = mid;
+                else hi = mid;
+            }
+        }
+        else {
+            while (hi - lo > 1) {
+                int mid = lo + (hi - lo) / 2;
+                if (Double.compare(a[mid], key) < 0) lo = mid;
+                else hi = mid;
+            }
+        }
+        return hi;
+    }
+    
+    
+    /**************************************************************************
+     * Helper methods
+     *************************************************************************/
+    
+    /**
+     * Returns the index in [lo + 1, hi - 1] to probe next, given that the key
+     * is strictly between a[lo] = left and a[hi - 1] = right (the answer is
+     * then also in [lo + 1, hi - 1]).
+     * Computed in floating point, since the differences of longs can overflow;
+     * the result only needs to be a good guess. Non-finite fractions (from
+     * infinite or NaN keys) are clamped to the range like any other.
+     */
+    private static int interpolate(double left, double right, double key, 
+                                   int lo, int hi) {
+        double fraction = (key - left) / (right - left);
+        int mid = lo + (int) (fraction * (hi - 1 - lo));
+        if (mid < lo + 1) mid = lo + 1;
+        if (mid > hi - 1) mid = hi - 1;
+        return mid;
+    }
+    
+    // about the square root of the range size
+    private static int guardGap(int range) {
+        return 1 << ((32 - Integer.numberOfLeadingZeros(range)) / 2);
+    }
+    
+    // 2 * lg(lg N) + 4, rounded up
+    private static int probeBudget(int n) {
+        int lgN = 32 - Integer.numberOfLeadingZeros(n);
+        int lglgN = 32 - Integer.numberOfLeadingZeros(lgN);
+        return 2 * lglgN + 4;
+    }
+    
+    
+    /**************************************************************************
+     * Benchmark
+     *************************************************************************/
+    
+    /**
+     * Compares the time per rank() query of BinarySearch and 
+     * InterpolationSearch on sorted arrays of longs of increasing size, with
+     * uniformly distributed keys and with skewed (exponentially distributed)
+     * keys.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(0);
+        System.out.printf("%8s %10s %12s %16s %8s%n", "keys", "N", 
+                          "binary (ns)", "interpolation (ns)", "speedup");
+        for (String dist : new String[] {"uniform", "skewed"}) {
+            for (int lgN = 10; lgN <= 22; lgN += 3) {
+                long[] a = new long[1 << lgN];
+                for (int i = 0; i < a.length; i++) a[i] = randomKey(random, dist);
+                Arrays.sort(a);
+                long[] queries = new long[1 << 20];
+                for (int i = 0; i < queries.length; i++) {
+                    queries[i] = randomKey(random, dist);
+                }
+                
+                // warm up both so that they are compiled before timing
+                for (int rep = 0; rep < 3; rep++) {
+                    timeBinary(a, queries);
+                    timeInterpolation(a, queries);
+                }
+                long binary = Long.MAX_VALUE;
+                long interpolation = Long.MAX_VALUE;
+                for (int rep = 0; rep < 5; rep++) {
+                    binary = Math.min(binary, timeBinary(a, queries));
+                    interpolation = Math.min(interpolation, timeInterpolation(a, queries));
+                }
+                double binaryNs = (double) binary / queries.length;
+                double interpolationNs = (double) interpolation / queries.length;
+                System.out.printf("%8s %10d %12.2f %18.2f %7.2fx%n", dist, a.length,
+                                  binaryNs, interpolationNs, binaryNs / interpolationNs);
+            }
+        }
+    }
+    
+    private static long randomKey(Random random, String dist) {
+        if (dist.equals("uniform")) return random.nextLong() >>> 20;
+        else return (long) (-Math.log(random.nextDouble()) * 1e12);
+    }
+    
+    // results of the queries are accumulated so that the JIT can't discard them
+    private static int sink;
+    
+    private static long timeBinary(long[] a, long[] queries) {
+        long start = System.nanoTime();
+        int sum = 0;
+        for (long q : queries) sum += BinarySearch.rank(a, q);
+        sink += sum;
+        return System.nanoTime() - start;
+    }
+    
+    private static long timeInterpolation(long[] a, long[] queries) {
+        long start = System.nanoTime();
+        int sum = 0;
+        for (long q : queries) sum += rank(a, q);
+        sink += sum;
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,65 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.Random;
+
+public class InterpolationSearchTest extends TestCase {
+    
+    private Random random = new Random(6);
+    
+    public void testUniform() {
+        for (int n = 0; n < 200; n += 7) {
+            long[] a = new long[n];
+            for (int i = 0; i < n; i++) a[i] = random.nextInt(1000);
+            Arrays.sort(a);
+            check(a, 1100);
+        }
+    }
+    
+    public void testSkewed() {
+        // squares of squares, and long runs of duplicates
+        long[] a = new long[500];
+        for (int i = 0; i < a.length; i++) a[i] = (long) i * i * i * i;
+        check(a, 2000);
+        for (int i = 0; i < a.length; i++) a[i] = i < 450 ? 3 : i;
+        check(a, 600);
+        
+        // keys whose differences overflow a long
+        long[] b = {Long.MIN_VALUE, -5, 0, 7, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+        for (long key : b) {
+            assertEquals(InterpolationSearch.rank(b, key), BinarySearch.rank(b, key));
+            assertEquals(InterpolationSearch.floor(b, key), BinarySearch.floor(b, key));
+        }
+    }
+    
+    public void testIntsAndDoubles() {
+        int[] a = new int[300];
+        double[] d = new double[300];
+        for (int i = 0; i < a.length; i++) a[i] = random.nextInt(200) * random.nextInt(5);
+        Arrays.sort(a);
+        for (int i = 0; i < a.length; i++) d[i] = a[i] / 3.0;
+        d[0] = Double.NEGATIVE_INFINITY;
+        d[d.length - 1] = Double.NaN;
+        for (int key = -5; key < 1000; key++) {
+            assertEquals(InterpolationSearch.rank(a, key), BinarySearch.rank(a, key));
+            assertEquals(InterpolationSearch.floor(a, key), BinarySearch.floor(a, key));
+            assertEquals(InterpolationSearch.ceiling(a, key), BinarySearch.ceiling(a, key));
+            double dkey = key / 3.0;
+            assertEquals(InterpolationSearch.rank(d, dkey), BinarySearch.rank(d, dkey));
+            assertEquals(InterpolationSearch.floor(d, dkey), BinarySearch.floor(d, dkey));
+        }
+        assertEquals(InterpolationSearch.indexOf(d, Double.NaN), d.length - 1);
+    }
+    
+    private void check(long[] a, int range) {
+        for (long key = -3; key < range; key++) {
+            int idx = InterpolationSearch.indexOf(a, key);
+            if (BinarySearch.contains(a, key)) assertEquals(a[idx], key);
+            else assertEquals(idx, -1);
+            assertEquals(InterpolationSearch.floor(a, key), BinarySearch.floor(a, key));
+            assertEquals(InterpolationSearch.ceiling(a, key), BinarySearch.ceiling(a, key));
+            assertEquals(InterpolationSearch.rank(a, key), BinarySearch.rank(a, key));
+            assertEquals(InterpolationSearch.rangeCount(a, key, key + 5),
+                         BinarySearch.rangeCount(a, key, key + 5));
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/******************************************************************************
+ * Compilation:  javac LearnedIndex.java
+ * Execution:    java LearnedIndex
+ * Dependencies: BinarySearch.java EytzingerIndex.java
+ *
+ * A search index over a sorted array of longs that predicts the position of
+ * a key with a piecewise linear model, and searches only a small window
+ * around the prediction.
+ * The main method benchmarks it against BinarySearch and EytzingerIndex.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The LearnedIndex class answers the rank, floor, ceiling, contains and range
+ * count queries of the BinarySearch class for a sorted array of longs that is
+ * known in advance.
+ *
+ * It approximates the function that maps each distinct key of the array to
+ * the index of its first occurrence by a sequence of line segments, such that
+ * every key is mapped to within epsilon of its actual index (the model of the
+ * PGM index, see: https://arxiv.org/abs/1910.06169). The segments are found
+ * in one pass over the array: a segment starts at a key, and keeps the range
+ * of slopes that place all the keys added to it so far within epsilon of
+ * their indices; when the next key narrows the range to nothing, a new
+ * segment starts at that key.
+ * A query finds the segment of the key by binary search over the first keys
+ * of the segments, evaluates the line, and bisects the 2 epsilon + 2 keys
+ * around the predicted index, so it costs about lg S + lg epsilon key
+ * comparisons for S segments. If a key occurs more than once in the array
+ * the answer may fall outside the window, in which case the search gallops
+ * away from the window, so the answers are always exact.
+ *
+ * On keys that are spread evenly (and on many real key sets) S is a small
+ * fraction of N: the model takes 20 bytes per segment, next to the 12 bytes
+ * per key of an EytzingerIndex. The index does not copy the array, which
+ * must not be modified afterwards.
+ *
+ * All indices returned are identical to the ones returned by the
+ * corresponding methods of the BinarySearch class.
+ *
+ * @author Nate Liu
+ */
+public class LearnedIndex {
+
+    private static final int DEFAULT_EPSILON = 64;
+
+    private final long[] a;
+    private final int epsilon;
+    private final long[] firstKey;    // first key of each segment
+    private final int[] firstIndex;   // index of the first key of each segment
+    private final double[] slope;     // indices per unit of key of each segment
+
+    /**
+     * Builds the index over the specified array, with an error bound of 64.
+     *
+     * @param a the array to build the index over, sorted in ascending order
+     * @throws IllegalArgumentException if the array is not sorted
+     */
+    public LearnedIndex(long[] a) {
+        this(a, DEFAULT_EPSILON);
+    }
+
+    /**
+     * Builds the index over the specified array, with the specified bound on
+     * the distance between the predicted and the actual index of a key.
+     *
+     * @param a the array to build the index over, sorted in ascending order
+     * @param epsilon the error bound of the model
+     * @throws IllegalArgumentException if the array is not sorted, or if
+     *         epsilon is less than 1
+     */
+    public LearnedIndex(long[] a, int epsilon) {
+        if (epsilon < 1) throw new IllegalArgumentException("epsilon < 1: " + epsilon);
+        for (int i = 1; i < a.length; i++)
+            if (a[i] < a[i - 1])
+                throw new IllegalArgumentException("array is not sorted");
+        this.a = a;
+        this.epsilon = epsilon;
+
+        long[] keys = new long[16];
+        int[] indices = new int[16];
+        double[] slopes = new double[16];
+        int segments = 0;
+
+        double minSlope = 0;
+        double maxSlope = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < a.length; i++) {
+            if (i > 0 && a[i] == a[i - 1]) continue;
+            if (segments > 0) {
+                // slopes that keep this key within epsilon of index i
+                int s = segments - 1;
+                double dx = distance(keys[s], a[i]);
+                double dy = i - indices[s];
+                double lo = Math.max(minSlope, (dy - epsilon) / dx);
+                double hi = Math.min(maxSlope, (dy + epsilon) / dx);
+                if (lo <= hi) {
+                    minSlope = lo;
+                    maxSlope = hi;
+                    continue;
+                }
+                slopes[s] = slope(minSlope, maxSlope);
+            }
+            if (segments == keys.length) {
+                keys = Arrays.copyOf(keys, 2 * segments);
+                indices = Arrays.copyOf(indices, 2 * segments);
+                slopes = Arrays.copyOf(slopes, 2 * segments);
+            }
+            keys[segments] = a[i];
+            indices[segments] = i;
+            segments++;
+            minSlope = 0;
+            maxSlope = Double.POSITIVE_INFINITY;
+        }
+        if (segments > 0) slopes[segments - 1] = slope(minSlope, maxSlope);
+
+        firstKey = Arrays.copyOf(keys, segments);
+        firstIndex = Arrays.copyOf(indices, segments);
+        slope = Arrays.copyOf(slopes, segments);
+    }
+
+    // Returns a slope in the range, 0 if no key was added after the first
+    private static double slope(double minSlope, double maxSlope) {
+        if (maxSlope == Double.POSITIVE_INFINITY) return minSlope;
+        else return (minSlope + maxSlope) / 2;
+    }
+
+    // Returns x - x0 for x >= x0, which may not fit in a long
+    private static double distance(long x0, long x) {
+        long d = x - x0;
+        if (d >= 0) return d;
+        else return (double) (d >>> 1) * 2;
+    }
+
+    /**
+     * Returns the number of keys in the index.
+     *
+     * @return the number of keys in the index
+     */
+    public int size() {
+        return a.length;
+    }
+
+    /**
+     * Returns the number of line segments of the model.
+     *
+     * @return the number of line segments of the model
+     */
+    public int segments() {
+        return firstKey.length;
+    }
+
+    /**
+     * Returns the number of bytes used by the arrays of the model (not
+     * including the array of keys, which is not copied).
+     *
+     * @return the number of bytes used by the arrays of the model
+     */
+    public long memoryFootprintBytes() {
+        return 20L * firstKey.length;
+    }
+
+    /**
+     * Returns true if the index contains the specified key.
+     *
+     * @param key the search key
+     * @return true if the index contains the specified key; false otherwise
+     */
+    public boolean contains(long key) {
+        int idx = search(key, false);
+        return idx < a.length && a[idx] == key;
+    }
+
+    /**
+     * Returns the largest index of key less than or equal to specified key,
+     * or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key;
+     *         - 1 if there is no such index
+     */
+    public int floor(long key) {
+        return search(key, true) - 1;
+    }
+
+    /**
+     * Returns the smallest index of key greater than or equal to specified
+     * key, or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified
+     *         key; - 1 if there is no such index
+     */
+    public int ceiling(long key) {
+        int idx = search(key, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the number of keys strictly less than the specified key.
+     *
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key
+     */
+    public int rank(long key) {
+        return search(key, false);
+    }
+
+    /**
+     * Returns the number of keys between key1 (inclusive) and key2 (exclusive).
+     *
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throws IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     */
+    public int rangeCount(long key1, long key2) {
+        if (key1 >= key2) throw new IllegalArgumentException();
+        return search(key2, false) - search(key1, false);
+    }
+
+    /**
+     * Returns the number of keys less than (or equal to, if inclusive is set)
+     * the specified key.
+     * The prediction is clamped to the indices of the segment (up to the
+     * first index of the next segment), since the line is only fitted to the
+     * keys of the segment. The window around it is then widened by galloping
+     * until a[lo] is below the key and a[hi] is not, and bisected.
+     */
+    private int search(long key, boolean inclusive) {
+        int n = a.length;
+        int s = BinarySearch.floor(firstKey, key);
+        if (s < 0) return 0;
+        int end = s + 1 < firstKey.length ? firstIndex[s + 1] : n;
+        double predicted = firstIndex[s] + slope[s] * distance(firstKey[s], key);
+        int guess = (int) Math.min(end, predicted);
+
+        int lo = Math.max(-1, guess - epsilon - 1);   // a[lo] is below the key
+        int hi = Math.min(n, guess + epsilon + 1);    // a[hi] is not
+        for (int step = 1; lo >= 0 && !below(a[lo], key, inclusive); step *= 2) {
+            hi = lo;
+            lo = Math.max(-1, lo - step);
+        }
+        for (int step = 1; hi < n && below(a[hi], key, inclusive); step *= 2) {
+            lo = hi;
+            hi = (int) Math.min(n, (long) hi + step);
+        }
+
+        if (inclusive) {
+            while (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] <= key) lo = mid;
+                else hi = mid;
+            }
+        }
+        else {
+            while (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] < key) lo = mid;
+                else hi = mid;
+            }
+        }
+        return hi;
+    }
+
+    private static boolean below(long x, long key, boolean inclusive) {
+        if (inclusive) return x <= key;
+        else return x < key;
+    }
+
+
+    /**************************************************************************
+     * Benchmark
+     *************************************************************************/
+
+    /**
+     * Compares the time per rank() query of BinarySearch, EytzingerIndex and
+     * LearnedIndex on sorted arrays of random longs of increasing size, with
+     * random queries, and prints the size of the model.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(0);
+        long[] queries = new long[1 << 20];
+        for (int i = 0; i < queries.length; i++) queries[i] = random.nextLong();
+
+        System.out.printf("%10s %12s %15s %14s %10s %14s%n", "N", "binary (ns)",
+                          "eytzinger (ns)", "learned (ns)", "segments", "model (bytes)");
+        for (int lgN = 12; lgN <= 24; lgN += 4) {
+            long[] a = new long[1 << lgN];
+            for (int i = 0; i < a.length; i++) a[i] = random.nextLong();
+            Arrays.sort(a);
+            EytzingerIndex eytzinger = new EytzingerIndex(a);
+            LearnedIndex learned = new LearnedIndex(a);
+
+            long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+            for (int rep = 0; rep < 8; rep++) {
+                long t0 = System.nanoTime();
+                long sum = 0;
+                for (long q : queries) sum += BinarySearch.rank(a, q);
+                long t1 = System.nanoTime();
+                for (long q : queries) sum += eytzinger.rank(q);
+                long t2 = System.nanoTime();
+                for (long q : queries) sum += learned.rank(q);
+                long t3 = System.nanoTime();
+                sink += sum;
+
+                // the first three rounds warm up the JIT
+                if (rep < 3) continue;
+                best[0] = Math.min(best[0], t1 - t0);
+                best[1] = Math.min(best[1], t2 - t1);
+                best[2] = Math.min(best[2], t3 - t2);
+            }
+            System.out.printf("%10d %12.2f %15.2f %14.2f %10d %14d%n", a.length,
+                              (double) best[0] / queries.length,
+                              (double) best[1] / queries.length,
+                              (double) best[2] / queries.length,
+                              learned.segments(), learned.memoryFootprintBytes());
+        }
+    }
+
+    // results of the queries are accumulated so that the JIT can't discard them
+    private static long sink;
+}
@@ -0,0 +1,80 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.Random;
+
+public class LearnedIndexTest extends TestCase {
+
+    private Random random = new Random(29);
+
+    public void testSmallArrays() {
+        for (int n = 0; n < 80; n += 3) {
+            long[] a = sortedArray(n, n / 2 + 1, 1);
+            for (int epsilon : new int[] {1, 2, 64}) {
+                LearnedIndex index = new LearnedIndex(a, epsilon);
+                assertEquals(index.size(), n);
+                for (long key = -2; key < n / 2 + 3; key++) check(index, a, key);
+            }
+        }
+    }
+
+    public void testLargeArrays() {
+        // uniform keys, a long run of one key, and keys in a few clusters
+        long[] uniform = sortedArray(20000, 1 << 30, 1);
+        long[] runs = sortedArray(20000, 5, 1000);
+        long[] clusters = new long[20000];
+        for (int i = 0; i < clusters.length; i++)
+            clusters[i] = random.nextInt(4) * 1000000000000L + random.nextInt(100000);
+        Arrays.sort(clusters);
+
+        for (long[] a : new long[][] {uniform, runs, clusters}) {
+            LearnedIndex index = new LearnedIndex(a, 8);
+            assertTrue(index.segments() <= a.length);
+            for (int i = 0; i < a.length; i += 7) {
+                check(index, a, a[i]);
+                check(index, a, a[i] + 1);
+                check(index, a, a[i] - 1);
+            }
+        }
+        LearnedIndex uniformIndex = new LearnedIndex(uniform);
+        assertTrue(uniformIndex.segments() < 20);
+    }
+
+    public void testExtremeKeys() {
+        long[] a = {Long.MIN_VALUE, Long.MIN_VALUE + 1, -5, 0, 0, 3, Long.MAX_VALUE - 1,
+            Long.MAX_VALUE};
+        LearnedIndex index = new LearnedIndex(a, 1);
+        long[] keys = {Long.MIN_VALUE, Long.MIN_VALUE + 2, -1, 0, 1, Long.MAX_VALUE - 1,
+            Long.MAX_VALUE};
+        for (long key : keys) check(index, a, key);
+    }
+
+    public void testBadArguments() {
+        try {
+            new LearnedIndex(new long[] {1, 3, 2});
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        try {
+            new LearnedIndex(new long[] {1, 2, 3}, 0);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+    }
+
+    private void check(LearnedIndex index, long[] a, long key) {
+        assertEquals(index.rank(key), BinarySearch.rank(a, key));
+        assertEquals(index.floor(key), BinarySearch.floor(a, key));
+        assertEquals(index.ceiling(key), BinarySearch.ceiling(a, key));
+        assertEquals(index.contains(key), BinarySearch.contains(a, key));
+        if (key < Long.MAX_VALUE - 2)
+            assertEquals(index.rangeCount(key, key + 3), BinarySearch.rangeCount(a, key, key + 3));
+    }
+
+    // sorted array of n random keys from 0 to range - 1, times scale
+    private long[] sortedArray(int n, int range, long scale) {
+        long[] a = new long[n];
+        for (int i = 0; i < n; i++) a[i] = random.nextInt(range) * scale;
+        Arrays.sort(a);
+        return a;
+    }
+}
@@ -0,0 +1,120 @@
+/******************************************************************************
+ * Compilation:  javac LongSortedRange.java
+ * Execution:
+ * Dependencies:
+ *
+ * A view of the keys of a sorted long[] array that fall in a range, backed
+ * by the array itself.
+ *
+ ******************************************************************************/
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The LongSortedRange class represents the keys of a sorted long[] array
+ * that lie between two bounds, as returned by BinarySearch.range(long[],
+ * ...): the keys at the indices from() (inclusive) to to() (exclusive). It
+ * is the long counterpart of SortedRange: a view that reads the keys from
+ * the array on demand, through a LongStream or a Spliterator.OfLong that do
+ * not box them.
+ *
+ * @author Nate Liu
+ */
+public class LongSortedRange {
+
+    private final long[] a;
+    private final int from;
+    private final int to;
+
+    /**
+     * Initializes a view of the keys a[from] to a[to - 1].
+     * Use BinarySearch.range(long[], ...) to obtain a view.
+     */
+    LongSortedRange(long[] a, int from, int to) {
+        this.a = a;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Returns the index of the first key of the range in the array.
+     *
+     * @return the index of the first key of the range in the array
+     */
+    public int from() {
+        return from;
+    }
+
+    /**
+     * Returns the index after the last key of the range in the array.
+     *
+     * @return the index after the last key of the range in the array
+     */
+    public int to() {
+        return to;
+    }
+
+    /**
+     * Returns the number of keys in the range.
+     *
+     * @return the number of keys in the range
+     */
+    public int size() {
+        return to - from;
+    }
+
+    /**
+     * Is the range empty?
+     *
+     * @return true if the range is empty; false otherwise
+     */
+    public boolean isEmpty() {
+        return from == to;
+    }
+
+    /**
+     * Returns a spliterator over the keys of the range, in ascending order.
+     *
+     * @return a spliterator over the keys of the range, in ascending order
+     */
+    public Spliterator.OfLong spliterator() {
+        // SIZED and SUBSIZED are added by Spliterators
+        int c = Spliterator.ORDERED | Spliterator.IMMUTABLE
+              | Spliterator.SORTED;
+        return Spliterators.spliterator(a, from, to, c);
+    }
+
+    /**
+     * Returns a sequential stream of the keys of the range, in ascending
+     * order. Call parallel() on it to process the keys in parallel.
+     *
+     * @return a stream of the keys of the range
+     */
+    public LongStream longStream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    /**
+     * Returns a sequential stream of the keys of the range, boxed, in
+     * ascending order.
+     *
+     * @return a stream of the boxed keys of the range
+     */
+    public Stream<Long> stream() {
+        return longStream().boxed();
+    }
+
+    /**
+     * Returns a string representation of the range.
+     *
+     * @return a string representation of the range
+     */
+    @Override
+    public String toString() {
+        return "[" + from + ", " + to + ")";
+    }
+}
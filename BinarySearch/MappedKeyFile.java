@@ -0,0 +1,296 @@
+/******************************************************************************
+ * Compilation:  javac MappedKeyFile.java
+ * Execution:    java MappedKeyFile
+ * Dependencies: BinarySearch.java
+ *
+ * Binary search over a file of sorted fixed width integer keys, read through
+ * a memory mapping instead of being loaded onto the heap.
+ * The main method benchmarks queries with and without the sampled top level.
+ *
+ ******************************************************************************/
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The MappedKeyFile class answers the indexOf, floor, ceiling, rank and range
+ * count queries of the BinarySearch class for a file that holds a sorted
+ * sequence of signed 4 byte or 8 byte integer keys, stored back to back in
+ * big endian or little endian byte order.
+ *
+ * The file is memory mapped in chunks of 1 GB (a single mapping is limited
+ * to 2 GB), so files of any size can be searched, and the keys are read
+ * straight from the page cache: only the pages that a search touches are
+ * read from disk. Positions are longs, since a file may hold more than
+ * Integer.MAX_VALUE keys. The file must not be modified while it is mapped;
+ * the mapping is released when the object is garbage collected.
+ *
+ * Optionally, every s-th key of the file is copied into an array on the heap
+ * when the file is opened. A search then bisects this sample first, and the
+ * file only for the last lg s steps, which are close together. Without the
+ * sample, the first steps of every search go to pages spread over the whole
+ * file, which after a cold start (or when the file is much larger than the
+ * page cache) each cost a disk read. The sample takes 8 N / s bytes.
+ *
+ * All indices returned are identical to the ones returned by the
+ * corresponding methods of the BinarySearch class for an array holding the
+ * keys of the file, and each query reads at most floor(lg N) + 1 keys from
+ * the file (range count uses twice that).
+ *
+ * @author Nate Liu
+ */
+public class MappedKeyFile {
+
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final long n;
+    private final int width;                  // bytes per key, 4 or 8
+    private final MappedByteBuffer[] chunks;  // chunk i maps bytes i << 30 ...
+    private final int rate;                   // keys per sample, 0 if none
+    private final long[] sample;              // sample[j] = key(j * rate)
+
+    /**
+     * Maps the specified file of sorted keys, without a sample.
+     *
+     * @param file the file to be searched
+     * @param width the number of bytes per key, 4 or 8
+     * @param order the byte order of the keys
+     * @throws IllegalArgumentException if the width is not 4 or 8, or if the
+     *         file length is not a multiple of it
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedKeyFile(Path file, int width, ByteOrder order) throws IOException {
+        this(file, width, order, 0);
+    }
+
+    /**
+     * Maps the specified file of sorted keys, and copies every rate-th key of
+     * it into a sample on the heap (no sample is taken if rate is 0).
+     *
+     * @param file the file to be searched
+     * @param width the number of bytes per key, 4 or 8
+     * @param order the byte order of the keys
+     * @param rate the number of keys per sampled key, or 0 for no sample
+     * @throws IllegalArgumentException if the width is not 4 or 8, if the
+     *         file length is not a multiple of it, or if rate is negative
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedKeyFile(Path file, int width, ByteOrder order, int rate) throws IOException {
+        if (width != 4 && width != 8)
+            throw new IllegalArgumentException("width must be 4 or 8: " + width);
+        if (rate < 0) throw new IllegalArgumentException("negative rate: " + rate);
+        this.width = width;
+        this.rate = rate;
+
+        // the mappings stay valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes % width != 0)
+                throw new IllegalArgumentException("file length " + bytes
+                                                   + " is not a multiple of " + width);
+            n = bytes / width;
+            chunks = new MappedByteBuffer[(int) ((bytes + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << CHUNK_SHIFT;
+                long size = Math.min(CHUNK_MASK + 1, bytes - start);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+                chunks[i].order(order);
+            }
+        }
+
+        if (rate == 0) sample = null;
+        else {
+            sample = new long[(int) ((n + rate - 1) / rate)];
+            for (int j = 0; j < sample.length; j++) sample[j] = key((long) j * rate);
+        }
+    }
+
+    /**
+     * Returns the number of keys in the file.
+     *
+     * @return the number of keys in the file
+     */
+    public long size() {
+        return n;
+    }
+
+    /**
+     * Returns the key at the specified position of the file.
+     *
+     * @param i the position of the key
+     * @return the key at position i
+     * @throws IndexOutOfBoundsException unless 0 <= i < size()
+     */
+    public long key(long i) {
+        if (i < 0 || i >= n) throw new IndexOutOfBoundsException("index " + i);
+        long offset = i * width;
+        MappedByteBuffer chunk = chunks[(int) (offset >>> CHUNK_SHIFT)];
+        int at = (int) (offset & CHUNK_MASK);
+        if (width == 4) return chunk.getInt(at);
+        else return chunk.getLong(at);
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified key in the
+     * file, or -1 if there is no such index.
+     *
+     * @param key the search key
+     * @return index of the first occurrence of key if present, -1 otherwise
+     */
+    public long indexOf(long key) {
+        long idx = search(key, false);
+        if (idx < n && key(idx) == key) return idx;
+        else return -1;
+    }
+
+    /**
+     * Returns the largest index of key less than or equal to specified key,
+     * or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key;
+     *         - 1 if there is no such index
+     */
+    public long floor(long key) {
+        return search(key, true) - 1;
+    }
+
+    /**
+     * Returns the smallest index of key greater than or equal to specified
+     * key, or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified
+     *         key; - 1 if there is no such index
+     */
+    public long ceiling(long key) {
+        long idx = search(key, false);
+        if (idx == n) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the number of keys strictly less than the specified key.
+     *
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key
+     */
+    public long rank(long key) {
+        return search(key, false);
+    }
+
+    /**
+     * Returns the number of keys between key1 (inclusive) and key2 (exclusive).
+     *
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throws IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     */
+    public long rangeCount(long key1, long key2) {
+        if (key1 >= key2) throw new IllegalArgumentException();
+        return search(key2, false) - search(key1, false);
+    }
+
+    /**
+     * Returns the number of keys less than (or equal to, if inclusive is set)
+     * the specified key.
+     * If there is a sample, the j sampled keys below the search key bound
+     * the answer to (j - 1) * rate + 1 .. j * rate, and only that range of
+     * the file is bisected.
+     */
+    private long search(long key, boolean inclusive) {
+        long lo = -1;       // key(lo) is below the search key
+        long hi = n;        // key(hi) is not
+        if (sample != null) {
+            int j = inclusive ? BinarySearch.floor(sample, key) + 1
+                              : BinarySearch.rank(sample, key);
+            if (j > 0) lo = (long) (j - 1) * rate;
+            if (j < sample.length) hi = (long) j * rate;
+        }
+        while (hi - lo > 1) {
+            long mid = (lo + hi) >>> 1;
+            long midKey = key(mid);
+            boolean below = inclusive ? midKey <= key : midKey < key;
+            if (below) lo = mid;
+            else hi = mid;
+        }
+        return hi;
+    }
+
+
+    /**************************************************************************
+     * Benchmark
+     *************************************************************************/
+
+    /**
+     * Writes a temporary file of 2^24 random sorted longs, and compares the
+     * time per rank() query on it with and without a sample of every 64th
+     * key, against BinarySearch on the same keys loaded into an array.
+     * The file is in the page cache during the benchmark, so this measures
+     * the cost of reading keys through the mapping, not of disk reads.
+     */
+    public static void main(String[] args) throws IOException {
+        Random random = new Random(0);
+        long[] a = new long[1 << 24];
+        for (int i = 0; i < a.length; i++) a[i] = random.nextLong();
+        Arrays.sort(a);
+
+        File file = File.createTempFile("keys", ".bin");
+        file.deleteOnExit();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            for (long key : a) {
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) channel.write(buffer);
+                    buffer.clear();
+                }
+                buffer.putLong(key);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+        MappedKeyFile plain = new MappedKeyFile(file.toPath(), 8, ByteOrder.LITTLE_ENDIAN);
+        MappedKeyFile sampled = new MappedKeyFile(file.toPath(), 8, ByteOrder.LITTLE_ENDIAN, 64);
+
+        long[] queries = new long[1 << 20];
+        for (int i = 0; i < queries.length; i++) queries[i] = random.nextLong();
+
+        long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int rep = 0; rep < 8; rep++) {
+            long t0 = System.nanoTime();
+            long sum = 0;
+            for (long q : queries) sum += BinarySearch.rank(a, q);
+            long t1 = System.nanoTime();
+            for (long q : queries) sum += plain.rank(q);
+            long t2 = System.nanoTime();
+            for (long q : queries) sum += sampled.rank(q);
+            long t3 = System.nanoTime();
+            sink += sum;
+
+            // the first three rounds warm up the JIT
+            if (rep < 3) continue;
+            best[0] = Math.min(best[0], t1 - t0);
+            best[1] = Math.min(best[1], t2 - t1);
+            best[2] = Math.min(best[2], t3 - t2);
+        }
+        System.out.printf("N = %d, ns per rank(): array %.2f, mapped %.2f, "
+                          + "mapped with sample %.2f%n", a.length,
+                          (double) best[0] / queries.length,
+                          (double) best[1] / queries.length,
+                          (double) best[2] / queries.length);
+    }
+
+    // results of the queries are accumulated so that the JIT can't discard them
+    private static long sink;
+}
@@ -0,0 +1,84 @@
+import junit.framework.TestCase;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+public class MappedKeyFileTest extends TestCase {
+
+    private Random random = new Random(23);
+
+    public void testIntFile() throws IOException {
+        for (int n = 0; n < 60; n += 7) {
+            long[] a = sortedArray(n, n / 2 + 1);
+            File file = write(a, 4, ByteOrder.BIG_ENDIAN);
+            MappedKeyFile plain = new MappedKeyFile(file.toPath(), 4, ByteOrder.BIG_ENDIAN);
+            MappedKeyFile sampled = new MappedKeyFile(file.toPath(), 4, ByteOrder.BIG_ENDIAN, 4);
+            assertEquals(plain.size(), n);
+            for (long key = -2; key < n / 2 + 3; key++) {
+                for (MappedKeyFile keys : new MappedKeyFile[] {plain, sampled}) {
+                    int idx = BinarySearch.indexOf(a, key);
+                    assertEquals(keys.indexOf(key), idx < 0 ? -1 : BinarySearch.firstIndexOf(a, key));
+                    assertEquals(keys.floor(key), BinarySearch.floor(a, key));
+                    assertEquals(keys.ceiling(key), BinarySearch.ceiling(a, key));
+                    assertEquals(keys.rank(key), BinarySearch.rank(a, key));
+                    assertEquals(keys.rangeCount(key, key + 3),
+                                 BinarySearch.rangeCount(a, key, key + 3));
+                }
+            }
+        }
+    }
+
+    public void testLongFile() throws IOException {
+        long[] a = sortedArray(1000, 300);
+        for (int i = 0; i < a.length; i++) a[i] = a[i] * 3000000000L - 200000000000L;
+        File file = write(a, 8, ByteOrder.LITTLE_ENDIAN);
+        for (int rate : new int[] {0, 1, 16, 999, 1000, 5000}) {
+            MappedKeyFile keys = new MappedKeyFile(file.toPath(), 8, ByteOrder.LITTLE_ENDIAN, rate);
+            for (int i = 0; i < a.length; i += 37) assertEquals(keys.key(i), a[i]);
+            for (long key = -210000000000L; key < 710000000000L; key += 1500000000L) {
+                assertEquals(keys.floor(key), BinarySearch.floor(a, key));
+                assertEquals(keys.ceiling(key), BinarySearch.ceiling(a, key));
+                assertEquals(keys.rank(key), BinarySearch.rank(a, key));
+            }
+        }
+    }
+
+    public void testBadFile() throws IOException {
+        File file = write(new long[] {1, 2, 3}, 4, ByteOrder.BIG_ENDIAN);
+        try {
+            new MappedKeyFile(file.toPath(), 8, ByteOrder.BIG_ENDIAN);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        try {
+            new MappedKeyFile(file.toPath(), 2, ByteOrder.BIG_ENDIAN);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+    }
+
+    // sorted array of n random keys from 0 to range - 1
+    private long[] sortedArray(int n, int range) {
+        long[] a = new long[n];
+        for (int i = 0; i < n; i++) a[i] = random.nextInt(range);
+        Arrays.sort(a);
+        return a;
+    }
+
+    // temporary file holding the keys with the specified width and byte order
+    private File write(long[] a, int width, ByteOrder order) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(a.length * width).order(order);
+        for (long key : a) {
+            if (width == 4) buffer.putInt((int) key);
+            else buffer.putLong(key);
+        }
+        File file = File.createTempFile("keys", ".bin");
+        file.deleteOnExit();
+        Files.write(file.toPath(), buffer.array());
+        return file;
+    }
+}
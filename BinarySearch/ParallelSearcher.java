@@ -0,0 +1,707 @@
+/******************************************************************************
+ * Compilation:  javac ParallelSearcher.java
+ * Execution:    java ParallelSearcher
+ * Dependencies: BinarySearch.java Bucketizer.java
+ *
+ * Resolves a large array of search keys against one sorted array on all the
+ * threads of a fork/join pool.
+ * The main method benchmarks it against a loop over BinarySearch.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The ParallelSearcher class provides parallel batch versions of the rank,
+ * floor and ceiling methods of the BinarySearch class: given a sorted array
+ * and an array of queries, it stores the result for queries[i] in out[i].
+ *
+ * The queries are split recursively into contiguous chunks of at least 8192
+ * queries (and about 4 chunks per thread, so that threads that finish early
+ * can steal work), which are answered on a ForkJoinPool: the common pool, or
+ * one supplied by the caller. Each thread reads a contiguous run of queries
+ * and writes a contiguous run of results, so no two threads write to the
+ * same cache line except at the ends of chunks; the top levels of the
+ * sorted array are shared by all searches and stay in cache.
+ * Batches smaller than one chunk are answered on the calling thread.
+ *
+ * Within a chunk, the ints, longs and doubles are searched 8 at a time in
+ * lock step, with the loop of BranchlessBinarySearch: all 8 searches probe
+ * the same level of the array together, so their cache misses overlap
+ * instead of each waiting for the last. On arrays that do not fit in cache
+ * this is faster than searching the keys one after the other, even on one
+ * thread.
+ *
+ * Results are identical to the ones returned by BinarySearch, and nothing is
+ * allocated per query.
+ *
+ * bucketize and histogram are parallel versions of the methods of the same
+ * names of BinarySearch; each chunk of a histogram is counted into an array
+ * of counts of its own, and the arrays of the two halves of each task are
+ * added together as the tasks join, with no lock. Every chunk is at least
+ * as long as there are buckets, so there are at most m / buckets such
+ * arrays for m values, and clearing and merging each one costs no more
+ * than counting the values of its chunk.
+ *
+ * @author Nate Liu
+ */
+public class ParallelSearcher {
+
+    private static final int MIN_CHUNK = 1 << 13;  // queries per task
+    private static final int TASKS_PER_THREAD = 4;
+    private static final int LANES = 8;            // searches in lock step
+
+    private static final int RANK = 0;
+    private static final int FLOOR = 1;
+    private static final int CEILING = 2;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Initializes a searcher that runs on the common fork/join pool.
+     */
+    public ParallelSearcher() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Initializes a searcher that runs on the specified fork/join pool.
+     *
+     * @param pool the pool to run the searches on
+     * @throws IllegalArgumentException if pool is null
+     */
+    public ParallelSearcher(ForkJoinPool pool) {
+        if (pool == null) throw new IllegalArgumentException("pool is null");
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the number of threads the searches are split across.
+     *
+     * @return the parallelism of the pool
+     */
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+
+    /**************************************************************************
+     * Key[]
+     *************************************************************************/
+
+    /**
+     * Stores in out[i] the number of keys in a strictly less than queries[i],
+     * for every i. Same as calling BinarySearch.rank(a, queries[i]) for each
+     * query.
+     * The array must be sorted into ascending order according to the natural
+     * orderings of its entries prior to calling this method.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public <Key extends Comparable<Key>> void rank(Key[] a, Key[] queries, int[] out) {
+        run(queries.length, out, (lo, hi) -> {
+            for (int i = lo; i < hi; i++) out[i] = BinarySearch.rank(a, queries[i]);
+        });
+    }
+
+    /**
+     * Stores in out[i] the number of keys in a strictly less than queries[i],
+     * for every i. Same as calling BinarySearch.rank(a, queries[i], comp) for
+     * each query.
+     * The array must be sorted into ascending order according to the orderings
+     * specified by the comparator prior to calling this method.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @param comp the comparator which specifies the order of objects
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public <Key> void rank(Key[] a, Key[] queries, int[] out, Comparator<Key> comp) {
+        run(queries.length, out, (lo, hi) -> {
+            for (int i = lo; i < hi; i++) out[i] = BinarySearch.rank(a, queries[i], comp);
+        });
+    }
+
+    /**
+     * Stores in out[i] the largest index of key less than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.floor(a, queries[i]) for each query.
+     * The array must be sorted into ascending order according to the natural
+     * orderings of its entries prior to calling this method.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public <Key extends Comparable<Key>> void floor(Key[] a, Key[] queries, int[] out) {
+        run(queries.length, out, (lo, hi) -> {
+            for (int i = lo; i < hi; i++) out[i] = BinarySearch.floor(a, queries[i]);
+        });
+    }
+
+    /**
+     * Stores in out[i] the largest index of key less than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.floor(a, queries[i], comp) for each query.
+     * The array must be sorted into ascending order according to the orderings
+     * specified by the comparator prior to calling this method.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @param comp the comparator which specifies the order of objects
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public <Key> void floor(Key[] a, Key[] queries, int[] out, Comparator<Key> comp) {
+        run(queries.length, out, (lo, hi) -> {
+            for (int i = lo; i < hi; i++) out[i] = BinarySearch.floor(a, queries[i], comp);
+        });
+    }
+
+    /**
+     * Stores in out[i] the smallest index of key greater than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.ceiling(a, queries[i]) for each query.
+     * The array must be sorted into ascending order according to the natural
+     * orderings of its entries prior to calling this method.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public <Key extends Comparable<Key>> void ceiling(Key[] a, Key[] queries, int[] out) {
+        run(queries.length, out, (lo, hi) -> {
+            for (int i = lo; i < hi; i++) out[i] = BinarySearch.ceiling(a, queries[i]);
+        });
+    }
+
+    /**
+     * Stores in out[i] the smallest index of key greater than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.ceiling(a, queries[i], comp) for each
+     * query.
+     * The array must be sorted into ascending order according to the orderings
+     * specified by the comparator prior to calling this method.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @param comp the comparator which specifies the order of objects
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public <Key> void ceiling(Key[] a, Key[] queries, int[] out, Comparator<Key> comp) {
+        run(queries.length, out, (lo, hi) -> {
+            for (int i = lo; i < hi; i++) out[i] = BinarySearch.ceiling(a, queries[i], comp);
+        });
+    }
+
+
+    /**************************************************************************
+     * Splitting the work
+     *************************************************************************/
+
+    // Answers the queries lo .. hi - 1 of a batch
+    private interface Chunk {
+        void search(int lo, int hi);
+    }
+
+    private static class Task extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Chunk chunk;
+        private final int lo, hi, size;
+
+        Task(Chunk chunk, int lo, int hi, int size) {
+            this.chunk = chunk;
+            this.lo = lo;
+            this.hi = hi;
+            this.size = size;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= size) {
+                chunk.search(lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Task(chunk, lo, mid, size), new Task(chunk, mid, hi, size));
+        }
+    }
+
+    /**
+     * Answers the m queries of a batch, in chunks of about m / (4 * threads)
+     * queries, but no fewer than MIN_CHUNK.
+     */
+    private void run(int m, int[] out, Chunk chunk) {
+        if (out.length < m)
+            throw new IllegalArgumentException("output array too short");
+        int size = Math.max(MIN_CHUNK, m / (TASKS_PER_THREAD * pool.getParallelism()));
+        if (m <= size) chunk.search(0, m);
+        else pool.invoke(new Task(chunk, 0, m, size));
+    }
+
+    // Adds the counts of the values lo .. hi - 1 of a histogram to counts
+    private interface Counter {
+        void count(int lo, int hi, long[] counts);
+    }
+
+    // Counts the values lo .. hi - 1 of a histogram into a new array, merging
+    // the arrays of the two halves (pairwise, as the tasks join)
+    private static class HistogramTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final Counter counter;
+        private final int lo, hi, size, buckets;
+
+        HistogramTask(Counter counter, int lo, int hi, int size, int buckets) {
+            this.counter = counter;
+            this.lo = lo;
+            this.hi = hi;
+            this.size = size;
+            this.buckets = buckets;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (hi - lo <= size) {
+                long[] counts = new long[buckets];
+                counter.count(lo, hi, counts);
+                return counts;
+            }
+            int mid = (lo + hi) >>> 1;
+            HistogramTask right = new HistogramTask(counter, mid, hi, size, buckets);
+            right.fork();
+            long[] counts = new HistogramTask(counter, lo, mid, size, buckets).compute();
+            long[] rightCounts = right.join();
+            for (int j = 0; j < buckets; j++) counts[j] += rightCounts[j];
+            return counts;
+        }
+    }
+
+    /**
+     * Counts the m values of a histogram into counts, in chunks like run(),
+     * but of at least as many values as there are buckets, so that the
+     * arrays of counts of the chunks take no longer to clear and merge than
+     * the values take to count. A batch of one chunk is counted into counts
+     * directly, on the calling thread.
+     */
+    private void histogram(int m, int buckets, long[] counts, Counter counter) {
+        int size = Math.max(Math.max(MIN_CHUNK, buckets),
+                            m / (TASKS_PER_THREAD * pool.getParallelism()));
+        if (m <= size) {
+            counter.count(0, m, counts);
+            return;
+        }
+        long[] total = pool.invoke(new HistogramTask(counter, 0, m, size, buckets));
+        for (int j = 0; j < buckets; j++) counts[j] += total[j];
+    }
+
+    private static int result(int pos, int n, int op) {
+        if (op == RANK) return pos;
+        else if (op == FLOOR) return pos - 1;
+        else if (pos == n) return -1;
+        else return pos;
+    }
+
+
+    /**************************************************************************
+     * int[]
+     *************************************************************************/
+
+    /**
+     * Stores in out[i] the number of keys in a strictly less than queries[i],
+     * for every i. Same as calling BinarySearch.rank(a, queries[i]) for each
+     * query.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public void rank(int[] a, int[] queries, int[] out) {
+        run(queries.length, out, (lo, hi) -> search(a, queries, out, lo, hi, RANK));
+    }
+
+    /**
+     * Stores in out[i] the largest index of key less than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.floor(a, queries[i]) for each query.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public void floor(int[] a, int[] queries, int[] out) {
+        run(queries.length, out, (lo, hi) -> search(a, queries, out, lo, hi, FLOOR));
+    }
+
+    /**
+     * Stores in out[i] the smallest index of key greater than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.ceiling(a, queries[i]) for each query.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public void ceiling(int[] a, int[] queries, int[] out) {
+        run(queries.length, out, (lo, hi) -> search(a, queries, out, lo, hi, CEILING));
+    }
+
+    /**
+     * Answers the queries lo .. hi - 1, LANES at a time. base[j] is the
+     * start of the range of the array that holds the answer for query
+     * lo + j, and len is the length of all of the ranges.
+     */
+    private static void search(int[] a, int[] queries, int[] out, int lo, int hi, int op) {
+        int n = a.length;
+        boolean inclusive = op == FLOOR;
+        int[] base = new int[LANES];
+        int i = lo;
+        for (; n > 0 && i + LANES <= hi; i += LANES) {
+            Arrays.fill(base, 0);
+            for (int len = n; len > 1; len -= len >>> 1) {
+                int half = len >>> 1;
+                if (inclusive) {
+                    for (int j = 0; j < LANES; j++)
+                        base[j] += a[base[j] + half] <= queries[i + j] ? half : 0;
+                }
+                else {
+                    for (int j = 0; j < LANES; j++)
+                        base[j] += a[base[j] + half] < queries[i + j] ? half : 0;
+                }
+            }
+            for (int j = 0; j < LANES; j++) {
+                int key = queries[i + j];
+                boolean below = inclusive ? a[base[j]] <= key : a[base[j]] < key;
+                out[i + j] = result(below ? base[j] + 1 : base[j], n, op);
+            }
+        }
+        for (; i < hi; i++) {
+            int pos = inclusive ? BinarySearch.floor(a, queries[i]) + 1
+                                : BinarySearch.rank(a, queries[i]);
+            out[i] = result(pos, n, op);
+        }
+    }
+
+
+    /**************************************************************************
+     * long[]
+     *************************************************************************/
+
+    /**
+     * Stores in out[i] the number of keys in a strictly less than queries[i],
+     * for every i. Same as calling BinarySearch.rank(a, queries[i]) for each
+     * query.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public void rank(long[] a, long[] queries, int[] out) {
+        run(queries.length, out, (lo, hi) -> search(a, queries, out, lo, hi, RANK));
+    }
+
+    /**
+     * Stores in out[i] the largest index of key less than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.floor(a, queries[i]) for each query.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public void floor(long[] a, long[] queries, int[] out) {
+        run(queries.length, out, (lo, hi) -> search(a, queries, out, lo, hi, FLOOR));
+    }
+
+    /**
+     * Stores in out[i] the smallest index of key greater than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.ceiling(a, queries[i]) for each query.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public void ceiling(long[] a, long[] queries, int[] out) {
+        run(queries.length, out, (lo, hi) -> search(a, queries, out, lo, hi, CEILING));
+    }
+
+    // see search(int[], int[], int[], int, int, int)
+    private static void search(long[] a, long[] queries, int[] out, int lo, int hi, int op) {
+        int n = a.length;
+        boolean inclusive = op == FLOOR;
+        int[] base = new int[LANES];
+        int i = lo;
+        for (; n > 0 && i + LANES <= hi; i += LANES) {
+            Arrays.fill(base, 0);
+            for (int len = n; len > 1; len -= len >>> 1) {
+                int half = len >>> 1;
+                if (inclusive) {
+                    for (int j = 0; j < LANES; j++)
+                        base[j] += a[base[j] + half] <= queries[i + j] ? half : 0;
+                }
+                else {
+                    for (int j = 0; j < LANES; j++)
+                        base[j] += a[base[j] + half] < queries[i + j] ? half : 0;
+                }
+            }
+            for (int j = 0; j < LANES; j++) {
+                long key = queries[i + j];
+                boolean below = inclusive ? a[base[j]] <= key : a[base[j]] < key;
+                out[i + j] = result(below ? base[j] + 1 : base[j], n, op);
+            }
+        }
+        for (; i < hi; i++) {
+            int pos = inclusive ? BinarySearch.floor(a, queries[i]) + 1
+                                : BinarySearch.rank(a, queries[i]);
+            out[i] = result(pos, n, op);
+        }
+    }
+
+
+    /**************************************************************************
+     * double[]
+     *************************************************************************/
+
+    /**
+     * Stores in out[i] the number of keys in a strictly less than queries[i],
+     * for every i. Same as calling BinarySearch.rank(a, queries[i]) for each
+     * query.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public void rank(double[] a, double[] queries, int[] out) {
+        run(queries.length, out, (lo, hi) -> search(a, queries, out, lo, hi, RANK));
+    }
+
+    /**
+     * Stores in out[i] the largest index of key less than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.floor(a, queries[i]) for each query.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public void floor(double[] a, double[] queries, int[] out) {
+        run(queries.length, out, (lo, hi) -> search(a, queries, out, lo, hi, FLOOR));
+    }
+
+    /**
+     * Stores in out[i] the smallest index of key greater than or equal to
+     * queries[i] in a, or - 1 if there is no such index, for every i.
+     * Same as calling BinarySearch.ceiling(a, queries[i]) for each query.
+     *
+     * @param a the sorted array to be searched
+     * @param queries the search keys
+     * @param out the array to store the results in
+     * @throws IllegalArgumentException if out is shorter than queries
+     */
+    public void ceiling(double[] a, double[] queries, int[] out) {
+        run(queries.length, out, (lo, hi) -> search(a, queries, out, lo, hi, CEILING));
+    }
+
+    // see search(int[], int[], int[], int, int, int); the keys are compared
+    // with Double.compare(), like in BinarySearch
+    private static void search(double[] a, double[] queries, int[] out, int lo, int hi, int op) {
+        int n = a.length;
+        int limit = op == FLOOR ? 0 : -1;
+        int[] base = new int[LANES];
+        int i = lo;
+        for (; n > 0 && i + LANES <= hi; i += LANES) {
+            Arrays.fill(base, 0);
+            for (int len = n; len > 1; len -= len >>> 1) {
+                int half = len >>> 1;
+                for (int j = 0; j < LANES; j++)
+                    base[j] += Double.compare(a[base[j] + half], queries[i + j]) <= limit ? half : 0;
+            }
+            for (int j = 0; j < LANES; j++) {
+                boolean below = Double.compare(a[base[j]], queries[i + j]) <= limit;
+                out[i + j] = result(below ? base[j] + 1 : base[j], n, op);
+            }
+        }
+        for (; i < hi; i++) {
+            int pos = op == FLOOR ? BinarySearch.floor(a, queries[i]) + 1
+                                  : BinarySearch.rank(a, queries[i]);
+            out[i] = result(pos, n, op);
+        }
+    }
+
+
+    /**************************************************************************
+     * Bucketizing
+     *************************************************************************/
+
+    /**
+     * Stores in out[i] the bucket of values[i] among the buckets delimited by
+     * boundaries, for every i. Same as BinarySearch.bucketize(boundaries,
+     * values, out).
+     *
+     * @param boundaries the sorted boundaries of the buckets
+     * @param values the values to be bucketized
+     * @param out the array to store the buckets in
+     * @throws IllegalArgumentException if out is shorter than values, or if
+     *         boundaries is not sorted
+     */
+    public void bucketize(int[] boundaries, int[] values, int[] out) {
+        Bucketizer bucketizer = new Bucketizer(boundaries);
+        run(values.length, out, (lo, hi) -> bucketizer.bucketize(values, lo, hi, out));
+    }
+
+    /**
+     * Adds to counts[j] the number of values in bucket j, for every j. Same
+     * as BinarySearch.histogram(boundaries, values, counts).
+     *
+     * @param boundaries the sorted boundaries of the buckets
+     * @param values the values to be counted
+     * @param counts the counts of the buckets
+     * @throws IllegalArgumentException if counts has fewer than
+     *         boundaries.length + 1 entries, or if boundaries is not sorted
+     */
+    public void histogram(int[] boundaries, int[] values, long[] counts) {
+        if (counts.length <= boundaries.length)
+            throw new IllegalArgumentException("counts array too short");
+        Bucketizer bucketizer = new Bucketizer(boundaries);
+        histogram(values.length, bucketizer.buckets(), counts,
+                  (lo, hi, local) -> bucketizer.histogram(values, lo, hi, local));
+    }
+
+    /**
+     * Stores in out[i] the bucket of values[i] among the buckets delimited by
+     * boundaries, for every i. Same as BinarySearch.bucketize(boundaries,
+     * values, out).
+     *
+     * @param boundaries the sorted boundaries of the buckets
+     * @param values the values to be bucketized
+     * @param out the array to store the buckets in
+     * @throws IllegalArgumentException if out is shorter than values, or if
+     *         boundaries is not sorted
+     */
+    public void bucketize(long[] boundaries, long[] values, int[] out) {
+        Bucketizer bucketizer = new Bucketizer(boundaries);
+        run(values.length, out, (lo, hi) -> bucketizer.bucketize(values, lo, hi, out));
+    }
+
+    /**
+     * Adds to counts[j] the number of values in bucket j, for every j. Same
+     * as BinarySearch.histogram(boundaries, values, counts).
+     *
+     * @param boundaries the sorted boundaries of the buckets
+     * @param values the values to be counted
+     * @param counts the counts of the buckets
+     * @throws IllegalArgumentException if counts has fewer than
+     *         boundaries.length + 1 entries, or if boundaries is not sorted
+     */
+    public void histogram(long[] boundaries, long[] values, long[] counts) {
+        if (counts.length <= boundaries.length)
+            throw new IllegalArgumentException("counts array too short");
+        Bucketizer bucketizer = new Bucketizer(boundaries);
+        histogram(values.length, bucketizer.buckets(), counts,
+                  (lo, hi, local) -> bucketizer.histogram(values, lo, hi, local));
+    }
+
+    /**
+     * Stores in out[i] the bucket of values[i] among the buckets delimited by
+     * boundaries, for every i. Same as BinarySearch.bucketize(boundaries,
+     * values, out).
+     *
+     * @param boundaries the sorted boundaries of the buckets
+     * @param values the values to be bucketized
+     * @param out the array to store the buckets in
+     * @throws IllegalArgumentException if out is shorter than values, or if
+     *         boundaries is not sorted
+     */
+    public void bucketize(double[] boundaries, double[] values, int[] out) {
+        Bucketizer bucketizer = new Bucketizer(boundaries);
+        run(values.length, out, (lo, hi) -> bucketizer.bucketize(values, lo, hi, out));
+    }
+
+    /**
+     * Adds to counts[j] the number of values in bucket j, for every j. Same
+     * as BinarySearch.histogram(boundaries, values, counts).
+     *
+     * @param boundaries the sorted boundaries of the buckets
+     * @param values the values to be counted
+     * @param counts the counts of the buckets
+     * @throws IllegalArgumentException if counts has fewer than
+     *         boundaries.length + 1 entries, or if boundaries is not sorted
+     */
+    public void histogram(double[] boundaries, double[] values, long[] counts) {
+        if (counts.length <= boundaries.length)
+            throw new IllegalArgumentException("counts array too short");
+        Bucketizer bucketizer = new Bucketizer(boundaries);
+        histogram(values.length, bucketizer.buckets(), counts,
+                  (lo, hi, local) -> bucketizer.histogram(values, lo, hi, local));
+    }
+
+
+
+    /**************************************************************************
+     * Benchmark
+     *************************************************************************/
+
+    /**
+     * Compares the time per query of calling BinarySearch.rank() in a loop
+     * and of ParallelSearcher.rank() on the common pool, with 2^22 random
+     * queries against sorted arrays of random ints of increasing size.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(0);
+        int[] queries = new int[1 << 22];
+        for (int i = 0; i < queries.length; i++) queries[i] = random.nextInt();
+        int[] out = new int[queries.length];
+        ParallelSearcher searcher = new ParallelSearcher();
+
+        System.out.printf("%d threads%n", searcher.parallelism());
+        System.out.printf("%10s %12s %14s%n", "N", "loop (ns)", "parallel (ns)");
+        for (int lgN = 10; lgN <= 25; lgN += 5) {
+            int[] a = new int[1 << lgN];
+            for (int i = 0; i < a.length; i++) a[i] = random.nextInt();
+            Arrays.sort(a);
+
+            long[] best = {Long.MAX_VALUE, Long.MAX_VALUE};
+            for (int rep = 0; rep < 8; rep++) {
+                long t0 = System.nanoTime();
+                for (int i = 0; i < queries.length; i++) out[i] = BinarySearch.rank(a, queries[i]);
+                long t1 = System.nanoTime();
+                searcher.rank(a, queries, out);
+                long t2 = System.nanoTime();
+                sink += out[rep];
+
+                // the first three rounds warm up the JIT
+                if (rep < 3) continue;
+                best[0] = Math.min(best[0], t1 - t0);
+                best[1] = Math.min(best[1], t2 - t1);
+            }
+            System.out.printf("%10d %12.2f %14.2f%n", a.length,
+                              (double) best[0] / queries.length,
+                              (double) best[1] / queries.length);
+        }
+    }
+
+    // results of the queries are accumulated so that the JIT can't discard them
+    private static int sink;
+}
@@ -0,0 +1,110 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelSearcherTest extends TestCase {
+
+    private Random random = new Random(31);
+
+    public void testIntBatches() {
+        ParallelSearcher searcher = new ParallelSearcher(new ForkJoinPool(3));
+        // batches smaller than a chunk, and split into many chunks
+        for (int m : new int[] {0, 7, 100, 50001}) {
+            for (int n : new int[] {0, 1, 9, 1000}) {
+                int[] a = new int[n];
+                for (int i = 0; i < n; i++) a[i] = random.nextInt(n + 1);
+                Arrays.sort(a);
+                int[] q = new int[m];
+                for (int i = 0; i < m; i++) q[i] = random.nextInt(n + 3) - 1;
+                int[] out = new int[m];
+                searcher.rank(a, q, out);
+                for (int i = 0; i < m; i++) assertEquals(out[i], BinarySearch.rank(a, q[i]));
+                searcher.floor(a, q, out);
+                for (int i = 0; i < m; i++) assertEquals(out[i], BinarySearch.floor(a, q[i]));
+                searcher.ceiling(a, q, out);
+                for (int i = 0; i < m; i++) assertEquals(out[i], BinarySearch.ceiling(a, q[i]));
+            }
+        }
+    }
+
+    public void testLongAndDoubleBatches() {
+        ParallelSearcher searcher = new ParallelSearcher();
+        int n = 500;
+        long[] a = new long[n];
+        double[] d = new double[n];
+        for (int i = 0; i < n; i++) a[i] = random.nextInt(300) * 5000000000L;
+        Arrays.sort(a);
+        for (int i = 0; i < n; i++) d[i] = a[i] / 7.0;
+        d[0] = -0.0;
+        d[n - 1] = Double.NaN;
+        int m = 20003;
+        long[] q = new long[m];
+        double[] dq = new double[m];
+        for (int i = 0; i < m; i++) {
+            q[i] = random.nextInt(302) * 5000000000L - 3;
+            dq[i] = q[i] / 7.0;
+        }
+        dq[0] = 0.0;
+        dq[1] = Double.NaN;
+        int[] out = new int[m];
+        searcher.floor(a, q, out);
+        for (int i = 0; i < m; i++) assertEquals(out[i], BinarySearch.floor(a, q[i]));
+        searcher.ceiling(a, q, out);
+        for (int i = 0; i < m; i++) assertEquals(out[i], BinarySearch.ceiling(a, q[i]));
+        searcher.rank(d, dq, out);
+        for (int i = 0; i < m; i++) assertEquals(out[i], BinarySearch.rank(d, dq[i]));
+        searcher.floor(d, dq, out);
+        for (int i = 0; i < m; i++) assertEquals(out[i], BinarySearch.floor(d, dq[i]));
+    }
+
+    public void testKeyBatches() {
+        ParallelSearcher searcher = new ParallelSearcher(new ForkJoinPool(2));
+        Comparator<String> reverse = Comparator.reverseOrder();
+        String[] a = new String[300];
+        for (int i = 0; i < a.length; i++) a[i] = "k" + random.nextInt(100);
+        Arrays.sort(a, reverse);
+        String[] q = new String[10000];
+        for (int i = 0; i < q.length; i++) q[i] = "k" + random.nextInt(110);
+        int[] out = new int[q.length];
+        searcher.rank(a, q, out, reverse);
+        for (int i = 0; i < q.length; i++) assertEquals(out[i], BinarySearch.rank(a, q[i], reverse));
+        searcher.ceiling(a, q, out, reverse);
+        for (int i = 0; i < q.length; i++) assertEquals(out[i], BinarySearch.ceiling(a, q[i], reverse));
+        Arrays.sort(a);
+        searcher.floor(a, q, out);
+        for (int i = 0; i < q.length; i++) assertEquals(out[i], BinarySearch.floor(a, q[i]));
+    }
+
+    public void testBucketize() {
+        ParallelSearcher searcher = new ParallelSearcher(new ForkJoinPool(3));
+        // with 20000 boundaries, the chunks are as long as the buckets are many
+        for (int n : new int[] {0, 5, 3000, 20000}) {
+            long[] boundaries = new long[n];
+            for (int i = 0; i < n; i++) boundaries[i] = random.nextInt(4000) * 3000000000L;
+            Arrays.sort(boundaries);
+            long[] values = new long[70000];
+            for (int i = 0; i < values.length; i++)
+                values[i] = (random.nextInt(4200) - 100) * 3000000000L;
+            int[] out = new int[values.length];
+            long[] counts = new long[n + 1];
+            long[] expected = new long[n + 1];
+            searcher.bucketize(boundaries, values, out);
+            searcher.histogram(boundaries, values, counts);
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(out[i], BinarySearch.floor(boundaries, values[i]) + 1);
+                expected[out[i]]++;
+            }
+            assertTrue(Arrays.equals(counts, expected));
+        }
+    }
+
+    public void testShortOutput() {
+        try {
+            new ParallelSearcher().rank(new int[] {1, 2}, new int[] {1, 2, 3}, new int[2]);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+    }
+}
@@ -0,0 +1,373 @@
+/******************************************************************************
+ * Compilation:  javac SearchCursor.java
+ * Execution:
+ * Dependencies: BinarySearch.java
+ *
+ * A cursor that starts each search in a sorted array from the position
+ * where the previous search ended.
+ *
+ ******************************************************************************/
+
+import java.util.Comparator;
+
+/**
+ * The SearchCursor class remembers the position of the last result of a
+ * search, and passes it as the hint to the galloping searches of the
+ * BinarySearch class on the next call. When successive searches land close
+ * to each other, each one uses O(log d) key comparisons, where d is the
+ * distance from the previous result, instead of O(log N).
+ * 
+ * The cursor is not bound to an array: the sorted array is passed to every
+ * call, so one cursor can be used with any of the supported array types
+ * (Key[], int[], long[] and double[]). Results are the same as the ones of
+ * the corresponding methods of the BinarySearch class.
+ * The position is the insertion point of the last search key (the number of
+ * keys less than it, or less than or equal to it for lastIndexOf and floor).
+ * 
+ * A cursor is not thread safe; each thread should use its own.
+ * 
+ * @author Nate Liu
+ */
+public class SearchCursor {
+    
+    private int position;
+    
+    /**
+     * Initializes a cursor at position 0.
+     */
+    public SearchCursor() {
+        this(0);
+    }
+    
+    /**
+     * Initializes a cursor at the specified position.
+     * 
+     * @param position the position to start the first search from
+     */
+    public SearchCursor(int position) {
+        this.position = position;
+    }
+    
+    /**
+     * Returns the position the next search starts from.
+     * 
+     * @return the position the next search starts from
+     */
+    public int position() {
+        return position;
+    }
+    
+    /**
+     * Moves the cursor to the specified position.
+     * 
+     * @param position the position to start the next search from
+     */
+    public void seek(int position) {
+        this.position = position;
+    }
+    
+    
+    /**************************************************************************
+     * Key[]
+     *************************************************************************/
+    
+    /**
+     * Same as BinarySearch.firstIndexOf(a, key), starting from the position
+     * of the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public <Key extends Comparable<Key>> int firstIndexOf(Key[] a, Key key) {
+        return moveToIndex(BinarySearch.firstIndexOf(a, key, position));
+    }
+    
+    /**
+     * Same as BinarySearch.firstIndexOf(a, key, comp), starting from the 
+     * position of the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param comp the comparator which specifies the order of objects
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public <Key> int firstIndexOf(Key[] a, Key key, Comparator<Key> comp) {
+        return moveToIndex(BinarySearch.firstIndexOf(a, key, position, comp));
+    }
+    
+    /**
+     * Same as BinarySearch.lastIndexOf(a, key), starting from the position
+     * of the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public <Key extends Comparable<Key>> int lastIndexOf(Key[] a, Key key) {
+        return moveAfterIndex(BinarySearch.lastIndexOf(a, key, position));
+    }
+    
+    /**
+     * Same as BinarySearch.lastIndexOf(a, key, comp), starting from the 
+     * position of the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param comp the comparator which specifies the order of objects
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public <Key> int lastIndexOf(Key[] a, Key key, Comparator<Key> comp) {
+        return moveAfterIndex(BinarySearch.lastIndexOf(a, key, position, comp));
+    }
+    
+    /**
+     * Same as BinarySearch.floor(a, key), starting from the position of the
+     * cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array; - 1 if there is no such index
+     */
+    public <Key extends Comparable<Key>> int floor(Key[] a, Key key) {
+        return moveToFloor(BinarySearch.floor(a, key, position));
+    }
+    
+    /**
+     * Same as BinarySearch.floor(a, key, comp), starting from the position
+     * of the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param comp the comparator which specifies the order of objects
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array; - 1 if there is no such index
+     */
+    public <Key> int floor(Key[] a, Key key, Comparator<Key> comp) {
+        return moveToFloor(BinarySearch.floor(a, key, position, comp));
+    }
+    
+    /**
+     * Same as BinarySearch.ceiling(a, key), starting from the position of 
+     * the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified 
+     *         key in the specified array; - 1 if there is no such index
+     */
+    public <Key extends Comparable<Key>> int ceiling(Key[] a, Key key) {
+        return moveToCeiling(BinarySearch.ceiling(a, key, position), a.length);
+    }
+    
+    /**
+     * Same as BinarySearch.ceiling(a, key, comp), starting from the position
+     * of the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @param comp the comparator which specifies the order of objects
+     * @return the smallest index of key greater than or equal to specified 
+     *         key in the specified array; - 1 if there is no such index
+     */
+    public <Key> int ceiling(Key[] a, Key key, Comparator<Key> comp) {
+        return moveToCeiling(BinarySearch.ceiling(a, key, position, comp), a.length);
+    }
+    
+    
+    /**************************************************************************
+     * int[], long[] and double[]
+     *************************************************************************/
+    
+    /**
+     * Same as BinarySearch.firstIndexOf(a, key), starting from the position
+     * of the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public int firstIndexOf(int[] a, int key) {
+        return moveToIndex(BinarySearch.firstIndexOf(a, key, position));
+    }
+    
+    /**
+     * Same as BinarySearch.lastIndexOf(a, key), starting from the position
+     * of the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public int lastIndexOf(int[] a, int key) {
+        return moveAfterIndex(BinarySearch.lastIndexOf(a, key, position));
+    }
+    
+    /**
+     * Same as BinarySearch.floor(a, key), starting from the position of the
+     * cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array; - 1 if there is no such index
+     */
+    public int floor(int[] a, int key) {
+        return moveToFloor(BinarySearch.floor(a, key, position));
+    }
+    
+    /**
+     * Same as BinarySearch.ceiling(a, key), starting from the position of 
+     * the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified 
+     *         key in the specified array; - 1 if there is no such index
+     */
+    public int ceiling(int[] a, int key) {
+        return moveToCeiling(BinarySearch.ceiling(a, key, position), a.length);
+    }
+    
+    /**
+     * Same as BinarySearch.firstIndexOf(a, key), starting from the position
+     * of the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public int firstIndexOf(long[] a, long key) {
+        return moveToIndex(BinarySearch.firstIndexOf(a, key, position));
+    }
+    
+    /**
+     * Same as BinarySearch.lastIndexOf(a, key), starting from the position
+     * of the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public int lastIndexOf(long[] a, long key) {
+        return moveAfterIndex(BinarySearch.lastIndexOf(a, key, position));
+    }
+    
+    /**
+     * Same as BinarySearch.floor(a, key), starting from the position of the
+     * cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array; - 1 if there is no such index
+     */
+    public int floor(long[] a, long key) {
+        return moveToFloor(BinarySearch.floor(a, key, position));
+    }
+    
+    /**
+     * Same as BinarySearch.ceiling(a, key), starting from the position of 
+     * the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified 
+     *         key in the specified array; - 1 if there is no such index
+     */
+    public int ceiling(long[] a, long key) {
+        return moveToCeiling(BinarySearch.ceiling(a, key, position), a.length);
+    }
+    
+    /**
+     * Same as BinarySearch.firstIndexOf(a, key), starting from the position
+     * of the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public int firstIndexOf(double[] a, double key) {
+        return moveToIndex(BinarySearch.firstIndexOf(a, key, position));
+    }
+    
+    /**
+     * Same as BinarySearch.lastIndexOf(a, key), starting from the position
+     * of the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public int lastIndexOf(double[] a, double key) {
+        return moveAfterIndex(BinarySearch.lastIndexOf(a, key, position));
+    }
+    
+    /**
+     * Same as BinarySearch.floor(a, key), starting from the position of the
+     * cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array; - 1 if there is no such index
+     */
+    public int floor(double[] a, double key) {
+        return moveToFloor(BinarySearch.floor(a, key, position));
+    }
+    
+    /**
+     * Same as BinarySearch.ceiling(a, key), starting from the position of 
+     * the cursor.
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified 
+     *         key in the specified array; - 1 if there is no such index
+     */
+    public int ceiling(double[] a, double key) {
+        return moveToCeiling(BinarySearch.ceiling(a, key, position), a.length);
+    }
+    
+    
+    /**************************************************************************
+     * Helper methods that move the cursor to the position of a result
+     *************************************************************************/
+    
+    // result of firstIndexOf: the index of the key or its insertion point
+    private int moveToIndex(int idx) {
+        if (idx >= 0) position = idx;
+        else position = -idx - 1;
+        return idx;
+    }
+    
+    // result of lastIndexOf: just after the index of the key or its 
+    // insertion point
+    private int moveAfterIndex(int idx) {
+        if (idx >= 0) position = idx + 1;
+        else position = -idx - 1;
+        return idx;
+    }
+    
+    private int moveToFloor(int idx) {
+        position = idx + 1;
+        return idx;
+    }
+    
+    private int moveToCeiling(int idx, int n) {
+        if (idx == -1) position = n;
+        else position = idx;
+        return idx;
+    }
+}
@@ -0,0 +1,52 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.Random;
+
+public class SearchCursorTest extends TestCase {
+    
+    public void testLocalSearches() {
+        Random random = new Random(8);
+        long[] a = new long[3000];
+        for (int i = 0; i < a.length; i++) a[i] = random.nextInt(1000);
+        Arrays.sort(a);
+        
+        SearchCursor cursor = new SearchCursor();
+        long key = 0;
+        for (int k = 0; k < 5000; k++) {
+            // random walk of the search key, mostly close to the last one
+            key += random.nextInt(7) - 3;
+            if (k % 500 == 0) key = random.nextInt(1100) - 50;
+            switch (k % 4) {
+                case 0: 
+                    assertEquals(cursor.firstIndexOf(a, key), BinarySearch.firstIndexOf(a, key));
+                    break;
+                case 1: 
+                    assertEquals(cursor.lastIndexOf(a, key), BinarySearch.lastIndexOf(a, key));
+                    break;
+                case 2: 
+                    assertEquals(cursor.floor(a, key), BinarySearch.floor(a, key));
+                    break;
+                default: 
+                    assertEquals(cursor.ceiling(a, key), BinarySearch.ceiling(a, key));
+            }
+            int pos = cursor.position();
+            assertTrue(pos >= 0 && pos <= a.length);
+        }
+    }
+    
+    public void testPosition() {
+        Integer[] a = {10, 10, 11, 13, 18, 23, 23, 48};
+        SearchCursor cursor = new SearchCursor();
+        assertEquals(cursor.ceiling(a, 12), 3);
+        assertEquals(cursor.position(), 3);
+        assertEquals(cursor.lastIndexOf(a, 23), 6);
+        assertEquals(cursor.position(), 7);
+        assertEquals(cursor.ceiling(a, 49), -1);
+        assertEquals(cursor.position(), 8);
+        assertEquals(cursor.floor(a, 9), -1);
+        assertEquals(cursor.position(), 0);
+        cursor.seek(5);
+        assertEquals(cursor.firstIndexOf(a, 10), 0);
+        assertEquals(cursor.position(), 0);
+    }
+}
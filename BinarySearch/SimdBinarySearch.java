@@ -0,0 +1,492 @@
+/******************************************************************************
+ * Compilation:  javac --add-modules jdk.incubator.vector SimdBinarySearch.java
+ * Execution:    java --add-modules jdk.incubator.vector SimdBinarySearch
+ * Dependencies: BinarySearch.java WindowScan.java VectorWindowScan.java
+ *
+ * Binary search over sorted arrays of primitives that finishes with a
+ * vectorized scan of the last few cache lines.
+ * The main method benchmarks it against BinarySearch.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The SimdBinarySearch class provides the rank, floor, ceiling and count
+ * methods of the BinarySearch class for sorted arrays of ints, longs, floats
+ * and doubles, with the same results.
+ * 
+ * The search bisects the array until the remaining range spans at most 128
+ * bytes (two cache lines: 32 ints or floats, 16 longs or doubles), and then
+ * counts the keys of the range that are below the search key with vector
+ * compares, instead of making the last four or five comparisons one at a
+ * time, each of which depends on the load of the previous one.
+ * 
+ * The vector compares use the incubating Vector API (jdk.incubator.vector),
+ * which has to be added to the module graph at runtime with 
+ * --add-modules jdk.incubator.vector. If it is not, the final range is
+ * counted with a scalar loop instead, and the results are the same.
+ * isVectorized() tells which of the two is in use.
+ * 
+ * Floats and doubles are ordered by Float.compare() and Double.compare(),
+ * same as in BinarySearch. Searches for NaN, 0.0 and -0.0 (the keys for which
+ * this order differs from the one of the comparison operators) are handed to
+ * BinarySearch.
+ * 
+ * @author Nate Liu
+ */
+public class SimdBinarySearch {
+    
+    // range sizes (in keys) that are scanned instead of bisected
+    private static final int INT_WINDOW = 32;
+    private static final int LONG_WINDOW = 16;
+    
+    static final WindowScan SCAN = loadScan();    // also used by Bucketizer
+    
+    /**
+     * This class should not be instantiated.
+     */
+    private SimdBinarySearch() { }
+    
+    /**
+     * Returns true if the final scan uses the Vector API, false if it falls
+     * back to the scalar loop.
+     * 
+     * @return true if the final scan uses the Vector API; false otherwise
+     */
+    public static boolean isVectorized() {
+        return !(SCAN instanceof ScalarWindowScan);
+    }
+    
+    // Loads VectorWindowScan by name, so that this class still links if the
+    // Vector API module is not present at runtime
+    private static WindowScan loadScan() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                Class<?> c = Class.forName("VectorWindowScan");
+                return (WindowScan) c.getDeclaredConstructor().newInstance();
+            }
+            catch (ReflectiveOperationException | LinkageError e) {
+                // fall through to the scalar scan
+            }
+        }
+        return new ScalarWindowScan();
+    }
+    
+    
+    /**************************************************************************
+     * int[]
+     *************************************************************************/
+    
+    /**
+     * Same as BinarySearch.rank(int[], int).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key in the 
+     *         specified array
+     */
+    public static int rank(int[] a, int key) {
+        return search(a, key, false);
+    }
+    
+    /**
+     * Same as BinarySearch.floor(int[], int).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array; - 1 if there is no such index
+     */
+    public static int floor(int[] a, int key) {
+        return search(a, key, true) - 1;
+    }
+    
+    /**
+     * Same as BinarySearch.ceiling(int[], int).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified 
+     *         key in the specified array; - 1 if there is no such index
+     */
+    public static int ceiling(int[] a, int key) {
+        int idx = search(a, key, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    /**
+     * Same as BinarySearch.count(int[], int).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys equal to the specified key in the 
+     *         specified array
+     */
+    public static int count(int[] a, int key) {
+        return search(a, key, true) - search(a, key, false);
+    }
+    
+    /**
+     * Returns the number of keys in a below (strictly less than, or less than
+     * or equal to if inclusive is set) the specified key.
+     * Bisects in the form of BinarySearch.binSearchCeil() while the range is
+     * larger than the window, and then counts the keys below the search key
+     * in what is left: a[i] is below the key for i <= lo, and not below it
+     * for i >= hi.
+     */
+    private static int search(int[] a, int key, boolean inclusive) {
+        int lo = -1;
+        int hi = a.length;
+        if (inclusive) {
+            while (hi - lo > INT_WINDOW) {
+                int mid = lo + (hi - lo) / 2;
+                if (a[mid] <= key) lo = mid;
+                else hi = mid;
+            }
+        }
+        else {
+            while (hi - lo > INT_WINDOW) {
+                int mid = lo + (hi - lo) / 2;
+                if (a[mid] < key) lo = mid;
+                else hi = mid;
+            }
+        }
+        return lo + 1 + SCAN.countBelow(a, lo + 1, hi, key, inclusive);
+    }
+    
+    
+    /**************************************************************************
+     * long[]
+     *************************************************************************/
+    
+    /**
+     * Same as BinarySearch.rank(long[], long).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key in the 
+     *         specified array
+     */
+    public static int rank(long[] a, long key) {
+        return search(a, key, false);
+    }
+    
+    /**
+     * Same as BinarySearch.floor(long[], long).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array; - 1 if there is no such index
+     */
+    public static int floor(long[] a, long key) {
+        return search(a, key, true) - 1;
+    }
+    
+    /**
+     * Same as BinarySearch.ceiling(long[], long).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified 
+     *         key in the specified array; - 1 if there is no such index
+     */
+    public static int ceiling(long[] a, long key) {
+        int idx = search(a, key, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    /**
+     * Same as BinarySearch.count(long[], long).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys equal to the specified key in the 
+     *         specified array
+     */
+    public static int count(long[] a, long key) {
+        return search(a, key, true) - search(a, key, false);
+    }
+    
+    // see search(int[], int, boolean)
+    private static int search(long[] a, long key, boolean inclusive) {
+        int lo = -1;
+        int hi = a.length;
+        if (inclusive) {
+            while (hi - lo > LONG_WINDOW) {
+                int mid = lo + (hi - lo) / 2;
+                if (a[mid] <= key) lo = mid;
+                else hi = mid;
+            }
+        }
+        else {
+            while (hi - lo > LONG_WINDOW) {
+                int mid = lo + (hi - lo) / 2;
+                if (a[mid] < key) lo = mid;
+                else hi = mid;
+            }
+        }
+        return lo + 1 + SCAN.countBelow(a, lo + 1, hi, key, inclusive);
+    }
+    
+    
+    /**************************************************************************
+     * float[]
+     *************************************************************************/
+    
+    /**
+     * Same as BinarySearch.rank(float[], float).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key in the 
+     *         specified array
+     */
+    public static int rank(float[] a, float key) {
+        return search(a, key, false);
+    }
+    
+    /**
+     * Same as BinarySearch.floor(float[], float).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array; - 1 if there is no such index
+     */
+    public static int floor(float[] a, float key) {
+        return search(a, key, true) - 1;
+    }
+    
+    /**
+     * Same as BinarySearch.ceiling(float[], float).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified 
+     *         key in the specified array; - 1 if there is no such index
+     */
+    public static int ceiling(float[] a, float key) {
+        int idx = search(a, key, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    /**
+     * Same as BinarySearch.count(float[], float).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys equal to the specified key in the 
+     *         specified array
+     */
+    public static int count(float[] a, float key) {
+        return search(a, key, true) - search(a, key, false);
+    }
+    
+    // see search(int[], int, boolean)
+    private static int search(float[] a, float key, boolean inclusive) {
+        // the vector comparisons order NaN, 0.0 and -0.0 differently
+        if (key != key || key == 0) {
+            if (inclusive) return BinarySearch.floor(a, key) + 1;
+            else return BinarySearch.rank(a, key);
+        }
+        int lo = -1;
+        int hi = a.length;
+        if (inclusive) {
+            while (hi - lo > INT_WINDOW) {
+                int mid = lo + (hi - lo) / 2;
+                if (a[mid] <= key) lo = mid;
+                else hi = mid;
+            }
+        }
+        else {
+            while (hi - lo > INT_WINDOW) {
+                int mid = lo + (hi - lo) / 2;
+                if (a[mid] < key) lo = mid;
+                else hi = mid;
+            }
+        }
+        return lo + 1 + SCAN.countBelow(a, lo + 1, hi, key, inclusive);
+    }
+    
+    
+    /**************************************************************************
+     * double[]
+     *************************************************************************/
+    
+    /**
+     * Same as BinarySearch.rank(double[], double).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key in the 
+     *         specified array
+     */
+    public static int rank(double[] a, double key) {
+        return search(a, key, false);
+    }
+    
+    /**
+     * Same as BinarySearch.floor(double[], double).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key in 
+     *         the specified array; - 1 if there is no such index
+     */
+    public static int floor(double[] a, double key) {
+        return search(a, key, true) - 1;
+    }
+    
+    /**
+     * Same as BinarySearch.ceiling(double[], double).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified 
+     *         key in the specified array; - 1 if there is no such index
+     */
+    public static int ceiling(double[] a, double key) {
+        int idx = search(a, key, false);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+    
+    /**
+     * Same as BinarySearch.count(double[], double).
+     * 
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys equal to the specified key in the 
+     *         specified array
+     */
+    public static int count(double[] a, double key) {
+        return search(a, key, true) - search(a, key, false);
+    }
+    
+    // see search(int[], int, boolean)
+    private static int search(double[] a, double key, boolean inclusive) {
+        // the vector comparisons order NaN, 0.0 and -0.0 differently
+        if (key != key || key == 0) {
+            if (inclusive) return BinarySearch.floor(a, key) + 1;
+            else return BinarySearch.rank(a, key);
+        }
+        int lo = -1;
+        int hi = a.length;
+        if (inclusive) {
+            while (hi - lo > LONG_WINDOW) {
+                int mid = lo + (hi - lo) / 2;
+                if (a[mid] <= key) lo = mid;
+                else hi = mid;
+            }
+        }
+        else {
+            while (hi - lo > LONG_WINDOW) {
+                int mid = lo + (hi - lo) / 2;
+                if (a[mid] < key) lo = mid;
+                else hi = mid;
+            }
+        }
+        return lo + 1 + SCAN.countBelow(a, lo + 1, hi, key, inclusive);
+    }
+    
+    
+    
+    
+    /**************************************************************************
+     * Scalar scan
+     *************************************************************************/
+    
+    private static class ScalarWindowScan implements WindowScan {
+        public int countBelow(int[] a, int lo, int hi, int key, boolean inclusive) {
+            int count = 0;
+            for (int i = lo; i < hi; i++)
+                if (inclusive ? a[i] <= key : a[i] < key) count++;
+            return count;
+        }
+        
+        public int countBelow(long[] a, int lo, int hi, long key, boolean inclusive) {
+            int count = 0;
+            for (int i = lo; i < hi; i++)
+                if (inclusive ? a[i] <= key : a[i] < key) count++;
+            return count;
+        }
+        
+        public int countBelow(float[] a, int lo, int hi, float key, boolean inclusive) {
+            int count = 0;
+            for (int i = lo; i < hi; i++)
+                if (inclusive ? a[i] <= key : a[i] < key) count++;
+            return count;
+        }
+        
+        public int countBelow(double[] a, int lo, int hi, double key, boolean inclusive) {
+            int count = 0;
+            for (int i = lo; i < hi; i++)
+                if (inclusive ? a[i] <= key : a[i] < key) count++;
+            return count;
+        }
+    }
+    
+    
+    /**************************************************************************
+     * Benchmark
+     *************************************************************************/
+    
+    /**
+     * Compares the time per rank() query of BinarySearch and SimdBinarySearch
+     * on sorted arrays of random ints of increasing size, with random queries.
+     */
+    public static void main(String[] args) {
+        System.out.println("vectorized: " + isVectorized());
+        Random random = new Random(0);
+        int[] queries = new int[1 << 20];
+        for (int i = 0; i < queries.length; i++) queries[i] = random.nextInt();
+        
+        System.out.printf("%10s %12s %10s %8s%n", "N", "binary (ns)", "simd (ns)", "speedup");
+        for (int lgN = 8; lgN <= 24; lgN += 2) {
+            int[] a = new int[1 << lgN];
+            for (int i = 0; i < a.length; i++) a[i] = random.nextInt();
+            Arrays.sort(a);
+            
+            // warm up both so that they are compiled before timing
+            for (int rep = 0; rep < 3; rep++) {
+                timeBinary(a, queries);
+                timeSimd(a, queries);
+            }
+            long binary = Long.MAX_VALUE;
+            long simd = Long.MAX_VALUE;
+            for (int rep = 0; rep < 5; rep++) {
+                binary = Math.min(binary, timeBinary(a, queries));
+                simd = Math.min(simd, timeSimd(a, queries));
+            }
+            double binaryNs = (double) binary / queries.length;
+            double simdNs = (double) simd / queries.length;
+            System.out.printf("%10d %12.2f %10.2f %7.2fx%n", a.length, binaryNs,
+                              simdNs, binaryNs / simdNs);
+        }
+    }
+    
+    // results of the queries are accumulated so that the JIT can't discard them
+    private static int sink;
+    
+    private static long timeBinary(int[] a, int[] queries) {
+        long start = System.nanoTime();
+        int sum = 0;
+        for (int q : queries) sum += BinarySearch.rank(a, q);
+        sink += sum;
+        return System.nanoTime() - start;
+    }
+    
+    private static long timeSimd(int[] a, int[] queries) {
+        long start = System.nanoTime();
+        int sum = 0;
+        for (int q : queries) sum += rank(a, q);
+        sink += sum;
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,61 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.Random;
+
+public class SimdBinarySearchTest extends TestCase {
+    
+    private Random random = new Random(13);
+    
+    public void testInts() {
+        for (int n = 0; n < 300; n += 11) {
+            int[] a = new int[n];
+            for (int i = 0; i < n; i++) a[i] = random.nextInt(n / 3 + 1);
+            Arrays.sort(a);
+            for (int key = -1; key < n / 3 + 2; key++) {
+                assertEquals(SimdBinarySearch.rank(a, key), BinarySearch.rank(a, key));
+                assertEquals(SimdBinarySearch.floor(a, key), BinarySearch.floor(a, key));
+                assertEquals(SimdBinarySearch.ceiling(a, key), BinarySearch.ceiling(a, key));
+                assertEquals(SimdBinarySearch.count(a, key), BinarySearch.count(a, key));
+            }
+        }
+    }
+    
+    public void testOtherTypes() {
+        for (int n = 0; n < 300; n += 13) {
+            long[] la = new long[n];
+            float[] fa = new float[n];
+            double[] da = new double[n];
+            for (int i = 0; i < n; i++) la[i] = random.nextInt(100) - 50;
+            Arrays.sort(la);
+            for (int i = 0; i < n; i++) {
+                fa[i] = la[i] / 4.0f;
+                da[i] = la[i] / 4.0;
+            }
+            for (int key = -52; key < 52; key++) {
+                assertEquals(SimdBinarySearch.rank(la, key), BinarySearch.rank(la, key));
+                assertEquals(SimdBinarySearch.floor(fa, key / 4.0f), 
+                             BinarySearch.floor(fa, key / 4.0f));
+                assertEquals(SimdBinarySearch.ceiling(da, key / 4.0), 
+                             BinarySearch.ceiling(da, key / 4.0));
+                assertEquals(SimdBinarySearch.count(da, key / 4.0), 
+                             BinarySearch.count(da, key / 4.0));
+            }
+        }
+    }
+    
+    public void testSpecialFloatingPointKeys() {
+        double[] d = new double[100];
+        for (int i = 0; i < d.length; i++) d[i] = i - 50;
+        d[49] = -0.0;
+        d[98] = Double.POSITIVE_INFINITY;
+        d[99] = Double.NaN;
+        Arrays.sort(d);
+        double[] keys = {-0.0, 0.0, Double.NaN, Double.POSITIVE_INFINITY, 
+            Double.NEGATIVE_INFINITY};
+        for (double key : keys) {
+            assertEquals(SimdBinarySearch.rank(d, key), BinarySearch.rank(d, key));
+            assertEquals(SimdBinarySearch.floor(d, key), BinarySearch.floor(d, key));
+            assertEquals(SimdBinarySearch.count(d, key), BinarySearch.count(d, key));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/******************************************************************************
+ * Compilation:  javac SortedRange.java
+ * Execution:
+ * Dependencies:
+ *
+ * A view of the keys of a sorted array that fall in a range, backed by the
+ * array itself.
+ *
+ ******************************************************************************/
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The SortedRange class represents the keys of a sorted array that lie
+ * between two bounds, as returned by the BinarySearch.range() methods:
+ * the keys at the indices from() (inclusive) to to() (exclusive).
+ *
+ * The range is a view: it holds a reference to the array and the two
+ * indices, and reads the keys from the array on demand. Nothing is copied,
+ * so changes to the array are visible through the view (and a view of an
+ * array that is no longer sorted is meaningless).
+ *
+ * The keys can be iterated over, or traversed with a Spliterator or a
+ * stream. The spliterators split the range in halves by index in constant
+ * time and know their exact sizes, so a parallel stream over a range
+ * divides the work evenly between threads. They also report that the keys
+ * are sorted (unless the array is ordered by a comparator), so that
+ * operations such as sorted() and distinct() can take advantage of it.
+ * Ranges of int[], long[] and double[] arrays are IntSortedRange,
+ * LongSortedRange and DoubleSortedRange views, which stream the keys
+ * without boxing them.
+ *
+ * @author Nate Liu
+ */
+public class SortedRange<Key> implements Iterable<Key> {
+
+    private final Key[] a;
+    private final int from;
+    private final int to;
+    private final boolean sorted; // sorted by the natural order of the keys
+
+    /**
+     * Initializes a view of the keys a[from] to a[to - 1].
+     * Use the BinarySearch.range() methods to obtain a view.
+     */
+    SortedRange(Key[] a, int from, int to, boolean sorted) {
+        this.a = a;
+        this.from = from;
+        this.to = to;
+        this.sorted = sorted;
+    }
+
+    /**
+     * Returns the index of the first key of the range in the array.
+     *
+     * @return the index of the first key of the range in the array
+     */
+    public int from() {
+        return from;
+    }
+
+    /**
+     * Returns the index after the last key of the range in the array.
+     *
+     * @return the index after the last key of the range in the array
+     */
+    public int to() {
+        return to;
+    }
+
+    /**
+     * Returns the number of keys in the range.
+     *
+     * @return the number of keys in the range
+     */
+    public int size() {
+        return to - from;
+    }
+
+    /**
+     * Is the range empty?
+     *
+     * @return true if the range is empty; false otherwise
+     */
+    public boolean isEmpty() {
+        return from == to;
+    }
+
+    /**
+     * Returns an iterator over the keys of the range, in ascending order.
+     *
+     * @return an iterator over the keys of the range, in ascending order
+     */
+    @Override
+    public Iterator<Key> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Returns a spliterator over the keys of the range, in ascending order.
+     *
+     * @return a spliterator over the keys of the range, in ascending order
+     */
+    @Override
+    public Spliterator<Key> spliterator() {
+        return Spliterators.spliterator(a, from, to, characteristics());
+    }
+
+    /**
+     * Returns a sequential stream of the keys of the range, in ascending
+     * order. Call parallel() on it to process the keys in parallel.
+     *
+     * @return a stream of the keys of the range
+     */
+    public Stream<Key> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    // SIZED and SUBSIZED are added by Spliterators
+    private int characteristics() {
+        int c = Spliterator.ORDERED | Spliterator.IMMUTABLE;
+        if (sorted) c |= Spliterator.SORTED;
+        return c;
+    }
+
+    /**
+     * Returns a string representation of the range.
+     *
+     * @return a string representation of the range
+     */
+    @Override
+    public String toString() {
+        return "[" + from + ", " + to + ")";
+    }
+}
@@ -0,0 +1,86 @@
+import junit.framework.TestCase;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class SortedRangeTest extends TestCase {
+
+    private Random random = new Random(37);
+
+    public void testIntRanges() {
+        for (int n = 0; n < 40; n += 3) {
+            int[] a = new int[n];
+            for (int i = 0; i < n; i++) a[i] = random.nextInt(n / 2 + 1);
+            Arrays.sort(a);
+            for (int key1 = -1; key1 < n / 2 + 2; key1++) {
+                for (int key2 = key1; key2 < n / 2 + 2; key2++) {
+                    for (int bounds = 0; bounds < 4; bounds++) {
+                        boolean incl1 = (bounds & 1) != 0;
+                        boolean incl2 = (bounds & 2) != 0;
+                        IntSortedRange range = BinarySearch.range(a, key1, incl1, key2, incl2);
+                        int lo = key1, hi = key2;
+                        int[] expected = IntStream.of(a)
+                            .filter(x -> (incl1 ? x >= lo : x > lo) && (incl2 ? x <= hi : x < hi))
+                            .toArray();
+                        assertTrue(Arrays.equals(range.intStream().toArray(), expected));
+                        assertEquals(range.size(), expected.length);
+                        if (incl1 && !incl2 && key1 < key2)
+                            assertEquals(range.size(), BinarySearch.rangeCount(a, key1, key2));
+                    }
+                }
+            }
+        }
+    }
+
+    public void testStreamsAndSpliterators() {
+        long[] a = new long[100000];
+        for (int i = 0; i < a.length; i++) a[i] = random.nextInt(1000000);
+        Arrays.sort(a);
+        LongSortedRange range = BinarySearch.range(a, 100000L, true, 900000L, false);
+        assertEquals(range.from(), BinarySearch.rank(a, 100000L));
+        assertEquals(range.to(), BinarySearch.rank(a, 900000L));
+        long sum = 0;
+        for (int i = range.from(); i < range.to(); i++) sum += a[i];
+        assertEquals(range.longStream().parallel().sum(), sum);
+        assertEquals(range.stream().parallel().mapToLong(Long::longValue).sum(), sum);
+
+        Spliterator.OfLong s = range.spliterator();
+        assertTrue(s.hasCharacteristics(Spliterator.SORTED | Spliterator.SIZED));
+        assertEquals(s.getExactSizeIfKnown(), range.size());
+        Spliterator.OfLong prefix = s.trySplit();
+        assertEquals(prefix.getExactSizeIfKnown() + s.getExactSizeIfKnown(), range.size());
+
+        double[] d = {-1.5, -0.0, 0.0, 0.0, 2.5, Double.NaN};
+        DoubleSortedRange zeros = BinarySearch.range(d, 0.0, true, 0.0, true);
+        assertEquals(zeros.from(), 2);
+        assertEquals(zeros.doubleStream().count(), 2);
+        assertEquals(BinarySearch.range(d, -0.0, false, Double.NaN, true).size(), 4);
+        assertEquals(zeros.stream().mapToDouble(Double::doubleValue).sum(), 0.0);
+    }
+
+    public void testKeyRanges() {
+        String[] a = {"a", "b", "b", "c", "d", "e"};
+        SortedRange<String> range = BinarySearch.range(a, "b", false, "e", true);
+        assertEquals(range.stream().collect(Collectors.joining()), "cde");
+        List<String> keys = new ArrayList<String>();
+        for (String key : range) keys.add(key);
+        assertEquals(keys, Arrays.asList("c", "d", "e"));
+        assertTrue(BinarySearch.range(a, "bb", true, "bc", true).isEmpty());
+
+        Comparator<String> reverse = Comparator.reverseOrder();
+        String[] r = {"e", "d", "c", "b", "b", "a"};
+        SortedRange<String> rRange = BinarySearch.range(r, "d", true, "b", true, reverse);
+        assertEquals(rRange.stream().collect(Collectors.joining()), "dcbb");
+        assertFalse(rRange.spliterator().hasCharacteristics(Spliterator.SORTED));
+        try {
+            BinarySearch.range(a, "c", true, "b", true);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+    }
+}
@@ -0,0 +1,1017 @@
+/******************************************************************************
+ * Compilation:  javac SortedSets.java
+ * Execution:    java SortedSets
+ * Dependencies: BinarySearch.java
+ *
+ * Intersection, union and difference of sorted arrays, by merging or by
+ * galloping search, whichever is cheaper for the lengths of the arrays.
+ * The main method benchmarks intersections of lists of different lengths.
+ *
+ ******************************************************************************/
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The SortedSets class provides set operations on sorted arrays of ints,
+ * longs and objects: intersection, union and difference (which treat the
+ * arrays as multisets, like merging them would), the size of an
+ * intersection, and the intersection of any number of arrays.
+ *
+ * Merging two arrays of lengths m <= n takes m + n comparisons, which is
+ * wasteful when m is much smaller than n (for instance when intersecting
+ * a rare term's postings list with a common one). Instead, each key of the
+ * shorter array can be looked for in the longer one by galloping from the
+ * position of the previous key, with the hint methods of BinarySearch: if
+ * the keys of the shorter array are d_1, d_2, ... positions apart in the
+ * longer one, this takes about 2 (lg d_1 + lg d_2 + ...) comparisons, at
+ * most about 2 m lg(n / m). Each operation gallops when the longer array is
+ * more than 16 times longer than the other, and merges otherwise.
+ * In a union or a difference, the keys of the longer array between two
+ * keys of the shorter one are copied with System.arraycopy().
+ *
+ * Each operation stores its result in an array given by the caller and
+ * returns its size, and has a version that returns a new array of the
+ * exact size instead. Nothing else is allocated.
+ *
+ * @author Nate Liu
+ */
+public class SortedSets {
+
+    private static final int GALLOP_RATIO = 16;
+
+    /**
+     * This class should not be instantiated.
+     */
+    private SortedSets() { }
+
+    // Is the longer array long enough to gallop through?
+    private static boolean gallop(int m, int n) {
+        return (long) Math.min(m, n) * GALLOP_RATIO < Math.max(m, n);
+    }
+
+
+    /**************************************************************************
+     * int[]
+     *************************************************************************/
+
+    /**
+     * Stores the keys that are in both a and b in out, in ascending order, and
+     * returns their number. A key that occurs x times in a and y times in b
+     * occurs min(x, y) times in the result.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param out the array to store the result in
+     * @return the number of keys in the intersection
+     * @throws IllegalArgumentException if out is shorter than the shorter of a and b
+     */
+    public static int intersect(int[] a, int[] b, int[] out) {
+        if (out.length < Math.min(a.length, b.length))
+            throw new IllegalArgumentException("output array too short");
+        return intersect(a, a.length, b, out);
+    }
+
+    /**
+     * Returns the keys that are in both a and b, in ascending order.
+     * See intersect(int[], int[], int[]).
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @return the keys that are in both a and b
+     */
+    public static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        return Arrays.copyOf(out, intersect(a, a.length, b, out));
+    }
+
+    /**
+     * Returns the number of keys that are in both a and b, counted as in
+     * intersect(int[], int[], int[]), without storing them.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @return the number of keys in the intersection
+     */
+    public static int intersectionCount(int[] a, int[] b) {
+        return intersect(a, a.length, b, null);
+    }
+
+    /**
+     * Stores the keys that are in a or b in out, in ascending order, and
+     * returns their number. A key that occurs x times in a and y times in b
+     * occurs max(x, y) times in the result.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param out the array to store the result in
+     * @return the number of keys in the union
+     * @throws IllegalArgumentException if out is shorter than a and b together
+     */
+    public static int union(int[] a, int[] b, int[] out) {
+        if (out.length < a.length + b.length)
+            throw new IllegalArgumentException("output array too short");
+        return unite(a, b, out);
+    }
+
+    /**
+     * Returns the keys that are in a or b, in ascending order.
+     * See union(int[], int[], int[]).
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @return the keys that are in a or b
+     */
+    public static int[] union(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        return Arrays.copyOf(out, union(a, b, out));
+    }
+
+    /**
+     * Stores the keys of a that are not in b in out, in ascending order, and
+     * returns their number. A key that occurs x times in a and y times in b
+     * occurs max(x - y, 0) times in the result.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param out the array to store the result in
+     * @return the number of keys in the difference
+     * @throws IllegalArgumentException if out is shorter than a
+     */
+    public static int difference(int[] a, int[] b, int[] out) {
+        if (out.length < a.length) throw new IllegalArgumentException("output array too short");
+        return subtract(a, b, out);
+    }
+
+    /**
+     * Returns the keys of a that are not in b, in ascending order.
+     * See difference(int[], int[], int[]).
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @return the keys of a that are not in b
+     */
+    public static int[] difference(int[] a, int[] b) {
+        int[] out = new int[a.length];
+        return Arrays.copyOf(out, difference(a, b, out));
+    }
+
+    /**
+     * Returns the keys that are in all of the specified arrays, in ascending
+     * order (counted as in intersect()). The arrays are intersected from the
+     * shortest to the longest, so the intermediate results are never longer
+     * than the shortest array and each further array is usually searched by
+     * galloping; the search stops as soon as the result is empty.
+     * Allocates one array the length of the shortest array.
+     *
+     * @param lists the sorted arrays
+     * @return the keys that are in all of the arrays
+     * @throws IllegalArgumentException if there are no arrays
+     */
+    public static int[] intersectAll(int[]... lists) {
+        if (lists.length == 0) throw new IllegalArgumentException("no arrays to intersect");
+        int[][] sorted = lists.clone();
+        Arrays.sort(sorted, Comparator.comparingInt(list -> list.length));
+        int[] result = sorted[0].clone();
+        int size = result.length;
+        for (int i = 1; i < sorted.length && size > 0; i++)
+            size = intersect(result, size, sorted[i], result);
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Intersects a[0 .. m - 1] with b, and stores the result in out (unless
+     * out is null) and returns its size. If one array is much shorter than
+     * the other, each of its keys is looked for in the longer one by
+     * galloping from the position of the previous match; otherwise the two
+     * are merged. Keys are written to out no later than they are read from
+     * a, so out may be a.
+     */
+    private static int intersect(int[] a, int m, int[] b, int[] out) {
+        int count = 0;
+        if (gallop(m, b.length)) {
+            if (m > b.length) {
+                // a is the output only in intersectAll(), where it is never longer
+                int[] t = a;
+                a = b;
+                b = t;
+                m = a.length;
+            }
+            int pos = 0;
+            for (int i = 0; i < m && pos < b.length; i++) {
+                int p = BinarySearch.ceiling(b, a[i], pos);
+                if (p < 0) break;
+                p = Math.max(p, pos);
+                if (b[p] == a[i]) {
+                    if (out != null) out[count] = a[i];
+                    count++;
+                    p++;
+                }
+                pos = p;
+            }
+        }
+        else {
+            int i = 0, j = 0;
+            while (i < m && j < b.length) {
+                if (a[i] < b[j]) i++;
+                else if (a[i] > b[j]) j++;
+                else {
+                    if (out != null) out[count] = a[i];
+                    count++;
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Unions a and b into out. If one array is much shorter than the other,
+     * each of its keys is looked for in the longer one by galloping, and the
+     * run of keys of the longer array before it is copied at once.
+     */
+    private static int unite(int[] a, int[] b, int[] out) {
+        int count = 0;
+        if (gallop(a.length, b.length)) {
+            if (a.length > b.length) {
+                int[] t = a;
+                a = b;
+                b = t;
+            }
+            int pos = 0;
+            for (int i = 0; i < a.length; i++) {
+                int p = BinarySearch.ceiling(b, a[i], pos);
+                if (p < 0) p = b.length;
+                p = Math.max(p, pos);
+                System.arraycopy(b, pos, out, count, p - pos);
+                count += p - pos;
+                out[count++] = a[i];
+                if (p < b.length && b[p] == a[i]) p++;
+                pos = p;
+            }
+            System.arraycopy(b, pos, out, count, b.length - pos);
+            return count + b.length - pos;
+        }
+        int i = 0, j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) out[count++] = a[i++];
+            else if (a[i] > b[j]) out[count++] = b[j++];
+            else {
+                out[count++] = a[i++];
+                j++;
+            }
+        }
+        System.arraycopy(a, i, out, count, a.length - i);
+        count += a.length - i;
+        System.arraycopy(b, j, out, count, b.length - j);
+        return count + b.length - j;
+    }
+
+    /**
+     * Stores a minus b in out. If a is much shorter than b, each key of a is
+     * looked for in b by galloping; if b is much shorter than a, each key of
+     * b is looked for in a, and the run of keys of a before it is copied at
+     * once.
+     */
+    private static int subtract(int[] a, int[] b, int[] out) {
+        int count = 0;
+        if (gallop(a.length, b.length) && a.length < b.length) {
+            int pos = 0;
+            for (int i = 0; i < a.length; i++) {
+                int p = BinarySearch.ceiling(b, a[i], pos);
+                if (p < 0) p = b.length;
+                p = Math.max(p, pos);
+                if (p < b.length && b[p] == a[i]) p++;
+                else out[count++] = a[i];
+                pos = p;
+            }
+            return count;
+        }
+        if (gallop(a.length, b.length)) {
+            int pos = 0;
+            for (int j = 0; j < b.length && pos < a.length; j++) {
+                int p = BinarySearch.ceiling(a, b[j], pos);
+                if (p < 0) p = a.length;
+                p = Math.max(p, pos);
+                System.arraycopy(a, pos, out, count, p - pos);
+                count += p - pos;
+                if (p < a.length && a[p] == b[j]) p++;
+                pos = p;
+            }
+            System.arraycopy(a, pos, out, count, a.length - pos);
+            return count + a.length - pos;
+        }
+        int i = 0, j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) out[count++] = a[i++];
+            else if (a[i] > b[j]) j++;
+            else {
+                i++;
+                j++;
+            }
+        }
+        System.arraycopy(a, i, out, count, a.length - i);
+        return count + a.length - i;
+    }
+
+
+    /**************************************************************************
+     * long[]
+     *************************************************************************/
+
+    /**
+     * Stores the keys that are in both a and b in out, in ascending order, and
+     * returns their number. A key that occurs x times in a and y times in b
+     * occurs min(x, y) times in the result.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param out the array to store the result in
+     * @return the number of keys in the intersection
+     * @throws IllegalArgumentException if out is shorter than the shorter of a and b
+     */
+    public static int intersect(long[] a, long[] b, long[] out) {
+        if (out.length < Math.min(a.length, b.length))
+            throw new IllegalArgumentException("output array too short");
+        return intersect(a, a.length, b, out);
+    }
+
+    /**
+     * Returns the keys that are in both a and b, in ascending order.
+     * See intersect(long[], long[], long[]).
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @return the keys that are in both a and b
+     */
+    public static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        return Arrays.copyOf(out, intersect(a, a.length, b, out));
+    }
+
+    /**
+     * Returns the number of keys that are in both a and b, counted as in
+     * intersect(long[], long[], long[]), without storing them.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @return the number of keys in the intersection
+     */
+    public static int intersectionCount(long[] a, long[] b) {
+        return intersect(a, a.length, b, null);
+    }
+
+    /**
+     * Stores the keys that are in a or b in out, in ascending order, and
+     * returns their number. A key that occurs x times in a and y times in b
+     * occurs max(x, y) times in the result.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param out the array to store the result in
+     * @return the number of keys in the union
+     * @throws IllegalArgumentException if out is shorter than a and b together
+     */
+    public static int union(long[] a, long[] b, long[] out) {
+        if (out.length < a.length + b.length)
+            throw new IllegalArgumentException("output array too short");
+        return unite(a, b, out);
+    }
+
+    /**
+     * Returns the keys that are in a or b, in ascending order.
+     * See union(long[], long[], long[]).
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @return the keys that are in a or b
+     */
+    public static long[] union(long[] a, long[] b) {
+        long[] out = new long[a.length + b.length];
+        return Arrays.copyOf(out, union(a, b, out));
+    }
+
+    /**
+     * Stores the keys of a that are not in b in out, in ascending order, and
+     * returns their number. A key that occurs x times in a and y times in b
+     * occurs max(x - y, 0) times in the result.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param out the array to store the result in
+     * @return the number of keys in the difference
+     * @throws IllegalArgumentException if out is shorter than a
+     */
+    public static int difference(long[] a, long[] b, long[] out) {
+        if (out.length < a.length) throw new IllegalArgumentException("output array too short");
+        return subtract(a, b, out);
+    }
+
+    /**
+     * Returns the keys of a that are not in b, in ascending order.
+     * See difference(long[], long[], long[]).
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @return the keys of a that are not in b
+     */
+    public static long[] difference(long[] a, long[] b) {
+        long[] out = new long[a.length];
+        return Arrays.copyOf(out, difference(a, b, out));
+    }
+
+    /**
+     * Returns the keys that are in all of the specified arrays, in ascending
+     * order (counted as in intersect()). The arrays are intersected from the
+     * shortest to the longest, so the intermediate results are never longer
+     * than the shortest array and each further array is usually searched by
+     * galloping; the search stops as soon as the result is empty.
+     * Allocates one array the length of the shortest array.
+     *
+     * @param lists the sorted arrays
+     * @return the keys that are in all of the arrays
+     * @throws IllegalArgumentException if there are no arrays
+     */
+    public static long[] intersectAll(long[]... lists) {
+        if (lists.length == 0) throw new IllegalArgumentException("no arrays to intersect");
+        long[][] sorted = lists.clone();
+        Arrays.sort(sorted, Comparator.comparingInt(list -> list.length));
+        long[] result = sorted[0].clone();
+        int size = result.length;
+        for (int i = 1; i < sorted.length && size > 0; i++)
+            size = intersect(result, size, sorted[i], result);
+        return Arrays.copyOf(result, size);
+    }
+
+    // see intersect(int[], int, int[], int[])
+    private static int intersect(long[] a, int m, long[] b, long[] out) {
+        int count = 0;
+        if (gallop(m, b.length)) {
+            if (m > b.length) {
+                // a is the output only in intersectAll(), where it is never longer
+                long[] t = a;
+                a = b;
+                b = t;
+                m = a.length;
+            }
+            int pos = 0;
+            for (int i = 0; i < m && pos < b.length; i++) {
+                int p = BinarySearch.ceiling(b, a[i], pos);
+                if (p < 0) break;
+                p = Math.max(p, pos);
+                if (b[p] == a[i]) {
+                    if (out != null) out[count] = a[i];
+                    count++;
+                    p++;
+                }
+                pos = p;
+            }
+        }
+        else {
+            int i = 0, j = 0;
+            while (i < m && j < b.length) {
+                if (a[i] < b[j]) i++;
+                else if (a[i] > b[j]) j++;
+                else {
+                    if (out != null) out[count] = a[i];
+                    count++;
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // see unite(int[], int[], int[])
+    private static int unite(long[] a, long[] b, long[] out) {
+        int count = 0;
+        if (gallop(a.length, b.length)) {
+            if (a.length > b.length) {
+                long[] t = a;
+                a = b;
+                b = t;
+            }
+            int pos = 0;
+            for (int i = 0; i < a.length; i++) {
+                int p = BinarySearch.ceiling(b, a[i], pos);
+                if (p < 0) p = b.length;
+                p = Math.max(p, pos);
+                System.arraycopy(b, pos, out, count, p - pos);
+                count += p - pos;
+                out[count++] = a[i];
+                if (p < b.length && b[p] == a[i]) p++;
+                pos = p;
+            }
+            System.arraycopy(b, pos, out, count, b.length - pos);
+            return count + b.length - pos;
+        }
+        int i = 0, j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) out[count++] = a[i++];
+            else if (a[i] > b[j]) out[count++] = b[j++];
+            else {
+                out[count++] = a[i++];
+                j++;
+            }
+        }
+        System.arraycopy(a, i, out, count, a.length - i);
+        count += a.length - i;
+        System.arraycopy(b, j, out, count, b.length - j);
+        return count + b.length - j;
+    }
+
+    // see subtract(int[], int[], int[])
+    private static int subtract(long[] a, long[] b, long[] out) {
+        int count = 0;
+        if (gallop(a.length, b.length) && a.length < b.length) {
+            int pos = 0;
+            for (int i = 0; i < a.length; i++) {
+                int p = BinarySearch.ceiling(b, a[i], pos);
+                if (p < 0) p = b.length;
+                p = Math.max(p, pos);
+                if (p < b.length && b[p] == a[i]) p++;
+                else out[count++] = a[i];
+                pos = p;
+            }
+            return count;
+        }
+        if (gallop(a.length, b.length)) {
+            int pos = 0;
+            for (int j = 0; j < b.length && pos < a.length; j++) {
+                int p = BinarySearch.ceiling(a, b[j], pos);
+                if (p < 0) p = a.length;
+                p = Math.max(p, pos);
+                System.arraycopy(a, pos, out, count, p - pos);
+                count += p - pos;
+                if (p < a.length && a[p] == b[j]) p++;
+                pos = p;
+            }
+            System.arraycopy(a, pos, out, count, a.length - pos);
+            return count + a.length - pos;
+        }
+        int i = 0, j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) out[count++] = a[i++];
+            else if (a[i] > b[j]) j++;
+            else {
+                i++;
+                j++;
+            }
+        }
+        System.arraycopy(a, i, out, count, a.length - i);
+        return count + a.length - i;
+    }
+
+
+    /**************************************************************************
+     * Key[]
+     *************************************************************************/
+
+    /**
+     * Stores the keys that are in both a and b in out, in ascending order, and
+     * returns their number. See intersect(int[], int[], int[]); keys that
+     * are equal according to the comparator are taken from a or b.
+     * The arrays must be sorted into ascending order according to the
+     * ordering specified by the comparator prior to calling this method.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param out the array to store the result in
+     * @param comp the comparator which specifies the order of objects
+     * @return the number of keys in the intersection
+     * @throws IllegalArgumentException if out is shorter than the shorter of a and b
+     */
+    public static <Key> int intersect(Key[] a, Key[] b, Key[] out, Comparator<Key> comp) {
+        if (out.length < Math.min(a.length, b.length))
+            throw new IllegalArgumentException("output array too short");
+        return intersect(a, a.length, b, out, comp);
+    }
+
+    /**
+     * Returns the keys that are in both a and b, in ascending order.
+     * See intersect(Key[], Key[], Key[], Comparator).
+     * The arrays must be sorted into ascending order according to the
+     * ordering specified by the comparator prior to calling this method.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param comp the comparator which specifies the order of objects
+     * @return the keys that are in both a and b
+     */
+    public static <Key> Key[] intersect(Key[] a, Key[] b, Comparator<Key> comp) {
+        Key[] out = Arrays.copyOf(a, Math.min(a.length, b.length));
+        return Arrays.copyOf(out, intersect(a, a.length, b, out, comp));
+    }
+
+    /**
+     * Returns the number of keys that are in both a and b, counted as in
+     * intersect(Key[], Key[], Key[], Comparator), without storing them.
+     * The arrays must be sorted into ascending order according to the
+     * ordering specified by the comparator prior to calling this method.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param comp the comparator which specifies the order of objects
+     * @return the number of keys in the intersection
+     */
+    public static <Key> int intersectionCount(Key[] a, Key[] b, Comparator<Key> comp) {
+        return intersect(a, a.length, b, null, comp);
+    }
+
+    /**
+     * Stores the keys that are in a or b in out, in ascending order, and
+     * returns their number. A key that occurs x times in a and y times in b
+     * occurs max(x, y) times in the result.
+     * The arrays must be sorted into ascending order according to the
+     * ordering specified by the comparator prior to calling this method.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param out the array to store the result in
+     * @param comp the comparator which specifies the order of objects
+     * @return the number of keys in the union
+     * @throws IllegalArgumentException if out is shorter than a and b together
+     */
+    public static <Key> int union(Key[] a, Key[] b, Key[] out, Comparator<Key> comp) {
+        if (out.length < a.length + b.length)
+            throw new IllegalArgumentException("output array too short");
+        return unite(a, b, out, comp);
+    }
+
+    /**
+     * Returns the keys that are in a or b, in ascending order.
+     * See union(Key[], Key[], Key[], Comparator).
+     * The arrays must be sorted into ascending order according to the
+     * ordering specified by the comparator prior to calling this method.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param comp the comparator which specifies the order of objects
+     * @return the keys that are in a or b
+     */
+    public static <Key> Key[] union(Key[] a, Key[] b, Comparator<Key> comp) {
+        Key[] out = Arrays.copyOf(a, a.length + b.length);
+        return Arrays.copyOf(out, union(a, b, out, comp));
+    }
+
+    /**
+     * Stores the keys of a that are not in b in out, in ascending order, and
+     * returns their number. A key that occurs x times in a and y times in b
+     * occurs max(x - y, 0) times in the result.
+     * The arrays must be sorted into ascending order according to the
+     * ordering specified by the comparator prior to calling this method.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param out the array to store the result in
+     * @param comp the comparator which specifies the order of objects
+     * @return the number of keys in the difference
+     * @throws IllegalArgumentException if out is shorter than a
+     */
+    public static <Key> int difference(Key[] a, Key[] b, Key[] out, Comparator<Key> comp) {
+        if (out.length < a.length) throw new IllegalArgumentException("output array too short");
+        return subtract(a, b, out, comp);
+    }
+
+    /**
+     * Returns the keys of a that are not in b, in ascending order.
+     * See difference(Key[], Key[], Key[], Comparator).
+     * The arrays must be sorted into ascending order according to the
+     * ordering specified by the comparator prior to calling this method.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param comp the comparator which specifies the order of objects
+     * @return the keys of a that are not in b
+     */
+    public static <Key> Key[] difference(Key[] a, Key[] b, Comparator<Key> comp) {
+        Key[] out = Arrays.copyOf(a, a.length);
+        return Arrays.copyOf(out, difference(a, b, out, comp));
+    }
+
+    /**
+     * Returns the keys that are in all of the specified arrays, in ascending
+     * order. See intersectAll(int[]...).
+     * The arrays must be sorted into ascending order according to the
+     * ordering specified by the comparator prior to calling this method.
+     *
+     * @param lists the sorted arrays
+     * @param comp the comparator which specifies the order of objects
+     * @return the keys that are in all of the arrays
+     * @throws IllegalArgumentException if there are no arrays
+     */
+    @SafeVarargs
+    public static <Key> Key[] intersectAll(Comparator<Key> comp, Key[]... lists) {
+        // the varargs array is only read, so that it cannot be polluted
+        List<Key[]> list = new ArrayList<Key[]>(lists.length);
+        for (Key[] a : lists) list.add(a);
+        return intersectAll(comp, list);
+    }
+
+    // Intersects the arrays, from the shortest to the longest
+    private static <Key> Key[] intersectAll(Comparator<Key> comp, List<Key[]> lists) {
+        if (lists.isEmpty()) throw new IllegalArgumentException("no arrays to intersect");
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        Key[] result = lists.get(0).clone();
+        int size = result.length;
+        for (int i = 1; i < lists.size() && size > 0; i++)
+            size = intersect(result, size, lists.get(i), result, comp);
+        return Arrays.copyOf(result, size);
+    }
+
+    // see intersect(int[], int, int[], int[])
+    private static <Key> int intersect(Key[] a, int m, Key[] b, Key[] out, Comparator<Key> comp) {
+        int count = 0;
+        if (gallop(m, b.length)) {
+            if (m > b.length) {
+                // a is the output only in intersectAll(), where it is never longer
+                Key[] t = a;
+                a = b;
+                b = t;
+                m = a.length;
+            }
+            int pos = 0;
+            for (int i = 0; i < m && pos < b.length; i++) {
+                int p = BinarySearch.ceiling(b, a[i], pos, comp);
+                if (p < 0) break;
+                p = Math.max(p, pos);
+                if (comp.compare(b[p], a[i]) == 0) {
+                    if (out != null) out[count] = a[i];
+                    count++;
+                    p++;
+                }
+                pos = p;
+            }
+        }
+        else {
+            int i = 0, j = 0;
+            while (i < m && j < b.length) {
+                if (comp.compare(a[i], b[j]) < 0) i++;
+                else if (comp.compare(a[i], b[j]) > 0) j++;
+                else {
+                    if (out != null) out[count] = a[i];
+                    count++;
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // see unite(int[], int[], int[])
+    private static <Key> int unite(Key[] a, Key[] b, Key[] out, Comparator<Key> comp) {
+        int count = 0;
+        if (gallop(a.length, b.length)) {
+            if (a.length > b.length) {
+                Key[] t = a;
+                a = b;
+                b = t;
+            }
+            int pos = 0;
+            for (int i = 0; i < a.length; i++) {
+                int p = BinarySearch.ceiling(b, a[i], pos, comp);
+                if (p < 0) p = b.length;
+                p = Math.max(p, pos);
+                System.arraycopy(b, pos, out, count, p - pos);
+                count += p - pos;
+                out[count++] = a[i];
+                if (p < b.length && comp.compare(b[p], a[i]) == 0) p++;
+                pos = p;
+            }
+            System.arraycopy(b, pos, out, count, b.length - pos);
+            return count + b.length - pos;
+        }
+        int i = 0, j = 0;
+        while (i < a.length && j < b.length) {
+            if (comp.compare(a[i], b[j]) < 0) out[count++] = a[i++];
+            else if (comp.compare(a[i], b[j]) > 0) out[count++] = b[j++];
+            else {
+                out[count++] = a[i++];
+                j++;
+            }
+        }
+        System.arraycopy(a, i, out, count, a.length - i);
+        count += a.length - i;
+        System.arraycopy(b, j, out, count, b.length - j);
+        return count + b.length - j;
+    }
+
+    // see subtract(int[], int[], int[])
+    private static <Key> int subtract(Key[] a, Key[] b, Key[] out, Comparator<Key> comp) {
+        int count = 0;
+        if (gallop(a.length, b.length) && a.length < b.length) {
+            int pos = 0;
+            for (int i = 0; i < a.length; i++) {
+                int p = BinarySearch.ceiling(b, a[i], pos, comp);
+                if (p < 0) p = b.length;
+                p = Math.max(p, pos);
+                if (p < b.length && comp.compare(b[p], a[i]) == 0) p++;
+                else out[count++] = a[i];
+                pos = p;
+            }
+            return count;
+        }
+        if (gallop(a.length, b.length)) {
+            int pos = 0;
+            for (int j = 0; j < b.length && pos < a.length; j++) {
+                int p = BinarySearch.ceiling(a, b[j], pos, comp);
+                if (p < 0) p = a.length;
+                p = Math.max(p, pos);
+                System.arraycopy(a, pos, out, count, p - pos);
+                count += p - pos;
+                if (p < a.length && comp.compare(a[p], b[j]) == 0) p++;
+                pos = p;
+            }
+            System.arraycopy(a, pos, out, count, a.length - pos);
+            return count + a.length - pos;
+        }
+        int i = 0, j = 0;
+        while (i < a.length && j < b.length) {
+            if (comp.compare(a[i], b[j]) < 0) out[count++] = a[i++];
+            else if (comp.compare(a[i], b[j]) > 0) j++;
+            else {
+                i++;
+                j++;
+            }
+        }
+        System.arraycopy(a, i, out, count, a.length - i);
+        return count + a.length - i;
+    }
+
+    // The same operations in the natural order of the keys
+
+    /**
+     * Stores the keys that are in both a and b in out, in ascending order, and
+     * returns their number. See intersect(int[], int[], int[]).
+     * The arrays must be sorted into ascending order according to the natural
+     * ordering of its entries prior to calling this method.
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param out the array to store the result in
+     * @return the number of keys in the intersection
+     * @throws IllegalArgumentException if out is shorter than the shorter of a and b
+     */
+    public static <Key extends Comparable<Key>> int intersect(Key[] a, Key[] b, Key[] out) {
+        return intersect(a, b, out, Comparator.<Key>naturalOrder());
+    }
+
+    /**
+     * Returns the keys that are in both a and b, in ascending order.
+     * See intersect(int[], int[], int[]).
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @return the keys that are in both a and b
+     */
+    public static <Key extends Comparable<Key>> Key[] intersect(Key[] a, Key[] b) {
+        return intersect(a, b, Comparator.<Key>naturalOrder());
+    }
+
+    /**
+     * Returns the number of keys that are in both a and b, without storing
+     * them. See intersect(int[], int[], int[]).
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @return the number of keys in the intersection
+     */
+    public static <Key extends Comparable<Key>> int intersectionCount(Key[] a, Key[] b) {
+        return intersectionCount(a, b, Comparator.<Key>naturalOrder());
+    }
+
+    /**
+     * Stores the keys that are in a or b in out, in ascending order, and
+     * returns their number. See union(int[], int[], int[]).
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param out the array to store the result in
+     * @return the number of keys in the union
+     * @throws IllegalArgumentException if out is shorter than a and b together
+     */
+    public static <Key extends Comparable<Key>> int union(Key[] a, Key[] b, Key[] out) {
+        return union(a, b, out, Comparator.<Key>naturalOrder());
+    }
+
+    /**
+     * Returns the keys that are in a or b, in ascending order.
+     * See union(int[], int[], int[]).
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @return the keys that are in a or b
+     */
+    public static <Key extends Comparable<Key>> Key[] union(Key[] a, Key[] b) {
+        return union(a, b, Comparator.<Key>naturalOrder());
+    }
+
+    /**
+     * Stores the keys of a that are not in b in out, in ascending order, and
+     * returns their number. See difference(int[], int[], int[]).
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @param out the array to store the result in
+     * @return the number of keys in the difference
+     * @throws IllegalArgumentException if out is shorter than a
+     */
+    public static <Key extends Comparable<Key>> int difference(Key[] a, Key[] b, Key[] out) {
+        return difference(a, b, out, Comparator.<Key>naturalOrder());
+    }
+
+    /**
+     * Returns the keys of a that are not in b, in ascending order.
+     * See difference(int[], int[], int[]).
+     *
+     * @param a the first sorted array
+     * @param b the second sorted array
+     * @return the keys of a that are not in b
+     */
+    public static <Key extends Comparable<Key>> Key[] difference(Key[] a, Key[] b) {
+        return difference(a, b, Comparator.<Key>naturalOrder());
+    }
+
+    /**
+     * Returns the keys that are in all of the specified arrays, in ascending
+     * order. See intersectAll(int[]...).
+     *
+     * @param lists the sorted arrays
+     * @return the keys that are in all of the arrays
+     * @throws IllegalArgumentException if there are no arrays
+     */
+    @SafeVarargs
+    public static <Key extends Comparable<Key>> Key[] intersectAll(Key[]... lists) {
+        List<Key[]> list = new ArrayList<Key[]>(lists.length);
+        for (Key[] a : lists) list.add(a);
+        return intersectAll(Comparator.<Key>naturalOrder(), list);
+    }
+
+
+    /**************************************************************************
+     * Benchmark
+     *************************************************************************/
+
+    /**
+     * Compares the time of intersecting a sorted array of 2^22 random ints
+     * with sorted arrays of decreasing lengths, by merging only and by
+     * SortedSets.intersect() (which gallops once the ratio exceeds 16).
+     */
+    public static void main(String[] args) {
+        Random random = new Random(0);
+        int[] large = sortedRandom(random, 1 << 22);
+        int[] out = new int[large.length];
+
+        System.out.printf("%10s %12s %12s%n", "m", "merge (us)", "adaptive (us)");
+        for (int m = 1 << 22; m >= 1 << 6; m >>= 2) {
+            int[] small = sortedRandom(random, m);
+            long[] best = {Long.MAX_VALUE, Long.MAX_VALUE};
+            for (int rep = 0; rep < 8; rep++) {
+                long t0 = System.nanoTime();
+                long sum = merge(small, large, out);
+                long t1 = System.nanoTime();
+                sum += intersect(small, large, out);
+                long t2 = System.nanoTime();
+                sink += sum;
+
+                // the first three rounds warm up the JIT
+                if (rep < 3) continue;
+                best[0] = Math.min(best[0], t1 - t0);
+                best[1] = Math.min(best[1], t2 - t1);
+            }
+            System.out.printf("%10d %12.1f %12.1f%n", m, best[0] / 1e3, best[1] / 1e3);
+        }
+    }
+
+    // m distinct-ish random ints in ascending order, from a range 4 times larger
+    private static int[] sortedRandom(Random random, int m) {
+        int[] a = new int[m];
+        for (int i = 0; i < m; i++) a[i] = random.nextInt(1 << 24);
+        Arrays.sort(a);
+        return a;
+    }
+
+    // the intersection by merging only, for comparison
+    private static int merge(int[] a, int[] b, int[] out) {
+        int i = 0, j = 0, count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    // results of the operations are accumulated so that the JIT can't discard them
+    private static long sink;
+}
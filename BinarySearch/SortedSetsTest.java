@@ -0,0 +1,147 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+public class SortedSetsTest extends TestCase {
+
+    private static final int RANGE = 64;
+
+    private Random random = new Random(61);
+
+    public void testIntsAgainstCounts() {
+        // lengths from equal to far apart, so both merging and galloping are used
+        int[] lengths = {0, 1, 2, 5, 17, 40, 300, 2000};
+        for (int m : lengths) {
+            for (int n : lengths) {
+                int[] a = randomInts(m);
+                int[] b = randomInts(n);
+                int[] inter = SortedSets.intersect(a, b);
+                int[] union = SortedSets.union(a, b);
+                int[] diff = SortedSets.difference(a, b);
+                assertTrue(Arrays.equals(inter, expected(a, b, 0)));
+                assertTrue(Arrays.equals(union, expected(a, b, 1)));
+                assertTrue(Arrays.equals(diff, expected(a, b, 2)));
+                assertEquals(SortedSets.intersectionCount(a, b), inter.length);
+
+                long[] la = toLongs(a), lb = toLongs(b);
+                assertTrue(Arrays.equals(SortedSets.intersect(la, lb), toLongs(inter)));
+                assertTrue(Arrays.equals(SortedSets.union(la, lb), toLongs(union)));
+                assertTrue(Arrays.equals(SortedSets.difference(la, lb), toLongs(diff)));
+                assertEquals(SortedSets.intersectionCount(la, lb), inter.length);
+
+                Integer[] ka = box(a), kb = box(b);
+                assertTrue(Arrays.equals(SortedSets.intersect(ka, kb), box(inter)));
+                assertTrue(Arrays.equals(SortedSets.union(ka, kb), box(union)));
+                assertTrue(Arrays.equals(SortedSets.difference(ka, kb), box(diff)));
+                assertEquals(SortedSets.intersectionCount(ka, kb), inter.length);
+            }
+        }
+    }
+
+    public void testComparator() {
+        Comparator<Integer> reverse = Comparator.reverseOrder();
+        int[] a = randomInts(30);
+        int[] b = randomInts(1000);
+        Integer[] ra = reversed(a), rb = reversed(b);
+        assertTrue(Arrays.equals(SortedSets.intersect(ra, rb, reverse),
+                                 reversed(SortedSets.intersect(a, b))));
+        assertTrue(Arrays.equals(SortedSets.union(rb, ra, reverse),
+                                 reversed(SortedSets.union(a, b))));
+        assertTrue(Arrays.equals(SortedSets.difference(rb, ra, reverse),
+                                 reversed(SortedSets.difference(b, a))));
+    }
+
+    public void testOutputArray() {
+        int[] a = randomInts(10);
+        int[] b = randomInts(500);
+        int[] out = new int[a.length + b.length + 3];
+        int size = SortedSets.union(a, b, out);
+        assertTrue(Arrays.equals(Arrays.copyOf(out, size), SortedSets.union(a, b)));
+        size = SortedSets.intersect(a, b, out);
+        assertTrue(Arrays.equals(Arrays.copyOf(out, size), SortedSets.intersect(a, b)));
+        try {
+            SortedSets.intersect(a, b, new int[a.length - 1]);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        try {
+            SortedSets.union(a, b, new int[a.length + b.length - 1]);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        try {
+            SortedSets.difference(toLongs(b), toLongs(a), new long[b.length - 1]);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+    }
+
+    public void testIntersectAll() {
+        for (int trial = 0; trial < 50; trial++) {
+            int k = 1 + random.nextInt(5);
+            int[][] lists = new int[k][];
+            long[][] longLists = new long[k][];
+            Integer[][] keyLists = new Integer[k][];
+            int[] expected = null;
+            for (int i = 0; i < k; i++) {
+                lists[i] = randomInts(random.nextInt(3) == 0 ? 5 : 1 + random.nextInt(800));
+                longLists[i] = toLongs(lists[i]);
+                keyLists[i] = box(lists[i]);
+                expected = expected == null ? lists[i] : expected(expected, lists[i], 0);
+            }
+            assertTrue(Arrays.equals(SortedSets.intersectAll(lists), expected));
+            assertTrue(Arrays.equals(SortedSets.intersectAll(longLists), toLongs(expected)));
+            assertTrue(Arrays.equals(SortedSets.intersectAll(keyLists), box(expected)));
+        }
+        try {
+            SortedSets.intersectAll(new int[0][]);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+    }
+
+    // the multiset intersection (0), union (1) or difference (2), by counting
+    private static int[] expected(int[] a, int[] b, int op) {
+        int[] ca = new int[RANGE], cb = new int[RANGE];
+        for (int x : a) ca[x]++;
+        for (int x : b) cb[x]++;
+        int[] out = new int[a.length + b.length];
+        int size = 0;
+        for (int x = 0; x < RANGE; x++) {
+            int c;
+            if (op == 0) c = Math.min(ca[x], cb[x]);
+            else if (op == 1) c = Math.max(ca[x], cb[x]);
+            else c = Math.max(ca[x] - cb[x], 0);
+            for (int i = 0; i < c; i++) out[size++] = x;
+        }
+        return Arrays.copyOf(out, size);
+    }
+
+    // sorted random ints, with duplicates when n is large
+    private int[] randomInts(int n) {
+        int range = n > RANGE / 2 ? RANGE : RANGE / 2;
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) a[i] = random.nextInt(range);
+        Arrays.sort(a);
+        return a;
+    }
+
+    private static long[] toLongs(int[] a) {
+        long[] b = new long[a.length];
+        for (int i = 0; i < a.length; i++) b[i] = a[i];
+        return b;
+    }
+
+    private static Integer[] box(int[] a) {
+        Integer[] b = new Integer[a.length];
+        for (int i = 0; i < a.length; i++) b[i] = a[i];
+        return b;
+    }
+
+    private static Integer[] reversed(int[] a) {
+        Integer[] b = new Integer[a.length];
+        for (int i = 0; i < a.length; i++) b[i] = a[a.length - 1 - i];
+        return b;
+    }
+}
@@ -0,0 +1,332 @@
+/******************************************************************************
+ * Compilation:  javac StaticBTree.java
+ * Execution:    java StaticBTree
+ * Dependencies: BinarySearch.java EytzingerIndex.java
+ *
+ * An immutable search index over a sorted array of ints or longs that stores
+ * the keys as an implicit B-tree with one cache line per node.
+ * The main method benchmarks it against BinarySearch and EytzingerIndex.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The StaticBTree class answers the rank, floor, ceiling, predecessor,
+ * successor and range count queries of the BinarySearch class for a sorted
+ * array of ints or longs that is known in advance.
+ *
+ * The keys are copied into the nodes of a B-tree in which every node holds
+ * one cache line of keys (16 ints or 8 longs) and has one more child than it
+ * has keys. The tree is implicit, like a binary heap: the nodes are stored
+ * level by level in one array, and the children of node k are the nodes
+ * k * (B + 1) + 1 to k * (B + 1) + B + 1, so no pointers are stored.
+ * A search reads one node per level, and counts the keys in the node that
+ * are smaller than the search key with a short loop over the cache line
+ * (which has no data dependent branches, and which the JIT can vectorize);
+ * that count is the child to descend to. The rank of the search key is
+ * added up on the way down, from the counts and the sizes of the subtrees
+ * to the left, which follow from the numbering of the nodes, so the search
+ * reads nothing but the one node per level.
+ *
+ * A binary search over N keys touches about lg N cache lines, most of which
+ * miss the cache for large N. This tree has log_(B + 1) N levels, which is
+ * about 4 times fewer for ints (log_17 N) and 3 times fewer for longs.
+ *
+ * All indices returned refer to positions in the original sorted array, and
+ * are identical to the ones returned by the corresponding methods of the
+ * BinarySearch class.
+ *
+ * The constructor takes linear time and space. The last node is padded with
+ * the largest value of the key type; memoryFootprintBytes() reports the space
+ * used by the index, which is the keys and the padding only.
+ *
+ * @author Nate Liu
+ */
+public class StaticBTree {
+
+    private static final int INT_NODE = 16;     // keys per node for ints
+    private static final int LONG_NODE = 8;     // keys per node for longs
+
+    private final int n;
+    private final int B;            // keys per node
+    private final int nodes;        // number of nodes
+    private final int[] ints;       // keys of node k are at k * B .. k * B + B - 1
+    private final long[] longs;     // (only one of the two is used)
+
+    /**
+     * Builds the index from the specified array of ints.
+     *
+     * @param a the array to build the index from, sorted in ascending order
+     * @throws IllegalArgumentException if the array is not sorted
+     */
+    public StaticBTree(int[] a) {
+        for (int i = 1; i < a.length; i++)
+            if (a[i] < a[i - 1])
+                throw new IllegalArgumentException("array is not sorted");
+        n = a.length;
+        B = INT_NODE;
+        nodes = (n + B - 1) / B;
+        ints = new int[nodes * B];
+        longs = null;
+        fill(0, 0, a, null);
+    }
+
+    /**
+     * Builds the index from the specified array of longs.
+     *
+     * @param a the array to build the index from, sorted in ascending order
+     * @throws IllegalArgumentException if the array is not sorted
+     */
+    public StaticBTree(long[] a) {
+        for (int i = 1; i < a.length; i++)
+            if (a[i] < a[i - 1])
+                throw new IllegalArgumentException("array is not sorted");
+        n = a.length;
+        B = LONG_NODE;
+        nodes = (n + B - 1) / B;
+        ints = null;
+        longs = new long[nodes * B];
+        fill(0, 0, null, a);
+    }
+
+    /**
+     * Assigns the sorted keys to the slots of the subtree rooted at node k
+     * with an in order traversal, starting from the t-th key.
+     * Slots past the last key are padded with the largest value of the key
+     * type.
+     * Returns the index of the next key to assign.
+     */
+    private int fill(int k, int t, int[] a, long[] b) {
+        if (k >= nodes) return t;
+        for (int i = 0; i < B; i++) {
+            t = fill(child(k, i), t, a, b);
+            int slot = k * B + i;
+            if (a != null) ints[slot] = t < n ? a[t] : Integer.MAX_VALUE;
+            else longs[slot] = t < n ? b[t] : Long.MAX_VALUE;
+            t++;
+        }
+        return fill(child(k, B), t, a, b);
+    }
+
+    // Returns the i-th child of node k, or nodes if it does not exist
+    private int child(int k, int i) {
+        long c = (long) k * (B + 1) + i + 1;
+        if (c >= nodes) return nodes;
+        else return (int) c;
+    }
+
+    /**
+     * Returns the number of keys in the index.
+     *
+     * @return the number of keys in the index
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the number of bytes used by the arrays of the index (the keys
+     * including padding).
+     *
+     * @return the number of bytes used by the arrays of the index
+     */
+    public long memoryFootprintBytes() {
+        return ints != null ? 4L * ints.length : 8L * longs.length;
+    }
+
+    /**
+     * Returns the largest index of key less than or equal to specified key,
+     * or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key;
+     *         - 1 if there is no such index
+     */
+    public int floor(long key) {
+        return search(key, true) - 1;
+    }
+
+    /**
+     * Returns the smallest index of key greater than or equal to specified
+     * key, or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified
+     *         key; - 1 if there is no such index
+     */
+    public int ceiling(long key) {
+        int idx = search(key, false);
+        if (idx == n) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the largest index of key strictly less than specified key,
+     * or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the largest index of key strictly less than specified key;
+     *         - 1 if there is no such index
+     */
+    public int predecessor(long key) {
+        return search(key, false) - 1;
+    }
+
+    /**
+     * Returns the smallest index of key strictly greater than specified key,
+     * or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the smallest index of key strictly greater than specified key;
+     *         - 1 if there is no such index
+     */
+    public int successor(long key) {
+        int idx = search(key, true);
+        if (idx == n) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the number of keys strictly less than the specified key.
+     *
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key
+     */
+    public int rank(long key) {
+        return search(key, false);
+    }
+
+    /**
+     * Returns the number of keys between key1 (inclusive) and key2 (exclusive).
+     *
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throws IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     */
+    public int rangeCount(long key1, long key2) {
+        if (key1 >= key2) throw new IllegalArgumentException();
+        return search(key2, false) - search(key1, false);
+    }
+
+    /**
+     * Returns the number of keys less than (or equal to, if inclusive is set)
+     * the specified key.
+     * In each node on the way down, i is the number of keys in the node below
+     * the search key: those keys, and all the keys in the subtrees of the
+     * children 0 to i - 1, are below it, and the search continues in child i.
+     */
+    private int search(long key, boolean inclusive) {
+        // the padding would be counted as below these keys
+        long pad = ints != null ? Integer.MAX_VALUE : Long.MAX_VALUE;
+        if (key > pad || (inclusive && key == pad)) return n;
+
+        int rank = 0;
+        int k = 0;
+        while (k < nodes) {
+            int base = k * B;
+            int i = ints != null ? countBelow(ints, base, key, inclusive)
+                                 : countBelow(longs, base, key, inclusive);
+            rank += i + B * nodesLeftOf(k, i);
+            k = child(k, i);
+        }
+        return rank;
+    }
+
+    // Returns the number of nodes in the subtrees of children 0 to i - 1 of
+    // node k: the descendants of a run of nodes on one level are a run of
+    // nodes on the next level, so this counts one run per level
+    private int nodesLeftOf(int k, int i) {
+        long lo = (long) k * (B + 1) + 1;
+        long hi = lo + i;
+        int count = 0;
+        while (lo < nodes) {
+            count += (int) (Math.min(hi, nodes) - lo);
+            lo = lo * (B + 1) + 1;
+            hi = hi * (B + 1) + 1;
+        }
+        return count;
+    }
+
+    // Counts the keys of the node starting at base that are below the key
+    private static int countBelow(int[] keys, int base, long key, boolean inclusive) {
+        int count = 0;
+        if (inclusive) {
+            for (int j = base; j < base + INT_NODE; j++)
+                count += keys[j] <= key ? 1 : 0;
+        }
+        else {
+            for (int j = base; j < base + INT_NODE; j++)
+                count += keys[j] < key ? 1 : 0;
+        }
+        return count;
+    }
+
+    private static int countBelow(long[] keys, int base, long key, boolean inclusive) {
+        int count = 0;
+        if (inclusive) {
+            for (int j = base; j < base + LONG_NODE; j++)
+                count += keys[j] <= key ? 1 : 0;
+        }
+        else {
+            for (int j = base; j < base + LONG_NODE; j++)
+                count += keys[j] < key ? 1 : 0;
+        }
+        return count;
+    }
+
+
+    /**************************************************************************
+     * Benchmark
+     *************************************************************************/
+
+    /**
+     * Compares the time per rank() query of BinarySearch, EytzingerIndex and
+     * StaticBTree on sorted arrays of random ints of increasing size, with
+     * random queries, and prints the memory used by the indexes.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(0);
+        int[] queries = new int[1 << 20];
+        for (int i = 0; i < queries.length; i++) queries[i] = random.nextInt();
+
+        System.out.printf("%10s %12s %15s %12s %14s%n", "N", "binary (ns)",
+                          "eytzinger (ns)", "btree (ns)", "btree (bytes)");
+        for (int lgN = 10; lgN <= 25; lgN += 3) {
+            int[] a = new int[1 << lgN];
+            for (int i = 0; i < a.length; i++) a[i] = random.nextInt();
+            Arrays.sort(a);
+            EytzingerIndex eytzinger = new EytzingerIndex(a);
+            StaticBTree btree = new StaticBTree(a);
+
+            long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+            for (int rep = 0; rep < 8; rep++) {
+                long t0 = System.nanoTime();
+                int sum = 0;
+                for (int q : queries) sum += BinarySearch.rank(a, q);
+                long t1 = System.nanoTime();
+                for (int q : queries) sum += eytzinger.rank(q);
+                long t2 = System.nanoTime();
+                for (int q : queries) sum += btree.rank(q);
+                long t3 = System.nanoTime();
+                sink += sum;
+
+                // the first three rounds warm up the JIT
+                if (rep < 3) continue;
+                best[0] = Math.min(best[0], t1 - t0);
+                best[1] = Math.min(best[1], t2 - t1);
+                best[2] = Math.min(best[2], t3 - t2);
+            }
+            System.out.printf("%10d %12.2f %15.2f %12.2f %14d%n", a.length,
+                              (double) best[0] / queries.length,
+                              (double) best[1] / queries.length,
+                              (double) best[2] / queries.length,
+                              btree.memoryFootprintBytes());
+        }
+    }
+
+    // results of the queries are accumulated so that the JIT can't discard them
+    private static int sink;
+}
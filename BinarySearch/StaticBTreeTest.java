@@ -0,0 +1,69 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.Random;
+
+public class StaticBTreeTest extends TestCase {
+
+    private Random random = new Random(21);
+
+    public void testIntTree() {
+        // sizes around full trees of one, two and three levels
+        int[] sizes = {0, 1, 15, 16, 17, 100, 271, 272, 273, 600, 4624, 4625, 5000};
+        for (int n : sizes) {
+            int[] a = new int[n];
+            for (int i = 0; i < n; i++) a[i] = random.nextInt(n / 2 + 1);
+            Arrays.sort(a);
+            StaticBTree tree = new StaticBTree(a);
+            assertEquals(tree.size(), n);
+            for (int key = -1; key < n / 2 + 2; key++) {
+                assertEquals(tree.rank(key), BinarySearch.rank(a, key));
+                assertEquals(tree.floor(key), BinarySearch.floor(a, key));
+                assertEquals(tree.ceiling(key), BinarySearch.ceiling(a, key));
+                assertEquals(tree.predecessor(key), BinarySearch.predecessor(a, key));
+                assertEquals(tree.successor(key), BinarySearch.successor(a, key));
+                assertEquals(tree.rangeCount(key, key + 3),
+                             BinarySearch.rangeCount(a, key, key + 3));
+            }
+        }
+    }
+
+    public void testLongTree() {
+        for (int n = 0; n < 200; n += 9) {
+            long[] a = new long[n];
+            for (int i = 0; i < n; i++) a[i] = (random.nextInt(50) - 25) * 1000000000000L;
+            Arrays.sort(a);
+            StaticBTree tree = new StaticBTree(a);
+            for (long k = -27; k < 27; k++) {
+                long key = k * 1000000000000L;
+                assertEquals(tree.rank(key), BinarySearch.rank(a, key));
+                assertEquals(tree.floor(key), BinarySearch.floor(a, key));
+                assertEquals(tree.successor(key), BinarySearch.successor(a, key));
+            }
+        }
+    }
+
+    public void testExtremeKeys() {
+        int[] a = {Integer.MIN_VALUE, -3, 0, 0, 7, Integer.MAX_VALUE, Integer.MAX_VALUE};
+        StaticBTree tree = new StaticBTree(a);
+        long[] keys = {Long.MIN_VALUE, Integer.MIN_VALUE, 0, Integer.MAX_VALUE,
+            Integer.MAX_VALUE + 1L, Long.MAX_VALUE};
+        for (long key : keys) {
+            int k = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, key));
+            int rank = BinarySearch.rank(a, k);
+            if (key > Integer.MAX_VALUE) rank = a.length;
+            assertEquals(tree.rank(key), rank);
+            int floor = BinarySearch.floor(a, k);
+            if (key < Integer.MIN_VALUE) floor = -1;
+            assertEquals(tree.floor(key), floor);
+        }
+        assertEquals(tree.memoryFootprintBytes(), 16 * 4);
+    }
+
+    public void testUnsorted() {
+        try {
+            new StaticBTree(new long[] {1, 3, 2});
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+    }
+}
@@ -0,0 +1,311 @@
+/******************************************************************************
+ * Compilation:  javac StringSearch.java
+ * Execution:    java StringSearch
+ * Dependencies: BinarySearch.java SortedRange.java
+ *
+ * Binary search over a sorted array of strings that skips the characters
+ * the search key is known to share with the ends of the search range.
+ * The main method benchmarks it against BinarySearch on strings with long
+ * common prefixes.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The StringSearch class provides the methods of the BinarySearch class for
+ * sorted arrays of strings, plus a method that finds the strings starting
+ * with a prefix.
+ *
+ * A binary search compares the key with the middle string of a range whose
+ * two ends are known to be below and above the key. If the key shares its
+ * first l1 characters with the string at one end, and its first l2 with the
+ * string at the other end, it shares at least min(l1, l2) characters with
+ * every string in between (they are sorted), so the comparison can start at
+ * that character. Each search keeps track of these two longest common
+ * prefixes, and on keys with long common prefixes (such as URLs or file
+ * paths) compares far fewer characters than String.compareTo().
+ * Searching for a key of length M among N strings examines at most
+ * (M + 1) (floor(lg N) + 1) characters, and typically about M + lg N.
+ *
+ * Strings are ordered as by String.compareTo() (lexicographically by UTF-16
+ * character), and the results are identical to the ones returned by the
+ * BinarySearch class.
+ *
+ * @author Nate Liu
+ */
+public class StringSearch {
+
+    private static final int LESS = 0;       // strings strictly less than key
+    private static final int AT_MOST = 1;    // strings less than or equal to key
+    private static final int PREFIX = 2;     // also strings that start with key
+
+    /**
+     * This class should not be instantiated.
+     */
+    private StringSearch() { }
+
+    /**
+     * Returns the index of the first occurrence of the specified key in the
+     * specified array.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     *
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the first index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int firstIndexOf(String[] a, String key) {
+        int idx = search(a, key, LESS);
+        if (idx < a.length && a[idx].equals(key)) return idx;
+        else return -idx - 1;
+    }
+
+    /**
+     * Returns the index of the last occurrence of the specified key in the
+     * specified array.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     *
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the last index of the specified key in the specified array;
+     *         (-(insertion point) - 1) if there is no such index
+     */
+    public static int lastIndexOf(String[] a, String key) {
+        int idx = search(a, key, AT_MOST);
+        if (idx > 0 && a[idx - 1].equals(key)) return idx - 1;
+        else return -idx - 1;
+    }
+
+    /**
+     * Returns the largest index of key less than or equal to specified key,
+     * or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     *
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key;
+     *         - 1 if there is no such index
+     */
+    public static int floor(String[] a, String key) {
+        return search(a, key, AT_MOST) - 1;
+    }
+
+    /**
+     * Returns the smallest index of key greater than or equal to specified
+     * key, or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     *
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified
+     *         key; - 1 if there is no such index
+     */
+    public static int ceiling(String[] a, String key) {
+        int idx = search(a, key, LESS);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the largest index of key strictly less than specified key,
+     * or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     *
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the largest index of key strictly less than specified key;
+     *         - 1 if there is no such index
+     */
+    public static int predecessor(String[] a, String key) {
+        return search(a, key, LESS) - 1;
+    }
+
+    /**
+     * Returns the smallest index of key strictly greater than specified key,
+     * or - 1 if there is no such index.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     *
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the smallest index of key strictly greater than specified key;
+     *         - 1 if there is no such index
+     */
+    public static int successor(String[] a, String key) {
+        int idx = search(a, key, AT_MOST);
+        if (idx == a.length) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the number of occurrences of the specified key in the
+     * specified array.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     *
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of occurrences of the specified key
+     */
+    public static int count(String[] a, String key) {
+        return search(a, key, AT_MOST) - search(a, key, LESS);
+    }
+
+    /**
+     * Returns the number of keys in the specified array strictly less than
+     * the specified key.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     *
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return the number of keys strictly less than the specified key
+     */
+    public static int rank(String[] a, String key) {
+        return search(a, key, LESS);
+    }
+
+    /**
+     * Returns true if the specified array contains the specified key.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     *
+     * @param a the sorted array to be searched
+     * @param key the search key
+     * @return true if the array contains the specified key; false otherwise
+     */
+    public static boolean contains(String[] a, String key) {
+        return firstIndexOf(a, key) >= 0;
+    }
+
+    /**
+     * Returns the number of keys between key1 (inclusive) and key2 (exclusive)
+     * in the specified array.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     *
+     * @param a the sorted array to be searched
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throws IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     */
+    public static int rangeCount(String[] a, String key1, String key2) {
+        if (key1.compareTo(key2) >= 0) throw new IllegalArgumentException();
+        return search(a, key2, LESS) - search(a, key1, LESS);
+    }
+
+    /**
+     * Returns a view of the strings of the specified array that start with
+     * the specified prefix: the strings at the indices from() to to() - 1 of
+     * the view, which is empty if there are none.
+     * The array must be sorted into ascending order prior to calling this
+     * method.
+     *
+     * @param a the sorted array to be searched
+     * @param prefix the prefix
+     * @return a view of the strings of a that start with prefix
+     */
+    public static SortedRange<String> prefixRange(String[] a, String prefix) {
+        int from = search(a, prefix, LESS);
+        int to = search(a, prefix, PREFIX);
+        return new SortedRange<String>(a, from, to, true);
+    }
+
+    /**
+     * Returns the number of strings in a that are below the key: strictly
+     * less than it, less than or equal to it, or (for PREFIX) less than it
+     * or starting with it, depending on the mode.
+     * lcpLo and lcpHi are the lengths of the common prefixes of the key and
+     * a[lo] and a[hi] (0 for the positions outside the array).
+     */
+    private static int search(String[] a, String key, int mode) {
+        int lo = -1;
+        int hi = a.length;
+        int lcpLo = 0;
+        int lcpHi = 0;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            String s = a[mid];
+            int len = Math.min(s.length(), key.length());
+            int lcp = Math.min(lcpLo, lcpHi);
+            while (lcp < len && s.charAt(lcp) == key.charAt(lcp)) lcp++;
+
+            // the sign of s.compareTo(key)
+            int c;
+            if (lcp < len) c = s.charAt(lcp) - key.charAt(lcp);
+            else c = s.length() - key.length();
+
+            boolean below;
+            if (mode == LESS) below = c < 0;
+            else if (mode == AT_MOST) below = c <= 0;
+            else below = c < 0 || lcp == key.length();
+
+            if (below) {
+                lo = mid;
+                lcpLo = lcp;
+            }
+            else {
+                hi = mid;
+                lcpHi = lcp;
+            }
+        }
+        return hi;
+    }
+
+
+    /**************************************************************************
+     * Benchmark
+     *************************************************************************/
+
+    /**
+     * Compares the time per rank() query of BinarySearch and StringSearch on
+     * a sorted array of 2^20 random URLs that share a long prefix, with
+     * random queries of the same form.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(0);
+        String[] a = new String[1 << 20];
+        for (int i = 0; i < a.length; i++) a[i] = url(random);
+        Arrays.sort(a);
+        String[] queries = new String[1 << 18];
+        for (int i = 0; i < queries.length; i++) queries[i] = url(random);
+
+        long[] best = {Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int rep = 0; rep < 8; rep++) {
+            long t0 = System.nanoTime();
+            int sum = 0;
+            for (String q : queries) sum += BinarySearch.rank(a, q);
+            long t1 = System.nanoTime();
+            for (String q : queries) sum += rank(a, q);
+            long t2 = System.nanoTime();
+            sink += sum;
+
+            // the first three rounds warm up the JIT
+            if (rep < 3) continue;
+            best[0] = Math.min(best[0], t1 - t0);
+            best[1] = Math.min(best[1], t2 - t1);
+        }
+        System.out.printf("N = %d, ns per rank(): BinarySearch %.2f, StringSearch %.2f%n",
+                          a.length, (double) best[0] / queries.length,
+                          (double) best[1] / queries.length);
+    }
+
+    // a random URL on one of a few hosts, with a few path segments
+    private static String url(Random random) {
+        StringBuilder s = new StringBuilder("https://www.example.com/static/assets/");
+        s.append("v").append(random.nextInt(4)).append("/images/");
+        s.append(Integer.toString(random.nextInt(1 << 30), 36));
+        return s.toString();
+    }
+
+    // results of the queries are accumulated so that the JIT can't discard them
+    private static int sink;
+}
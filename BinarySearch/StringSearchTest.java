@@ -0,0 +1,65 @@
+import junit.framework.TestCase;
+import java.util.Arrays;
+import java.util.Random;
+
+public class StringSearchTest extends TestCase {
+
+    private Random random = new Random(43);
+
+    public void testAgainstBinarySearch() {
+        for (int n = 0; n < 120; n += 7) {
+            String[] a = new String[n];
+            for (int i = 0; i < n; i++) a[i] = randomString();
+            Arrays.sort(a);
+            for (int k = 0; k < 200; k++) {
+                String key = k % 3 == 0 && n > 0 ? a[random.nextInt(n)] : randomString();
+                assertEquals(StringSearch.firstIndexOf(a, key), BinarySearch.firstIndexOf(a, key));
+                assertEquals(StringSearch.lastIndexOf(a, key), BinarySearch.lastIndexOf(a, key));
+                assertEquals(StringSearch.floor(a, key), BinarySearch.floor(a, key));
+                assertEquals(StringSearch.ceiling(a, key), BinarySearch.ceiling(a, key));
+                assertEquals(StringSearch.predecessor(a, key), BinarySearch.predecessor(a, key));
+                assertEquals(StringSearch.successor(a, key), BinarySearch.successor(a, key));
+                assertEquals(StringSearch.count(a, key), BinarySearch.count(a, key));
+                assertEquals(StringSearch.rank(a, key), BinarySearch.rank(a, key));
+                assertEquals(StringSearch.contains(a, key), BinarySearch.contains(a, key));
+                String key2 = key + "b";
+                assertEquals(StringSearch.rangeCount(a, key, key2),
+                             BinarySearch.rangeCount(a, key, key2));
+            }
+        }
+    }
+
+    public void testPrefixRange() {
+        String[] a = new String[300];
+        for (int i = 0; i < a.length; i++) a[i] = randomString();
+        Arrays.sort(a);
+        for (int k = 0; k < 300; k++) {
+            String prefix = randomString();
+            if (prefix.length() > 0 && k % 2 == 0) prefix = prefix.substring(0, prefix.length() / 2);
+            SortedRange<String> range = StringSearch.prefixRange(a, prefix);
+            int first = -1, last = -2;
+            for (int i = 0; i < a.length; i++) {
+                if (a[i].startsWith(prefix)) {
+                    if (first < 0) first = i;
+                    last = i;
+                }
+            }
+            if (first < 0) assertTrue(range.isEmpty());
+            else {
+                assertEquals(range.from(), first);
+                assertEquals(range.to() - 1, last);
+            }
+        }
+        assertEquals(StringSearch.prefixRange(a, "").size(), a.length);
+    }
+
+    // strings over a small alphabet with long shared prefixes
+    private String randomString() {
+        StringBuilder s = new StringBuilder();
+        int prefixes = random.nextInt(4);
+        for (int i = 0; i < prefixes; i++) s.append("/usr/local/");
+        int len = random.nextInt(5);
+        for (int i = 0; i < len; i++) s.append((char) ('a' + random.nextInt(3)));
+        return s.toString();
+    }
+}
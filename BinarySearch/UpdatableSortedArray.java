@@ -0,0 +1,311 @@
+/******************************************************************************
+ * Compilation:  javac UpdatableSortedArray.java
+ * Execution:
+ * Dependencies: BinarySearch.java
+ *
+ * A sorted array of keys that accepts inserts and deletes, by buffering
+ * them in two small sorted arrays that are merged into it in bulk.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The UpdatableSortedArray class represents a sorted multiset of keys that
+ * answers the rank, floor, ceiling, count and range count queries of the
+ * BinarySearch class while keys are inserted into it and deleted from it.
+ *
+ * The keys are held in a sorted array (the base), which is never modified in
+ * place. Inserted keys go into a small sorted array of pending inserts, and
+ * deleting a key of the base adds it to a small sorted array of tombstones
+ * (deleting a pending insert, or inserting a key that has a tombstone,
+ * cancels the two out). A query searches the three arrays, and combines the
+ * results: for instance the number of keys less than a key is its rank in
+ * the base, plus its rank in the inserts, minus its rank in the tombstones.
+ * When the number of pending updates reaches the threshold, the three arrays
+ * are merged into a new base in linear time.
+ *
+ * Indices returned by floor and ceiling refer to positions in the sorted
+ * sequence of all the keys currently in the set (as if it were merged), and
+ * are identical to the ones returned by the corresponding methods of the
+ * BinarySearch class on that sequence.
+ *
+ * Queries take O(log N) time. An update takes O(log N + B) time for B
+ * pending updates, plus O(N) for a merge once every B updates; by default
+ * the threshold is the square root of N (but at least 64), which makes the
+ * amortized cost of an update O(sqrt N).
+ *
+ * @author Nate Liu
+ */
+public class UpdatableSortedArray<Key> {
+
+    private static final int MIN_THRESHOLD = 64;
+
+    private final Comparator<Key> comp;
+    private final int fixedThreshold;    // 0 to adapt the threshold to N
+    private int threshold;
+    private Key[] base;                  // merged keys, sorted
+    private Key[] inserts;               // pending inserts, sorted
+    private Key[] tombstones;            // pending deletes of base keys, sorted
+
+    /**
+     * Returns a set holding the keys of the specified array, sorted
+     * according to the natural ordering of its entries.
+     * The array is copied.
+     *
+     * @param a the keys of the set, sorted in ascending order
+     * @return a set holding the keys of the array
+     * @throws IllegalArgumentException if the array is not sorted
+     */
+    public static <Key extends Comparable<Key>> UpdatableSortedArray<Key> of(Key[] a) {
+        return new UpdatableSortedArray<Key>(a, Comparator.<Key>naturalOrder(), 0);
+    }
+
+    /**
+     * Returns a set holding the keys of the specified array, sorted
+     * according to the natural ordering of its entries, which merges its
+     * pending updates whenever there are threshold of them.
+     * The array is copied.
+     *
+     * @param a the keys of the set, sorted in ascending order
+     * @param threshold the number of pending updates that triggers a merge,
+     *        or 0 for the square root of the size of the set
+     * @return a set holding the keys of the array
+     * @throws IllegalArgumentException if the array is not sorted, or if
+     *         threshold is negative
+     */
+    public static <Key extends Comparable<Key>> UpdatableSortedArray<Key> of(Key[] a, int threshold) {
+        return new UpdatableSortedArray<Key>(a, Comparator.<Key>naturalOrder(), threshold);
+    }
+
+    /**
+     * Initializes a set holding the keys of the specified array, sorted
+     * according to the ordering specified by the comparator.
+     * The array is copied.
+     *
+     * @param a the keys of the set, sorted in ascending order
+     * @param comp the comparator which specifies the order of objects
+     * @throws IllegalArgumentException if the array is not sorted, or if
+     *         comp is null
+     */
+    public UpdatableSortedArray(Key[] a, Comparator<Key> comp) {
+        this(a, comp, 0);
+    }
+
+    /**
+     * Initializes a set holding the keys of the specified array, sorted
+     * according to the ordering specified by the comparator, which merges
+     * its pending updates whenever there are threshold of them.
+     * The array is copied.
+     *
+     * @param a the keys of the set, sorted in ascending order
+     * @param comp the comparator which specifies the order of objects
+     * @param threshold the number of pending updates that triggers a merge,
+     *        or 0 for the square root of the size of the set
+     * @throws IllegalArgumentException if the array is not sorted, if comp
+     *         is null, or if threshold is negative
+     */
+    public UpdatableSortedArray(Key[] a, Comparator<Key> comp, int threshold) {
+        if (comp == null) throw new IllegalArgumentException("comparator is null");
+        if (threshold < 0) throw new IllegalArgumentException("negative threshold: " + threshold);
+        this.comp = comp;
+        for (int i = 1; i < a.length; i++)
+            if (comp.compare(a[i], a[i - 1]) < 0)
+                throw new IllegalArgumentException("array is not sorted");
+        fixedThreshold = threshold;
+        base = a.clone();
+        inserts = Arrays.copyOf(a, 0);
+        tombstones = Arrays.copyOf(a, 0);
+        updateThreshold();
+    }
+
+    private void updateThreshold() {
+        if (fixedThreshold > 0) threshold = fixedThreshold;
+        else threshold = Math.max(MIN_THRESHOLD, (int) Math.sqrt(base.length));
+    }
+
+    /**
+     * Returns the number of keys in the set.
+     *
+     * @return the number of keys in the set
+     */
+    public int size() {
+        return base.length + inserts.length - tombstones.length;
+    }
+
+    /**
+     * Is the set empty?
+     *
+     * @return true if the set is empty; false otherwise
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the number of updates that have not been merged yet.
+     *
+     * @return the number of updates that have not been merged yet
+     */
+    public int pending() {
+        return inserts.length + tombstones.length;
+    }
+
+
+    /**************************************************************************
+     * Updates
+     *************************************************************************/
+
+    /**
+     * Adds the specified key to the set (which may already contain it).
+     *
+     * @param key the key to add
+     */
+    public void insert(Key key) {
+        int t = BinarySearch.firstIndexOf(tombstones, key, comp);
+        if (t >= 0) tombstones = remove(tombstones, t);
+        else inserts = add(inserts, key);
+        if (pending() >= threshold) merge();
+    }
+
+    /**
+     * Removes one occurrence of the specified key from the set.
+     *
+     * @param key the key to remove
+     * @return true if the set contained the key; false otherwise
+     */
+    public boolean delete(Key key) {
+        int i = BinarySearch.firstIndexOf(inserts, key, comp);
+        if (i >= 0) inserts = remove(inserts, i);
+        else if (BinarySearch.count(base, key, comp) > BinarySearch.count(tombstones, key, comp))
+            tombstones = add(tombstones, key);
+        else return false;
+        if (pending() >= threshold) merge();
+        return true;
+    }
+
+    /**
+     * Merges the pending updates into the sorted array of keys.
+     * This takes time linear in the size of the set.
+     */
+    public void merge() {
+        Key[] merged = Arrays.copyOf(base, size());
+        int i = 0, j = 0, t = 0, k = 0;
+        while (i < base.length || j < inserts.length) {
+            // a tombstone deletes the first remaining occurrence of its key
+            if (i < base.length && t < tombstones.length
+                && comp.compare(base[i], tombstones[t]) == 0) {
+                i++;
+                t++;
+            }
+            else if (j == inserts.length
+                     || (i < base.length && comp.compare(base[i], inserts[j]) <= 0))
+                merged[k++] = base[i++];
+            else merged[k++] = inserts[j++];
+        }
+        base = merged;
+        inserts = Arrays.copyOf(base, 0);
+        tombstones = Arrays.copyOf(base, 0);
+        updateThreshold();
+    }
+
+    // Returns a copy of the sorted array with the key inserted after its equal keys
+    private Key[] add(Key[] a, Key key) {
+        int pos = BinarySearch.floor(a, key, comp) + 1;
+        Key[] b = Arrays.copyOf(a, a.length + 1);
+        System.arraycopy(a, pos, b, pos + 1, a.length - pos);
+        b[pos] = key;
+        return b;
+    }
+
+    // Returns a copy of the array without a[i]
+    private Key[] remove(Key[] a, int i) {
+        Key[] b = Arrays.copyOf(a, a.length - 1);
+        System.arraycopy(a, i + 1, b, i, a.length - i - 1);
+        return b;
+    }
+
+
+    /**************************************************************************
+     * Queries
+     *************************************************************************/
+
+    /**
+     * Returns true if the set contains the specified key.
+     *
+     * @param key the search key
+     * @return true if the set contains the specified key; false otherwise
+     */
+    public boolean contains(Key key) {
+        return count(key) > 0;
+    }
+
+    /**
+     * Returns the number of keys in the set equal to the specified key.
+     *
+     * @param key the search key
+     * @return the number of keys in the set equal to the specified key
+     */
+    public int count(Key key) {
+        return atMost(key) - rank(key);
+    }
+
+    /**
+     * Returns the number of keys in the set strictly less than the specified
+     * key.
+     *
+     * @param key the search key
+     * @return the number of keys in the set strictly less than the specified
+     *         key
+     */
+    public int rank(Key key) {
+        return BinarySearch.rank(base, key, comp) + BinarySearch.rank(inserts, key, comp)
+            - BinarySearch.rank(tombstones, key, comp);
+    }
+
+    /**
+     * Returns the largest index of key less than or equal to specified key,
+     * or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the largest index of key less than or equal to specified key;
+     *         - 1 if there is no such index
+     */
+    public int floor(Key key) {
+        return atMost(key) - 1;
+    }
+
+    /**
+     * Returns the smallest index of key greater than or equal to specified
+     * key, or - 1 if there is no such index.
+     *
+     * @param key the search key
+     * @return the smallest index of key greater than or equal to specified
+     *         key; - 1 if there is no such index
+     */
+    public int ceiling(Key key) {
+        int idx = rank(key);
+        if (idx == size()) return -1;
+        else return idx;
+    }
+
+    /**
+     * Returns the number of keys between key1 (inclusive) and key2 (exclusive).
+     *
+     * @param key1 the lower bound (inclusive)
+     * @param key2 the upper bound (exclusive)
+     * @throws IllegalArgumentException if key2 is not strictly greater than key1
+     * @return the number of keys between key1 (inclusive) and key2 (exclusive)
+     */
+    public int rangeCount(Key key1, Key key2) {
+        if (comp.compare(key1, key2) >= 0) throw new IllegalArgumentException();
+        return rank(key2) - rank(key1);
+    }
+
+    // Returns the number of keys in the set less than or equal to the key
+    private int atMost(Key key) {
+        return BinarySearch.floor(base, key, comp) + BinarySearch.floor(inserts, key, comp)
+            - BinarySearch.floor(tombstones, key, comp) + 1;
+    }
+}
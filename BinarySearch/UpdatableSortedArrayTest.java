@@ -0,0 +1,86 @@
+import junit.framework.TestCase;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class UpdatableSortedArrayTest extends TestCase {
+
+    private Random random = new Random(41);
+
+    public void testRandomUpdates() {
+        // small thresholds merge often, large ones keep updates pending
+        for (int threshold : new int[] {0, 1, 5, 10000}) {
+            Integer[] a = new Integer[50];
+            for (int i = 0; i < a.length; i++) a[i] = random.nextInt(40);
+            Arrays.sort(a);
+            UpdatableSortedArray<Integer> set = UpdatableSortedArray.of(a, threshold);
+            List<Integer> keys = new ArrayList<Integer>(Arrays.asList(a));
+            for (int step = 0; step < 600; step++) {
+                Integer key = random.nextInt(45);
+                if (random.nextBoolean()) {
+                    set.insert(key);
+                    keys.add(key);
+                }
+                else assertEquals(set.delete(key), keys.remove(key));
+                if (step % 10 == 0) check(set, keys);
+            }
+            set.merge();
+            assertEquals(set.pending(), 0);
+            check(set, keys);
+        }
+    }
+
+    public void testComparator() {
+        Comparator<String> reverse = Comparator.reverseOrder();
+        String[] a = {"d", "c", "c", "a"};
+        UpdatableSortedArray<String> set = new UpdatableSortedArray<String>(a, reverse);
+        set.insert("b");
+        assertTrue(set.delete("c"));
+        assertFalse(set.delete("e"));
+        set.insert("c");
+        assertEquals(set.pending(), 1);
+        assertEquals(set.size(), 5);
+        assertEquals(set.rank("b"), 3);
+        assertEquals(set.count("c"), 2);
+        assertEquals(set.floor("bb"), 2);
+        assertEquals(set.ceiling("bb"), 3);
+        assertEquals(set.ceiling("0"), -1);
+        assertEquals(set.rangeCount("d", "b"), 3);
+    }
+
+    public void testBadArguments() {
+        try {
+            UpdatableSortedArray.of(new Integer[] {2, 1});
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        try {
+            UpdatableSortedArray.of(new Integer[] {1, 2}).rangeCount(2, 2);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        try {
+            new UpdatableSortedArray<Integer>(new Integer[] {1, 2}, null);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+    }
+
+    // compares every query with BinarySearch on the sorted keys
+    private void check(UpdatableSortedArray<Integer> set, List<Integer> keys) {
+        Integer[] a = keys.toArray(new Integer[0]);
+        Arrays.sort(a);
+        assertEquals(set.size(), a.length);
+        for (Integer key = -1; key < 47; key++) {
+            assertEquals(set.rank(key), BinarySearch.rank(a, key));
+            assertEquals(set.floor(key), BinarySearch.floor(a, key));
+            assertEquals(set.ceiling(key), BinarySearch.ceiling(a, key));
+            assertEquals(set.count(key), BinarySearch.count(a, key));
+            assertEquals(set.contains(key), BinarySearch.contains(a, key));
+            assertEquals(set.rangeCount(key, key + 5), BinarySearch.rangeCount(a, key, key + 5));
+        }
+    }
+}
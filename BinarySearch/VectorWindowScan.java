@@ -0,0 +1,123 @@
+/******************************************************************************
+ * Compilation:  javac --add-modules jdk.incubator.vector VectorWindowScan.java
+ * Execution:
+ * Dependencies: WindowScan.java
+ *
+ * Window scan using the (incubating) Vector API.
+ *
+ ******************************************************************************/
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The VectorWindowScan class implements the WindowScan interface by comparing
+ * a whole vector of keys against the search key at once, and counting the
+ * lanes of the resulting mask. Since the keys are sorted, this count is the
+ * number of keys below the search key.
+ * 
+ * The window is covered with whole vectors, so that there is no scalar loop
+ * for its last few keys: the vectors may extend past hi, where no key is below
+ * the search key, and near the end of the array they start before lo instead,
+ * where every key is below the search key and is subtracted from the count.
+ * 
+ * This class is only loaded by SimdBinarySearch if the jdk.incubator.vector
+ * module is present at runtime (java --add-modules jdk.incubator.vector).
+ * 
+ * @author Nate Liu
+ */
+class VectorWindowScan implements WindowScan {
+    
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    
+    public int countBelow(int[] a, int lo, int hi, int key, boolean inclusive) {
+        int span = INTS.loopBound(hi - lo + INTS.length() - 1);
+        if (span > a.length) {
+            int count = 0;
+            for (int i = lo; i < hi; i++)
+                if (inclusive ? a[i] <= key : a[i] < key) count++;
+            return count;
+        }
+        int start = Math.min(lo, a.length - span);
+        int count = 0;
+        if (inclusive) {
+            for (int i = start; i < start + span; i += INTS.length())
+                count += IntVector.fromArray(INTS, a, i).compare(VectorOperators.LE, key).trueCount();
+        }
+        else {
+            for (int i = start; i < start + span; i += INTS.length())
+                count += IntVector.fromArray(INTS, a, i).compare(VectorOperators.LT, key).trueCount();
+        }
+        return count - (lo - start);
+    }
+    
+    public int countBelow(long[] a, int lo, int hi, long key, boolean inclusive) {
+        int span = LONGS.loopBound(hi - lo + LONGS.length() - 1);
+        if (span > a.length) {
+            int count = 0;
+            for (int i = lo; i < hi; i++)
+                if (inclusive ? a[i] <= key : a[i] < key) count++;
+            return count;
+        }
+        int start = Math.min(lo, a.length - span);
+        int count = 0;
+        if (inclusive) {
+            for (int i = start; i < start + span; i += LONGS.length())
+                count += LongVector.fromArray(LONGS, a, i).compare(VectorOperators.LE, key).trueCount();
+        }
+        else {
+            for (int i = start; i < start + span; i += LONGS.length())
+                count += LongVector.fromArray(LONGS, a, i).compare(VectorOperators.LT, key).trueCount();
+        }
+        return count - (lo - start);
+    }
+    
+    public int countBelow(float[] a, int lo, int hi, float key, boolean inclusive) {
+        int span = FLOATS.loopBound(hi - lo + FLOATS.length() - 1);
+        if (span > a.length) {
+            int count = 0;
+            for (int i = lo; i < hi; i++)
+                if (inclusive ? a[i] <= key : a[i] < key) count++;
+            return count;
+        }
+        int start = Math.min(lo, a.length - span);
+        int count = 0;
+        if (inclusive) {
+            for (int i = start; i < start + span; i += FLOATS.length())
+                count += FloatVector.fromArray(FLOATS, a, i).compare(VectorOperators.LE, key).trueCount();
+        }
+        else {
+            for (int i = start; i < start + span; i += FLOATS.length())
+                count += FloatVector.fromArray(FLOATS, a, i).compare(VectorOperators.LT, key).trueCount();
+        }
+        return count - (lo - start);
+    }
+    
+    public int countBelow(double[] a, int lo, int hi, double key, boolean inclusive) {
+        int span = DOUBLES.loopBound(hi - lo + DOUBLES.length() - 1);
+        if (span > a.length) {
+            int count = 0;
+            for (int i = lo; i < hi; i++)
+                if (inclusive ? a[i] <= key : a[i] < key) count++;
+            return count;
+        }
+        int start = Math.min(lo, a.length - span);
+        int count = 0;
+        if (inclusive) {
+            for (int i = start; i < start + span; i += DOUBLES.length())
+                count += DoubleVector.fromArray(DOUBLES, a, i).compare(VectorOperators.LE, key).trueCount();
+        }
+        else {
+            for (int i = start; i < start + span; i += DOUBLES.length())
+                count += DoubleVector.fromArray(DOUBLES, a, i).compare(VectorOperators.LT, key).trueCount();
+        }
+        return count - (lo - start);
+    }
+}
@@ -0,0 +1,32 @@
+/******************************************************************************
+ * Compilation:  javac WindowScan.java
+ * Execution:
+ * Dependencies:
+ *
+ * Counting the keys below a search key in a small window of a sorted array.
+ *
+ ******************************************************************************/
+
+/**
+ * The WindowScan interface is the final stage of the searches of the 
+ * SimdBinarySearch class: once bisection has narrowed the answer down to a
+ * window a[lo..hi) of a few cache lines, the number of keys in the window
+ * that are below the search key (strictly less than it, or less than or
+ * equal to it if inclusive is set) is counted with a linear scan.
+ * 
+ * Floats and doubles are compared with the primitive comparison operators;
+ * the caller handles the keys (NaN, 0.0 and -0.0) for which these differ
+ * from Float.compare() and Double.compare().
+ * 
+ * @author Nate Liu
+ */
+interface WindowScan {
+    
+    int countBelow(int[] a, int lo, int hi, int key, boolean inclusive);
+    
+    int countBelow(long[] a, int lo, int hi, long key, boolean inclusive);
+    
+    int countBelow(float[] a, int lo, int hi, float key, boolean inclusive);
+    
+    int countBelow(double[] a, int lo, int hi, double key, boolean inclusive);
+}
@@ -1,15 +1,14 @@
 /******************************************************************************
  * Compilation:  javac CartesianTree.java
  * Execution:    
- * Dependencies: Stack.java
+ * Dependencies: 
  *  
  * A Cartesian tree data structure.
  *
  ******************************************************************************/
 
-import edu.princeton.cs.algs4.Stack;
-
 import java.util.Arrays;
+import java.util.Comparator;
 
 /**
  * The CartesianTree class is a structure with mulitple applications. 
@@ -27,6 +26,12 @@ import java.util.Arrays;
  * to children or parents, this implementation uses an arrays that store
  * the indices of the key's parent, right child, and left child
  * 
+ * The tree can be built over an array of ints, longs, doubles (ordered by
+ * Double.compare()) or objects (ordered naturally or by a comparator); the
+ * array is only read while the tree is built, and primitives are compared
+ * as such, without boxing. Of equal keys, the leftmost one is the ancestor
+ * of the others.
+ * 
  * Each method in the API takes O(n) time since a defensive copy is made and
  * returned to the user
  * 
@@ -34,7 +39,7 @@ import java.util.Arrays;
  */
 public class CartesianTree {
     
-    private final int[] nums;
+    private final int n;
     
     private int[] parent;
     private int[] left;
@@ -45,21 +50,70 @@ public class CartesianTree {
     private int[] tourToNums;
     private int[] tour;
     
+    // Compares the keys at two indices of the array the tree is built over
+    private interface Order {
+        boolean greater(int i, int j);
+    }
+    
     /**
      * Builds Cartesian tree and Eulerian tour array
      * 
      * @param A the array to form the Cartesian tree with
      */
     public CartesianTree(int[] A) {
-        nums = Arrays.copyOf(A, A.length);
+        this(A.length, (i, j) -> A[i] > A[j]);
+    }
+    
+    /**
+     * Builds Cartesian tree and Eulerian tour array
+     * 
+     * @param A the array to form the Cartesian tree with
+     */
+    public CartesianTree(long[] A) {
+        this(A.length, (i, j) -> A[i] > A[j]);
+    }
+    
+    /**
+     * Builds Cartesian tree and Eulerian tour array, with the keys ordered
+     * by Double.compare()
+     * 
+     * @param A the array to form the Cartesian tree with
+     */
+    public CartesianTree(double[] A) {
+        this(A.length, (i, j) -> Double.compare(A[i], A[j]) > 0);
+    }
+    
+    /**
+     * Builds Cartesian tree and Eulerian tour array, with the keys in their
+     * natural order
+     * 
+     * @param A the array to form the Cartesian tree with
+     */
+    public <Key extends Comparable<Key>> CartesianTree(Key[] A) {
+        this(A.length, (i, j) -> A[i].compareTo(A[j]) > 0);
+    }
+    
+    /**
+     * Builds Cartesian tree and Eulerian tour array, with the keys in the
+     * order specified by the comparator
+     * 
+     * @param A the array to form the Cartesian tree with
+     * @param comp the comparator which specifies the order of objects
+     */
+    public <Key> CartesianTree(Key[] A, Comparator<? super Key> comp) {
+        this(A.length, (i, j) -> comp.compare(A[i], A[j]) > 0);
+    }
+    
+    private CartesianTree(int n, Order order) {
+        this.n = n;
         
-        parent = new int[nums.length];
-        left = new int[nums.length];
-        right = new int[nums.length];
+        parent = new int[n];
+        left = new int[n];
+        right = new int[n];
         Arrays.fill(left, -1);
         Arrays.fill(right, -1);
         
-        buildCartesianTree();
+        buildCartesianTree(order);
         buildTourArray();
     }
     
@@ -97,38 +151,36 @@ public class CartesianTree {
     
     // Constructs Cartesian tree by using the All nearest smaller value method,
     // see: https://en.wikipedia.org/wiki/All_nearest_smaller_values
-    private void buildCartesianTree() {
-        Stack<Integer> stack = new Stack<Integer>();
-        int min = nums[0];
+    // The stack is an array of indices, stack[0 .. size - 1]
+    private void buildCartesianTree(Order order) {
+        int[] stack = new int[n];
+        int size = 0;
         int minIdx = 0;
         
         // insert one element per iteration, starting from the left of the 
         // array, mark its parent and children in the same iteration
-        for (int i = 0; i < nums.length; i++) {
+        for (int i = 0; i < n; i++) {
             int prev = -1;
             // pop all larger elements off the stack
-            while (!stack.isEmpty() && nums[stack.peek()] > nums[i]) {
-                prev = stack.pop();
+            while (size > 0 && order.greater(stack[size - 1], i)) {
+                prev = stack[--size];
             }
             // mark parent for new element
-            if (!stack.isEmpty()) parent[i] = stack.peek();
+            if (size > 0) parent[i] = stack[size - 1];
             // mark parent for last popped off element
             if (prev != -1) parent[prev] = i;
             // put new element onto top of stack
-            stack.push(i);
+            stack[size++] = i;
             
             // track min element index since it is the root of the tree
-            if (nums[i] < min) {
-                min = nums[i];
-                minIdx = i;
-            }
+            if (order.greater(minIdx, i)) minIdx = i;
         }
         // mark root
         parent[minIdx] = -1;
         root = minIdx;
         
         // build children arrays
-        for (int i = 0; i < nums.length; i++) {
+        for (int i = 0; i < n; i++) {
             if (parent[i] == -1) continue;
             else if (parent[i] > i) left[parent[i]] = i;
             else if (parent[i] < i) right[parent[i]] = i;
@@ -136,38 +188,41 @@ public class CartesianTree {
     }
     
     private void buildTourArray() {
-        numsToTour = new int[nums.length];
-        int tourSize = 2 * nums.length - 1;
+        numsToTour = new int[n];
+        int tourSize = 2 * n - 1;
         tour = new int[tourSize];
         tourToNums = new int[tourSize];
         
         // Eulerian tour implemented in an iterative DFS fashion
+        // the stack holds (node, depth) pairs, at most one per level of the
+        // tree plus one
         boolean[] leftVisited = new boolean[parent.length];
         boolean[] rightVisited = new boolean[parent.length];
-        Stack<Integer> stack = new Stack<Integer>();
+        int[] stack = new int[2 * n + 2];
+        int size = 0;
         int idx = 0;
-        stack.push(root);
-        stack.push(0);
-        while (!stack.isEmpty()) {
-            int depth = stack.pop();
-            int pos = stack.pop();
+        stack[size++] = root;
+        stack[size++] = 0;
+        while (size > 0) {
+            int depth = stack[--size];
+            int pos = stack[--size];
             // store index mapping and tour value
             numsToTour[pos] = idx;
             tour[idx] = depth;
             tourToNums[idx] = pos;
             idx++;
             if (left[pos] != -1 && !leftVisited[pos]) {
-                stack.push(pos);
-                stack.push(depth);
-                stack.push(left[pos]);
-                stack.push(depth + 1);
+                stack[size++] = pos;
+                stack[size++] = depth;
+                stack[size++] = left[pos];
+                stack[size++] = depth + 1;
                 leftVisited[pos] = true;
             }
             else if (right[pos] != -1 && !rightVisited[pos]) {
-                stack.push(pos);
-                stack.push(depth);
-                stack.push(right[pos]);
-                stack.push(depth + 1);
+                stack[size++] = pos;
+                stack[size++] = depth;
+                stack[size++] = right[pos];
+                stack[size++] = depth + 1;
                 rightVisited[pos] = true;
             }
         }
@@ -0,0 +1,315 @@
+/******************************************************************************
+ * Compilation:  javac RangeMinMaxQuery.java
+ * Execution:    java RangeMinMaxQuery
+ * Dependencies: RangeMinimumQuery.java
+ *
+ * A data structure that answers both range minimum and range maximum
+ * queries in constant time, from one preprocessing pass.
+ * The main method compares it with two RangeMinimumQuery structures.
+ *
+ ******************************************************************************/
+
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * The RangeMinMaxQuery class represents a data structure that supports
+ * queries for the index of the range minimum, of the range maximum, or of
+ * both at once (for instance the low and the high of a candlestick).
+ *
+ * The array is divided into blocks of 32 keys. A single pass over the array
+ * maintains, for the last 32 positions, the stack of the all nearest smaller
+ * values and the stack of the all nearest larger values, and stores each as
+ * a 32 bit mask per position (bit j of the mask at i is set if position
+ * i - j is on the stack). The minimum of a range of at most 32 keys ending
+ * at r is the deepest element of the stack at r that lies in the range, so
+ * it is found from the mask at r with one bit operation. Longer ranges are
+ * split into a partial block on each side, which use the masks, and whole
+ * blocks in the middle, whose minimum (and maximum) is looked up in a
+ * sparse table over the blocks, of (n / 32) lg(n / 32) entries.
+ *
+ * The min and max sides share the pass over the array, the block layout and
+ * the query arithmetic, and use 8 bytes per key for the masks plus about
+ * (lg n) / 4 bytes per key for the two sparse tables. Each query takes
+ * constant time; preprocessing takes O(n) time and space for all n < 2^32
+ * (lg n <= 32).
+ *
+ * The array can hold ints, longs, doubles (ordered by Double.compare()) or
+ * objects (ordered naturally or by a comparator). It is not copied, and
+ * must not be modified afterwards, since queries compare keys of the parts
+ * of the range. If the range holds several minimums (or maximums), the
+ * index of the leftmost one is returned.
+ *
+ * @author Nate Liu
+ */
+public class RangeMinMaxQuery {
+
+    private static final int W = 32;    // keys per block, bits per mask
+
+    private final int n;
+    private final Order order;
+    private final int[] minMask;        // stacks of nearest smaller values
+    private final int[] maxMask;        // stacks of nearest larger values
+    private final int[][] minTable;     // minTable[j][i] = index of the min
+    private final int[][] maxTable;     // of blocks i to i + 2^j - 1
+
+    // Compares the keys at two indices of the array
+    private interface Order {
+        boolean less(int i, int j);
+    }
+
+    /**
+     * Builds the structure over an array of ints.
+     *
+     * @param A the array to perform range queries on
+     */
+    public RangeMinMaxQuery(int[] A) {
+        this(A.length, (i, j) -> A[i] < A[j]);
+    }
+
+    /**
+     * Builds the structure over an array of longs.
+     *
+     * @param A the array to perform range queries on
+     */
+    public RangeMinMaxQuery(long[] A) {
+        this(A.length, (i, j) -> A[i] < A[j]);
+    }
+
+    /**
+     * Builds the structure over an array of doubles, ordered by
+     * Double.compare().
+     *
+     * @param A the array to perform range queries on
+     */
+    public RangeMinMaxQuery(double[] A) {
+        this(A.length, (i, j) -> Double.compare(A[i], A[j]) < 0);
+    }
+
+    /**
+     * Builds the structure over an array of objects in their natural order.
+     *
+     * @param A the array to perform range queries on
+     */
+    public <Key extends Comparable<Key>> RangeMinMaxQuery(Key[] A) {
+        this(A.length, (i, j) -> A[i].compareTo(A[j]) < 0);
+    }
+
+    /**
+     * Builds the structure over an array of objects in the order specified
+     * by the comparator.
+     *
+     * @param A the array to perform range queries on
+     * @param comp the comparator which specifies the order of objects
+     */
+    public <Key> RangeMinMaxQuery(Key[] A, Comparator<? super Key> comp) {
+        this(A.length, (i, j) -> comp.compare(A[i], A[j]) < 0);
+    }
+
+    private RangeMinMaxQuery(int n, Order order) {
+        this.n = n;
+        this.order = order;
+        minMask = new int[n];
+        maxMask = new int[n];
+        buildMasks();
+
+        int blocks = (n + W - 1) / W;
+        int levels = blocks == 0 ? 0 : log2(blocks) + 1;
+        minTable = new int[levels][];
+        maxTable = new int[levels][];
+        if (levels > 0) {
+            minTable[0] = new int[blocks];
+            maxTable[0] = new int[blocks];
+            for (int b = 0; b < blocks; b++) {
+                int end = Math.min(n, (b + 1) * W) - 1;
+                minTable[0][b] = inBlock(minMask, b * W, end);
+                maxTable[0][b] = inBlock(maxMask, b * W, end);
+            }
+        }
+        for (int j = 1; j < levels; j++) {
+            int half = 1 << (j - 1);
+            int len = blocks - (1 << j) + 1;
+            minTable[j] = new int[len];
+            maxTable[j] = new int[len];
+            for (int i = 0; i < len; i++) {
+                minTable[j][i] = better(minTable[j - 1][i], minTable[j - 1][i + half], false);
+                maxTable[j][i] = better(maxTable[j - 1][i], maxTable[j - 1][i + half], true);
+            }
+        }
+    }
+
+    // One pass over the array that pushes every index onto both stacks,
+    // after popping the keys larger (resp. smaller) than it; the lowest set
+    // bit of a mask is the top of its stack
+    private void buildMasks() {
+        int min = 0;
+        int max = 0;
+        for (int i = 0; i < n; i++) {
+            min <<= 1;
+            max <<= 1;
+            while (min != 0 && order.less(i, i - Integer.numberOfTrailingZeros(min)))
+                min &= min - 1;
+            while (max != 0 && order.less(i - Integer.numberOfTrailingZeros(max), i))
+                max &= max - 1;
+            min |= 1;
+            max |= 1;
+            minMask[i] = min;
+            maxMask[i] = max;
+        }
+    }
+
+    // Returns the index of the min (or max) of a[l .. r], for r - l < W:
+    // the deepest element of the stack at r that is not before l
+    private static int inBlock(int[] mask, int l, int r) {
+        int m = mask[r] & (-1 >>> (W - 1 - (r - l)));
+        return r - (31 - Integer.numberOfLeadingZeros(m));
+    }
+
+    // Returns the better of the indices i < j, the left one if the keys are equal
+    private int better(int i, int j, boolean max) {
+        if (max ? order.less(i, j) : order.less(j, i)) return j;
+        else return i;
+    }
+
+    // Computes floor of log base 2
+    private static int log2(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n);
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the index of the range minimum specified by a and b (inclusive).
+     *
+     * @param a the start of the range (inclusive)
+     * @param b the end of the range (inclusive)
+     * @return the index of the range minimum specified by a, b
+     * @throws IllegalArgumentException if indices are out of range or in
+     *         wrong order
+     */
+    public int minIdx(int a, int b) {
+        validate(a, b);
+        return query(a, b, false);
+    }
+
+    /**
+     * Returns the index of the range maximum specified by a and b (inclusive).
+     *
+     * @param a the start of the range (inclusive)
+     * @param b the end of the range (inclusive)
+     * @return the index of the range maximum specified by a, b
+     * @throws IllegalArgumentException if indices are out of range or in
+     *         wrong order
+     */
+    public int maxIdx(int a, int b) {
+        validate(a, b);
+        return query(a, b, true);
+    }
+
+    /**
+     * Returns the indices of the range minimum and of the range maximum
+     * specified by a and b (inclusive), in an array of two entries.
+     *
+     * @param a the start of the range (inclusive)
+     * @param b the end of the range (inclusive)
+     * @return the indices of the range minimum and maximum, in this order
+     * @throws IllegalArgumentException if indices are out of range or in
+     *         wrong order
+     */
+    public int[] minMaxIdx(int a, int b) {
+        validate(a, b);
+        return new int[] { query(a, b, false), query(a, b, true) };
+    }
+
+    private void validate(int a, int b) {
+        if (a < 0 || b >= n || b < a)
+            throw new IllegalArgumentException("invalid index/indices");
+    }
+
+    // Combines the partial blocks at both ends with the whole blocks between
+    private int query(int a, int b, boolean max) {
+        int[] mask = max ? maxMask : minMask;
+        if (b - a < W) return inBlock(mask, a, b);
+
+        int startBlock = a / W;
+        int endBlock = b / W;
+        int idx = inBlock(mask, a, startBlock * W + W - 1);
+        if (endBlock - startBlock > 1) {
+            int[][] table = max ? maxTable : minTable;
+            int lo = startBlock + 1;
+            int hi = endBlock - 1;
+            int k = log2(hi - lo + 1);
+            int mid = better(table[k][lo], table[k][hi - (1 << k) + 1], max);
+            idx = better(idx, mid, max);
+        }
+        return better(idx, inBlock(mask, endBlock * W, b), max);
+    }
+
+
+    /**************************************************************************
+     * Benchmark
+     *************************************************************************/
+
+    /**
+     * Compares the build time and the time per min and max query pair of
+     * two RangeMinimumQuery structures (over the array and its negation)
+     * and of one RangeMinMaxQuery, over 2^22 random ints.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(0);
+        int[] a = new int[1 << 22];
+        int[] negated = new int[a.length];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = random.nextInt(1 << 30);
+            negated[i] = -a[i];
+        }
+        int[] lo = new int[1 << 20];
+        int[] hi = new int[lo.length];
+        for (int i = 0; i < lo.length; i++) {
+            int x = random.nextInt(a.length);
+            int y = random.nextInt(a.length);
+            lo[i] = Math.min(x, y);
+            hi[i] = Math.max(x, y);
+        }
+
+        long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int rep = 0; rep < 6; rep++) {
+            long t0 = System.nanoTime();
+            RangeMinimumQuery rmqMin = new RangeMinimumQuery(a);
+            RangeMinimumQuery rmqMax = new RangeMinimumQuery(negated);
+            long t1 = System.nanoTime();
+            RangeMinMaxQuery rmmq = new RangeMinMaxQuery(a);
+            long t2 = System.nanoTime();
+            long sum = 0;
+            for (int i = 0; i < lo.length; i++)
+                sum += rmqMin.minIdx(lo[i], hi[i]) + rmqMax.minIdx(lo[i], hi[i]);
+            long t3 = System.nanoTime();
+            for (int i = 0; i < lo.length; i++)
+                sum += rmmq.minIdx(lo[i], hi[i]) + rmmq.maxIdx(lo[i], hi[i]);
+            long t4 = System.nanoTime();
+            sink += sum;
+
+            // the first three rounds warm up the JIT
+            if (rep < 3) continue;
+            best[0] = Math.min(best[0], t1 - t0);
+            best[1] = Math.min(best[1], t2 - t1);
+            best[2] = Math.min(best[2], t3 - t2);
+            best[3] = Math.min(best[3], t4 - t3);
+        }
+        System.out.printf("n = %d%n", a.length);
+        System.out.printf("2 x RangeMinimumQuery: build %.0f ms, %.1f ns per min + max%n",
+                          best[0] / 1e6, (double) best[2] / lo.length);
+        System.out.printf("RangeMinMaxQuery:      build %.0f ms, %.1f ns per min + max%n",
+                          best[1] / 1e6, (double) best[3] / lo.length);
+    }
+
+    // results of the queries are accumulated so that the JIT can't discard them
+    private static long sink;
+}
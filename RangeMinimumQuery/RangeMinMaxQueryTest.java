@@ -0,0 +1,95 @@
+import junit.framework.TestCase;
+import java.util.Comparator;
+import java.util.Random;
+
+public class RangeMinMaxQueryTest extends TestCase {
+    
+    private Random random = new Random(13);
+    
+    public void testInts() {
+        // within a block, a few blocks, and many blocks; with many duplicates
+        for (int len : new int[] {1, 2, 31, 32, 33, 95, 700}) {
+            for (int range : new int[] {3, 1 << 30}) {
+                int[] nums = new int[len];
+                for (int i = 0; i < len; i++) nums[i] = random.nextInt(range);
+                RangeMinMaxQuery rmq = new RangeMinMaxQuery(nums);
+                assertEquals(rmq.size(), len);
+                for (int i = 0; i < len; i++) {
+                    int min = i;
+                    int max = i;
+                    for (int j = i; j < len; j++) {
+                        if (nums[j] < nums[min]) min = j;
+                        if (nums[j] > nums[max]) max = j;
+                        assertEquals(rmq.minIdx(i, j), min);
+                        assertEquals(rmq.maxIdx(i, j), max);
+                        int[] both = rmq.minMaxIdx(i, j);
+                        assertEquals(both[0], min);
+                        assertEquals(both[1], max);
+                    }
+                }
+            }
+        }
+    }
+    
+    public void testSortedArrays() {
+        int[] nums = new int[300];
+        for (int i = 0; i < nums.length; i++) nums[i] = i / 3;
+        RangeMinMaxQuery rmq = new RangeMinMaxQuery(nums);
+        for (int i = 0; i < nums.length; i += 7) {
+            for (int j = i; j < nums.length; j += 5) {
+                assertEquals(rmq.minIdx(i, j), i);
+                assertEquals(rmq.maxIdx(i, j), Math.max(i, j - j % 3));
+            }
+        }
+    }
+    
+    public void testOtherTypes() {
+        int len = 200;
+        long[] longs = new long[len];
+        double[] doubles = new double[len];
+        String[] keys = new String[len];
+        for (int i = 0; i < len; i++) {
+            longs[i] = random.nextInt(40) * 10000000000L;
+            doubles[i] = longs[i] / 1e10 - 20;
+            keys[i] = Long.toString(longs[i]);
+        }
+        doubles[5] = -0.0;
+        doubles[6] = 0.0;
+        doubles[70] = Double.NaN;
+        RangeMinMaxQuery rmqLong = new RangeMinMaxQuery(longs);
+        RangeMinMaxQuery rmqDouble = new RangeMinMaxQuery(doubles);
+        RangeMinMaxQuery rmqKey = new RangeMinMaxQuery(keys);
+        RangeMinMaxQuery rmqReverse = new RangeMinMaxQuery(keys, Comparator.reverseOrder());
+        for (int i = 0; i < len; i++) {
+            int minL = i, maxL = i, minD = i, maxD = i, minK = i, maxK = i;
+            for (int j = i; j < len; j++) {
+                if (longs[j] < longs[minL]) minL = j;
+                if (longs[j] > longs[maxL]) maxL = j;
+                if (Double.compare(doubles[j], doubles[minD]) < 0) minD = j;
+                if (Double.compare(doubles[j], doubles[maxD]) > 0) maxD = j;
+                if (keys[j].compareTo(keys[minK]) < 0) minK = j;
+                if (keys[j].compareTo(keys[maxK]) > 0) maxK = j;
+                assertEquals(rmqLong.minIdx(i, j), minL);
+                assertEquals(rmqLong.maxIdx(i, j), maxL);
+                assertEquals(rmqDouble.minIdx(i, j), minD);
+                assertEquals(rmqDouble.maxIdx(i, j), maxD);
+                assertEquals(rmqKey.minIdx(i, j), minK);
+                assertEquals(rmqReverse.minIdx(i, j), maxK);
+            }
+        }
+    }
+    
+    public void testInvalidRanges() {
+        RangeMinMaxQuery rmq = new RangeMinMaxQuery(new int[] {3, 1, 2});
+        int[][] ranges = {{-1, 1}, {0, 3}, {2, 1}};
+        for (int[] r : ranges) {
+            try {
+                rmq.minMaxIdx(r[0], r[1]);
+                fail();
+            }
+            catch (IllegalArgumentException e) { }
+        }
+        RangeMinMaxQuery empty = new RangeMinMaxQuery(new int[0]);
+        assertEquals(empty.size(), 0);
+    }
+}
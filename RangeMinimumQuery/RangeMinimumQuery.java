@@ -12,7 +12,9 @@
 import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.In;
 
-import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * The RangeMinimumQuery class represents a data structure that supports
@@ -28,21 +30,47 @@ import java.util.Arrays;
  * table and a lookup table in O(n) time and space.
  * The tables support constant time queries of the range minimum.
  * 
+ * Both tables are stored in flat arrays of the narrowest type that fits
+ * their entries: the lookup table as one byte per in-block offset, and the
+ * sparse table as the offset of the minimum block from the start of each
+ * range, in bytes for ranges of up to 2^8 blocks, in chars up to 2^16 and
+ * in ints above. On large arrays this takes less than half the memory of
+ * an int per entry (in arrays of arrays), and a query reads a few entries of
+ * a few flat arrays; memoryFootprintBytes() reports the total.
+ * 
+ * The array can hold ints, longs, doubles (ordered by Double.compare()) or
+ * objects (ordered naturally or by a comparator). Only the construction of
+ * the Cartesian tree compares keys, and it compares primitives as such,
+ * so nothing is boxed; the array is not kept. If the range holds several
+ * minimums, the index of the leftmost one is returned.
+ * 
+ * Batches of queries, minIdx(lo, hi, out), are validated once and answered
+ * on the threads of a fork/join pool, like the searches of ParallelSearcher.
+ * 
  * @author Nate Liu
  */
 public class RangeMinimumQuery {
     
-    private final int[] nums;
+    private static final int MIN_CHUNK = 1 << 13;  // queries per task
+    private static final int TASKS_PER_THREAD = 4;
+    private static final int REORDER_LENGTH = 1 << 14;  // mean range length
+    
+    private final int n;
     private final int[] numsToTour;
     private final int[] tourToNums;
     private final int[] tour;
     
-    private int[] blockMinVal;
     private int[] blockMinIdx;
-    private int[] blockToLT;
+    private char[] blockToLT;
+    
+    // sparse table, by level: entry (j, i) is in stBytes for j <= 8, in
+    // stChars for j <= 16, and in stInts above, at stStart[j] + i
+    private byte[] stBytes;
+    private char[] stChars;
+    private int[] stInts;
+    private int[] stStart;
     
-    private int[][] ST;      // sparse table
-    private int[][][] LT;    // lookup table
+    private byte[] LT;       // lookup table, (sequence, j, k) at (sequence * BLOCK_SIZE + j) * BLOCK_SIZE + k
     private int BLOCK_SIZE;
     
     /**
@@ -52,12 +80,53 @@ public class RangeMinimumQuery {
      * @param A the array to perform Range minimum queries on
      */
     public RangeMinimumQuery(int[] A) {
-        nums = Arrays.copyOf(A, A.length);
-        
-        CartesianTree cTree = new CartesianTree(nums);
+        this(new CartesianTree(A));
+    }
+    
+    /**
+     * Builds the structure over an array of longs.
+     * 
+     * @param A the array to perform Range minimum queries on
+     */
+    public RangeMinimumQuery(long[] A) {
+        this(new CartesianTree(A));
+    }
+    
+    /**
+     * Builds the structure over an array of doubles, ordered by
+     * Double.compare().
+     * 
+     * @param A the array to perform Range minimum queries on
+     */
+    public RangeMinimumQuery(double[] A) {
+        this(new CartesianTree(A));
+    }
+    
+    /**
+     * Builds the structure over an array of objects in their natural order.
+     * 
+     * @param A the array to perform Range minimum queries on
+     */
+    public <Key extends Comparable<Key>> RangeMinimumQuery(Key[] A) {
+        this(new CartesianTree(A));
+    }
+    
+    /**
+     * Builds the structure over an array of objects in the order specified
+     * by the comparator.
+     * 
+     * @param A the array to perform Range minimum queries on
+     * @param comp the comparator which specifies the order of objects
+     */
+    public <Key> RangeMinimumQuery(Key[] A, Comparator<? super Key> comp) {
+        this(new CartesianTree(A, comp));
+    }
+    
+    private RangeMinimumQuery(CartesianTree cTree) {
         numsToTour = cTree.numsToTourIndexMapping();
         tourToNums = cTree.tourToNumsIndexMapping();
         tour = cTree.tourArray();
+        n = numsToTour.length;
         
         storeMinOfBlocks();
         buildSparseTable();
@@ -72,7 +141,6 @@ public class RangeMinimumQuery {
         BLOCK_SIZE = log2(tour.length) / 2;
         if (BLOCK_SIZE < 1) BLOCK_SIZE = 1;
         int len = tour.length / BLOCK_SIZE;
-        blockMinVal = new int[len];
         blockMinIdx = new int[len];
         
         for (int k = 0, j = 0; j < len; k += BLOCK_SIZE, j++) {
@@ -84,21 +152,24 @@ public class RangeMinimumQuery {
                     minIdx = i;
                 }
             }
-            blockMinVal[j] = min;
             blockMinIdx[j] = minIdx;
         }
     }
     
     /**
      * Uses dynamic programming to build sparse table
-     * ST[i][j] stores the index of the range minimum that starts at i and 
-     * has range 2^(j)
-     * Ex: ST[3][5] stores index of range minimum that starts at 3 and ends
-     * at 3 + 2^5 = 35
+     * Entry (i, j) stores the offset from block i of the block holding the
+     * range minimum of the 2^j blocks that start at i
+     * Ex: entry (3, 5) = 7 means the minimum of blocks 3 to 3 + 2^5 - 1 = 34
+     * is in block 3 + 7 = 10
      * 
      * Recurrence is the argmin of the new range is the argmin of the two
      * smaller ranges (that are half the new range's size)
-     * ST[i][j] = argmin(ST[i][j - 1], ST[i + 2^(j - 1)][j - 1])
+     * ST(i, j) = argmin(ST(i, j - 1), ST(i + 2^(j - 1), j - 1))
+     * 
+     * Level 0 is not stored (its offsets are all 0), and the offsets of
+     * level j are less than 2^j, so they fit in a byte up to level 8 and in
+     * a char up to level 16
      * 
      * Sparse table has dimensions:
      * (# of blocks) * log(# of blocks)
@@ -107,24 +178,56 @@ public class RangeMinimumQuery {
      * = O(n)
      */
     private void buildSparseTable() {
-        int maxLen = log2(blockMinIdx.length);
-        ST = new int[blockMinIdx.length][maxLen + 1];
-        
-        // initialize mins of intervals with length of 1
-        for (int i = 0; i < ST.length; i++) 
-            ST[i][0] = i;
+        int blocks = blockMinIdx.length;
+        int levels = blocks == 0 ? 0 : log2(blocks) + 1;
+        stStart = new int[levels];
+        int bytes = 0, chars = 0, ints = 0;
+        for (int j = 1; j < levels; j++) {
+            int len = blocks - (1 << j) + 1;
+            if (j <= 8) {
+                stStart[j] = bytes;
+                bytes += len;
+            }
+            else if (j <= 16) {
+                stStart[j] = chars;
+                chars += len;
+            }
+            else {
+                stStart[j] = ints;
+                ints += len;
+            }
+        }
+        stBytes = new byte[bytes];
+        stChars = new char[chars];
+        stInts = new int[ints];
         
-        for (int j = 1, k = 2; j < ST[0].length; j++, k <<= 1) {
-            for (int i = 0; i + k <= ST.length; i++) {
+        for (int j = 1, k = 2; j < levels; j++, k <<= 1) {
+            for (int i = 0; i + k <= blocks; i++) {
                 int m = i + (k >> 1);
-                if (blockMinVal[ST[i][j - 1]] <= blockMinVal[ST[m][j - 1]])
-                    ST[i][j] = ST[i][j - 1];
+                int left = i + sparseTable(i, j - 1);
+                int right = m + sparseTable(m, j - 1);
+                if (tour[blockMinIdx[left]] <= tour[blockMinIdx[right]])
+                    setSparseTable(i, j, left - i);
                 else
-                    ST[i][j] = ST[m][j - 1];
+                    setSparseTable(i, j, right - i);
             }
         }
     }
     
+    // Returns the offset of the minimum block of the 2^j blocks from block i
+    private int sparseTable(int i, int j) {
+        if (j == 0) return 0;
+        else if (j <= 8) return stBytes[stStart[j] + i] & 0xff;
+        else if (j <= 16) return stChars[stStart[j] + i];
+        else return stInts[stStart[j] + i];
+    }
+    
+    private void setSparseTable(int i, int j, int offset) {
+        if (j <= 8) stBytes[stStart[j] + i] = (byte) offset;
+        else if (j <= 16) stChars[stStart[j] + i] = (char) offset;
+        else stInts[stStart[j] + i] = offset;
+    }
+    
     /**
      * Builds lookup table
      * While the sparse table stores the argmin for each entire block, the 
@@ -151,7 +254,7 @@ public class RangeMinimumQuery {
         
         // len is equivalent to sqrt(n) or 2 ^ (1 / 2 * log(n))
         int len = 1 << (BLOCK_SIZE - 1);
-        LT = new int[len + 1][BLOCK_SIZE][BLOCK_SIZE];
+        LT = new byte[(len + 1) * BLOCK_SIZE * BLOCK_SIZE];
         
         // Sequence represented as the binary form of an integer, starting 
         // from the LSB
@@ -165,11 +268,11 @@ public class RangeMinimumQuery {
             for (int j = 0; j < BLOCK_SIZE; j++) {
                 for (int k = j; k < BLOCK_SIZE; k++) {
                     if (j == k)
-                        LT[i][j][k] = j;
-                    else if (height[k] < height[LT[i][j][k - 1]]) 
-                        LT[i][j][k] = k;
+                        LT[lookup(i, j, k)] = (byte) j;
+                    else if (height[k] < height[LT[lookup(i, j, k - 1)]]) 
+                        LT[lookup(i, j, k)] = (byte) k;
                     else
-                        LT[i][j][k] = LT[i][j][k - 1];
+                        LT[lookup(i, j, k)] = LT[lookup(i, j, k - 1)];
                 }
             }
         }
@@ -181,21 +284,27 @@ public class RangeMinimumQuery {
             for (int j = 0; j + start < tour.length; j++) {
                 for (int k = j; k + start < tour.length; k++) {
                     if (j == k)
-                        LT[last][j][k] = j;
-                    else if (tour[k + start] < tour[LT[last][j][k - 1] + start])
-                        LT[last][j][k] = k;
+                        LT[lookup(last, j, k)] = (byte) j;
+                    else if (tour[k + start] < tour[LT[lookup(last, j, k - 1)] + start])
+                        LT[lookup(last, j, k)] = (byte) k;
                     else
-                        LT[last][j][k] = LT[last][j][k - 1];
+                        LT[lookup(last, j, k)] = LT[lookup(last, j, k - 1)];
                 }
             }
         }
     }
     
+    // Returns the position in LT of the argmin of positions j to k of a
+    // block with the specified sequence
+    private int lookup(int sequence, int j, int k) {
+        return (sequence * BLOCK_SIZE + j) * BLOCK_SIZE + k;
+    }
+    
     // Generates the key to the lookup table for each block
     private void generateBlockKeys() {
         if (BLOCK_SIZE == 1) return;
         
-        blockToLT = new int[blockMinIdx.length + 1];
+        blockToLT = new char[blockMinIdx.length + 1];
         for (int i = 0, k = 0; k < blockToLT.length - 1; i += BLOCK_SIZE, k++) {
             int key = 0;
             for (int j = i + 1; j < i + BLOCK_SIZE; j++) {
@@ -203,10 +312,10 @@ public class RangeMinimumQuery {
                 if (tour[j] > tour[j - 1]) 
                     key += (1 << (j - i - 1));
             }
-            blockToLT[k] = key;
+            blockToLT[k] = (char) key;
         }
         // key for last (incomplete) block
-        blockToLT[blockToLT.length - 1] = LT.length - 1;
+        blockToLT[blockToLT.length - 1] = (char) (1 << (BLOCK_SIZE - 1));
     }
     
     // Generates an array with values based on the integer's binary sequence
@@ -228,6 +337,20 @@ public class RangeMinimumQuery {
         return 31 - Integer.numberOfLeadingZeros(n);
     }
     
+    /**
+     * Returns the number of bytes used by the arrays of the structure: the
+     * Eulerian tour and its index mappings, and the tables.
+     * 
+     * @return the number of bytes used by the arrays of the structure
+     */
+    public long memoryFootprintBytes() {
+        long bytes = 4L * (numsToTour.length + tourToNums.length + tour.length);
+        bytes += 4L * blockMinIdx.length + 4L * stStart.length;
+        bytes += stBytes.length + 2L * stChars.length + 4L * stInts.length;
+        if (LT != null) bytes += LT.length + 2L * blockToLT.length;
+        return bytes;
+    }
+    
     /**
      * Returns the index of the range minimum specified by a and b (inclusive).
      * a <= index of min value <= b.
@@ -239,8 +362,121 @@ public class RangeMinimumQuery {
      *         wrong order
      */
     public int minIdx(int a, int b) {
-        if (a < 0 || b >= nums.length || b < a) 
+        if (a < 0 || b >= n || b < a) 
             throw new IllegalArgumentException("invalid index/indices");
+        return query(a, b);
+    }
+    
+    /**
+     * Stores the index of the range minimum specified by lo[i] and hi[i]
+     * (inclusive) in out[i], for every query i, on the common fork/join pool.
+     * 
+     * @param lo the starts of the ranges (inclusive)
+     * @param hi the ends of the ranges (inclusive)
+     * @param out the array to store the indices of the range minimums in
+     * @throws IllegalArgumentException if lo and hi have different lengths,
+     *         if out is shorter than them, or if any range is invalid (in
+     *         which case out is left unchanged)
+     */
+    public void minIdx(int[] lo, int[] hi, int[] out) {
+        minIdx(lo, hi, out, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Stores the index of the range minimum specified by lo[i] and hi[i]
+     * (inclusive) in out[i], for every query i, on the specified fork/join
+     * pool.
+     * 
+     * The whole batch is validated before any query is answered. It is then
+     * split into chunks of about m / (4 * threads) queries, but no fewer
+     * than 8192, and batches smaller than one chunk are answered on the
+     * calling thread. If the ranges are short (2^14 keys or fewer on
+     * average), the queries of a chunk are answered in the order of the
+     * position of their start in the Eulerian tour, found by a counting sort,
+     * so that queries close in the array read the same parts of the tables
+     * one after the other instead of in random order. Long ranges read
+     * distant parts of the tables anyway, so they are answered as given.
+     * 
+     * @param lo the starts of the ranges (inclusive)
+     * @param hi the ends of the ranges (inclusive)
+     * @param out the array to store the indices of the range minimums in
+     * @param pool the pool to answer the queries on
+     * @throws IllegalArgumentException if lo and hi have different lengths,
+     *         if out is shorter than them, if any range is invalid (in which
+     *         case out is left unchanged), or if pool is null
+     */
+    public void minIdx(int[] lo, int[] hi, int[] out, ForkJoinPool pool) {
+        if (pool == null) throw new IllegalArgumentException("pool is null");
+        if (lo.length != hi.length)
+            throw new IllegalArgumentException("lo and hi have different lengths");
+        int m = lo.length;
+        if (out.length < m)
+            throw new IllegalArgumentException("output array too short");
+        long length = 0;
+        for (int i = 0; i < m; i++) {
+            if (lo[i] < 0 || hi[i] >= n || hi[i] < lo[i])
+                throw new IllegalArgumentException("invalid index/indices");
+            length += hi[i] - lo[i];
+        }
+        boolean reorder = length <= (long) m * REORDER_LENGTH;
+        
+        int size = Math.max(MIN_CHUNK, m / (TASKS_PER_THREAD * pool.getParallelism()));
+        if (m <= size) queries(lo, hi, out, 0, m, reorder);
+        else pool.invoke(new Task(this, lo, hi, out, 0, m, size, reorder));
+    }
+    
+    private static class Task extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final RangeMinimumQuery rmq;
+        private final int[] lo, hi, out;
+        private final int from, to, size;
+        private final boolean reorder;
+        
+        Task(RangeMinimumQuery rmq, int[] lo, int[] hi, int[] out,
+             int from, int to, int size, boolean reorder) {
+            this.rmq = rmq;
+            this.lo = lo;
+            this.hi = hi;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+            this.size = size;
+            this.reorder = reorder;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= size) {
+                rmq.queries(lo, hi, out, from, to, reorder);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Task(rmq, lo, hi, out, from, mid, size, reorder),
+                      new Task(rmq, lo, hi, out, mid, to, size, reorder));
+        }
+    }
+    
+    // Answers the valid queries from .. to - 1 of a batch, in the order of
+    // the position of their start in the tour if reorder is set
+    private void queries(int[] lo, int[] hi, int[] out, int from, int to, boolean reorder) {
+        if (!reorder) {
+            for (int i = from; i < to; i++) out[i] = query(lo[i], hi[i]);
+            return;
+        }
+        
+        // counting sort by position in the tour, to within 1/4096 of it
+        int shift = Math.max(0, log2(tour.length) - 12);
+        int[] start = new int[(tour.length >>> shift) + 2];
+        for (int i = from; i < to; i++) start[(numsToTour[lo[i]] >>> shift) + 1]++;
+        for (int b = 1; b < start.length; b++) start[b] += start[b - 1];
+        int[] order = new int[to - from];
+        for (int i = from; i < to; i++) order[start[numsToTour[lo[i]] >>> shift]++] = i;
+        for (int i : order) out[i] = query(lo[i], hi[i]);
+    }
+    
+    // Returns the index of the range minimum of a valid range
+    private int query(int a, int b) {
         if (a == b) return a;
         
         int start = Math.min(numsToTour[a], numsToTour[b]);
@@ -254,7 +490,7 @@ public class RangeMinimumQuery {
         if (endBlock == startBlock) {
             int j = start % BLOCK_SIZE;
             int k = end % BLOCK_SIZE;
-            int idx = LT[blockToLT[endBlock]][j][k] + endBlock * BLOCK_SIZE;
+            int idx = LT[lookup(blockToLT[endBlock], j, k)] + endBlock * BLOCK_SIZE;
             return tourToNums[idx];
         }
         
@@ -299,9 +535,9 @@ public class RangeMinimumQuery {
             if (startST != endST) range = log2(endST - startST);
             
             int start1 = startST;
-            int idx1 = blockMinIdx[ST[start1][range]];
+            int idx1 = blockMinIdx[start1 + sparseTable(start1, range)];
             int start2 = endST - ((1 << range) - 1);
-            int idx2 = blockMinIdx[ST[start2][range]];
+            int idx2 = blockMinIdx[start2 + sparseTable(start2, range)];
             
             if (tour[idx1] > tour[idx2]) minIdx = idx2;
             else minIdx = idx1;
@@ -315,7 +551,7 @@ public class RangeMinimumQuery {
         if (start % BLOCK_SIZE != 0) {
             int j = start % BLOCK_SIZE;
             int k = BLOCK_SIZE - 1;
-            leftIdx = LT[blockToLT[startBlock]][j][k] + startBlock * BLOCK_SIZE;
+            leftIdx = LT[lookup(blockToLT[startBlock], j, k)] + startBlock * BLOCK_SIZE;
         }
         return leftIdx;
     }
@@ -326,7 +562,7 @@ public class RangeMinimumQuery {
         if (end % BLOCK_SIZE != BLOCK_SIZE - 1) {
             int j = 0;
             int k = end % BLOCK_SIZE;
-            rightIdx = LT[blockToLT[endBlock]][j][k] + endBlock * BLOCK_SIZE;
+            rightIdx = LT[lookup(blockToLT[endBlock], j, k)] + endBlock * BLOCK_SIZE;
         }
         return rightIdx;
     }
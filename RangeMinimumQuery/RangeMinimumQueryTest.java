@@ -1,6 +1,8 @@
 import junit.framework.TestCase;
 import java.util.Random;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
 
 public class RangeMinimumQueryTest extends TestCase {
     
@@ -153,6 +155,122 @@ public class RangeMinimumQueryTest extends TestCase {
         }
     }
     
+    public void testLeftmostMinimum() {
+        Random rnd = new Random(3);
+        for (int len : new int[] {1, 2, 9, 300}) {
+            // few distinct values, so most ranges have several minimums
+            int[] nums = new int[len];
+            for (int i = 0; i < len; i++) nums[i] = rnd.nextInt(4);
+            RangeMinimumQuery rmq = new RangeMinimumQuery(nums);
+            for (int i = 0; i < len; i++)
+                for (int j = i; j < len; j++)
+                    assertEquals(rmq.minIdx(i, j), minIdx(nums, i, j));
+        }
+    }
+    
+    public void testLongs() {
+        Random rnd = new Random(5);
+        long[] nums = new long[700];
+        for (int i = 0; i < nums.length; i++) 
+            nums[i] = rnd.nextInt(50) * 10000000000L + rnd.nextInt(3);
+        nums[17] = Long.MIN_VALUE;
+        nums[699] = Long.MAX_VALUE;
+        RangeMinimumQuery rmq = new RangeMinimumQuery(nums);
+        for (int i = 0; i < nums.length; i++) {
+            int min = i;
+            for (int j = i; j < nums.length; j++) {
+                if (nums[j] < nums[min]) min = j;
+                assertEquals(rmq.minIdx(i, j), min);
+            }
+        }
+    }
+    
+    public void testDoubles() {
+        Random rnd = new Random(7);
+        double[] nums = new double[500];
+        for (int i = 0; i < nums.length; i++) nums[i] = rnd.nextInt(100) / 8.0 - 6;
+        nums[3] = Double.NaN;
+        nums[40] = -0.0;
+        nums[41] = 0.0;
+        nums[42] = -0.0;
+        nums[100] = Double.NEGATIVE_INFINITY;
+        RangeMinimumQuery rmq = new RangeMinimumQuery(nums);
+        for (int i = 0; i < nums.length; i++) {
+            int min = i;
+            for (int j = i; j < nums.length; j++) {
+                if (Double.compare(nums[j], nums[min]) < 0) min = j;
+                assertEquals(rmq.minIdx(i, j), min);
+            }
+        }
+    }
+    
+    public void testKeys() {
+        Random rnd = new Random(9);
+        String[] keys = new String[400];
+        for (int i = 0; i < keys.length; i++) keys[i] = Integer.toString(rnd.nextInt(1000), 36);
+        RangeMinimumQuery rmq = new RangeMinimumQuery(keys);
+        RangeMinimumQuery rmqMax = new RangeMinimumQuery(keys, Comparator.reverseOrder());
+        for (int i = 0; i < keys.length; i++) {
+            int min = i;
+            int max = i;
+            for (int j = i; j < keys.length; j++) {
+                if (keys[j].compareTo(keys[min]) < 0) min = j;
+                if (keys[j].compareTo(keys[max]) > 0) max = j;
+                assertEquals(rmq.minIdx(i, j), min);
+                assertEquals(rmqMax.minIdx(i, j), max);
+            }
+        }
+    }
+    
+    public void testBatch() {
+        Random rnd = new Random(11);
+        int[] nums = new int[100000];
+        for (int i = 0; i < nums.length; i++) nums[i] = rnd.nextInt(5000);
+        RangeMinimumQuery rmq = new RangeMinimumQuery(nums);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        // short ranges are reordered, long ones are not; both batches are
+        // large enough to be split into tasks
+        for (int maxLen : new int[] {50, nums.length}) {
+            int m = 40000;
+            int[] lo = new int[m];
+            int[] hi = new int[m];
+            for (int i = 0; i < m; i++) {
+                lo[i] = rnd.nextInt(nums.length);
+                hi[i] = Math.min(nums.length - 1, lo[i] + rnd.nextInt(maxLen));
+            }
+            int[] out = new int[m + 1];
+            rmq.minIdx(lo, hi, out, pool);
+            for (int i = 0; i < m; i++) assertEquals(out[i], rmq.minIdx(lo[i], hi[i]));
+            int[] common = new int[m];
+            rmq.minIdx(lo, hi, common);
+            assertTrue(Arrays.equals(common, Arrays.copyOf(out, m)));
+        }
+        pool.shutdown();
+    }
+    
+    public void testBatchBadArguments() {
+        RangeMinimumQuery rmq = new RangeMinimumQuery(new int[] {3, 1, 2});
+        int[] out = {-1, -1, -1};
+        try {
+            rmq.minIdx(new int[] {0, 1, 2}, new int[] {2, 1, 1}, out);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        // nothing is answered if any query is invalid
+        assertTrue(Arrays.equals(out, new int[] {-1, -1, -1}));
+        try {
+            rmq.minIdx(new int[] {0, 1}, new int[] {2}, out);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        try {
+            rmq.minIdx(new int[] {0, 1}, new int[] {2, 2}, new int[1]);
+            fail();
+        }
+        catch (IllegalArgumentException e) { }
+        rmq.minIdx(new int[0], new int[0], new int[0]);
+    }
+    
     
     // the way this is executed unfortunately makes the test for
     // the entire RMQ to O(n^3) in terms of timing
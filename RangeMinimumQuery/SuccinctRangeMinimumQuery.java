@@ -0,0 +1,540 @@
+/******************************************************************************
+ * Compilation:  javac SuccinctRangeMinimumQuery.java
+ * Execution:    java SuccinctRangeMinimumQuery
+ * Dependencies: RangeMinimumQuery.java
+ *
+ * A range minimum query structure of 2n + o(n) bits that does not keep the
+ * array, based on the balanced parentheses of a tree over the array.
+ * The main method compares its size and speed with RangeMinimumQuery.
+ *
+ ******************************************************************************/
+
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * The SuccinctRangeMinimumQuery class represents a data structure that
+ * supports queries for the index of the range minimum, like
+ * RangeMinimumQuery, in about 3.4 bits per key instead of 27 bytes, and
+ * without the array, which can be discarded once the structure is built.
+ *
+ * The keys are arranged in a tree (the one of Fischer and Heun's 2d-Min-heap,
+ * mirrored): the parent of key i is the next key to its right that is
+ * strictly smaller, or a virtual root. Listing the nodes in postorder lists
+ * the keys in the order of the array. The tree is stored as its balanced
+ * parentheses, 2n + 2 bits: an open parenthesis when a node is entered, a
+ * close parenthesis when it is left, so key i is the (i + 1)th close.
+ * The excess at a position is the number of opens minus the number of
+ * closes up to it, which is the depth of the node closed there. The minimum
+ * of keys i to j is the highest ancestor of i that is not after j, and its
+ * close is the leftmost position of minimum excess between the closes of i
+ * and j (Ferrada and Navarro). A query therefore takes one select (the
+ * position of a close), one range minimum query on the excess and one rank
+ * (the number of closes before a position).
+ *
+ * The parentheses are split into words of 64 bits and superblocks of 8
+ * words, for which the structure stores the minimum excess within each word
+ * (a byte), the excess before each superblock and its minimum (two ints),
+ * a sparse table over the superblocks stored like the one of
+ * RangeMinimumQuery, and the position of every 256th close (plus all the
+ * closes of the groups of 256 that span more than 2^16 bits). A query reads
+ * a bounded number of words, so it takes constant time; preprocessing takes
+ * O(n) time and, temporarily, two ints per key.
+ *
+ * The array can hold ints, longs, doubles (ordered by Double.compare()) or
+ * objects (ordered naturally or by a comparator). If the range holds
+ * several minimums, the index of the leftmost one is returned, like
+ * RangeMinimumQuery.
+ *
+ * @author Nate Liu
+ */
+public class SuccinctRangeMinimumQuery {
+
+    private static final int SUPER_SHIFT = 9;          // 512 bits per superblock
+    private static final int WORDS_PER_SUPER = 8;
+    private static final int GROUP = 256;               // closes per select sample
+    private static final long SPARSE_SPAN = 1L << 16;   // span of a sparse group
+
+    // for each byte, read from its lowest bit: the minimum excess of its
+    // prefixes, the position of the first prefix that reaches it, and the
+    // excess of the whole byte
+    private static final byte[] BYTE_MIN = new byte[256];
+    private static final byte[] BYTE_MIN_POS = new byte[256];
+    private static final byte[] BYTE_EXCESS = new byte[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            int e = 0, min = Integer.MAX_VALUE, pos = 0;
+            for (int i = 0; i < 8; i++) {
+                e += ((b >>> i) & 1) == 1 ? 1 : -1;
+                if (e < min) {
+                    min = e;
+                    pos = i;
+                }
+            }
+            BYTE_MIN[b] = (byte) min;
+            BYTE_MIN_POS[b] = (byte) pos;
+            BYTE_EXCESS[b] = (byte) e;
+        }
+    }
+
+    private final int n;
+    private final long m;                // number of parentheses, 2n + 2
+    private final long[] bits;           // 1 for open, 0 for close
+    private final byte[] wordMin;        // minimum excess in word w, relative
+    private final int[] superExcess;     // excess before superblock s
+    private final int[] superMin;        // minimum excess in superblock s
+
+    // sparse table over the superblocks, stored as in RangeMinimumQuery
+    private final int[] stStart;
+    private final byte[] stBytes;
+    private final char[] stChars;
+    private final int[] stInts;
+
+    // position of close g * GROUP (as an unsigned int), and, for a group that
+    // spans SPARSE_SPAN bits or more, the start of its positions in sparse
+    private final int[] selectSample;
+    private final int[] groupSparse;
+    private final int[] sparse;
+
+    // Compares the keys at two indices of the array
+    private interface Order {
+        boolean greater(int i, int j);
+    }
+
+    /**
+     * Builds the structure over an array of ints.
+     *
+     * @param A the array to perform range minimum queries on
+     */
+    public SuccinctRangeMinimumQuery(int[] A) {
+        this(A.length, (i, j) -> A[i] > A[j]);
+    }
+
+    /**
+     * Builds the structure over an array of longs.
+     *
+     * @param A the array to perform range minimum queries on
+     */
+    public SuccinctRangeMinimumQuery(long[] A) {
+        this(A.length, (i, j) -> A[i] > A[j]);
+    }
+
+    /**
+     * Builds the structure over an array of doubles, ordered by
+     * Double.compare().
+     *
+     * @param A the array to perform range minimum queries on
+     */
+    public SuccinctRangeMinimumQuery(double[] A) {
+        this(A.length, (i, j) -> Double.compare(A[i], A[j]) > 0);
+    }
+
+    /**
+     * Builds the structure over an array of objects in their natural order.
+     *
+     * @param A the array to perform range minimum queries on
+     */
+    public <Key extends Comparable<Key>> SuccinctRangeMinimumQuery(Key[] A) {
+        this(A.length, (i, j) -> A[i].compareTo(A[j]) > 0);
+    }
+
+    /**
+     * Builds the structure over an array of objects in the order specified
+     * by the comparator.
+     *
+     * @param A the array to perform range minimum queries on
+     * @param comp the comparator which specifies the order of objects
+     */
+    public <Key> SuccinctRangeMinimumQuery(Key[] A, Comparator<? super Key> comp) {
+        this(A.length, (i, j) -> comp.compare(A[i], A[j]) > 0);
+    }
+
+    private SuccinctRangeMinimumQuery(int n, Order order) {
+        if (n == Integer.MAX_VALUE) throw new IllegalArgumentException("array too long");
+        this.n = n;
+        m = 2L * n + 2;
+        bits = buildParentheses(order);
+
+        int words = bits.length;
+        int supers = (int) ((m + (1 << SUPER_SHIFT) - 1) >>> SUPER_SHIFT);
+        wordMin = new byte[words];
+        superExcess = new int[supers];
+        superMin = new int[supers];
+        buildExcess();
+
+        int levels = log2(supers) + 1;
+        stStart = new int[levels];
+        int bytes = 0, chars = 0, ints = 0;
+        for (int j = 1; j < levels; j++) {
+            int len = supers - (1 << j) + 1;
+            if (j <= 8) {
+                stStart[j] = bytes;
+                bytes += len;
+            }
+            else if (j <= 16) {
+                stStart[j] = chars;
+                chars += len;
+            }
+            else {
+                stStart[j] = ints;
+                ints += len;
+            }
+        }
+        stBytes = new byte[bytes];
+        stChars = new char[chars];
+        stInts = new int[ints];
+        buildSparseTable(supers, levels);
+
+        int groups = (n + 1 + GROUP - 1) / GROUP;
+        selectSample = new int[groups];
+        groupSparse = new int[groups];
+        sparse = buildSelect(groups);
+    }
+
+    /**
+     * Writes the parentheses of the tree: the virtual root opens, and then
+     * for each key i, the nodes whose subtree starts at i open (from the
+     * highest to the lowest), and key i closes. The subtree of key y is
+     * made of the keys after the previous key that is less than or equal
+     * to y, up to y, so the number of nodes whose subtree starts at i is
+     * counted with a stack of the previous smaller or equal keys.
+     */
+    private long[] buildParentheses(Order order) {
+        int[] opens = new int[n + 1];
+        int[] stack = new int[n];
+        int size = 0;
+        for (int y = 0; y < n; y++) {
+            while (size > 0 && order.greater(stack[size - 1], y)) size--;
+            int start = size > 0 ? stack[size - 1] + 1 : 0;
+            opens[start]++;
+            stack[size++] = y;
+        }
+
+        long[] p = new long[(int) ((m + 63) >>> 6)];
+        long pos = 0;
+        p[0] |= 1L;
+        pos++;
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < opens[i]; k++, pos++)
+                p[(int) (pos >>> 6)] |= 1L << pos;
+            pos++;      // the close of key i
+        }
+        return p;
+    }
+
+    // Computes the minimum excess of every word and superblock, and the
+    // excess before every superblock
+    private void buildExcess() {
+        int e = 0;
+        for (int w = 0; w < bits.length; w++) {
+            if ((w & (WORDS_PER_SUPER - 1)) == 0) {
+                superExcess[w / WORDS_PER_SUPER] = e;
+                superMin[w / WORDS_PER_SUPER] = Integer.MAX_VALUE;
+            }
+            int valid = (int) Math.min(64, m - 64L * w);
+            int rel = 0, min = Integer.MAX_VALUE;
+            for (int i = 0; i < valid; i++) {
+                rel += ((bits[w] >>> i) & 1) == 1 ? 1 : -1;
+                min = Math.min(min, rel);
+            }
+            wordMin[w] = (byte) min;
+            int s = w / WORDS_PER_SUPER;
+            superMin[s] = Math.min(superMin[s], e + min);
+            e += rel;
+        }
+    }
+
+    private void buildSparseTable(int supers, int levels) {
+        for (int j = 1, k = 2; j < levels; j++, k <<= 1) {
+            for (int i = 0; i + k <= supers; i++) {
+                int h = i + (k >> 1);
+                int left = i + sparseTable(i, j - 1);
+                int right = h + sparseTable(h, j - 1);
+                if (superMin[left] <= superMin[right]) setSparseTable(i, j, left - i);
+                else setSparseTable(i, j, right - i);
+            }
+        }
+    }
+
+    // Returns the offset of the superblock of minimum excess of the 2^j
+    // superblocks from superblock i
+    private int sparseTable(int i, int j) {
+        if (j == 0) return 0;
+        else if (j <= 8) return stBytes[stStart[j] + i] & 0xff;
+        else if (j <= 16) return stChars[stStart[j] + i];
+        else return stInts[stStart[j] + i];
+    }
+
+    private void setSparseTable(int i, int j, int offset) {
+        if (j <= 8) stBytes[stStart[j] + i] = (byte) offset;
+        else if (j <= 16) stChars[stStart[j] + i] = (char) offset;
+        else stInts[stStart[j] + i] = offset;
+    }
+
+    // Samples the position of every GROUP-th close, and stores all the
+    // positions of the groups that span SPARSE_SPAN bits or more
+    private int[] buildSelect(int groups) {
+        long[] first = new long[groups + 1];
+        long closes = 0;
+        for (long pos = 0; pos < m; pos++) {
+            if (((bits[(int) (pos >>> 6)] >>> pos) & 1) == 0) {
+                if (closes % GROUP == 0) first[(int) (closes / GROUP)] = pos;
+                closes++;
+            }
+        }
+        first[groups] = m;
+
+        int count = 0;
+        for (int g = 0; g < groups; g++) {
+            selectSample[g] = (int) first[g];
+            if (first[g + 1] - first[g] >= SPARSE_SPAN) {
+                groupSparse[g] = count;
+                count += GROUP;
+            }
+            else groupSparse[g] = -1;
+        }
+        int[] positions = new int[count];
+        closes = 0;
+        for (long pos = 0; pos < m; pos++) {
+            if (((bits[(int) (pos >>> 6)] >>> pos) & 1) == 0) {
+                int g = (int) (closes / GROUP);
+                if (groupSparse[g] >= 0) positions[groupSparse[g] + (int) (closes % GROUP)] = (int) pos;
+                closes++;
+            }
+        }
+        return positions;
+    }
+
+    // Computes floor of log base 2
+    private static int log2(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n);
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the number of bytes used by the arrays of the structure.
+     *
+     * @return the number of bytes used by the arrays of the structure
+     */
+    public long memoryFootprintBytes() {
+        long bytes = 8L * bits.length + wordMin.length;
+        bytes += 4L * superExcess.length + 4L * superMin.length;
+        bytes += 4L * stStart.length + stBytes.length + 2L * stChars.length + 4L * stInts.length;
+        bytes += 4L * selectSample.length + 4L * groupSparse.length + 4L * sparse.length;
+        return bytes;
+    }
+
+    /**
+     * Returns the index of the range minimum specified by a and b (inclusive).
+     * a <= index of min value <= b.
+     *
+     * @param a the start of the range (inclusive)
+     * @param b the end of the range (inclusive)
+     * @return the index of the range minimum specified by a, b
+     * @throws IllegalArgumentException if indices are out of range or in
+     *         wrong order
+     */
+    public int minIdx(int a, int b) {
+        if (a < 0 || b >= n || b < a)
+            throw new IllegalArgumentException("invalid index/indices");
+        if (a == b) return a;
+        long pos = minExcess(select(a + 1), select(b + 1));
+        return (int) closesUpTo(pos) - 1;
+    }
+
+
+    /**************************************************************************
+     * Rank and select
+     *************************************************************************/
+
+    // Returns the excess after position pos
+    private int excess(long pos) {
+        int s = (int) (pos >>> SUPER_SHIFT);
+        int w = (int) (pos >>> 6);
+        int e = superExcess[s];
+        for (int i = s * WORDS_PER_SUPER; i < w; i++)
+            e += 2 * Long.bitCount(bits[i]) - 64;
+        int used = (int) (pos & 63) + 1;
+        long mask = -1L >>> (64 - used);
+        return e + 2 * Long.bitCount(bits[w] & mask) - used;
+    }
+
+    // Returns the number of closes at positions 0 to pos
+    private long closesUpTo(long pos) {
+        return (pos + 1 - excess(pos)) / 2;
+    }
+
+    // Returns the number of closes before superblock s
+    private long closesBefore(int s) {
+        return (((long) s << SUPER_SHIFT) - superExcess[s]) / 2;
+    }
+
+    // Returns the position of the k-th close (k >= 1), that is, of key k - 1
+    private long select(int k) {
+        int rank = k - 1;              // number of closes before it
+        int g = rank / GROUP;
+        int r = rank % GROUP;
+        if (groupSparse[g] >= 0) return Integer.toUnsignedLong(sparse[groupSparse[g] + r]);
+        long start = Integer.toUnsignedLong(selectSample[g]);
+        if (r == 0) return start;
+
+        // the close is less than SPARSE_SPAN bits after start: find its
+        // superblock by binary search, and then its word
+        int lo = (int) (start >>> SUPER_SHIFT);
+        int hi = (int) (Math.min(m - 1, start + SPARSE_SPAN) >>> SUPER_SHIFT);
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (closesBefore(mid) <= rank) lo = mid;
+            else hi = mid - 1;
+        }
+        long before = closesBefore(lo);
+        int w = lo * WORDS_PER_SUPER;
+        while (true) {
+            int zeros = Long.bitCount(~bits[w]);
+            if (before + zeros > rank) break;
+            before += zeros;
+            w++;
+        }
+        long word = ~bits[w];
+        for (long i = before; i < rank; i++) word &= word - 1;
+        return 64L * w + Long.numberOfTrailingZeros(word);
+    }
+
+
+    /**************************************************************************
+     * Range minimum query on the excess
+     *************************************************************************/
+
+    // Returns the leftmost position of minimum excess from l to r
+    private long minExcess(long l, long r) {
+        int sl = (int) (l >>> SUPER_SHIFT);
+        int sr = (int) (r >>> SUPER_SHIFT);
+        if (sl == sr) return scan(l, r);
+
+        long best = scan(l, ((long) sl + 1 << SUPER_SHIFT) - 1);
+        int bestExcess = excess(best);
+        if (sr - sl > 1) {
+            int lo = sl + 1;
+            int hi = sr - 1;
+            int k = log2(hi - lo + 1);
+            int s1 = lo + sparseTable(lo, k);
+            int s2 = hi - (1 << k) + 1 + sparseTable(hi - (1 << k) + 1, k);
+            int s = superMin[s1] <= superMin[s2] ? s1 : s2;
+            if (superMin[s] < bestExcess) {
+                long start = (long) s << SUPER_SHIFT;
+                best = scan(start, start + (1 << SUPER_SHIFT) - 1);
+                bestExcess = superMin[s];
+            }
+        }
+        long right = scan((long) sr << SUPER_SHIFT, r);
+        if (excess(right) < bestExcess) best = right;
+        return best;
+    }
+
+    /**
+     * Returns the leftmost position of minimum excess from l to r, within
+     * one superblock. Whole words whose minimum cannot beat the best so far
+     * are skipped, and the others are scanned a byte at a time with tables.
+     */
+    private long scan(long l, long r) {
+        int e = l == 0 ? 0 : excess(l - 1);
+        int bestExcess = Integer.MAX_VALUE;
+        long best = l;
+        long pos = l;
+        while (pos <= r && (pos & 7) != 0) {
+            e += ((bits[(int) (pos >>> 6)] >>> pos) & 1) == 1 ? 1 : -1;
+            if (e < bestExcess) {
+                bestExcess = e;
+                best = pos;
+            }
+            pos++;
+        }
+        while (pos + 7 <= r) {
+            long word = bits[(int) (pos >>> 6)];
+            if ((pos & 63) == 0 && pos + 63 <= r) {
+                if (e + wordMin[(int) (pos >>> 6)] >= bestExcess) {
+                    e += 2 * Long.bitCount(word) - 64;
+                    pos += 64;
+                    continue;
+                }
+            }
+            int b = (int) (word >>> (pos & 63)) & 0xff;
+            if (e + BYTE_MIN[b] < bestExcess) {
+                bestExcess = e + BYTE_MIN[b];
+                best = pos + BYTE_MIN_POS[b];
+            }
+            e += BYTE_EXCESS[b];
+            pos += 8;
+        }
+        while (pos <= r) {
+            e += ((bits[(int) (pos >>> 6)] >>> pos) & 1) == 1 ? 1 : -1;
+            if (e < bestExcess) {
+                bestExcess = e;
+                best = pos;
+            }
+            pos++;
+        }
+        return best;
+    }
+
+
+    /**************************************************************************
+     * Benchmark
+     *************************************************************************/
+
+    /**
+     * Compares the memory used and the time per query of RangeMinimumQuery
+     * and SuccinctRangeMinimumQuery over 2^24 random ints, with random
+     * ranges of random lengths.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(0);
+        int[] a = new int[1 << 24];
+        for (int i = 0; i < a.length; i++) a[i] = random.nextInt();
+        int[] lo = new int[1 << 20];
+        int[] hi = new int[lo.length];
+        for (int i = 0; i < lo.length; i++) {
+            int x = random.nextInt(a.length);
+            int y = random.nextInt(a.length);
+            lo[i] = Math.min(x, y);
+            hi[i] = Math.max(x, y);
+        }
+        RangeMinimumQuery rmq = new RangeMinimumQuery(a);
+        SuccinctRangeMinimumQuery succinct = new SuccinctRangeMinimumQuery(a);
+
+        long[] best = {Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int rep = 0; rep < 8; rep++) {
+            long t0 = System.nanoTime();
+            long sum = 0;
+            for (int i = 0; i < lo.length; i++) sum += rmq.minIdx(lo[i], hi[i]);
+            long t1 = System.nanoTime();
+            for (int i = 0; i < lo.length; i++) sum += succinct.minIdx(lo[i], hi[i]);
+            long t2 = System.nanoTime();
+            sink += sum;
+
+            // the first three rounds warm up the JIT
+            if (rep < 3) continue;
+            best[0] = Math.min(best[0], t1 - t0);
+            best[1] = Math.min(best[1], t2 - t1);
+        }
+        System.out.printf("n = %d%n", a.length);
+        System.out.printf("RangeMinimumQuery:         %6.2f bits per key, %.1f ns per query%n",
+                          8.0 * rmq.memoryFootprintBytes() / a.length,
+                          (double) best[0] / lo.length);
+        System.out.printf("SuccinctRangeMinimumQuery: %6.2f bits per key, %.1f ns per query%n",
+                          8.0 * succinct.memoryFootprintBytes() / a.length,
+                          (double) best[1] / lo.length);
+    }
+
+    // results of the queries are accumulated so that the JIT can't discard them
+    private static long sink;
+}
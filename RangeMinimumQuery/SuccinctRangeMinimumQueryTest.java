@@ -0,0 +1,126 @@
+import junit.framework.TestCase;
+import java.util.Comparator;
+import java.util.Random;
+
+public class SuccinctRangeMinimumQueryTest extends TestCase {
+    
+    private Random random = new Random(17);
+    
+    public void testInts() {
+        // within a word, a superblock, and many superblocks; with many duplicates
+        for (int len : new int[] {1, 2, 31, 200, 257, 1500}) {
+            for (int range : new int[] {3, 1 << 30}) {
+                int[] nums = new int[len];
+                for (int i = 0; i < len; i++) nums[i] = random.nextInt(range);
+                checkAll(new SuccinctRangeMinimumQuery(nums), nums);
+            }
+        }
+    }
+    
+    public void testMonotoneArrays() {
+        // a decreasing array opens all its nodes at once, so its closes are
+        // far apart; an increasing one alternates opens and closes
+        int len = 70000;
+        int[] decreasing = new int[len];
+        int[] increasing = new int[len];
+        for (int i = 0; i < len; i++) {
+            decreasing[i] = len - i;
+            increasing[i] = i / 2;
+        }
+        SuccinctRangeMinimumQuery down = new SuccinctRangeMinimumQuery(decreasing);
+        SuccinctRangeMinimumQuery up = new SuccinctRangeMinimumQuery(increasing);
+        for (int t = 0; t < 20000; t++) {
+            int i = random.nextInt(len);
+            int j = i + random.nextInt(len - i);
+            assertEquals(down.minIdx(i, j), j);
+            assertEquals(up.minIdx(i, j), i);
+        }
+    }
+    
+    public void testSparseCloses() {
+        // a short increasing run and then a long decreasing one of larger
+        // keys: the subtrees of the decreasing keys all start after the
+        // increasing ones, so tens of thousands of opens separate two closes
+        int len = 100 + 70000;
+        int[] nums = new int[len];
+        for (int i = 0; i < len; i++) nums[i] = i < 100 ? i : 100000 + len - i;
+        SuccinctRangeMinimumQuery rmq = new SuccinctRangeMinimumQuery(nums);
+        for (int t = 0; t < 20000; t++) {
+            int i = random.nextInt(len);
+            int j = i + random.nextInt(len - i);
+            assertEquals(rmq.minIdx(i, j), i < 100 ? i : j);
+        }
+    }
+    
+    public void testLargeRandom() {
+        int len = 200000;
+        int[] nums = new int[len];
+        for (int i = 0; i < len; i++) nums[i] = random.nextInt(1000);
+        RangeMinimumQuery rmq = new RangeMinimumQuery(nums);
+        SuccinctRangeMinimumQuery succinct = new SuccinctRangeMinimumQuery(nums);
+        for (int t = 0; t < 50000; t++) {
+            int i = random.nextInt(len);
+            int j = i + random.nextInt(t % 2 == 0 ? 600 : len - i);
+            j = Math.min(j, len - 1);
+            assertEquals(succinct.minIdx(i, j), rmq.minIdx(i, j));
+        }
+        assertTrue(succinct.memoryFootprintBytes() < len / 2);
+    }
+    
+    public void testOtherTypes() {
+        int len = 300;
+        long[] longs = new long[len];
+        double[] doubles = new double[len];
+        String[] keys = new String[len];
+        for (int i = 0; i < len; i++) {
+            longs[i] = random.nextInt(40) * 10000000000L;
+            doubles[i] = longs[i] / 1e10 - 20;
+            keys[i] = Long.toString(longs[i]);
+        }
+        doubles[5] = -0.0;
+        doubles[6] = 0.0;
+        doubles[70] = Double.NaN;
+        SuccinctRangeMinimumQuery rmqLong = new SuccinctRangeMinimumQuery(longs);
+        SuccinctRangeMinimumQuery rmqDouble = new SuccinctRangeMinimumQuery(doubles);
+        SuccinctRangeMinimumQuery rmqKey = new SuccinctRangeMinimumQuery(keys);
+        SuccinctRangeMinimumQuery rmqReverse = new SuccinctRangeMinimumQuery(keys, Comparator.reverseOrder());
+        for (int i = 0; i < len; i++) {
+            int minLong = i, minDouble = i, minKey = i, maxKey = i;
+            for (int j = i; j < len; j++) {
+                if (longs[j] < longs[minLong]) minLong = j;
+                if (Double.compare(doubles[j], doubles[minDouble]) < 0) minDouble = j;
+                if (keys[j].compareTo(keys[minKey]) < 0) minKey = j;
+                if (keys[j].compareTo(keys[maxKey]) > 0) maxKey = j;
+                assertEquals(rmqLong.minIdx(i, j), minLong);
+                assertEquals(rmqDouble.minIdx(i, j), minDouble);
+                assertEquals(rmqKey.minIdx(i, j), minKey);
+                assertEquals(rmqReverse.minIdx(i, j), maxKey);
+            }
+        }
+    }
+    
+    public void testBadArguments() {
+        SuccinctRangeMinimumQuery rmq = new SuccinctRangeMinimumQuery(new int[] {3, 1, 2});
+        int[][] bad = {{-1, 1}, {0, 3}, {2, 1}};
+        for (int[] range : bad) {
+            try {
+                rmq.minIdx(range[0], range[1]);
+                fail();
+            }
+            catch (IllegalArgumentException e) { }
+        }
+        assertEquals(new SuccinctRangeMinimumQuery(new int[0]).size(), 0);
+    }
+    
+    // compares every range with a linear scan for the leftmost minimum
+    private static void checkAll(SuccinctRangeMinimumQuery rmq, int[] nums) {
+        assertEquals(rmq.size(), nums.length);
+        for (int i = 0; i < nums.length; i++) {
+            int min = i;
+            for (int j = i; j < nums.length; j++) {
+                if (nums[j] < nums[min]) min = j;
+                assertEquals(rmq.minIdx(i, j), min);
+            }
+        }
+    }
+}